@@ -7,7 +7,10 @@ import cn.icuter.jsql.dialect.Dialect;
 import cn.icuter.jsql.dialect.Dialects;
 import cn.icuter.jsql.exception.ExecutionException;
 import cn.icuter.jsql.exception.JSQLException;
+import cn.icuter.jsql.exception.JSQLRuntimeException;
 import cn.icuter.jsql.executor.JdbcExecutor;
+import cn.icuter.jsql.executor.JdbcOperation;
+import cn.icuter.jsql.executor.RowHandler;
 import cn.icuter.jsql.security.Injections;
 
 import java.io.IOException;
@@ -17,7 +20,9 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author edward
@@ -33,6 +38,7 @@ public abstract class AbstractBuilder implements Builder {
     private List<Object> preparedValueList;
     private int offset;
     private int limit;
+    private int fetchSize;
     protected Dialect dialect;
 
     public AbstractBuilder() {
@@ -50,6 +56,7 @@ public abstract class AbstractBuilder implements Builder {
         builderContext.dialect = dialect;
         builderContext.offset = offset;
         builderContext.limit = limit;
+        builderContext.fetchSize = fetchSize;
         builderContext.builder = this;
     }
 
@@ -229,6 +236,13 @@ public abstract class AbstractBuilder implements Builder {
         return this;
     }
 
+    @Override
+    public Builder fetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        builderContext.fetchSize = fetchSize;
+        return this;
+    }
+
     @Override
     public Builder sql(String sql) {
         sqlStringBuilder.append(sql);
@@ -466,6 +480,28 @@ public abstract class AbstractBuilder implements Builder {
         return executor.execQuery(this);
     }
 
+    @Override
+    public <E> Stream<E> execQueryStream(JdbcExecutor executor, Class<E> clazz) throws JSQLException {
+        if (!(this instanceof DQLBuilder) && !(this instanceof SQLBuilder)) {
+            throw new ExecutionException("class of " + this.getClass().getName() + " do not allow execQueryStream");
+        }
+        if (!builderContext.hasBuilt()) {
+            build();
+        }
+        return executor.execQueryStream(this, clazz);
+    }
+
+    @Override
+    public <E> void execQuery(JdbcExecutor executor, Class<E> clazz, RowHandler<? super E> handler) throws JSQLException {
+        if (!(this instanceof DQLBuilder) && !(this instanceof SQLBuilder)) {
+            throw new ExecutionException("class of " + this.getClass().getName() + " do not allow execQuery");
+        }
+        if (!builderContext.hasBuilt()) {
+            build();
+        }
+        executor.execQuery(this, clazz, handler);
+    }
+
     @Override
     public int execUpdate() throws JSQLException {
         try (JdbcExecutor jdbcExecutor = provideClosableExecutor()) {
@@ -491,10 +527,56 @@ public abstract class AbstractBuilder implements Builder {
         }
     }
 
+    @Override
+    public <E> Stream<E> execQueryStream(Class<E> clazz) throws JSQLException {
+        JdbcExecutor jdbcExecutor = provideClosableExecutor();
+        try {
+            return execQueryStream(jdbcExecutor, clazz).onClose(() -> {
+                try {
+                    jdbcExecutor.close();
+                } catch (IOException e) {
+                    throw new JSQLRuntimeException(e);
+                }
+            });
+        } catch (JSQLException | RuntimeException e) {
+            try {
+                jdbcExecutor.close();
+            } catch (IOException ex) {
+                e.addSuppressed(ex);
+            }
+            throw e;
+        }
+    }
+    @Override
+    public <E> void execQuery(Class<E> clazz, RowHandler<? super E> handler) throws JSQLException {
+        try (JdbcExecutor jdbcExecutor = provideClosableExecutor()) {
+            execQuery(jdbcExecutor, clazz, handler);
+        } catch (IOException e) {
+            throw new JSQLException(e);
+        }
+    }
+
+    @Override
+    public <E> CompletableFuture<List<E>> execQueryAsync(Class<E> clazz) {
+        return submitOperation(executor -> execQuery(executor, clazz));
+    }
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> execQueryAsync() {
+        return submitOperation(this::execQuery);
+    }
+    @Override
+    public CompletableFuture<Integer> execUpdateAsync() {
+        return submitOperation(this::execUpdate);
+    }
+
     protected JdbcExecutor provideClosableExecutor() {
         throw new UnsupportedOperationException();
     }
 
+    protected <R> CompletableFuture<R> submitOperation(JdbcOperation<R> operation) {
+        throw new UnsupportedOperationException();
+    }
+
     protected void addCondition(Condition... conditions) {
         addCondition(Arrays.asList(conditions));
     }
@@ -3,6 +3,7 @@ package cn.icuter.jsql.builder;
 import cn.icuter.jsql.condition.Condition;
 import cn.icuter.jsql.condition.Eq;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -35,6 +36,15 @@ public interface Builder extends ConditionBuilder, ExecutableBuilder {
 
     Builder limit(int limit);
 
+    /**
+     * Hint for driver of the number of rows fetched per round trip while reading query result, 0 means the default
+     * of driver
+     *
+     * @param fetchSize rows fetched per round trip
+     * @return this builder
+     */
+    Builder fetchSize(int fetchSize);
+
     Builder sql(String sql);
 
     Builder build();
@@ -70,6 +80,13 @@ public interface Builder extends ConditionBuilder, ExecutableBuilder {
     default <T> Builder values(T value, FieldInterceptor<T> interceptor) {
         throw new UnsupportedOperationException();
     }
+    default List<Builder> multiValues(Collection<?> rows) {
+        throw new UnsupportedOperationException();
+    }
+    // Upsert Builder
+    default Builder upsert(String tableName, String... keyColumns) {
+        throw new UnsupportedOperationException();
+    }
     // Update Builder
     default Builder update(String tableName) {
         throw new UnsupportedOperationException();
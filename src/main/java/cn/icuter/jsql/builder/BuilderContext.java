@@ -15,6 +15,7 @@ public class BuilderContext {
     SQLStringBuilder sqlStringBuilder;
     int offset;
     int limit;
+    int fetchSize;
     boolean hasOrderBy;
     int sqlLevel;
     Builder builder;
@@ -38,6 +39,10 @@ public class BuilderContext {
         return limit;
     }
 
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
     public int getForUpdatePosition() {
         List<SQLStringBuilder.SQLItem> itemList = sqlStringBuilder.findByType("for-update");
         if (!itemList.isEmpty()) {
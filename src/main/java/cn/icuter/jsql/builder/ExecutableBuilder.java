@@ -2,9 +2,12 @@ package cn.icuter.jsql.builder;
 
 import cn.icuter.jsql.exception.JSQLException;
 import cn.icuter.jsql.executor.JdbcExecutor;
+import cn.icuter.jsql.executor.RowHandler;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * @author edward
@@ -18,7 +21,30 @@ public interface ExecutableBuilder {
     List<Map<String, Object>> execQuery(JdbcExecutor executor) throws JSQLException;
     List<Map<String, Object>> execQuery() throws JSQLException;
 
+    /**
+     * Query rows lazily, see {@link JdbcExecutor#execQueryStream(Builder, Class)}
+     */
+    <E> Stream<E> execQueryStream(JdbcExecutor executor, Class<E> clazz) throws JSQLException;
+    /**
+     * Query rows lazily with a connection of data source, which is released on closing the stream
+     */
+    <E> Stream<E> execQueryStream(Class<E> clazz) throws JSQLException;
+
+    <E> void execQuery(JdbcExecutor executor, Class<E> clazz, RowHandler<? super E> handler) throws JSQLException;
+    <E> void execQuery(Class<E> clazz, RowHandler<? super E> handler) throws JSQLException;
+
     int execUpdate(JdbcExecutor executor) throws JSQLException;
     int execUpdate() throws JSQLException;
 
+    /**
+     * Query rows asynchronously with a connection of data source, the calling thread never waits for connection or IO
+     */
+    <E> CompletableFuture<List<E>> execQueryAsync(Class<E> clazz);
+    CompletableFuture<List<Map<String, Object>>> execQueryAsync();
+
+    /**
+     * Update asynchronously with a connection of data source, the calling thread never waits for connection or IO
+     */
+    CompletableFuture<Integer> execUpdateAsync();
+
 }
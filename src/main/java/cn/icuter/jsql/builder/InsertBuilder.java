@@ -4,11 +4,14 @@ import cn.icuter.jsql.condition.Cond;
 import cn.icuter.jsql.condition.Condition;
 import cn.icuter.jsql.condition.Eq;
 import cn.icuter.jsql.dialect.Dialect;
+import cn.icuter.jsql.executor.JdbcExecutor;
 import cn.icuter.jsql.orm.ORMapper;
 import cn.icuter.jsql.security.Injections;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +24,9 @@ import java.util.stream.Collectors;
  */
 public class InsertBuilder extends AbstractBuilder implements DMLBuilder {
 
+    private String tableName;
+    private String[] columns;
+
     public InsertBuilder() {
     }
 
@@ -36,6 +42,8 @@ public class InsertBuilder extends AbstractBuilder implements DMLBuilder {
             Injections.check(columns, dialect.getQuoteString());
             sqlStringBuilder.append("(" + String.join(",", columns) + ")");
         }
+        this.tableName = tableName;
+        this.columns = columns;
         return this;
     }
 
@@ -102,4 +110,46 @@ public class InsertBuilder extends AbstractBuilder implements DMLBuilder {
                 .collect(LinkedList::new, LinkedList::add, LinkedList::addAll);
         return values(eqList.toArray(new Eq[0]));
     }
+
+    /**
+     * Insert rows by multi-row insert <code>insert into t(a,b) values(?,?),(?,?)</code> in chunks if dialect
+     * supports it, chunk size is limited by {@link Dialect#maxParameterCount()} and {@link Dialect#maxInsertRowCount()},
+     * otherwise, one row per builder.
+     * <br>
+     * Row is one of entity, Map, List or array of values. Columns are those of {@link #insert(String, String...)},
+     * or resolved from the first row of entity or Map, and every row must have the same columns. Null values of entity
+     * are inserted as well, unlike {@link #values(Object)}.
+     *
+     * @param rows rows to insert
+     * @return built builders of chunks, which could be executed by {@link JdbcExecutor#execBatch(List)}
+     */
+    @Override
+    public List<Builder> multiValues(Collection<?> rows) {
+        if (tableName == null) {
+            throw new IllegalArgumentException("insert table must be defined before values! ");
+        }
+        MultiRows multiRows = MultiRows.of(rows, columns, dialect);
+        List<List<Object[]>> chunks = multiRows.chunks(dialect, dialect.supportMultiRowInsert());
+        List<Builder> builders = new ArrayList<>(chunks.size());
+        for (List<Object[]> chunk : chunks) {
+            String rowPlaceHolder = "(" + createPlaceHolder(chunk.get(0).length) + ")";
+            InsertBuilder builder = newInsertBuilder();
+            builder.insert(tableName, multiRows.getColumns());
+            builder.sqlStringBuilder.append("values" + String.join(",", Collections.nCopies(chunk.size(), rowPlaceHolder)));
+            for (Object[] values : chunk) {
+                builder.value(values);
+            }
+            builders.add(builder.build());
+        }
+        return builders;
+    }
+
+    /**
+     * Create builder of chunk for {@link #multiValues(Collection)}
+     *
+     * @return new builder with the same dialect
+     */
+    protected InsertBuilder newInsertBuilder() {
+        return new InsertBuilder(dialect);
+    }
 }
@@ -0,0 +1,161 @@
+package cn.icuter.jsql.builder;
+
+import cn.icuter.jsql.dialect.Dialect;
+import cn.icuter.jsql.orm.ORMapper;
+import cn.icuter.jsql.security.Injections;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Values of rows for multi-row statements, and chunks of rows limited by dialect.
+ * <br>
+ * Row is one of entity, Map, List or array of values. Columns are the given ones, or resolved from the first row of
+ * entity or Map, and every row must have the same columns, that is, keys of Map row must be exactly the columns, and
+ * entity row must have all of the columns.
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+final class MultiRows {
+
+    private final String[] columns;
+    private final List<Object[]> valueList;
+
+    private MultiRows(String[] columns, List<Object[]> valueList) {
+        this.columns = columns;
+        this.valueList = valueList;
+    }
+
+    /**
+     * @param rows rows of entity, Map, List or array
+     * @param columns columns of rows, resolved from the first row if null or empty
+     * @param dialect dialect to check columns
+     * @return values of rows
+     */
+    static MultiRows of(Collection<?> rows, String[] columns, Dialect dialect) {
+        if (rows == null || rows.isEmpty()) {
+            throw new IllegalArgumentException("rows must not be null or empty! ");
+        }
+        Iterator<?> iterator = rows.iterator();
+        Object first = iterator.next();
+        String[] rowColumns = columns;
+        if ((rowColumns == null || rowColumns.length <= 0) && !isValueList(first)) {
+            rowColumns = toMap(first).keySet().toArray(new String[0]);
+            Injections.check(rowColumns, dialect.getQuoteString());
+        }
+        List<Object[]> valueList = new ArrayList<>(rows.size());
+        valueList.add(toValues(first, rowColumns));
+        int width = valueList.get(0).length;
+        while (iterator.hasNext()) {
+            Object[] values = toValues(iterator.next(), rowColumns);
+            if (values.length != width) {
+                throw new IllegalArgumentException("rows must have the same number of values, expect " + width
+                        + " but " + values.length);
+            }
+            valueList.add(values);
+        }
+        return new MultiRows(rowColumns, valueList);
+    }
+
+    /**
+     * @return columns of rows, or null if rows are values without columns
+     */
+    String[] getColumns() {
+        return columns;
+    }
+
+    /**
+     * Merge rows with the same values of key columns, values of the last row win and the merged row takes the place of
+     * the first one, as a statement like <code>merge</code> or <code>on conflict do update</code> rejects a row affected
+     * twice.
+     *
+     * @param keyColumns key columns of rows
+     * @return rows without duplicate keys
+     */
+    MultiRows distinct(String[] keyColumns) {
+        List<String> columnList = Arrays.asList(columns);
+        int[] keyIndexes = Arrays.stream(keyColumns).mapToInt(columnList::indexOf).toArray();
+        Map<List<Object>, Object[]> distinctRows = new LinkedHashMap<>(valueList.size() * 4 / 3 + 1);
+        for (Object[] values : valueList) {
+            List<Object> key = new ArrayList<>(keyIndexes.length);
+            for (int keyIndex : keyIndexes) {
+                key.add(values[keyIndex]);
+            }
+            distinctRows.put(key, values);
+        }
+        if (distinctRows.size() == valueList.size()) {
+            return this;
+        }
+        return new MultiRows(columns, new ArrayList<>(distinctRows.values()));
+    }
+
+    /**
+     * Split rows into chunks, each of which has at most {@link Dialect#maxInsertRowCount()} rows and
+     * {@link Dialect#maxParameterCount()} values
+     *
+     * @param dialect dialect of statement
+     * @param multiRow whether statement of dialect supports multiple rows
+     * @return chunks of row values
+     */
+    List<List<Object[]>> chunks(Dialect dialect, boolean multiRow) {
+        int chunkRows = 1;
+        if (multiRow) {
+            int width = Math.max(1, valueList.get(0).length);
+            chunkRows = Math.max(1, Math.min(dialect.maxInsertRowCount(), dialect.maxParameterCount() / width));
+        }
+        List<List<Object[]>> chunks = new ArrayList<>((valueList.size() + chunkRows - 1) / chunkRows);
+        for (int from = 0; from < valueList.size(); from += chunkRows) {
+            chunks.add(valueList.subList(from, Math.min(valueList.size(), from + chunkRows)));
+        }
+        return chunks;
+    }
+
+    private static boolean isValueList(Object row) {
+        return row instanceof List || row.getClass().isArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> toMap(Object row) {
+        if (row instanceof Map) {
+            return (Map<String, Object>) row;
+        }
+        return ORMapper.of(row).toMap();
+    }
+
+    private static Object[] toValues(Object row, String[] rowColumns) {
+        Objects.requireNonNull(row, "row must not be null");
+        if (row instanceof List) {
+            return ((List<?>) row).toArray();
+        } else if (row.getClass().isArray()) {
+            return (Object[]) row;
+        }
+        Map<String, Object> attrs = toMap(row);
+        checkColumns(row, attrs.keySet(), rowColumns);
+        Object[] values = new Object[rowColumns.length];
+        for (int i = 0; i < rowColumns.length; i++) {
+            values[i] = attrs.get(rowColumns[i]);
+        }
+        return values;
+    }
+
+    private static void checkColumns(Object row, Set<String> keys, String[] rowColumns) {
+        if (rowColumns == null) {
+            throw new IllegalArgumentException("rows must have the same columns, but columns are missing of row " + row);
+        }
+        List<String> columnList = Arrays.asList(rowColumns);
+        boolean sameColumns = row instanceof Map
+                ? keys.size() == rowColumns.length && keys.containsAll(columnList)
+                : keys.containsAll(columnList);
+        if (!sameColumns) {
+            throw new IllegalArgumentException("rows must have the same columns, expect " + columnList + " but " + keys);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package cn.icuter.jsql.builder;
+
+import cn.icuter.jsql.condition.Cond;
+import cn.icuter.jsql.condition.Condition;
+import cn.icuter.jsql.condition.Eq;
+import cn.icuter.jsql.dialect.Dialect;
+import cn.icuter.jsql.executor.JdbcExecutor;
+import cn.icuter.jsql.orm.ORMapper;
+import cn.icuter.jsql.security.Injections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Insert rows, or update the existing ones matched by key columns in one statement, which is compiled by
+ * {@link Dialect#upsertSql(String, String[], String[], int)}, e.g. <code>on conflict do update</code> of PostgreSQL
+ * and SQLite, <code>on duplicate key update</code> of MySQL and MariaDB, and <code>merge</code> of Oracle, SQLServer,
+ * DB2 and H2.
+ * <br>
+ * Key columns should be a primary key or unique key, and are not updated.
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+public class UpsertBuilder extends AbstractBuilder implements DMLBuilder {
+
+    private String tableName;
+    private String[] keyColumns;
+
+    public UpsertBuilder() {
+    }
+
+    public UpsertBuilder(Dialect dialect) {
+        super(dialect);
+    }
+
+    @Override
+    public Builder upsert(String tableName, String... keyColumns) {
+        if (keyColumns == null || keyColumns.length <= 0) {
+            throw new IllegalArgumentException("key columns must not be null or empty! ");
+        }
+        Injections.check(tableName, dialect.getQuoteString());
+        Injections.check(keyColumns, dialect.getQuoteString());
+        this.tableName = tableName;
+        this.keyColumns = keyColumns;
+        return this;
+    }
+
+    @Override
+    public Builder values(Eq... values) {
+        if (values == null || values.length <= 0) {
+            throw new IllegalArgumentException("values must not be null or empty! ");
+        }
+        String[] columns = Arrays.stream(values).map(Condition::getField).toArray(String[]::new);
+        sqlStringBuilder.append(upsertSql(columns, 1));
+        addCondition(values);
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Builder values(Object values) {
+        Objects.requireNonNull(values, "values must not be null");
+        if (values instanceof Map) {
+            Map<Object, Object> attrs = (Map<Object, Object>) values;
+            List<Eq> conditionList = attrs.entrySet().stream()
+                    .map(e -> Cond.eq(e.getKey().toString(), e.getValue()))
+                    .collect(LinkedList::new, LinkedList::add, LinkedList::addAll);
+            return values(conditionList.toArray(new Eq[0]));
+        } else if (values instanceof Collection) {
+            return values(((Collection<Eq>) values).toArray(new Eq[0]));
+        } else if (values instanceof Eq) {
+            return values(new Eq[]{(Eq) values});
+        } else {
+            return valuesMap(ORMapper.of(values).toMapIgnoreNullValue());
+        }
+    }
+
+    @Override
+    public <T> Builder values(T value, FieldInterceptor<T> interceptor) {
+        return valuesMap(ORMapper.of(value).toMap(interceptor));
+    }
+
+    private Builder valuesMap(Map<String, Object> attrs) {
+        List<Eq> eqList = attrs.entrySet().stream()
+                .map(e -> Cond.eq(e.getKey(), e.getValue()))
+                .collect(LinkedList::new, LinkedList::add, LinkedList::addAll);
+        return values(eqList.toArray(new Eq[0]));
+    }
+
+    /**
+     * Upsert rows in chunks, chunk size is limited by {@link Dialect#maxParameterCount()} and
+     * {@link Dialect#maxInsertRowCount()}.
+     * <br>
+     * Row is entity or Map, columns are resolved from the first row, and every row must have the same columns. Null
+     * values of entity are upserted as well, unlike {@link #values(Object)}.
+     * <br>
+     * Rows with the same key values are merged into one with values of the last row, since most of dialects reject a
+     * statement affecting the same row twice.
+     *
+     * @param rows rows to upsert
+     * @return built builders of chunks, which could be executed by {@link JdbcExecutor#execBatch(List)}
+     */
+    @Override
+    public List<Builder> multiValues(Collection<?> rows) {
+        if (tableName == null) {
+            throw new IllegalArgumentException("upsert table must be defined before values! ");
+        }
+        MultiRows multiRows = MultiRows.of(rows, null, dialect);
+        String[] columns = multiRows.getColumns();
+        if (columns == null) {
+            throw new IllegalArgumentException("rows of upsert must be entities or maps! ");
+        }
+        checkKeyColumns(columns);
+        List<List<Object[]>> chunks = multiRows.distinct(keyColumns).chunks(dialect, true);
+        List<Builder> builders = new ArrayList<>(chunks.size());
+        for (List<Object[]> chunk : chunks) {
+            UpsertBuilder builder = newUpsertBuilder();
+            builder.upsert(tableName, keyColumns);
+            builder.sqlStringBuilder.append(upsertSql(columns, chunk.size()));
+            for (Object[] values : chunk) {
+                builder.value(values);
+            }
+            builders.add(builder.build());
+        }
+        return builders;
+    }
+
+    /**
+     * Create builder of chunk for {@link #multiValues(Collection)}
+     *
+     * @return new builder with the same dialect
+     */
+    protected UpsertBuilder newUpsertBuilder() {
+        return new UpsertBuilder(dialect);
+    }
+
+    private String upsertSql(String[] columns, int rowCount) {
+        if (tableName == null) {
+            throw new IllegalArgumentException("upsert table must be defined before values! ");
+        }
+        Injections.check(columns, dialect.getQuoteString());
+        checkKeyColumns(columns);
+        return dialect.upsertSql(tableName, columns, keyColumns, rowCount);
+    }
+
+    private void checkKeyColumns(String[] columns) {
+        List<String> columnList = Arrays.asList(columns);
+        for (String keyColumn : keyColumns) {
+            if (!columnList.contains(keyColumn)) {
+                throw new IllegalArgumentException("key column " + keyColumn + " is missing in values " + columnList);
+            }
+        }
+    }
+}
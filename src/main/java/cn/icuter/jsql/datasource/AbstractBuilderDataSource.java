@@ -7,16 +7,30 @@ import cn.icuter.jsql.builder.SQLBuilder;
 import cn.icuter.jsql.builder.SelectBuilder;
 import cn.icuter.jsql.builder.UnionSelectBuilder;
 import cn.icuter.jsql.builder.UpdateBuilder;
+import cn.icuter.jsql.builder.UpsertBuilder;
 import cn.icuter.jsql.dialect.Dialect;
 import cn.icuter.jsql.executor.JdbcExecutor;
+import cn.icuter.jsql.executor.JdbcOperation;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 public abstract class AbstractBuilderDataSource implements BuilderDataSource {
 
     public abstract JdbcExecutor provideExecutor();
     public abstract Dialect provideDialect();
 
+    /**
+     * Execute operation asynchronously for the <code>execQueryAsync</code> and <code>execUpdateAsync</code> of builders
+     *
+     * @param operation jdbc operation with an executor provided by data source
+     * @param <R> result type of operation
+     * @return future completed with the result of operation
+     */
+    public <R> CompletableFuture<R> submit(JdbcOperation<R> operation) {
+        throw new UnsupportedOperationException("asynchronous execution is not supported by " + getClass().getName());
+    }
+
     @Override
     public Builder select(String... cols) {
         return new ExecutableSelectBuilder(provideDialect()).select(cols);
@@ -30,6 +44,10 @@ public abstract class AbstractBuilderDataSource implements BuilderDataSource {
         return new ExecutableInsertBuilder(provideDialect()).insert(table, columns);
     }
     @Override
+    public Builder upsert(String table, String... keyColumns) {
+        return new ExecutableUpsertBuilder(provideDialect()).upsert(table, keyColumns);
+    }
+    @Override
     public Builder delete() {
         return new ExecutableDeleteBuilder(provideDialect()).delete();
     }
@@ -62,6 +80,10 @@ public abstract class AbstractBuilderDataSource implements BuilderDataSource {
         protected JdbcExecutor provideClosableExecutor() {
             return provideExecutor();
         }
+        @Override
+        protected <R> CompletableFuture<R> submitOperation(JdbcOperation<R> operation) {
+            return submit(operation);
+        }
     }
     class ExecutableUpdateBuilder extends UpdateBuilder {
         ExecutableUpdateBuilder(Dialect dialect) {
@@ -71,6 +93,10 @@ public abstract class AbstractBuilderDataSource implements BuilderDataSource {
         protected JdbcExecutor provideClosableExecutor() {
             return provideExecutor();
         }
+        @Override
+        protected <R> CompletableFuture<R> submitOperation(JdbcOperation<R> operation) {
+            return submit(operation);
+        }
     }
     class ExecutableInsertBuilder extends InsertBuilder {
         ExecutableInsertBuilder(Dialect dialect) {
@@ -80,6 +106,31 @@ public abstract class AbstractBuilderDataSource implements BuilderDataSource {
         protected JdbcExecutor provideClosableExecutor() {
             return provideExecutor();
         }
+        @Override
+        protected <R> CompletableFuture<R> submitOperation(JdbcOperation<R> operation) {
+            return submit(operation);
+        }
+        @Override
+        protected InsertBuilder newInsertBuilder() {
+            return new ExecutableInsertBuilder(dialect);
+        }
+    }
+    class ExecutableUpsertBuilder extends UpsertBuilder {
+        ExecutableUpsertBuilder(Dialect dialect) {
+            super(dialect);
+        }
+        @Override
+        protected JdbcExecutor provideClosableExecutor() {
+            return provideExecutor();
+        }
+        @Override
+        protected <R> CompletableFuture<R> submitOperation(JdbcOperation<R> operation) {
+            return submit(operation);
+        }
+        @Override
+        protected UpsertBuilder newUpsertBuilder() {
+            return new ExecutableUpsertBuilder(dialect);
+        }
     }
     class ExecutableDeleteBuilder extends DeleteBuilder {
         ExecutableDeleteBuilder(Dialect dialect) {
@@ -89,12 +140,20 @@ public abstract class AbstractBuilderDataSource implements BuilderDataSource {
         protected JdbcExecutor provideClosableExecutor() {
             return provideExecutor();
         }
+        @Override
+        protected <R> CompletableFuture<R> submitOperation(JdbcOperation<R> operation) {
+            return submit(operation);
+        }
     }
     class ExecutableSQLBuilder extends SQLBuilder {
         @Override
         protected JdbcExecutor provideClosableExecutor() {
             return provideExecutor();
         }
+        @Override
+        protected <R> CompletableFuture<R> submitOperation(JdbcOperation<R> operation) {
+            return submit(operation);
+        }
     }
     class ExecutableUnionSelectBuilder extends UnionSelectBuilder {
         ExecutableUnionSelectBuilder(Dialect dialect, boolean isUnionAll, Builder... builders) {
@@ -107,6 +166,10 @@ public abstract class AbstractBuilderDataSource implements BuilderDataSource {
         protected JdbcExecutor provideClosableExecutor() {
             return provideExecutor();
         }
+        @Override
+        protected <R> CompletableFuture<R> submitOperation(JdbcOperation<R> operation) {
+            return submit(operation);
+        }
     }
 
 }
@@ -8,6 +8,7 @@ public interface BuilderDataSource {
     Builder select(String... cols);
     Builder update(String table);
     Builder insert(String table, String... columns);
+    Builder upsert(String table, String... keyColumns);
     Builder delete();
     Builder sql(String sql, Object... values);
     Builder union(Builder... builders);
@@ -5,10 +5,14 @@ import cn.icuter.jsql.exception.JSQLException;
 import cn.icuter.jsql.exception.PoolCloseException;
 import cn.icuter.jsql.exception.ReturnObjectException;
 import cn.icuter.jsql.pool.ObjectPool;
+import cn.icuter.jsql.pool.PoolStats;
 
 import javax.sql.ConnectionEventListener;
 import javax.sql.StatementEventListener;
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.Consumer;
 
 /**
  * @author edward
@@ -18,27 +22,50 @@ public class ConnectionPool implements javax.sql.PooledConnection {
 
     private final ObjectPool<Connection> pool;
 
-    ConnectionPool(ObjectPool<Connection> pool) {
+    public ConnectionPool(ObjectPool<Connection> pool) {
         this.pool = pool;
     }
 
     @Override
     public Connection getConnection() {
+        Connection connection = null;
         try {
-            return pool.borrowObject();
-        } catch (JSQLException e) {
+            connection = pool.borrowObject();
+            PooledConnection.resetSessionState(connection, true);
+            return connection;
+        } catch (SQLException e) {
+            if (connection != null) {
+                // broken connection is invalidated on returning
+                returnConnection(connection);
+            }
             throw new BorrowObjectException("getting Connection error", e);
         }
     }
 
     public void returnConnection(Connection conn) {
         try {
-            pool.returnObject(conn);
+            if (conn instanceof PooledConnection) {
+                pool.returnPooledObject(((PooledConnection) conn).pooledObject);
+            } else {
+                pool.returnObject(conn);
+            }
         } catch (JSQLException e) {
             throw new ReturnObjectException("returning Connection error", e);
         }
     }
 
+    public PoolStats getPoolStats() {
+        return pool.getPoolStats();
+    }
+
+    public PoolConfiguration getPoolConfiguration() {
+        return pool.getPoolConfiguration();
+    }
+
+    public void reconfigure(Consumer<PoolConfiguration> updater) {
+        pool.reconfigure(updater);
+    }
+
     @Override
     public void close() {
         try {
@@ -48,6 +75,14 @@ public class ConnectionPool implements javax.sql.PooledConnection {
         }
     }
 
+    public void close(Duration drainTimeout) {
+        try {
+            pool.close(drainTimeout);
+        } catch (JSQLException e) {
+            throw new PoolCloseException("closing ConnectionPool error", e);
+        }
+    }
+
     @Override
     public void addConnectionEventListener(ConnectionEventListener listener) {
     }
@@ -1,5 +1,6 @@
 package cn.icuter.jsql.datasource;
 
+import cn.icuter.jsql.builder.Builder;
 import cn.icuter.jsql.data.JSQLBlob;
 import cn.icuter.jsql.data.JSQLClob;
 import cn.icuter.jsql.data.JSQLNClob;
@@ -9,14 +10,19 @@ import cn.icuter.jsql.dialect.UnknownDialect;
 import cn.icuter.jsql.exception.DataSourceException;
 import cn.icuter.jsql.executor.CloseableJdbcExecutor;
 import cn.icuter.jsql.executor.JdbcExecutor;
+import cn.icuter.jsql.executor.JdbcOperation;
 import cn.icuter.jsql.executor.TransactionExecutor;
 import cn.icuter.jsql.log.JSQLLogger;
 import cn.icuter.jsql.log.Logs;
+import cn.icuter.jsql.pool.ConcurrentObjectPool;
 import cn.icuter.jsql.pool.DefaultObjectPool;
+import cn.icuter.jsql.pool.KeyedObjectPool;
 import cn.icuter.jsql.pool.ObjectPool;
+import cn.icuter.jsql.pool.PoolStats;
 import cn.icuter.jsql.pool.PooledObjectManager;
 import cn.icuter.jsql.transaction.TransactionOperation;
 import cn.icuter.jsql.util.ObjectUtil;
+import cn.icuter.jsql.util.VirtualThreads;
 
 import javax.sql.PooledConnection;
 import java.io.Closeable;
@@ -28,13 +34,26 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.NClob;
 import java.sql.SQLException;
-import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
 
@@ -54,12 +73,37 @@ public class JSQLDataSource extends AbstractBuilderDataSource implements javax.s
     static final String PROP_DIALECT = "dialect";
     static final String PROP_LOGIN_TIMEOUT = "loginTimeout";
     static final String PROP_POOL_MAX_POOL_SIZE = "pool.maxPoolSize";
+    static final String PROP_POOL_MIN_IDLE = "pool.minIdle";
+    static final String PROP_POOL_MAX_TOTAL_POOL_SIZE = "pool.maxTotalPoolSize";
     static final String PROP_POOL_IDLE_TIMEOUT = "pool.idleTimeout";
+    static final String PROP_POOL_MAX_LIFETIME = "pool.maxLifetime";
+    static final String PROP_POOL_MAX_LIFETIME_JITTER = "pool.maxLifetimeJitter";
+    static final String PROP_POOL_MAX_EVICTIONS_PER_RUN = "pool.maxEvictionsPerRun";
     static final String PROP_POOL_VALIDATE_ON_BORROW = "pool.validateOnBorrow";
     static final String PROP_POOL_VALIDATE_ON_RETURN = "pool.validateOnReturn";
+    static final String PROP_POOL_VALIDATION_SKIP_WINDOW = "pool.validationSkipWindow";
+    static final String PROP_POOL_IDLE_VALIDATION_INTERVAL = "pool.idleValidationInterval";
     static final String PROP_POOL_POLL_TIMEOUT = "pool.pollTimeout";
     static final String PROP_POOL_CREATE_RETRY_COUNT = "pool.createRetryCount";
+    static final String PROP_POOL_CREATE_RETRY_BACKOFF = "pool.createRetryBackoff";
+    static final String PROP_POOL_CREATE_RETRY_MAX_BACKOFF = "pool.createRetryMaxBackoff";
+    static final String PROP_POOL_CIRCUIT_BREAKER_THRESHOLD = "pool.circuitBreakerThreshold";
+    static final String PROP_POOL_CIRCUIT_BREAKER_COOL_DOWN = "pool.circuitBreakerCoolDown";
+    static final String PROP_POOL_CREATE_PARALLELISM = "pool.createParallelism";
+    static final String PROP_POOL_ASYNC_BORROWER_THREADS = "pool.asyncBorrowerThreads";
+    static final String PROP_POOL_LEAK_DETECTION_THRESHOLD = "pool.leakDetectionThreshold";
+    static final String PROP_POOL_LEAK_TRACE_SAMPLING = "pool.leakTraceSampling";
+    static final String PROP_POOL_LEAK_RECLAIM = "pool.leakReclaim";
+    static final String PROP_POOL_STATEMENT_CACHE_SIZE = "pool.statementCacheSize";
     static final String PROP_POOL_SCHEDULED_THREAD_LIFETIME = "pool.scheduledThreadLifeTime";
+    static final String PROP_POOL_ADAPTIVE_SIZING_INTERVAL = "pool.adaptiveSizingInterval";
+    static final String PROP_POOL_ADAPTIVE_WAIT_TARGET = "pool.adaptiveWaitTarget";
+    static final String PROP_POOL_NAME = "pool.poolName";
+    static final String PROP_POOL_JMX_ENABLED = "pool.jmxEnabled";
+    static final String PROP_POOL_TYPE = "pool.poolType";
+    static final String PROP_EXECUTOR_VIRTUAL_THREADS = "executor.virtualThreads";
+    static final String PROP_EXECUTOR_MAX_THREADS = "executor.maxThreads";
+    static final String PROP_EXECUTOR_QUEUE_SIZE = "executor.queueSize";
 
     private String url;
     private String driverClassName;
@@ -77,6 +121,10 @@ public class JSQLDataSource extends AbstractBuilderDataSource implements javax.s
     private Properties driverProps = new Properties();
     private ConnectionPool connectionPool;
     private JdbcExecutorPool executorPool;
+    private ExecutorService queryExecutor;
+    private StatementCacheStats statementCacheStats;
+    /** Connections keyed by credentials, created on demand */
+    private volatile KeyedObjectPool<Credentials, Connection> credentialsPool;
 
     protected JSQLDataSource() {
     }
@@ -95,12 +143,37 @@ public class JSQLDataSource extends AbstractBuilderDataSource implements javax.s
      * - dialect         optional if driverClass set
      * - loginTimeout    optional default 5s
      * - pool.maxPoolSize             default 20
+     * - pool.minIdle                 default 0
+     * - pool.maxTotalPoolSize        default 0, no global limit of connections keyed by credentials
      * - pool.idleTimeout             default 30 minutes
+     * - pool.maxLifetime             default 0, never retire
+     * - pool.maxLifetimeJitter       default 0, 2.5% of max lifetime
+     * - pool.maxEvictionsPerRun      default 0, no limit
      * - pool.validateOnBorrow        default true
      * - pool.validateOnReturn        default false
+     * - pool.validationSkipWindow    default 0, always validate on borrowing
+     * - pool.idleValidationInterval  default 0, no background validation
      * - pool.pollTimeout             default 10 seconds
      * - pool.createRetryCount        default 0
+     * - pool.createRetryBackoff      default 100 milliseconds, doubled on each retry with jitter
+     * - pool.createRetryMaxBackoff   default 10 seconds
+     * - pool.circuitBreakerThreshold default 5, fail fast after consecutive creation failures, 0 means no circuit breaker
+     * - pool.circuitBreakerCoolDown  default 10 seconds
+     * - pool.createParallelism       default 4
+     * - pool.asyncBorrowerThreads    default 64, asynchronous borrowing fails rather than waits once they are all busy
+     * - pool.leakDetectionThreshold  default 0, no leak detection
+     * - pool.leakTraceSampling       default 0, never capture borrowing stack trace
+     * - pool.leakReclaim             default false
+     * - pool.statementCacheSize      default 0, no PreparedStatement cached by connection
      * - pool.scheduledThreadLifeTime default 5 minutes
+     * - pool.adaptiveSizingInterval  default 0, fixed pool size
+     * - pool.adaptiveWaitTarget      default 10 milliseconds
+     * - pool.poolName                default generated by pool
+     * - pool.jmxEnabled              default false, register pool stats MBean if true
+     * - pool.poolType                default DEFAULT, or CONCURRENT for lock-free pool
+     * - executor.virtualThreads      default false, run submitted operations in virtual threads on JDK 21+
+     * - executor.maxThreads          default pool.maxPoolSize, platform threads running submitted operations
+     * - executor.queueSize           default 0, no limit of operations queued for threads, otherwise rejects the overflow
      *
      * - driver.user       jdbc username (prior to username)
      * - driver.password   jdbc password (prior to password)
@@ -207,9 +280,42 @@ public class JSQLDataSource extends AbstractBuilderDataSource implements javax.s
     }
 
     private void initPool(Properties poolProp) {
-        ObjectPool<Connection> objectPool = createConnectionObjectPool(getPoolConfiguration(poolProp));
+        PoolConfiguration poolConfiguration = getPoolConfiguration(poolProp);
+        PooledConnectionManager manager = newPooledConnectionManager(null, poolConfiguration);
+        statementCacheStats = manager.getStatementCacheStats();
+        ObjectPool<Connection> objectPool = createConnectionObjectPool(manager, poolConfiguration);
         connectionPool = new ConnectionPool(objectPool);
         executorPool = new JdbcExecutorPool(objectPool);
+        int maxThreads = poolProp.containsKey(PROP_EXECUTOR_MAX_THREADS)
+                ? Integer.parseInt(poolProp.getProperty(PROP_EXECUTOR_MAX_THREADS))
+                : connectionPool.getPoolConfiguration().getMaxPoolSize();
+        queryExecutor = createQueryExecutor(Boolean.parseBoolean(poolProp.getProperty(PROP_EXECUTOR_VIRTUAL_THREADS)),
+                maxThreads, Integer.parseInt(poolProp.getProperty(PROP_EXECUTOR_QUEUE_SIZE, "0")));
+    }
+
+    private static ExecutorService createQueryExecutor(boolean virtualThreads, int maxThreads, int queueSize) {
+        if (maxThreads <= 0 || queueSize < 0) {
+            throw new IllegalArgumentException("max threads must be positive and queue size must not be negative!");
+        }
+        if (virtualThreads) {
+            if (VirtualThreads.isSupported()) {
+                return VirtualThreads.newVirtualThreadPerTaskExecutor("jsql-query-");
+            }
+            LOGGER.warn("virtual threads are not supported by Java " + System.getProperty("java.version")
+                    + ", fall back to platform threads for submitted operations");
+        }
+        // operations run after connections were borrowed, threads more than pool size would only wait for them
+        AtomicInteger threadNo = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread t = new Thread(r, "jsql-query-" + threadNo.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+        BlockingQueue<Runnable> queue = queueSize > 0 ? new ArrayBlockingQueue<>(queueSize) : new LinkedBlockingQueue<>();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS, queue,
+                threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     PoolConfiguration getPoolConfiguration(Properties poolProp) {
@@ -217,24 +323,90 @@ public class JSQLDataSource extends AbstractBuilderDataSource implements javax.s
         if (poolProp.containsKey(PROP_POOL_MAX_POOL_SIZE)) {
             poolConfiguration.setMaxPoolSize(Integer.parseInt(poolProp.getProperty(PROP_POOL_MAX_POOL_SIZE)));
         }
+        if (poolProp.containsKey(PROP_POOL_MIN_IDLE)) {
+            poolConfiguration.setMinIdle(Integer.parseInt(poolProp.getProperty(PROP_POOL_MIN_IDLE)));
+        }
+        if (poolProp.containsKey(PROP_POOL_MAX_TOTAL_POOL_SIZE)) {
+            poolConfiguration.setMaxTotalPoolSize(Integer.parseInt(poolProp.getProperty(PROP_POOL_MAX_TOTAL_POOL_SIZE)));
+        }
         if (poolProp.containsKey(PROP_POOL_IDLE_TIMEOUT)) {
             poolConfiguration.setIdleTimeout(Long.parseLong(poolProp.getProperty(PROP_POOL_IDLE_TIMEOUT)));
         }
+        if (poolProp.containsKey(PROP_POOL_MAX_LIFETIME)) {
+            poolConfiguration.setMaxLifetime(Long.parseLong(poolProp.getProperty(PROP_POOL_MAX_LIFETIME)));
+        }
+        if (poolProp.containsKey(PROP_POOL_MAX_LIFETIME_JITTER)) {
+            poolConfiguration.setMaxLifetimeJitter(Long.parseLong(poolProp.getProperty(PROP_POOL_MAX_LIFETIME_JITTER)));
+        }
+        if (poolProp.containsKey(PROP_POOL_MAX_EVICTIONS_PER_RUN)) {
+            poolConfiguration.setMaxEvictionsPerRun(Integer.parseInt(poolProp.getProperty(PROP_POOL_MAX_EVICTIONS_PER_RUN)));
+        }
         if (poolProp.containsKey(PROP_POOL_VALIDATE_ON_BORROW)) {
             poolConfiguration.setValidateOnBorrow(Boolean.parseBoolean(poolProp.getProperty(PROP_POOL_VALIDATE_ON_BORROW)));
         }
         if (poolProp.containsKey(PROP_POOL_VALIDATE_ON_RETURN)) {
             poolConfiguration.setValidateOnReturn(Boolean.parseBoolean(poolProp.getProperty(PROP_POOL_VALIDATE_ON_RETURN)));
         }
+        if (poolProp.containsKey(PROP_POOL_VALIDATION_SKIP_WINDOW)) {
+            poolConfiguration.setValidationSkipWindow(Long.parseLong(poolProp.getProperty(PROP_POOL_VALIDATION_SKIP_WINDOW)));
+        }
+        if (poolProp.containsKey(PROP_POOL_IDLE_VALIDATION_INTERVAL)) {
+            poolConfiguration.setIdleValidationInterval(Long.parseLong(poolProp.getProperty(PROP_POOL_IDLE_VALIDATION_INTERVAL)));
+        }
         if (poolProp.containsKey(PROP_POOL_POLL_TIMEOUT)) {
             poolConfiguration.setPollTimeout(Long.parseLong(poolProp.getProperty(PROP_POOL_POLL_TIMEOUT)));
         }
         if (poolProp.containsKey(PROP_POOL_CREATE_RETRY_COUNT)) {
             poolConfiguration.setCreateRetryCount(Integer.parseInt(poolProp.getProperty(PROP_POOL_CREATE_RETRY_COUNT)));
         }
+        if (poolProp.containsKey(PROP_POOL_CREATE_RETRY_BACKOFF)) {
+            poolConfiguration.setCreateRetryBackoff(Long.parseLong(poolProp.getProperty(PROP_POOL_CREATE_RETRY_BACKOFF)));
+        }
+        if (poolProp.containsKey(PROP_POOL_CREATE_RETRY_MAX_BACKOFF)) {
+            poolConfiguration.setCreateRetryMaxBackoff(Long.parseLong(poolProp.getProperty(PROP_POOL_CREATE_RETRY_MAX_BACKOFF)));
+        }
+        if (poolProp.containsKey(PROP_POOL_CIRCUIT_BREAKER_THRESHOLD)) {
+            poolConfiguration.setCircuitBreakerThreshold(Integer.parseInt(poolProp.getProperty(PROP_POOL_CIRCUIT_BREAKER_THRESHOLD)));
+        }
+        if (poolProp.containsKey(PROP_POOL_CIRCUIT_BREAKER_COOL_DOWN)) {
+            poolConfiguration.setCircuitBreakerCoolDown(Long.parseLong(poolProp.getProperty(PROP_POOL_CIRCUIT_BREAKER_COOL_DOWN)));
+        }
+        if (poolProp.containsKey(PROP_POOL_CREATE_PARALLELISM)) {
+            poolConfiguration.setCreateParallelism(Integer.parseInt(poolProp.getProperty(PROP_POOL_CREATE_PARALLELISM)));
+        }
+        if (poolProp.containsKey(PROP_POOL_ASYNC_BORROWER_THREADS)) {
+            poolConfiguration.setAsyncBorrowerThreads(Integer.parseInt(poolProp.getProperty(PROP_POOL_ASYNC_BORROWER_THREADS)));
+        }
+        if (poolProp.containsKey(PROP_POOL_LEAK_DETECTION_THRESHOLD)) {
+            poolConfiguration.setLeakDetectionThreshold(Long.parseLong(poolProp.getProperty(PROP_POOL_LEAK_DETECTION_THRESHOLD)));
+        }
+        if (poolProp.containsKey(PROP_POOL_LEAK_TRACE_SAMPLING)) {
+            poolConfiguration.setLeakTraceSampling(Integer.parseInt(poolProp.getProperty(PROP_POOL_LEAK_TRACE_SAMPLING)));
+        }
+        if (poolProp.containsKey(PROP_POOL_LEAK_RECLAIM)) {
+            poolConfiguration.setLeakReclaim(Boolean.parseBoolean(poolProp.getProperty(PROP_POOL_LEAK_RECLAIM)));
+        }
+        if (poolProp.containsKey(PROP_POOL_STATEMENT_CACHE_SIZE)) {
+            poolConfiguration.setStatementCacheSize(Integer.parseInt(poolProp.getProperty(PROP_POOL_STATEMENT_CACHE_SIZE)));
+        }
         if (poolProp.containsKey(PROP_POOL_SCHEDULED_THREAD_LIFETIME)) {
             poolConfiguration.setScheduledThreadLifeTime(Long.parseLong(poolProp.getProperty(PROP_POOL_SCHEDULED_THREAD_LIFETIME)));
         }
+        if (poolProp.containsKey(PROP_POOL_ADAPTIVE_SIZING_INTERVAL)) {
+            poolConfiguration.setAdaptiveSizingInterval(Long.parseLong(poolProp.getProperty(PROP_POOL_ADAPTIVE_SIZING_INTERVAL)));
+        }
+        if (poolProp.containsKey(PROP_POOL_ADAPTIVE_WAIT_TARGET)) {
+            poolConfiguration.setAdaptiveWaitTarget(Long.parseLong(poolProp.getProperty(PROP_POOL_ADAPTIVE_WAIT_TARGET)));
+        }
+        if (poolProp.containsKey(PROP_POOL_NAME)) {
+            poolConfiguration.setPoolName(poolProp.getProperty(PROP_POOL_NAME));
+        }
+        if (poolProp.containsKey(PROP_POOL_JMX_ENABLED)) {
+            poolConfiguration.setJmxEnabled(Boolean.parseBoolean(poolProp.getProperty(PROP_POOL_JMX_ENABLED)));
+        }
+        if (poolProp.containsKey(PROP_POOL_TYPE)) {
+            poolConfiguration.setPoolType(PoolConfiguration.PoolType.valueOf(poolProp.getProperty(PROP_POOL_TYPE).toUpperCase()));
+        }
         return poolConfiguration;
     }
 
@@ -264,6 +436,120 @@ public class JSQLDataSource extends AbstractBuilderDataSource implements javax.s
         return new TransactionExecutor(createConnection(false));
     }
 
+    /**
+     * Statistics of the connection pool backing this data source
+     *
+     * @return point-in-time snapshot of pool statistics
+     */
+    public PoolStats.Snapshot getPoolStats() {
+        return connectionPool.getPoolStats().snapshot();
+    }
+
+    /**
+     * Statistics of PreparedStatement caches of connections in the pool backing this data source, counters stay 0 if
+     * <code>pool.statementCacheSize</code> is not set
+     *
+     * @return live statement cache statistics
+     */
+    public StatementCacheStats getStatementCacheStats() {
+        return statementCacheStats;
+    }
+
+    /**
+     * Current configuration of the connection pool backing this data source
+     *
+     * @return copy of pool configuration
+     */
+    public PoolConfiguration getPoolConfiguration() {
+        return connectionPool.getPoolConfiguration();
+    }
+
+    /**
+     * Adjust the connection pool at runtime, e.g. <code>dataSource.reconfigurePool(cfg -&gt; cfg.setMaxPoolSize(50))</code>
+     *
+     * @param updater updates a copy of current pool configuration
+     * @see ObjectPool#reconfigure(Consumer)
+     */
+    public void reconfigurePool(Consumer<PoolConfiguration> updater) {
+        connectionPool.reconfigure(updater);
+    }
+
+    /**
+     * Execute operation asynchronously with a pooled <code>JdbcExecutor</code>, which is returned to pool after
+     * operation completed. Connection is borrowed without blocking any thread, and operation is queued to the executor
+     * bounded by <code>executor.maxThreads</code> and <code>executor.queueSize</code> once a connection is free, so that
+     * none of the threads waits for pool. Each operation runs in a virtual thread instead if
+     * <code>executor.virtualThreads</code> is enabled on JDK 21+, blocking on IO only parks the virtual thread rather
+     * than occupying a platform thread, and the running ones are bounded by pool size.
+     *
+     * @param operation jdbc operation with a pooled executor
+     * @param <R> result type of operation
+     * @return future completed with the result of operation, or exceptionally with the error it threw, or with
+     * {@link java.util.concurrent.RejectedExecutionException} if executor queue is full or data source was closed
+     */
+    @Override
+    public <R> CompletableFuture<R> submit(JdbcOperation<R> operation) {
+        Objects.requireNonNull(operation, "operation must not be null");
+        if (queryExecutor.isShutdown()) {
+            // never borrow a connection which could not be used by any operation
+            CompletableFuture<R> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new RejectedExecutionException("data source has been closed"));
+            return rejected;
+        }
+        return executorPool.getExecutorAsync(queryExecutor).thenCompose(executor -> {
+            CompletableFuture<R> result = new CompletableFuture<>();
+            Runnable task = () -> {
+                R value;
+                // complete after executor returned to pool
+                try (JdbcExecutor jdbcExecutor = executor) {
+                    value = operation.doExecute(jdbcExecutor);
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                result.complete(value);
+            };
+            try {
+                // never run operation in the thread completing the borrowing, which might be the calling thread
+                queryExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // shut down while borrowing or queue is full, return the borrowed executor rather than leak it
+                closeQuietly(executor);
+                result.completeExceptionally(e);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Query rows asynchronously, see {@link #submit(JdbcOperation)}
+     */
+    public <E> CompletableFuture<List<E>> execQueryAsync(Builder builder, Class<E> clazz) {
+        return submit(executor -> executor.execQuery(builder, clazz));
+    }
+
+    /**
+     * Query rows asynchronously, see {@link #submit(JdbcOperation)}
+     */
+    public CompletableFuture<List<Map<String, Object>>> execQueryAsync(Builder builder) {
+        return submit(executor -> executor.execQuery(builder));
+    }
+
+    /**
+     * Update asynchronously, see {@link #submit(JdbcOperation)}
+     */
+    public CompletableFuture<Integer> execUpdateAsync(Builder builder) {
+        return submit(executor -> executor.execUpdate(builder));
+    }
+
+    private static void closeQuietly(JdbcExecutor executor) {
+        try {
+            executor.close();
+        } catch (Exception e) {
+            LOGGER.error("returning JdbcExecutor error", e);
+        }
+    }
+
     public JdbcExecutorPool getExecutorPool() {
         return executorPool;
     }
@@ -277,8 +563,12 @@ public class JSQLDataSource extends AbstractBuilderDataSource implements javax.s
     }
 
     public Connection createConnection(boolean autoCommit) {
+        return createConnection(driverProps, autoCommit);
+    }
+
+    Connection createConnection(Properties connectionProps, boolean autoCommit) {
         try {
-            Connection connection = DriverManager.getConnection(url, driverProps);
+            Connection connection = DriverManager.getConnection(url, connectionProps);
             connection.setAutoCommit(autoCommit);
             return connection;
         } catch (SQLException e) {
@@ -296,9 +586,69 @@ public class JSQLDataSource extends AbstractBuilderDataSource implements javax.s
     }
 
     private ObjectPool<Connection> createConnectionObjectPool(PoolConfiguration poolConfiguration) {
-        PooledObjectManager<Connection> manager = new PooledConnectionManager(this);
-        return poolConfiguration == null ? new DefaultObjectPool<>(manager)
-                : new DefaultObjectPool<>(manager, poolConfiguration);
+        return createConnectionObjectPool(newPooledConnectionManager(null, poolConfiguration), poolConfiguration);
+    }
+
+    private PooledConnectionManager newPooledConnectionManager(Properties connectionProps, PoolConfiguration poolConfiguration) {
+        PooledConnectionManager manager = connectionProps == null
+                ? new PooledConnectionManager(this)
+                : new PooledConnectionManager(this, connectionProps);
+        if (poolConfiguration != null) {
+            manager.setStatementCacheSize(poolConfiguration.getStatementCacheSize());
+        }
+        return manager;
+    }
+
+    private ObjectPool<Connection> createConnectionObjectPool(PooledObjectManager<Connection> manager,
+                                                              PoolConfiguration poolConfiguration) {
+        if (poolConfiguration == null) {
+            return new DefaultObjectPool<>(manager);
+        }
+        if (poolConfiguration.getPoolType() == PoolConfiguration.PoolType.CONCURRENT) {
+            return new ConcurrentObjectPool<>(manager, poolConfiguration);
+        }
+        return new DefaultObjectPool<>(manager, poolConfiguration);
+    }
+
+    /**
+     * Create connection pool partitioned by key such as tenant, connections of each key are created with the driver
+     * properties of data source overridden by the ones of the key, e.g. <code>user</code>, <code>password</code>
+     * or the schema property of driver.
+     * <br>
+     * Wrap {@link KeyedObjectPool#getObjectPool(Object)} by {@link ConnectionPool} or {@link JdbcExecutorPool} to use
+     * connections of a key.
+     *
+     * @param connectionProps driver properties of each key, called once the key is borrowed for the first time
+     * @param poolConfiguration limits of each key and the global limit <code>maxTotalPoolSize</code>
+     * @param <K> type of key
+     * @return keyed connection pool, which should be closed by caller
+     */
+    public <K> KeyedObjectPool<K, Connection> createKeyedConnectionPool(Function<K, Properties> connectionProps,
+                                                                       PoolConfiguration poolConfiguration) {
+        return new KeyedObjectPool<>(key -> {
+            Properties props = new Properties();
+            props.putAll(driverProps);
+            props.putAll(connectionProps.apply(key));
+            return newPooledConnectionManager(props, poolConfiguration);
+        }, poolConfiguration);
+    }
+
+    private KeyedObjectPool<Credentials, Connection> getCredentialsPool() {
+        KeyedObjectPool<Credentials, Connection> pool = credentialsPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = credentialsPool;
+                if (pool == null) {
+                    PoolConfiguration poolConfiguration = connectionPool.getPoolConfiguration();
+                    if (poolConfiguration.getPoolName() != null) {
+                        poolConfiguration.setPoolName(poolConfiguration.getPoolName() + "-credentials");
+                    }
+                    pool = createKeyedConnectionPool(Credentials::toProperties, poolConfiguration);
+                    credentialsPool = pool;
+                }
+            }
+        }
+        return pool;
     }
 
     public JdbcExecutorPool createExecutorPool() {
@@ -316,9 +666,64 @@ public class JSQLDataSource extends AbstractBuilderDataSource implements javax.s
     public JdbcExecutor getJdbcExecutor() {
         return executorPool.getExecutor();
     }
+
+    /**
+     * Borrow connection of the given credentials, connections of all credentials share one keyed pool, which has the same
+     * limits as the default pool for each credentials and <code>pool.maxTotalPoolSize</code> for all
+     */
+    public Connection getConnection(String user, String password) {
+        return getPooledConnection(user, password).getConnection();
+    }
+
+    /**
+     * Borrow executor of the given credentials, see {@link #getConnection(String, String)}
+     */
+    public JdbcExecutor getJdbcExecutor(String user, String password) {
+        return getExecutorPool(user, password).getExecutor();
+    }
+
+    public JdbcExecutorPool getExecutorPool(String user, String password) {
+        return new JdbcExecutorPool(getCredentialsPool().getObjectPool(new Credentials(user, password)));
+    }
     public void close() throws IOException {
+        if (queryExecutor != null) {
+            queryExecutor.shutdown();
+        }
+        closeCredentialsPool();
         connectionPool.close();
     }
+
+    private void closeCredentialsPool() {
+        KeyedObjectPool<Credentials, Connection> pool = credentialsPool;
+        if (pool != null) {
+            try {
+                pool.close();
+            } catch (SQLException e) {
+                LOGGER.error("closing connection pool of credentials error", e);
+            }
+        }
+    }
+
+    /**
+     * Close data source gracefully for predictable shutdown, submitted operations and borrowed connections are waited
+     * within drain timeout, connections still borrowed after that are closed forcibly
+     *
+     * @param drainTimeout max time waiting for submitted operations and borrowed connections
+     */
+    public void close(Duration drainTimeout) {
+        long start = System.nanoTime();
+        if (queryExecutor != null) {
+            queryExecutor.shutdown();
+            try {
+                queryExecutor.awaitTermination(drainTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeCredentialsPool();
+        connectionPool.close(drainTimeout.minusNanos(System.nanoTime() - start));
+    }
+
     public TransactionExecutor getTransactionExecutor() {
         return executorPool.getTransactionExecutor();
     }
@@ -398,8 +803,8 @@ public class JSQLDataSource extends AbstractBuilderDataSource implements javax.s
     }
 
     @Override
-    public PooledConnection getPooledConnection(String user, String password) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+    public ConnectionPool getPooledConnection(String user, String password) {
+        return new ConnectionPool(getCredentialsPool().getObjectPool(new Credentials(user, password)));
     }
 
     public Properties getDriverProperties() {
@@ -431,6 +836,48 @@ public class JSQLDataSource extends AbstractBuilderDataSource implements javax.s
         return driverDebugInfo.toString().replaceFirst(",\\s*$", "");
     }
 
+    private static final class Credentials {
+        private final String user;
+        private final String password;
+
+        Credentials(String user, String password) {
+            this.user = Objects.requireNonNull(user, "user must not be null");
+            this.password = password;
+        }
+
+        Properties toProperties() {
+            Properties props = new Properties();
+            props.setProperty(PROP_USER, user);
+            if (password != null) {
+                props.setProperty(PROP_PASSWORD, password);
+            }
+            return props;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Credentials)) {
+                return false;
+            }
+            Credentials that = (Credentials) o;
+            return user.equals(that.user) && Objects.equals(password, that.password);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(user, password);
+        }
+
+        @Override
+        public String toString() {
+            // never show password in log
+            return "Credentials {user='" + user + "'}";
+        }
+    }
+
     public static class DataSourceBuilder {
         Properties jdbcProperties = new Properties();
 
@@ -488,10 +935,30 @@ public class JSQLDataSource extends AbstractBuilderDataSource implements javax.s
             jdbcProperties.setProperty(PROP_POOL_MAX_POOL_SIZE, String.valueOf(poolSize));
             return this;
         }
+        public DataSourceBuilder poolMinIdle(int poolMinIdle) {
+            jdbcProperties.setProperty(PROP_POOL_MIN_IDLE, String.valueOf(poolMinIdle));
+            return this;
+        }
+        public DataSourceBuilder poolMaxTotalSize(int poolMaxTotalSize) {
+            jdbcProperties.setProperty(PROP_POOL_MAX_TOTAL_POOL_SIZE, String.valueOf(poolMaxTotalSize));
+            return this;
+        }
         public DataSourceBuilder poolIdleTimeout(long poolIdleTimeout) {
             jdbcProperties.setProperty(PROP_POOL_IDLE_TIMEOUT, String.valueOf(poolIdleTimeout));
             return this;
         }
+        public DataSourceBuilder poolMaxLifetime(long poolMaxLifetime) {
+            jdbcProperties.setProperty(PROP_POOL_MAX_LIFETIME, String.valueOf(poolMaxLifetime));
+            return this;
+        }
+        public DataSourceBuilder poolMaxLifetimeJitter(long poolMaxLifetimeJitter) {
+            jdbcProperties.setProperty(PROP_POOL_MAX_LIFETIME_JITTER, String.valueOf(poolMaxLifetimeJitter));
+            return this;
+        }
+        public DataSourceBuilder poolMaxEvictionsPerRun(int poolMaxEvictionsPerRun) {
+            jdbcProperties.setProperty(PROP_POOL_MAX_EVICTIONS_PER_RUN, String.valueOf(poolMaxEvictionsPerRun));
+            return this;
+        }
         public DataSourceBuilder poolValidationOnBorrow(boolean poolValidationOnBorrow) {
             jdbcProperties.setProperty(PROP_POOL_VALIDATE_ON_BORROW, String.valueOf(poolValidationOnBorrow));
             return this;
@@ -500,6 +967,14 @@ public class JSQLDataSource extends AbstractBuilderDataSource implements javax.s
             jdbcProperties.setProperty(PROP_POOL_VALIDATE_ON_RETURN, String.valueOf(poolValidationOnReturn));
             return this;
         }
+        public DataSourceBuilder poolValidationSkipWindow(long poolValidationSkipWindow) {
+            jdbcProperties.setProperty(PROP_POOL_VALIDATION_SKIP_WINDOW, String.valueOf(poolValidationSkipWindow));
+            return this;
+        }
+        public DataSourceBuilder poolIdleValidationInterval(long poolIdleValidationInterval) {
+            jdbcProperties.setProperty(PROP_POOL_IDLE_VALIDATION_INTERVAL, String.valueOf(poolIdleValidationInterval));
+            return this;
+        }
         public DataSourceBuilder poolPollTimeout(long poolPollTimeout) {
             jdbcProperties.setProperty(PROP_POOL_POLL_TIMEOUT, String.valueOf(poolPollTimeout));
             return this;
@@ -508,10 +983,83 @@ public class JSQLDataSource extends AbstractBuilderDataSource implements javax.s
             jdbcProperties.setProperty(PROP_POOL_CREATE_RETRY_COUNT, String.valueOf(poolObjectCreateRetryCount));
             return this;
         }
+        public DataSourceBuilder poolCreateRetryBackoff(long poolCreateRetryBackoff) {
+            jdbcProperties.setProperty(PROP_POOL_CREATE_RETRY_BACKOFF, String.valueOf(poolCreateRetryBackoff));
+            return this;
+        }
+        public DataSourceBuilder poolCreateRetryMaxBackoff(long poolCreateRetryMaxBackoff) {
+            jdbcProperties.setProperty(PROP_POOL_CREATE_RETRY_MAX_BACKOFF, String.valueOf(poolCreateRetryMaxBackoff));
+            return this;
+        }
+        public DataSourceBuilder poolCircuitBreakerThreshold(int poolCircuitBreakerThreshold) {
+            jdbcProperties.setProperty(PROP_POOL_CIRCUIT_BREAKER_THRESHOLD, String.valueOf(poolCircuitBreakerThreshold));
+            return this;
+        }
+        public DataSourceBuilder poolCircuitBreakerCoolDown(long poolCircuitBreakerCoolDown) {
+            jdbcProperties.setProperty(PROP_POOL_CIRCUIT_BREAKER_COOL_DOWN, String.valueOf(poolCircuitBreakerCoolDown));
+            return this;
+        }
+        public DataSourceBuilder poolCreateParallelism(int poolCreateParallelism) {
+            jdbcProperties.setProperty(PROP_POOL_CREATE_PARALLELISM, String.valueOf(poolCreateParallelism));
+            return this;
+        }
+        public DataSourceBuilder poolAsyncBorrowerThreads(int poolAsyncBorrowerThreads) {
+            jdbcProperties.setProperty(PROP_POOL_ASYNC_BORROWER_THREADS, String.valueOf(poolAsyncBorrowerThreads));
+            return this;
+        }
+        public DataSourceBuilder poolLeakDetectionThreshold(long poolLeakDetectionThreshold) {
+            jdbcProperties.setProperty(PROP_POOL_LEAK_DETECTION_THRESHOLD, String.valueOf(poolLeakDetectionThreshold));
+            return this;
+        }
+        public DataSourceBuilder poolLeakTraceSampling(int poolLeakTraceSampling) {
+            jdbcProperties.setProperty(PROP_POOL_LEAK_TRACE_SAMPLING, String.valueOf(poolLeakTraceSampling));
+            return this;
+        }
+        public DataSourceBuilder poolLeakReclaim(boolean poolLeakReclaim) {
+            jdbcProperties.setProperty(PROP_POOL_LEAK_RECLAIM, String.valueOf(poolLeakReclaim));
+            return this;
+        }
+        public DataSourceBuilder poolStatementCacheSize(int poolStatementCacheSize) {
+            jdbcProperties.setProperty(PROP_POOL_STATEMENT_CACHE_SIZE, String.valueOf(poolStatementCacheSize));
+            return this;
+        }
         public DataSourceBuilder poolScheduleThreadLifeTime(long poolScheduleThreadLifeTime) {
             jdbcProperties.setProperty(PROP_POOL_SCHEDULED_THREAD_LIFETIME, String.valueOf(poolScheduleThreadLifeTime));
             return this;
         }
+        public DataSourceBuilder poolAdaptiveSizingInterval(long poolAdaptiveSizingInterval) {
+            jdbcProperties.setProperty(PROP_POOL_ADAPTIVE_SIZING_INTERVAL, String.valueOf(poolAdaptiveSizingInterval));
+            return this;
+        }
+        public DataSourceBuilder poolAdaptiveWaitTarget(long poolAdaptiveWaitTarget) {
+            jdbcProperties.setProperty(PROP_POOL_ADAPTIVE_WAIT_TARGET, String.valueOf(poolAdaptiveWaitTarget));
+            return this;
+        }
+        public DataSourceBuilder poolName(String poolName) {
+            jdbcProperties.setProperty(PROP_POOL_NAME, poolName);
+            return this;
+        }
+        public DataSourceBuilder poolJmxEnabled(boolean poolJmxEnabled) {
+            jdbcProperties.setProperty(PROP_POOL_JMX_ENABLED, String.valueOf(poolJmxEnabled));
+            return this;
+        }
+        public DataSourceBuilder poolType(PoolConfiguration.PoolType poolType) {
+            jdbcProperties.setProperty(PROP_POOL_TYPE, poolType.name());
+            return this;
+        }
+
+        public DataSourceBuilder executorVirtualThreads(boolean executorVirtualThreads) {
+            jdbcProperties.setProperty(PROP_EXECUTOR_VIRTUAL_THREADS, String.valueOf(executorVirtualThreads));
+            return this;
+        }
+        public DataSourceBuilder executorMaxThreads(int executorMaxThreads) {
+            jdbcProperties.setProperty(PROP_EXECUTOR_MAX_THREADS, String.valueOf(executorMaxThreads));
+            return this;
+        }
+        public DataSourceBuilder executorQueueSize(int executorQueueSize) {
+            jdbcProperties.setProperty(PROP_EXECUTOR_QUEUE_SIZE, String.valueOf(executorQueueSize));
+            return this;
+        }
 
         public JSQLDataSource build() {
             return new JSQLDataSource(jdbcProperties);
@@ -11,13 +11,18 @@ import cn.icuter.jsql.executor.TransactionExecutor;
 import cn.icuter.jsql.log.JSQLLogger;
 import cn.icuter.jsql.log.Logs;
 import cn.icuter.jsql.pool.ObjectPool;
+import cn.icuter.jsql.pool.PoolStats;
 import cn.icuter.jsql.transaction.Transaction;
 
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /**
  * @author edward
@@ -27,24 +32,61 @@ public class JdbcExecutorPool {
     private static final JSQLLogger LOGGER = Logs.getLogger(JdbcExecutorPool.class);
     private final ObjectPool<Connection> pool;
 
-    JdbcExecutorPool(ObjectPool<Connection> pool) {
+    public JdbcExecutorPool(ObjectPool<Connection> pool) {
         this.pool = pool;
     }
 
+    public PoolStats getPoolStats() {
+        return pool.getPoolStats();
+    }
+
+    public PoolConfiguration getPoolConfiguration() {
+        return pool.getPoolConfiguration();
+    }
+
+    public void reconfigure(Consumer<PoolConfiguration> updater) {
+        pool.reconfigure(updater);
+    }
+
     public JdbcExecutor getExecutor() {
+        Connection connection = null;
         try {
-            return new ConnectionJdbcExecutor(pool.borrowObject());
-        } catch (JSQLException e) {
+            connection = pool.borrowObject();
+            PooledConnection.resetSessionState(connection, true);
+            return new ConnectionJdbcExecutor(connection);
+        } catch (SQLException e) {
+            returnQuietly(connection);
             throw new BorrowObjectException("getting JdbcExecutor error", e);
         }
     }
 
+    /**
+     * Get JdbcExecutor without blocking the calling thread even if pool is exhausted
+     *
+     * @param executor executor completing the future once a connection is borrowed
+     * @return future of pooled JdbcExecutor, which should be closed after used
+     * @see ObjectPool#borrowObjectAsync(Executor)
+     */
+    public CompletableFuture<JdbcExecutor> getExecutorAsync(Executor executor) {
+        return pool.borrowObjectAsync(executor).thenApply(connection -> {
+            try {
+                PooledConnection.resetSessionState(connection, true);
+                return new ConnectionJdbcExecutor(connection);
+            } catch (SQLException e) {
+                returnQuietly(connection);
+                throw new BorrowObjectException("getting JdbcExecutor error", e);
+            }
+        });
+    }
+
     public TransactionExecutor getTransactionExecutor() {
+        Connection connection = null;
         try {
-            Connection connection = pool.borrowObject();
-            connection.setAutoCommit(false);
+            connection = pool.borrowObject();
+            PooledConnection.resetSessionState(connection, false);
             return new ConnectionTransactionExecutor(connection);
         } catch (SQLException e) {
+            returnQuietly(connection);
             LOGGER.error("getting TransactionExecutor error", e);
             throw new BorrowObjectException("getting TransactionExecutor error", e);
         }
@@ -59,16 +101,25 @@ public class JdbcExecutorPool {
                 }
                 if (connExecutor instanceof ConnectionTransactionExecutor) {
                     ConnectionTransactionExecutor txExecutor = ((ConnectionTransactionExecutor) connExecutor);
-                    if (txExecutor.getState() == Transaction.State.ROLLBACK_SAVEPOINT
+                    if (txExecutor.getState() == Transaction.State.ERROR) {
+                        // never commit the transaction whose statement failed, even if it was failed by reading rows
+                        txExecutor.rollback();
+                    } else if (txExecutor.getState() == Transaction.State.ROLLBACK_SAVEPOINT
                             || (!txExecutor.wasCommitted() && !txExecutor.wasRolledBack())) {
                         txExecutor.commit();
                     }
                 }
-                if (connExecutor.isTransaction()) {
-                    // if transaction did not commit, setAutoCommit(true) will commit automatically
-                    connExecutor.getConnection().setAutoCommit(true);
+                Connection connection = connExecutor.getConnection();
+                if (connection instanceof PooledConnection) {
+                    // keep manual-commit mode for next transaction, see PooledConnection#passivate
+                    pool.returnPooledObject(((PooledConnection) connection).pooledObject);
+                } else {
+                    if (connExecutor.isTransaction()) {
+                        // if transaction did not commit, setAutoCommit(true) will commit automatically
+                        connection.setAutoCommit(true);
+                    }
+                    pool.returnObject(connection);
                 }
-                pool.returnObject(connExecutor.getConnection());
                 connExecutor.release(); // in case reused after transaction executor returned
             }
         } catch (SQLException e) {
@@ -77,6 +128,21 @@ public class JdbcExecutorPool {
         }
     }
 
+    private void returnQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            if (connection instanceof PooledConnection) {
+                pool.returnPooledObject(((PooledConnection) connection).pooledObject);
+            } else {
+                pool.returnObject(connection);
+            }
+        } catch (JSQLException e) {
+            LOGGER.warn("returning Connection error", e);
+        }
+    }
+
     public void close() {
         try {
             pool.close();
@@ -86,6 +152,15 @@ public class JdbcExecutorPool {
         }
     }
 
+    public void close(Duration drainTimeout) {
+        try {
+            pool.close(drainTimeout);
+        } catch (JSQLException e) {
+            LOGGER.error("closing ExecutorPool error", e);
+            throw new PoolCloseException("closing ExecutorPool error", e);
+        }
+    }
+
     public String debugInfo() {
         return pool.debugInfo();
     }
@@ -132,8 +207,8 @@ public class JdbcExecutorPool {
             return super.execUpdate(builder);
         }
         @Override
-        public void execBatch(List<Builder> builders) throws JSQLException {
-            super.execBatch(builders);
+        public int[] execBatch(List<Builder> builders, int batchSize) throws JSQLException {
+            return super.execBatch(builders, batchSize);
         }
     }
 
@@ -179,8 +254,8 @@ public class JdbcExecutorPool {
             return super.execUpdate(builder);
         }
         @Override
-        public void execBatch(List<Builder> builders) throws JSQLException {
-            super.execBatch(builders);
+        public int[] execBatch(List<Builder> builders, int batchSize) throws JSQLException {
+            return super.execBatch(builders, batchSize);
         }
     }
 
@@ -11,6 +11,22 @@ public class PoolConfiguration {
     /** Setting of max objects size in pool, and default is 20 */
     private int maxPoolSize;
 
+    /**
+     * Max objects size shared across all keys of {@link cn.icuter.jsql.pool.KeyedObjectPool}, in which max pool size and
+     * min idle are limits of each key, set it to negative or 0 means no global limit
+     * <br>
+     * <em>default 0</em>
+     */
+    private int maxTotalPoolSize;
+
+    /**
+     * Minimum objects size kept in pool, including idle and borrowed objects. Pool will be filled up at startup and replenished
+     * after pooled objects were invalidated by background thread, only {@link PoolType#DEFAULT} pool and keyed pool supported
+     * <br>
+     * <em>default 0</em>
+     */
+    private int minIdle;
+
     /**
      * <pre>
      * Pooled object idle timeout in milliseconds, default is 30 minutes
@@ -20,6 +36,29 @@ public class PoolConfiguration {
      */
     private long idleTimeout;
 
+    /**
+     * Max lifetime of pooled object in milliseconds, the object past its lifetime will be retired on returning or by idle object
+     * sweeper, but never while borrowed, set it to negative or 0 means never retire
+     * <br>
+     * <em>default 0</em>
+     */
+    private long maxLifetime;
+
+    /**
+     * Max random jitter in milliseconds subtracted from max lifetime of each pooled object, avoiding all objects retired at once,
+     * set it to negative or 0 means 2.5% of max lifetime, and it is at most half of max lifetime
+     * <br>
+     * <em>default 0</em>
+     */
+    private long maxLifetimeJitter;
+
+    /**
+     * Max number of idle timeout objects evicted by idle object sweeper in each run, set it to negative or 0 means no limit
+     * <br>
+     * <em>default 0</em>
+     */
+    private int maxEvictionsPerRun;
+
     /**
      * Validate on borrowing an object from pool
      * <br><br/>
@@ -27,6 +66,22 @@ public class PoolConfiguration {
      */
     private boolean validateOnBorrow;
 
+    /**
+     * Skip validation on borrowing if the object was returned to pool within the window in milliseconds,
+     * set it to negative or 0 means always validate
+     * <br>
+     * <em>default 0</em>
+     */
+    private long validationSkipWindow;
+
+    /**
+     * Interval in milliseconds of validating idle objects in background, the broken ones will be evicted before borrowing,
+     * set it to negative or 0 means no background validation, only {@link PoolType#DEFAULT} pool supported
+     * <br>
+     * <em>default 0</em>
+     */
+    private long idleValidationInterval;
+
     /**
      * Validate on returning an object to pool
      * <br><br/>
@@ -47,6 +102,85 @@ public class PoolConfiguration {
     /** retry to create pool object if exception occur, default 0 */
     private int createRetryCount;
 
+    /**
+     * Initial backoff in milliseconds before retrying to create pool object, doubled on each retry up to
+     * {@link #createRetryMaxBackoff} and randomized by half of it, so that retries of borrowers are spread out
+     * <br>
+     * <em>default 100 milliseconds</em>
+     */
+    private long createRetryBackoff;
+
+    /**
+     * Max backoff in milliseconds before retrying to create pool object
+     * <br>
+     * <em>default 10 seconds</em>
+     */
+    private long createRetryMaxBackoff;
+
+    /**
+     * Number of consecutive creation failures opening the circuit breaker, borrowers fail fast instead of creating
+     * pool object while circuit breaker is open, set it to negative or 0 means no circuit breaker
+     * <br>
+     * <em>default 5</em>
+     */
+    private int circuitBreakerThreshold;
+
+    /**
+     * Cool-down period in milliseconds of the open circuit breaker, after which a single creation is allowed to probe,
+     * circuit breaker closes if succeed, otherwise opens again
+     * <br>
+     * <em>default 10 seconds</em>
+     */
+    private long circuitBreakerCoolDown;
+
+    /**
+     * Threshold in milliseconds of reporting the object borrowed longer than it as a leak,
+     * set it to negative or 0 means no leak detection, only {@link PoolType#DEFAULT} pool supported
+     * <br>
+     * <em>default 0</em>
+     */
+    private long leakDetectionThreshold;
+
+    /**
+     * Capture borrowing stack trace for one of every N borrows, reported with the leak object, 1 means capturing in each borrow,
+     * set it to negative or 0 means never capture
+     * <br>
+     * <em>default 0</em>
+     */
+    private int leakTraceSampling;
+
+    /**
+     * Reclaim the leaked object forcibly, which will be invalidated and no longer be returned
+     * <br>
+     * <em>default false</em>
+     */
+    private boolean leakReclaim;
+
+    /**
+     * Max number of PreparedStatement cached by each pooled connection, the least recently used one is closed when
+     * the cache is full, 0 means no statement cache
+     * <br>
+     * <em>default 0</em>
+     */
+    private int statementCacheSize;
+
+    /**
+     * Max number of threads creating pool objects in background, not greater than max pool size,
+     * only {@link PoolType#DEFAULT} pool supported
+     * <br>
+     * <em>default 4</em>
+     */
+    private int createParallelism;
+
+    /**
+     * Max number of borrower threads running the blocking borrowing or creating of asynchronous borrowing at the same
+     * time for the pool, asynchronous borrowing beyond it fails with {@link java.util.concurrent.RejectedExecutionException}
+     * rather than starting more threads, set it to 0 or negative means the default
+     * <br>
+     * <em>default 64</em>
+     */
+    private int asyncBorrowerThreads;
+
     /**
      * Life time of scheduled thread in milliseconds, but set it to negative or 0 means never timeout
      * <br>
@@ -55,6 +189,44 @@ public class PoolConfiguration {
      */
     private long scheduledThreadLifeTime;
 
+    /**
+     * Interval in milliseconds of adaptive sizing, which grows pool size limit up to max pool size while borrowing wait time
+     * exceeds the target, and shrinks it down to min idle gracefully while utilization stays low,
+     * set it to negative or 0 means fixed pool size, only {@link PoolType#DEFAULT} pool supported
+     * <br>
+     * <em>default 0</em>
+     */
+    private long adaptiveSizingInterval;
+
+    /**
+     * Target of borrowing wait time (p95) in milliseconds for adaptive sizing
+     * <br>
+     * <em>default 10 milliseconds</em>
+     */
+    private long adaptiveWaitTarget;
+
+    /**
+     * Name of pool, which identifies the pool MBeans, generated by pool if absent
+     * <br>
+     * <em>default null</em>
+     */
+    private String poolName;
+
+    /**
+     * Register pool stats and pool config as MBeans <code>cn.icuter.jsql:type=PoolStats|PoolConfig,name=&lt;poolName&gt;</code>
+     * to platform MBean server
+     * <br>
+     * <em>default false</em>
+     */
+    private boolean jmxEnabled;
+
+    /**
+     * Implementation of object pool
+     * <br>
+     * <em>default {@link PoolType#DEFAULT}</em>
+     */
+    private PoolType poolType;
+
     public static PoolConfiguration defaultPoolCfg() {
         PoolConfiguration poolConfiguration = new PoolConfiguration();
         poolConfiguration.setMaxPoolSize(20);
@@ -63,6 +235,48 @@ public class PoolConfiguration {
         poolConfiguration.setScheduledThreadLifeTime(TimeUnit.MINUTES.toMillis(5));
         poolConfiguration.setValidateOnBorrow(true);
         poolConfiguration.setValidateOnReturn(false);
+        poolConfiguration.setCreateParallelism(4);
+        poolConfiguration.setAsyncBorrowerThreads(64);
+        poolConfiguration.setCreateRetryBackoff(100);
+        poolConfiguration.setCreateRetryMaxBackoff(TimeUnit.SECONDS.toMillis(10));
+        poolConfiguration.setCircuitBreakerThreshold(5);
+        poolConfiguration.setCircuitBreakerCoolDown(TimeUnit.SECONDS.toMillis(10));
+        poolConfiguration.setAdaptiveWaitTarget(10);
+        poolConfiguration.setPoolType(PoolType.DEFAULT);
+        return poolConfiguration;
+    }
+
+    public PoolConfiguration copy() {
+        PoolConfiguration poolConfiguration = new PoolConfiguration();
+        poolConfiguration.maxPoolSize = maxPoolSize;
+        poolConfiguration.maxTotalPoolSize = maxTotalPoolSize;
+        poolConfiguration.minIdle = minIdle;
+        poolConfiguration.idleTimeout = idleTimeout;
+        poolConfiguration.maxLifetime = maxLifetime;
+        poolConfiguration.maxLifetimeJitter = maxLifetimeJitter;
+        poolConfiguration.maxEvictionsPerRun = maxEvictionsPerRun;
+        poolConfiguration.validateOnBorrow = validateOnBorrow;
+        poolConfiguration.validationSkipWindow = validationSkipWindow;
+        poolConfiguration.idleValidationInterval = idleValidationInterval;
+        poolConfiguration.validateOnReturn = validateOnReturn;
+        poolConfiguration.pollTimeout = pollTimeout;
+        poolConfiguration.createRetryCount = createRetryCount;
+        poolConfiguration.createRetryBackoff = createRetryBackoff;
+        poolConfiguration.createRetryMaxBackoff = createRetryMaxBackoff;
+        poolConfiguration.circuitBreakerThreshold = circuitBreakerThreshold;
+        poolConfiguration.circuitBreakerCoolDown = circuitBreakerCoolDown;
+        poolConfiguration.leakDetectionThreshold = leakDetectionThreshold;
+        poolConfiguration.leakTraceSampling = leakTraceSampling;
+        poolConfiguration.leakReclaim = leakReclaim;
+        poolConfiguration.statementCacheSize = statementCacheSize;
+        poolConfiguration.createParallelism = createParallelism;
+        poolConfiguration.asyncBorrowerThreads = asyncBorrowerThreads;
+        poolConfiguration.scheduledThreadLifeTime = scheduledThreadLifeTime;
+        poolConfiguration.adaptiveSizingInterval = adaptiveSizingInterval;
+        poolConfiguration.adaptiveWaitTarget = adaptiveWaitTarget;
+        poolConfiguration.poolName = poolName;
+        poolConfiguration.jmxEnabled = jmxEnabled;
+        poolConfiguration.poolType = poolType;
         return poolConfiguration;
     }
 
@@ -74,6 +288,22 @@ public class PoolConfiguration {
         this.maxPoolSize = maxPoolSize;
     }
 
+    public int getMaxTotalPoolSize() {
+        return maxTotalPoolSize;
+    }
+
+    public void setMaxTotalPoolSize(int maxTotalPoolSize) {
+        this.maxTotalPoolSize = maxTotalPoolSize;
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
     public long getPollTimeout() {
         return pollTimeout;
     }
@@ -90,6 +320,30 @@ public class PoolConfiguration {
         this.idleTimeout = idleTimeout;
     }
 
+    public long getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    public void setMaxLifetime(long maxLifetime) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    public long getMaxLifetimeJitter() {
+        return maxLifetimeJitter;
+    }
+
+    public void setMaxLifetimeJitter(long maxLifetimeJitter) {
+        this.maxLifetimeJitter = maxLifetimeJitter;
+    }
+
+    public int getMaxEvictionsPerRun() {
+        return maxEvictionsPerRun;
+    }
+
+    public void setMaxEvictionsPerRun(int maxEvictionsPerRun) {
+        this.maxEvictionsPerRun = maxEvictionsPerRun;
+    }
+
     public int getCreateRetryCount() {
         return createRetryCount;
     }
@@ -98,6 +352,86 @@ public class PoolConfiguration {
         this.createRetryCount = createRetryCount;
     }
 
+    public long getCreateRetryBackoff() {
+        return createRetryBackoff;
+    }
+
+    public void setCreateRetryBackoff(long createRetryBackoff) {
+        this.createRetryBackoff = createRetryBackoff;
+    }
+
+    public long getCreateRetryMaxBackoff() {
+        return createRetryMaxBackoff;
+    }
+
+    public void setCreateRetryMaxBackoff(long createRetryMaxBackoff) {
+        this.createRetryMaxBackoff = createRetryMaxBackoff;
+    }
+
+    public int getCircuitBreakerThreshold() {
+        return circuitBreakerThreshold;
+    }
+
+    public void setCircuitBreakerThreshold(int circuitBreakerThreshold) {
+        this.circuitBreakerThreshold = circuitBreakerThreshold;
+    }
+
+    public long getCircuitBreakerCoolDown() {
+        return circuitBreakerCoolDown;
+    }
+
+    public void setCircuitBreakerCoolDown(long circuitBreakerCoolDown) {
+        this.circuitBreakerCoolDown = circuitBreakerCoolDown;
+    }
+
+    public long getLeakDetectionThreshold() {
+        return leakDetectionThreshold;
+    }
+
+    public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+        this.leakDetectionThreshold = leakDetectionThreshold;
+    }
+
+    public int getLeakTraceSampling() {
+        return leakTraceSampling;
+    }
+
+    public void setLeakTraceSampling(int leakTraceSampling) {
+        this.leakTraceSampling = leakTraceSampling;
+    }
+
+    public boolean isLeakReclaim() {
+        return leakReclaim;
+    }
+
+    public void setLeakReclaim(boolean leakReclaim) {
+        this.leakReclaim = leakReclaim;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public int getCreateParallelism() {
+        return createParallelism;
+    }
+
+    public void setCreateParallelism(int createParallelism) {
+        this.createParallelism = createParallelism;
+    }
+
+    public int getAsyncBorrowerThreads() {
+        return asyncBorrowerThreads;
+    }
+
+    public void setAsyncBorrowerThreads(int asyncBorrowerThreads) {
+        this.asyncBorrowerThreads = asyncBorrowerThreads;
+    }
+
     public void setValidateOnBorrow(boolean validateOnBorrow) {
         this.validateOnBorrow = validateOnBorrow;
     }
@@ -106,6 +440,22 @@ public class PoolConfiguration {
         this.validateOnReturn = validateOnReturn;
     }
 
+    public long getValidationSkipWindow() {
+        return validationSkipWindow;
+    }
+
+    public void setValidationSkipWindow(long validationSkipWindow) {
+        this.validationSkipWindow = validationSkipWindow;
+    }
+
+    public long getIdleValidationInterval() {
+        return idleValidationInterval;
+    }
+
+    public void setIdleValidationInterval(long idleValidationInterval) {
+        this.idleValidationInterval = idleValidationInterval;
+    }
+
     public boolean isValidateOnBorrow() {
         return validateOnBorrow;
     }
@@ -122,16 +472,90 @@ public class PoolConfiguration {
         this.scheduledThreadLifeTime = scheduledThreadLifeTime;
     }
 
+    public long getAdaptiveSizingInterval() {
+        return adaptiveSizingInterval;
+    }
+
+    public void setAdaptiveSizingInterval(long adaptiveSizingInterval) {
+        this.adaptiveSizingInterval = adaptiveSizingInterval;
+    }
+
+    public long getAdaptiveWaitTarget() {
+        return adaptiveWaitTarget;
+    }
+
+    public void setAdaptiveWaitTarget(long adaptiveWaitTarget) {
+        this.adaptiveWaitTarget = adaptiveWaitTarget;
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public void setPoolName(String poolName) {
+        this.poolName = poolName;
+    }
+
+    public boolean isJmxEnabled() {
+        return jmxEnabled;
+    }
+
+    public void setJmxEnabled(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    public PoolType getPoolType() {
+        return poolType;
+    }
+
+    public void setPoolType(PoolType poolType) {
+        this.poolType = poolType;
+    }
+
     @Override
     public String toString() {
         return "PoolConfiguration{"
                 + "maxPoolSize=" + maxPoolSize
+                + ", maxTotalPoolSize=" + maxTotalPoolSize
+                + ", minIdle=" + minIdle
                 + ", idleTimeout=" + idleTimeout + "ms"
+                + ", maxLifetime=" + maxLifetime + "ms"
+                + ", maxLifetimeJitter=" + maxLifetimeJitter + "ms"
+                + ", maxEvictionsPerRun=" + maxEvictionsPerRun
                 + ", pollTimeout=" + pollTimeout + "ms"
                 + ", scheduledThreadLifeTime=" + scheduledThreadLifeTime + "ms"
                 + ", validateOnBorrow=" + validateOnBorrow
                 + ", validateOnReturn=" + validateOnReturn
+                + ", validationSkipWindow=" + validationSkipWindow + "ms"
+                + ", idleValidationInterval=" + idleValidationInterval + "ms"
                 + ", createRetryCount=" + createRetryCount
+                + ", createRetryBackoff=" + createRetryBackoff + "ms"
+                + ", createRetryMaxBackoff=" + createRetryMaxBackoff + "ms"
+                + ", circuitBreakerThreshold=" + circuitBreakerThreshold
+                + ", circuitBreakerCoolDown=" + circuitBreakerCoolDown + "ms"
+                + ", createParallelism=" + createParallelism
+                + ", asyncBorrowerThreads=" + asyncBorrowerThreads
+                + ", leakDetectionThreshold=" + leakDetectionThreshold + "ms"
+                + ", leakTraceSampling=" + leakTraceSampling
+                + ", leakReclaim=" + leakReclaim
+                + ", statementCacheSize=" + statementCacheSize
+                + ", adaptiveSizingInterval=" + adaptiveSizingInterval + "ms"
+                + ", adaptiveWaitTarget=" + adaptiveWaitTarget + "ms"
+                + ", poolName=" + poolName
+                + ", jmxEnabled=" + jmxEnabled
+                + ", poolType=" + poolType
                 + "}";
     }
+
+    public enum PoolType {
+        /**
+         * {@link cn.icuter.jsql.pool.DefaultObjectPool}, idle objects are kept in one shared deque
+         */
+        DEFAULT,
+        /**
+         * {@link cn.icuter.jsql.pool.ConcurrentObjectPool}, lock-free and thread affine,
+         * better for a large number of borrowing threads
+         */
+        CONCURRENT
+    }
 }
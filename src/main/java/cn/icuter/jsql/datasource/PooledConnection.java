@@ -11,6 +11,7 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.NClob;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLClientInfoException;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
@@ -19,21 +20,142 @@ import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Struct;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.concurrent.Executor;
 
 /**
+ * Connection of pool, which tracks session state (autoCommit, readOnly, transaction isolation, catalog and schema)
+ * so that setters changing nothing and getters are served without round trips to database, and only the state changed
+ * by previous borrower is restored on next borrowing.
+ * <br>
+ * State changed by executing statements, such as <code>SET SCHEMA</code>, is out of track.
+ * <br>
+ * PreparedStatement is cached per connection if statement cache is enabled, see {@link StatementCache}.
+ *
  * @author edward
  * @since 2018-12-23
  */
 public class PooledConnection implements Connection {
 
+    private static final int STATE_READ_ONLY = 1;
+    private static final int STATE_TRANSACTION_ISOLATION = 1 << 1;
+    private static final int STATE_CATALOG = 1 << 2;
+    private static final int STATE_SCHEMA = 1 << 3;
+
     PooledObject<Connection> pooledObject;
     Connection connection;
+
+    // connection is created in auto-commit mode
+    boolean autoCommit = true;
+    private boolean readOnly;
+    private int transactionIsolation;
+    private String catalog;
+    private String schema;
+    // state value is cached
+    private int cachedState;
+    // state has been changed, and its initial value is kept for restoring
+    private int changedState;
+    private boolean initialReadOnly;
+    private int initialTransactionIsolation;
+    private String initialCatalog;
+    private String initialSchema;
+    private boolean broken;
+    // null if statement cache is disabled
+    private final StatementCache statementCache;
+
     PooledConnection(Connection connection) {
+        this(connection, 0, null);
+    }
+
+    PooledConnection(Connection connection, int statementCacheSize, StatementCacheStats statementCacheStats) {
         this.connection = connection;
         this.pooledObject = new PooledObject<Connection>(this);
+        this.statementCache = statementCacheSize > 0 ? new StatementCache(statementCacheSize, statementCacheStats) : null;
+    }
+
+    /**
+     * Prepare the borrowed connection for the borrower, connection is marked broken if any error occurs, and will be
+     * invalidated on returning
+     *
+     * @param connection borrowed connection
+     * @param autoCommit auto-commit mode the borrower wants
+     * @throws SQLException restoring session state error
+     */
+    static void resetSessionState(Connection connection, boolean autoCommit) throws SQLException {
+        if (connection instanceof PooledConnection) {
+            ((PooledConnection) connection).resetSessionState(autoCommit);
+        } else if (!autoCommit) {
+            connection.setAutoCommit(false);
+        }
     }
+
+    private void resetSessionState(boolean autoCommit) throws SQLException {
+        try {
+            if (isChanged(STATE_READ_ONLY) && readOnly != initialReadOnly) {
+                connection.setReadOnly(initialReadOnly);
+                readOnly = initialReadOnly;
+            }
+            if (isChanged(STATE_TRANSACTION_ISOLATION) && transactionIsolation != initialTransactionIsolation) {
+                connection.setTransactionIsolation(initialTransactionIsolation);
+                transactionIsolation = initialTransactionIsolation;
+            }
+            if (isChanged(STATE_CATALOG) && !Objects.equals(catalog, initialCatalog)) {
+                connection.setCatalog(initialCatalog);
+                catalog = initialCatalog;
+            }
+            if (isChanged(STATE_SCHEMA) && !Objects.equals(schema, initialSchema)) {
+                connection.setSchema(initialSchema);
+                schema = initialSchema;
+            }
+            // auto-commit mode is left as it was on returning, and switched only if borrower wants the other one
+            if (this.autoCommit != autoCommit) {
+                connection.setAutoCommit(autoCommit);
+                this.autoCommit = autoCommit;
+            }
+        } catch (SQLException e) {
+            broken = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Commit the transaction left open by borrower, as <code>setAutoCommit(true)</code> does, but keep the
+     * manual-commit mode for the next transaction
+     *
+     * @throws SQLException if connection is broken or ending transaction error
+     */
+    void passivate() throws SQLException {
+        if (broken) {
+            throw new SQLException("connection is broken while restoring session state");
+        }
+        if (!autoCommit) {
+            // statements could be executed out of track, e.g. prepared before the last commit, so always end it
+            connection.commit();
+        }
+    }
+
+    /**
+     * Close all cached statements, called before the connection is invalidated
+     */
+    void clearStatementCache() {
+        if (statementCache != null) {
+            statementCache.clear();
+        }
+    }
+
+    int getStatementCacheSize() {
+        return statementCache != null ? statementCache.size() : 0;
+    }
+
+    private boolean isCached(int state) {
+        return (cachedState & state) != 0;
+    }
+
+    private boolean isChanged(int state) {
+        return (changedState & state) != 0;
+    }
+
     @Override
     public Statement createStatement() throws SQLException {
         checkIsBorrowed();
@@ -43,6 +165,9 @@ public class PooledConnection implements Connection {
     @Override
     public PreparedStatement prepareStatement(String sql) throws SQLException {
         checkIsBorrowed();
+        if (statementCache != null) {
+            return statementCache.prepare(this, connection, sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        }
         return connection.prepareStatement(sql);
     }
 
@@ -61,13 +186,17 @@ public class PooledConnection implements Connection {
     @Override
     public void setAutoCommit(boolean autoCommit) throws SQLException {
         checkIsBorrowed();
+        if (this.autoCommit == autoCommit) {
+            return;
+        }
         connection.setAutoCommit(autoCommit);
+        this.autoCommit = autoCommit;
     }
 
     @Override
     public boolean getAutoCommit() throws SQLException {
         checkIsBorrowed();
-        return connection.getAutoCommit();
+        return autoCommit;
     }
 
     @Override
@@ -84,9 +213,13 @@ public class PooledConnection implements Connection {
 
     @Override
     public void close() throws SQLException {
+        if (!pooledObject.isValid()) {
+            // reclaimed as leaked or closed by pool forcibly, nothing to return
+            return;
+        }
         checkIsBorrowed();
         try {
-            pooledObject.getObjectPool().returnObject(this);
+            pooledObject.getObjectPool().returnPooledObject(pooledObject);
         } catch (JSQLException e) {
             throw new SQLException("", e);
         }
@@ -105,38 +238,77 @@ public class PooledConnection implements Connection {
 
     @Override
     public void setReadOnly(boolean readOnly) throws SQLException {
-        checkIsBorrowed();
-        connection.setReadOnly(true);
+        if (isReadOnly() == readOnly) {
+            return;
+        }
+        if (!isChanged(STATE_READ_ONLY)) {
+            initialReadOnly = this.readOnly;
+            changedState |= STATE_READ_ONLY;
+        }
+        cachedState &= ~STATE_READ_ONLY;
+        connection.setReadOnly(readOnly);
+        this.readOnly = readOnly;
+        cachedState |= STATE_READ_ONLY;
     }
 
     @Override
     public boolean isReadOnly() throws SQLException {
         checkIsBorrowed();
-        return connection.isReadOnly();
+        if (!isCached(STATE_READ_ONLY)) {
+            readOnly = connection.isReadOnly();
+            cachedState |= STATE_READ_ONLY;
+        }
+        return readOnly;
     }
 
     @Override
     public void setCatalog(String catalog) throws SQLException {
-        checkIsBorrowed();
+        if (Objects.equals(getCatalog(), catalog)) {
+            return;
+        }
+        if (!isChanged(STATE_CATALOG)) {
+            initialCatalog = this.catalog;
+            changedState |= STATE_CATALOG;
+        }
+        cachedState &= ~STATE_CATALOG;
         connection.setCatalog(catalog);
+        this.catalog = catalog;
+        cachedState |= STATE_CATALOG;
     }
 
     @Override
     public String getCatalog() throws SQLException {
         checkIsBorrowed();
-        return connection.getCatalog();
+        if (!isCached(STATE_CATALOG)) {
+            catalog = connection.getCatalog();
+            cachedState |= STATE_CATALOG;
+        }
+        return catalog;
     }
 
     @Override
     public void setTransactionIsolation(int level) throws SQLException {
-        checkIsBorrowed();
+        if (getTransactionIsolation() == level) {
+            return;
+        }
+        if (!isChanged(STATE_TRANSACTION_ISOLATION)) {
+            initialTransactionIsolation = transactionIsolation;
+            changedState |= STATE_TRANSACTION_ISOLATION;
+        }
+        cachedState &= ~STATE_TRANSACTION_ISOLATION;
         connection.setTransactionIsolation(level);
+        transactionIsolation = level;
+        cachedState |= STATE_TRANSACTION_ISOLATION;
     }
 
     @Override
     public int getTransactionIsolation() throws SQLException {
         checkIsBorrowed();
-        return connection.getTransactionIsolation();
+        if (!isCached(STATE_TRANSACTION_ISOLATION)) {
+            transactionIsolation = connection.getTransactionIsolation();
+            cachedState |= STATE_TRANSACTION_ISOLATION;
+        }
+        return transactionIsolation;
     }
 
     @Override
@@ -160,6 +332,9 @@ public class PooledConnection implements Connection {
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
         checkIsBorrowed();
+        if (statementCache != null) {
+            return statementCache.prepare(this, connection, sql, resultSetType, resultSetConcurrency);
+        }
         return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
     }
 
@@ -328,14 +503,27 @@ public class PooledConnection implements Connection {
 
     @Override
     public void setSchema(String schema) throws SQLException {
-        checkIsBorrowed();
+        if (Objects.equals(getSchema(), schema)) {
+            return;
+        }
+        if (!isChanged(STATE_SCHEMA)) {
+            initialSchema = this.schema;
+            changedState |= STATE_SCHEMA;
+        }
+        cachedState &= ~STATE_SCHEMA;
         connection.setSchema(schema);
+        this.schema = schema;
+        cachedState |= STATE_SCHEMA;
     }
 
     @Override
     public String getSchema() throws SQLException {
         checkIsBorrowed();
-        return connection.getSchema();
+        if (!isCached(STATE_SCHEMA)) {
+            schema = connection.getSchema();
+            cachedState |= STATE_SCHEMA;
+        }
+        return schema;
     }
 
     @Override
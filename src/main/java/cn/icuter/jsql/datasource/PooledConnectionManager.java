@@ -12,6 +12,7 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Properties;
 
 /**
  * @author edward
@@ -23,6 +24,10 @@ public class PooledConnectionManager implements PooledObjectManager<Connection>
 
     private int checkValidTimeout; // seconds, default 5s
     private JSQLDataSource dataSource;
+    // driver properties of keyed connections, or null for the ones of data source
+    private Properties connectionProps;
+    private int statementCacheSize;
+    private final StatementCacheStats statementCacheStats = new StatementCacheStats();
 
     PooledConnectionManager(JSQLDataSource dataSource) {
         this(dataSource, 5);
@@ -31,11 +36,28 @@ public class PooledConnectionManager implements PooledObjectManager<Connection>
         this.dataSource = dataSource;
         this.checkValidTimeout = checkValidTimeout;
     }
+    PooledConnectionManager(JSQLDataSource dataSource, Properties connectionProps) {
+        this(dataSource, 5);
+        this.connectionProps = connectionProps;
+    }
+
+    /**
+     * Set max number of PreparedStatement cached by each connection created afterwards, 0 disables the cache
+     *
+     * @param statementCacheSize statement cache size per connection
+     */
+    void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    StatementCacheStats getStatementCacheStats() {
+        return statementCacheStats;
+    }
 
     @Override
     public PooledObject<Connection> create() throws JSQLException {
         try {
-            PooledConnection pooledConnection = new PooledConnection(newConnection());
+            PooledConnection pooledConnection = new PooledConnection(newConnection(), statementCacheSize, statementCacheStats);
 
             LOGGER.trace("pooled object was created");
             LOGGER.trace("created pooled connection object detail: " + pooledConnection.pooledObject);
@@ -48,7 +70,7 @@ public class PooledConnectionManager implements PooledObjectManager<Connection>
 
     private Connection newConnection() throws SQLException {
         try {
-            return dataSource.createConnection();
+            return connectionProps == null ? dataSource.createConnection() : dataSource.createConnection(connectionProps, true);
         } catch (Exception e) {
             throw new SQLException(e.getMessage(), e.getCause());
         }
@@ -57,6 +79,9 @@ public class PooledConnectionManager implements PooledObjectManager<Connection>
     @Override
     public void invalid(PooledObject<Connection> pooledObject) throws JSQLException {
         Connection connection = getRawConnection(pooledObject);
+        if (pooledObject.getObject() instanceof PooledConnection) {
+            ((PooledConnection) pooledObject.getObject()).clearStatementCache();
+        }
         try {
             if (!connection.isClosed()) {
                 connection.close();
@@ -78,15 +103,42 @@ public class PooledConnectionManager implements PooledObjectManager<Connection>
         }
     }
 
+    @Override
+    public void passivate(PooledObject<Connection> pooledObject) throws JSQLException {
+        Connection connection = pooledObject.getObject();
+        if (connection instanceof PooledConnection) {
+            try {
+                ((PooledConnection) connection).passivate();
+            } catch (SQLException e) {
+                throw new PoolException("passivating pooled connection error, pooled detail: " + pooledObject, e);
+            }
+        }
+    }
+
+    @Override
+    public Runnable cleanAction(PooledObject<Connection> pooledObject) {
+        Connection connection = getRawConnection(pooledObject);
+        return () -> {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOGGER.warn("closing Connection of unreachable pool error", e);
+            }
+        };
+    }
+
     private boolean validateConnection(PooledObject<Connection> pooledObject) throws SQLException {
         if (pooledObject == null) {
             return false;
         }
         Connection connection = getRawConnection(pooledObject);
-        return !connection.isClosed() && validateQuery(connection);
+        // idle connection might be kept in manual-commit mode for next transaction
+        boolean autoCommit = !(pooledObject.getObject() instanceof PooledConnection)
+                || ((PooledConnection) pooledObject.getObject()).autoCommit;
+        return !connection.isClosed() && validateQuery(connection, autoCommit);
     }
 
-    private boolean validateQuery(Connection connection) throws SQLException {
+    private boolean validateQuery(Connection connection, boolean autoCommit) throws SQLException {
         Dialect dialect = dataSource.getDialect();
         if (dialect.supportConnectionIsValid()) {
             return connection.isValid(checkValidTimeout);
@@ -96,6 +148,11 @@ public class PooledConnectionManager implements PooledObjectManager<Connection>
                 try (ResultSet resultSet = s.executeQuery(dialect.validationSql())) {
                     return resultSet.next();
                 }
+            } finally {
+                if (!autoCommit) {
+                    // end the transaction started by validation query
+                    connection.rollback();
+                }
             }
         }
         LOGGER.info("ignore validating query for " + dialect.getDialectName());
@@ -0,0 +1,232 @@
+package cn.icuter.jsql.datasource;
+
+import cn.icuter.jsql.log.JSQLLogger;
+import cn.icuter.jsql.log.Logs;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * LRU cache of PreparedStatement for one pooled connection, keyed by SQL, result set type and concurrency.
+ * <br>
+ * Cached statement is taken out of cache while in use, so that the same SQL executed in a nested way gets its own
+ * statement, and it is put back as the most recently used one once the borrower closes it, with parameters cleared and
+ * the fetch size, max rows and query timeout changed by borrower restored. Like the connection, the cache is used by one
+ * thread at a time.
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+final class StatementCache {
+
+    private static final JSQLLogger LOGGER = Logs.getLogger(StatementCache.class);
+
+    private final int maxSize;
+    private final StatementCacheStats stats;
+    // the eldest is the least recently used
+    private final Map<Key, PreparedStatement> statements = new LinkedHashMap<>();
+
+    StatementCache(int maxSize, StatementCacheStats stats) {
+        this.maxSize = maxSize;
+        this.stats = stats;
+    }
+
+    /**
+     * Take the cached statement out, or prepare a new one if absent
+     *
+     * @param owner connection returned by {@link PreparedStatement#getConnection()}
+     * @param raw connection preparing statement
+     * @return statement put back to cache on closing
+     */
+    PreparedStatement prepare(Connection owner, Connection raw, String sql, int resultSetType, int resultSetConcurrency)
+            throws SQLException {
+        Key key = new Key(sql, resultSetType, resultSetConcurrency);
+        PreparedStatement statement = statements.remove(key);
+        if (statement != null) {
+            stats.hitCnt.increment();
+        } else {
+            stats.missCnt.increment();
+            statement = resultSetType == ResultSet.TYPE_FORWARD_ONLY && resultSetConcurrency == ResultSet.CONCUR_READ_ONLY
+                    ? raw.prepareStatement(sql)
+                    : raw.prepareStatement(sql, resultSetType, resultSetConcurrency);
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, new CachedStatementHandler(this, key, statement, owner));
+    }
+
+    private void putBack(CachedStatementHandler handler) {
+        Key key = handler.key;
+        PreparedStatement statement = handler.statement;
+        try {
+            if (statement.isClosed()) {
+                return;
+            }
+            if (statements.containsKey(key)) {
+                // the same SQL was executed in a nested way, keep the cached one
+                statement.close();
+                return;
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+            handler.restoreSettings();
+        } catch (SQLException e) {
+            LOGGER.warn("resetting cached statement error, it will be closed, sql: " + key.sql, e);
+            closeQuietly(statement);
+            return;
+        }
+        statements.put(key, statement);
+        if (statements.size() > maxSize) {
+            Iterator<PreparedStatement> iterator = statements.values().iterator();
+            PreparedStatement eldest = iterator.next();
+            iterator.remove();
+            stats.evictionCnt.increment();
+            closeQuietly(eldest);
+        }
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    /**
+     * Close all cached statements, called before the connection is closed
+     */
+    void clear() {
+        for (PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            LOGGER.warn("closing cached statement error", e);
+        }
+    }
+
+    static final class Key {
+        private final String sql;
+        private final int resultSetType;
+        private final int resultSetConcurrency;
+
+        Key(String sql, int resultSetType, int resultSetConcurrency) {
+            this.sql = sql;
+            this.resultSetType = resultSetType;
+            this.resultSetConcurrency = resultSetConcurrency;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return resultSetType == key.resultSetType && resultSetConcurrency == key.resultSetConcurrency && sql.equals(key.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, resultSetType, resultSetConcurrency);
+        }
+    }
+
+    /**
+     * Delegates to the cached statement, and puts it back to cache instead of closing
+     */
+    private static final class CachedStatementHandler implements InvocationHandler {
+        private final StatementCache cache;
+        private final Key key;
+        private final PreparedStatement statement;
+        private final Connection owner;
+        private boolean closed;
+        // settings before changed by borrower, null if unchanged
+        private Integer fetchSize;
+        private Integer maxRows;
+        private Integer queryTimeout;
+
+        CachedStatementHandler(StatementCache cache, Key key, PreparedStatement statement, Connection owner) {
+            this.cache = cache;
+            this.key = key;
+            this.statement = statement;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (method.getDeclaringClass() == Object.class) {
+                if (name.equals("equals")) {
+                    return proxy == args[0];
+                }
+                return name.equals("hashCode") ? System.identityHashCode(proxy) : "Cached" + statement;
+            }
+            if (name.equals("close")) {
+                if (!closed) {
+                    closed = true;
+                    cache.putBack(this);
+                }
+                return null;
+            }
+            if (name.equals("isClosed")) {
+                return closed || statement.isClosed();
+            }
+            if (closed) {
+                throw new SQLException("statement has been closed");
+            }
+            if (name.equals("getConnection")) {
+                return owner;
+            }
+            // never leak the raw statement, borrower would close it while it still stays in cache
+            if ((name.equals("unwrap") || name.equals("isWrapperFor")) && ((Class<?>) args[0]).isInstance(proxy)) {
+                return name.equals("unwrap") ? proxy : Boolean.TRUE;
+            }
+            recordSettings(name);
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        private void recordSettings(String name) throws SQLException {
+            if (name.equals("setFetchSize") && fetchSize == null) {
+                fetchSize = statement.getFetchSize();
+            } else if ((name.equals("setMaxRows") || name.equals("setLargeMaxRows")) && maxRows == null) {
+                maxRows = statement.getMaxRows();
+            } else if (name.equals("setQueryTimeout") && queryTimeout == null) {
+                queryTimeout = statement.getQueryTimeout();
+            }
+        }
+
+        /**
+         * Restore the settings changed by borrower, so that the next borrower of the same SQL never inherits them
+         */
+        private void restoreSettings() throws SQLException {
+            if (fetchSize != null) {
+                statement.setFetchSize(fetchSize);
+            }
+            if (maxRows != null) {
+                statement.setMaxRows(maxRows);
+            }
+            if (queryTimeout != null) {
+                statement.setQueryTimeout(queryTimeout);
+            }
+        }
+    }
+}
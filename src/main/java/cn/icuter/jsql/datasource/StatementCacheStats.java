@@ -0,0 +1,43 @@
+package cn.icuter.jsql.datasource;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of PreparedStatement caches of all connections in a pool
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+public class StatementCacheStats {
+
+    final LongAdder hitCnt = new LongAdder();
+    final LongAdder missCnt = new LongAdder();
+    final LongAdder evictionCnt = new LongAdder();
+
+    public long getHitCount() {
+        return hitCnt.sum();
+    }
+
+    public long getMissCount() {
+        return missCnt.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCnt.sum();
+    }
+
+    public double getHitRatio() {
+        long hit = getHitCount();
+        long total = hit + getMissCount();
+        return total > 0 ? (double) hit / total : 0D;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCacheStats {hitCnt=" + getHitCount()
+                + ", missCnt=" + getMissCount()
+                + ", evictionCnt=" + getEvictionCount()
+                + ", hitRatio=" + String.format("%.2f", getHitRatio())
+                + "}";
+    }
+}
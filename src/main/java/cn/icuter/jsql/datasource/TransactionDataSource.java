@@ -4,6 +4,7 @@ import cn.icuter.jsql.builder.Builder;
 import cn.icuter.jsql.dialect.Dialect;
 import cn.icuter.jsql.exception.JSQLException;
 import cn.icuter.jsql.executor.JdbcExecutor;
+import cn.icuter.jsql.executor.RowHandler;
 import cn.icuter.jsql.executor.TransactionExecutor;
 import cn.icuter.jsql.transaction.Transaction;
 
@@ -11,6 +12,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 public class TransactionDataSource extends AbstractBuilderDataSource implements Transaction, Closeable {
     private IgnoreCloseableTransactionExecutor executor;
@@ -102,8 +104,16 @@ public class TransactionDataSource extends AbstractBuilderDataSource implements
             return transactionExecutor.execQuery(builder);
         }
         @Override
-        public void execBatch(List<Builder> builders) throws JSQLException {
-            transactionExecutor.execBatch(builders);
+        public <T> Stream<T> execQueryStream(Builder builder, Class<T> clazz) throws JSQLException {
+            return transactionExecutor.execQueryStream(builder, clazz);
+        }
+        @Override
+        public <T> void execQuery(Builder builder, Class<T> clazz, RowHandler<? super T> handler) throws JSQLException {
+            transactionExecutor.execQuery(builder, clazz, handler);
+        }
+        @Override
+        public int[] execBatch(List<Builder> builders, int batchSize) throws JSQLException {
+            return transactionExecutor.execBatch(builders, batchSize);
         }
         @Override
         public void close() {
@@ -62,4 +62,14 @@ public class DB2Dialect implements Dialect {
     public boolean supportNClob() {
         return false;
     }
+
+    @Override
+    public boolean supportMultiRowInsert() {
+        return true;
+    }
+
+    @Override
+    public String upsertSql(String tableName, String[] columns, String[] keyColumns, int rowCount) {
+        return Dialects.mergeUsingValuesSql(tableName, columns, keyColumns, rowCount);
+    }
 }
@@ -45,6 +45,43 @@ public interface Dialect {
     default boolean requireUserPassword() {
         return true;
     }
+    /**
+     * Whether multi-row insert <code>insert into t(a,b) values(?,?),(?,?)</code> is supported
+     *
+     * @return false by default
+     */
+    default boolean supportMultiRowInsert() {
+        return false;
+    }
+    /**
+     * Max number of bind parameters of one statement
+     *
+     * @return {@link Short#MAX_VALUE} by default
+     */
+    default int maxParameterCount() {
+        return Short.MAX_VALUE;
+    }
+    /**
+     * Max number of rows of one multi-row insert
+     *
+     * @return {@link Integer#MAX_VALUE} by default
+     */
+    default int maxInsertRowCount() {
+        return Integer.MAX_VALUE;
+    }
+    /**
+     * SQL inserting rows, or updating the existing ones matched by key columns, placeholders are in order of rows and
+     * then columns
+     *
+     * @param tableName table to upsert
+     * @param columns columns of rows
+     * @param keyColumns columns identifying the existing row, e.g. primary key or unique key
+     * @param rowCount number of rows
+     * @return upsert SQL
+     */
+    default String upsertSql(String tableName, String[] columns, String[] keyColumns, int rowCount) {
+        throw new UnsupportedOperationException("upsert is not supported by dialect " + getDialectName());
+    }
 
     default String getQuoteString() {
         return "";
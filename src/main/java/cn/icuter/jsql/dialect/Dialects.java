@@ -3,9 +3,14 @@ package cn.icuter.jsql.dialect;
 import cn.icuter.jsql.builder.BuilderContext;
 import cn.icuter.jsql.builder.SQLStringBuilder;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * @author edward
@@ -93,4 +98,57 @@ public abstract class Dialects {
     static String getRowNumberAlias(BuilderContext builderContext) {
         return "rownumber_" + builderContext.getSqlLevel() + "_";
     }
+
+    static String rowsPlaceHolder(int columnCount, int rowCount) {
+        String rowPlaceHolder = "(" + String.join(",", Collections.nCopies(columnCount, "?")) + ")";
+        return "values" + String.join(",", Collections.nCopies(rowCount, rowPlaceHolder));
+    }
+
+    static List<String> updateColumns(String[] columns, String[] keyColumns) {
+        List<String> keyList = Arrays.asList(keyColumns);
+        List<String> updateColumns = new ArrayList<>(columns.length);
+        for (String column : columns) {
+            if (!keyList.contains(column)) {
+                updateColumns.add(column);
+            }
+        }
+        return updateColumns;
+    }
+
+    /**
+     * Upsert by <code>insert ... on conflict (keys) do update set col=excluded.col</code>
+     */
+    static String onConflictUpsertSql(String tableName, String[] columns, String[] keyColumns, int rowCount) {
+        List<String> updateColumns = updateColumns(columns, keyColumns);
+        String sql = "insert into " + tableName + " (" + String.join(",", columns) + ") "
+                + rowsPlaceHolder(columns.length, rowCount) + " on conflict (" + String.join(",", keyColumns) + ") do ";
+        if (updateColumns.isEmpty()) {
+            return sql + "nothing";
+        }
+        return sql + "update set " + updateColumns.stream().map(col -> col + "=excluded." + col).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Upsert by <code>merge into t target_ using (values(...)) source_ (cols) on (...) when matched ... when not
+     * matched ...</code>
+     */
+    static String mergeUsingValuesSql(String tableName, String[] columns, String[] keyColumns, int rowCount) {
+        return mergeSql(tableName, "(" + rowsPlaceHolder(columns.length, rowCount) + ") source_ (" + String.join(",", columns) + ")",
+                columns, keyColumns);
+    }
+
+    static String mergeSql(String tableName, String source, String[] columns, String[] keyColumns) {
+        List<String> updateColumns = updateColumns(columns, keyColumns);
+        StringBuilder sql = new StringBuilder("merge into ").append(tableName).append(" target_ using ").append(source)
+                .append(" on (")
+                .append(Arrays.stream(keyColumns).map(col -> "target_." + col + "=source_." + col).collect(Collectors.joining(" and ")))
+                .append(")");
+        if (!updateColumns.isEmpty()) {
+            sql.append(" when matched then update set ")
+                    .append(updateColumns.stream().map(col -> col + "=source_." + col).collect(Collectors.joining(",")));
+        }
+        return sql.append(" when not matched then insert (").append(String.join(",", columns)).append(") values(")
+                .append(Arrays.stream(columns).map(col -> "source_." + col).collect(Collectors.joining(",")))
+                .append(")").toString();
+    }
 }
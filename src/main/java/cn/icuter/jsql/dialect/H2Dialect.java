@@ -27,6 +27,17 @@ public class H2Dialect implements Dialect {
         return true;
     }
 
+    @Override
+    public boolean supportMultiRowInsert() {
+        return true;
+    }
+
+    @Override
+    public String upsertSql(String tableName, String[] columns, String[] keyColumns, int rowCount) {
+        return "merge into " + tableName + " (" + String.join(",", columns) + ") key (" + String.join(",", keyColumns) + ") "
+                + Dialects.rowsPlaceHolder(columns.length, rowCount);
+    }
+
     @Override
     public String getQuoteString() {
         return "\"";
@@ -2,6 +2,10 @@ package cn.icuter.jsql.dialect;
 
 import cn.icuter.jsql.builder.BuilderContext;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * @author edward
  * @since 2018-08-29
@@ -27,6 +31,27 @@ public class MySQLDialect implements Dialect {
         return true;
     }
 
+    @Override
+    public boolean supportMultiRowInsert() {
+        return true;
+    }
+
+    @Override
+    public int maxParameterCount() {
+        return 65535;
+    }
+
+    @Override
+    public String upsertSql(String tableName, String[] columns, String[] keyColumns, int rowCount) {
+        List<String> updateColumns = Dialects.updateColumns(columns, keyColumns);
+        if (updateColumns.isEmpty()) {
+            updateColumns = Collections.singletonList(keyColumns[0]);
+        }
+        return "insert into " + tableName + " (" + String.join(",", columns) + ") "
+                + Dialects.rowsPlaceHolder(columns.length, rowCount) + " on duplicate key update "
+                + updateColumns.stream().map(col -> col + "=values(" + col + ")").collect(Collectors.joining(","));
+    }
+
     @Override
     public String getQuoteString() {
         return "`";
@@ -3,6 +3,10 @@ package cn.icuter.jsql.dialect;
 import cn.icuter.jsql.builder.BuilderContext;
 import cn.icuter.jsql.builder.SQLStringBuilder;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
 /**
  * @author edward
  * @since 2018-08-30
@@ -46,6 +50,13 @@ public class OracleDialect implements Dialect {
         return true;
     }
 
+    @Override
+    public String upsertSql(String tableName, String[] columns, String[] keyColumns, int rowCount) {
+        String row = "select " + Arrays.stream(columns).map(col -> "? " + col).collect(Collectors.joining(",")) + " from dual";
+        String source = "(" + String.join(" union all ", Collections.nCopies(rowCount, row)) + ") source_";
+        return Dialects.mergeSql(tableName, source, columns, keyColumns);
+    }
+
     @Override
     public String getQuoteString() {
         return "\"";
@@ -42,6 +42,16 @@ public class PostgreSQLDialect implements Dialect {
         return false;
     }
 
+    @Override
+    public boolean supportMultiRowInsert() {
+        return true;
+    }
+
+    @Override
+    public String upsertSql(String tableName, String[] columns, String[] keyColumns, int rowCount) {
+        return Dialects.onConflictUpsertSql(tableName, columns, keyColumns, rowCount);
+    }
+
     @Override
     public String getQuoteString() {
         return "\"";
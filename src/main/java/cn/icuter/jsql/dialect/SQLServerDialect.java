@@ -15,6 +15,30 @@ public class SQLServerDialect implements Dialect {
         return "sqlserver";
     }
 
+    /**
+     * SQLServer allows 2100 parameters at most, including the ones added by driver
+     */
+    @Override
+    public int maxParameterCount() {
+        return 2000;
+    }
+
+    /**
+     * Table value constructor allows 1000 rows at most
+     */
+    @Override
+    public int maxInsertRowCount() {
+        return 1000;
+    }
+
+    /**
+     * MERGE statement must be terminated by semicolon
+     */
+    @Override
+    public String upsertSql(String tableName, String[] columns, String[] keyColumns, int rowCount) {
+        return Dialects.mergeUsingValuesSql(tableName, columns, keyColumns, rowCount) + ";";
+    }
+
     @Override
     public String getQuoteString() {
         return "\"";
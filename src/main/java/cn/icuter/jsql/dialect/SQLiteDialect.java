@@ -47,6 +47,27 @@ public class SQLiteDialect implements Dialect {
         return false;
     }
 
+    @Override
+    public boolean supportMultiRowInsert() {
+        return true;
+    }
+
+    /**
+     * SQLITE_MAX_VARIABLE_NUMBER defaults to 999 before SQLite 3.32.0
+     */
+    @Override
+    public int maxParameterCount() {
+        return 999;
+    }
+
+    /**
+     * Upsert is supported since SQLite 3.24.0
+     */
+    @Override
+    public String upsertSql(String tableName, String[] columns, String[] keyColumns, int rowCount) {
+        return Dialects.onConflictUpsertSql(tableName, columns, keyColumns, rowCount);
+    }
+
     @Override
     public String getQuoteString() {
         return "\"";
@@ -0,0 +1,16 @@
+package cn.icuter.jsql.exception;
+
+/**
+ * Creating pool object is rejected without connecting, due to the circuit breaker opened by consecutive creation failures
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+public class CircuitBreakerOpenException extends PooledObjectCreationException {
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+    public CircuitBreakerOpenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,61 @@
+package cn.icuter.jsql.executor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Number of rows sent by one <code>executeBatch</code>, fixed or tuned by the latency of flushes.
+ * <br>
+ * Adaptive size starts from {@link #INITIAL_SIZE}, doubles while flushes are much faster than
+ * {@link #TARGET_FLUSH_NANOS}, and shrinks in proportion once they are slower, so that neither the driver buffers too
+ * many rows nor the round trips dominate.
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+final class BatchSizer {
+
+    static final int MIN_SIZE = 16;
+    static final int INITIAL_SIZE = 128;
+    static final int MAX_SIZE = 8192;
+    static final long TARGET_FLUSH_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+
+    private final boolean adaptive;
+    private int size;
+
+    private BatchSizer(int size, boolean adaptive) {
+        this.size = size;
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * @param batchSize rows per flush, or 0 to tune adaptively
+     * @return batch sizer
+     */
+    static BatchSizer of(int batchSize) {
+        if (batchSize < 0) {
+            throw new IllegalArgumentException("batch size must not be negative");
+        }
+        return batchSize > 0 ? new BatchSizer(batchSize, false) : new BatchSizer(INITIAL_SIZE, true);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Tune size by the flush, flush of the rest rows less than size is ignored
+     *
+     * @param rows rows flushed
+     * @param elapsedNanos time of flushing
+     */
+    void onFlush(int rows, long elapsedNanos) {
+        if (!adaptive || rows < size) {
+            return;
+        }
+        if (elapsedNanos < TARGET_FLUSH_NANOS / 2) {
+            size = Math.min(MAX_SIZE, size * 2);
+        } else if (elapsedNanos > TARGET_FLUSH_NANOS) {
+            size = (int) Math.max(MIN_SIZE, size * TARGET_FLUSH_NANOS / elapsedNanos);
+        }
+    }
+}
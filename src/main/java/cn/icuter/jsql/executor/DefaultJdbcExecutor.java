@@ -2,35 +2,28 @@ package cn.icuter.jsql.executor;
 
 import cn.icuter.jsql.builder.Builder;
 import cn.icuter.jsql.builder.BuilderContext;
-import cn.icuter.jsql.data.JSQLBlob;
-import cn.icuter.jsql.data.JSQLClob;
-import cn.icuter.jsql.data.JSQLNClob;
 import cn.icuter.jsql.dialect.Dialect;
 import cn.icuter.jsql.exception.ExecutionException;
 import cn.icuter.jsql.exception.JSQLException;
+import cn.icuter.jsql.exception.JSQLRuntimeException;
 import cn.icuter.jsql.log.JSQLLogger;
 import cn.icuter.jsql.log.Logs;
-import cn.icuter.jsql.orm.ORMapper;
-import cn.icuter.jsql.util.ObjectUtil;
 
-import java.lang.reflect.Field;
-import java.math.BigDecimal;
-import java.sql.Blob;
-import java.sql.Clob;
 import java.sql.Connection;
-import java.sql.NClob;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author edward
@@ -63,131 +56,64 @@ public class DefaultJdbcExecutor implements JdbcExecutor {
         Dialect dialect = builder.getBuilderContext().getDialect();
         List<Object> preparedValues = builder.getPreparedValues();
         for (int i = 0, len = preparedValues.size(); i < len; i++) {
-            Object value = preparedValues.get(i);
-            int paramIndex = i + 1;
-            if (JSQLNClob.class.isAssignableFrom(value.getClass())) {
-                if (dialect.supportNClob()) {
-                    ps.setNClob(paramIndex, ((JSQLNClob) value).copyTo(connection.createNClob()));
-                } else {
-                    // usually, if driver do not support NClob, would do not support NString operation as well
-                    // NString operation like getNString or setNString
-                    ps.setString(paramIndex, ((JSQLNClob) value).getNClobString());
-                }
-            } else if (JSQLClob.class.isAssignableFrom(value.getClass())) {
-                if (dialect.supportClob()) {
-                    ps.setClob(paramIndex, ((JSQLClob) value).copyTo(connection.createClob()));
-                } else {
-                    ps.setString(paramIndex, ((JSQLClob) value).getClobString());
-                }
-            } else if (JSQLBlob.class.isAssignableFrom(value.getClass())) {
-                if (dialect.supportBlob()) {
-                    ps.setBlob(paramIndex, ((JSQLBlob) value).copyTo(connection.createBlob()));
-                } else {
-                    ps.setBytes(paramIndex, ((JSQLBlob) value).getBlobBytes());
-                }
-            } else {
-                ps.setObject(paramIndex, value);
-            }
+            ParameterBinders.bind(ps, i + 1, preparedValues.get(i), dialect);
         }
     }
 
     @Override
     public <T> List<T> execQuery(Builder builder, final Class<T> clazz) throws JSQLException {
-        return doExecQuery(builder, (rs, meta) -> {
-            Dialect dialect = builder.getBuilderContext().getDialect();
-            int fetchSize = rs.getFetchSize();
-            boolean hasLimit = !dialect.supportOffsetLimit() && fetchSize > 0;
-            Map<Field, Integer> colIndexFieldMap = mapColumnFieldAndIndex(clazz, meta);
-            List<T> queriedResult = new LinkedList<>();
-            while (rs.next()) {
-                T record = clazz.newInstance();
-                for (Map.Entry<Field, Integer> entry : colIndexFieldMap.entrySet()) {
-                    Field field = entry.getKey();
-                    int rsIndex = entry.getValue();
-                    field.setAccessible(true);
-                    field.set(record, getValueByType(field.getType(), rs, rsIndex));
-                }
-                queriedResult.add(record);
-                if (hasLimit && --fetchSize <= 0) {
-                    break;
-                }
-            }
-            return queriedResult;
-        });
+        return doExecQuery(builder, (rs, meta) ->
+                readRows(rs, EntityRowMapper.of(clazz, builder.getSql(), meta), builder.getBuilderContext()));
+    }
+
+    @Override
+    public <T> Stream<T> execQueryStream(Builder builder, Class<T> clazz) throws JSQLException {
+        checkAndBuild(builder);
+
+        LOGGER.info("executing stream query sql: " + builder.getSql());
+        LOGGER.debug("executing stream query values: " + builder.getPreparedValues());
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            ps = prepareQuery(builder);
+            rs = executeQuery(ps, builder.getBuilderContext());
+            RowMapper<T> rowMapper = EntityRowMapper.of(clazz, builder.getSql(), rs.getMetaData());
+            ResultSetSpliterator<T> spliterator = new ResultSetSpliterator<>(builder, rs, ps, rowMapper);
+            return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+        } catch (Exception e) {
+            closeQuery(builder, rs, ps);
+            LOGGER.error("executing stream query error, builder detail: " + builder, e);
+            throw new ExecutionException("executing stream query error, builder detail: " + builder, e);
+        }
     }
 
-    private Object getValueByType(Class<?> type, ResultSet rs, int rsIndex) throws SQLException {
-        if (type.isPrimitive()) {
-            if (type == Boolean.TYPE) {
-                return rs.getBoolean(rsIndex);
-            } else if (type == Byte.TYPE) {
-                return rs.getByte(rsIndex);
-            } else if (type == Short.TYPE) {
-                return rs.getShort(rsIndex);
-            } else if (type == Integer.TYPE) {
-                return rs.getInt(rsIndex);
-            } else if (type == Long.TYPE) {
-                return rs.getLong(rsIndex);
-            } else if (type == Float.TYPE) {
-                return rs.getFloat(rsIndex);
-            } else if (type == Double.TYPE) {
-                return rs.getDouble(rsIndex);
-            } else {
-                return rs.getObject(rsIndex);
+    private <T> List<T> readRows(ResultSet rs, RowMapper<T> rowMapper, BuilderContext builderContext) throws Exception {
+        int limit = rowLimit(builderContext);
+        List<T> result = new LinkedList<>();
+        while (rs.next()) {
+            result.add(rowMapper.map(rs));
+            if (limit > 0 && --limit <= 0) {
+                break;
             }
-        } else if (Blob.class.isAssignableFrom(type)) {
-            return new JSQLBlob(rs.getBytes(rsIndex));
-        } else if (NClob.class.isAssignableFrom(type)) {
-            return new JSQLNClob(rs.getNString(rsIndex));
-        } else if (Clob.class.isAssignableFrom(type)) {
-            return new JSQLClob(rs.getString(rsIndex));
-        } else if (ObjectUtil.isByteArray(type)) {
-            return rs.getBytes(rsIndex);
-        } else if (Boolean.class.isAssignableFrom(type)) {
-            return rs.getBoolean(rsIndex);
-        } else if (Byte.class.isAssignableFrom(type)) {
-            return rs.getByte(rsIndex);
-        } else if (Short.class.isAssignableFrom(type)) {
-            return rs.getShort(rsIndex);
-        } else if (Integer.class.isAssignableFrom(type)) {
-            return rs.getInt(rsIndex);
-        } else if (Long.class.isAssignableFrom(type)) {
-            return rs.getLong(rsIndex);
-        } else if (Float.class.isAssignableFrom(type)) {
-            return rs.getFloat(rsIndex);
-        } else if (Double.class.isAssignableFrom(type)) {
-            return rs.getDouble(rsIndex);
-        } else if (String.class.isAssignableFrom(type)) {
-            return rs.getString(rsIndex);
-        } else if (BigDecimal.class.isAssignableFrom(type)) {
-            return rs.getBigDecimal(rsIndex);
-        } else {
-            return rs.getObject(rsIndex);
         }
+        return result;
+    }
+
+    /**
+     * Max number of rows to read if limit is not supported by SQL of dialect
+     *
+     * @return 0 if no limit
+     */
+    private static int rowLimit(BuilderContext builderContext) {
+        return builderContext.getDialect().supportOffsetLimit() ? 0 : builderContext.getLimit();
     }
 
     @Override
     public List<Map<String, Object>> execQuery(Builder builder) throws JSQLException {
         return doExecQuery(builder, (rs, meta) -> {
-            Dialect dialect = builder.getBuilderContext().getDialect();
-            int fetchSize = rs.getFetchSize();
-            boolean hasLimit = !dialect.supportOffsetLimit() && fetchSize > 0;
-            List<Map<String, Object>> result = new LinkedList<>();
-            while (rs.next()) {
-                Map<String, Object> record = new LinkedHashMap<>();
-                for (int i = 1; i <= meta.getColumnCount(); i++) {
-                    String colName = meta.getColumnLabel(i).toLowerCase();
-                    if (colName.startsWith("rownumber_")) {
-                        continue;
-                    }
-                    record.put(colName, rs.getObject(colName));
-                }
-                result.add(record);
-                if (hasLimit && --fetchSize <= 0) {
-                    break;
-                }
-            }
-            return result;
+            // column names are resolved once and shared by all rows
+            RowMapper<Map<String, Object>> rowMapper = RowMap.Columns.of(meta)::read;
+            return readRows(rs, rowMapper, builder.getBuilderContext());
         });
     }
 
@@ -199,108 +125,128 @@ public class DefaultJdbcExecutor implements JdbcExecutor {
         LOGGER.debug("executing query values: " + builder.getPreparedValues());
         PreparedStatement ps = null;
         ResultSet rs = null;
+        try {
+            ps = prepareQuery(builder);
+            rs = executeQuery(ps, builder.getBuilderContext());
+            return queryExecutor.doExec(rs, rs.getMetaData());
+        } catch (Exception e) {
+            LOGGER.error("executing query error, builder detail: " + builder, e);
+            throw new ExecutionException("executing query error, builder detail: " + builder, e);
+        } finally {
+            closeQuery(builder, rs, ps);
+        }
+    }
+
+    private PreparedStatement prepareQuery(Builder builder) throws SQLException {
         BuilderContext builderContext = builder.getBuilderContext();
+        PreparedStatement ps;
+        if (!builderContext.getDialect().supportOffsetLimit() && builderContext.getOffset() > 0) {
+            ps = connection.prepareStatement(builder.getSql(),
+                    ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        } else {
+            ps = connection.prepareStatement(builder.getSql());
+        }
         try {
-            if (!builderContext.getDialect().supportOffsetLimit() && builderContext.getOffset() > 0) {
-                ps = connection.prepareStatement(builder.getSql(),
-                        ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
-            } else {
-                ps = connection.prepareStatement(builder.getSql());
-            }
-            List<Object> preparedValues = builder.getPreparedValues();
-            for (int i = 0, len = preparedValues.size(); i < len; i++) {
-                ps.setObject(i + 1, preparedValues.get(i));
+            setPreparedStatementValues(ps, builder);
+            if (builderContext.getFetchSize() != 0) {
+                ps.setFetchSize(builderContext.getFetchSize());
             }
-            rs = ps.executeQuery();
-            ResultSetMetaData meta = rs.getMetaData();
+        } catch (SQLException e) {
+            ps.close();
+            throw e;
+        }
+        return ps;
+    }
 
-            if (!builderContext.getDialect().supportOffsetLimit()) {
+    private ResultSet executeQuery(PreparedStatement ps, BuilderContext builderContext) throws SQLException {
+        ResultSet rs = ps.executeQuery();
+        if (!builderContext.getDialect().supportOffsetLimit()) {
+            try {
                 // like sql paging, must set both offset and limit or limit only
                 int offset = builderContext.getOffset();
                 if (offset > 0 && builderContext.getLimit() > 0) {
                     rs.absolute(offset);
                 }
-                if (builderContext.getLimit() > 0) {
+                if (builderContext.getLimit() > 0 && builderContext.getFetchSize() == 0) {
                     rs.setFetchSize(builderContext.getLimit());
                 }
+            } catch (SQLException e) {
+                rs.close();
+                throw e;
             }
-            return queryExecutor.doExec(rs, meta);
-        } catch (Exception e) {
-            LOGGER.error("executing query error, builder detail: " + builder, e);
-            throw new ExecutionException("executing query error, builder detail: " + builder, e);
-        } finally {
-            if (ps != null) {
-                try {
-                    ps.close();
-                } catch (SQLException e) {
-                    LOGGER.error("closing PreparedStatement error, builder detail: " + builder, e);
-                }
+        }
+        return rs;
+    }
+
+    private static void closeQuery(Builder builder, ResultSet rs, PreparedStatement ps) {
+        // close ResultSet before its statement, which might be put back to statement cache of connection
+        if (rs != null) {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                LOGGER.error("closing ResultSet error, builder detail: " + builder, e);
             }
-            if (rs != null) {
-                try {
-                    rs.close();
-                } catch (SQLException e) {
-                    LOGGER.error("closing ResultSet error, builder detail: " + builder, e);
-                }
+        }
+        if (ps != null) {
+            try {
+                ps.close();
+            } catch (SQLException e) {
+                LOGGER.error("closing PreparedStatement error, builder detail: " + builder, e);
             }
         }
     }
 
     @Override
-    public void execBatch(List<Builder> builders) throws JSQLException {
-        Map<String, List<Builder>> builderGroup = builders.stream().collect(Collectors.groupingBy(Builder::getSql));
-        List<String> sqlList = builders.stream().map(Builder::getSql).collect(Collectors.toList());
-        Map<String, List<Builder>> builderOrderGroup = new TreeMap<>(Comparator.comparingInt(sqlList::indexOf));
-        builderOrderGroup.putAll(builderGroup);
-
-        for (Map.Entry<String, List<Builder>> entry : builderOrderGroup.entrySet()) {
-            execBatch(entry.getKey(), entry.getValue());
+    public int[] execBatch(List<Builder> builders, int batchSize) throws JSQLException {
+        BatchSizer batchSizer = BatchSizer.of(batchSize);
+        Builder[] batch = builders.toArray(new Builder[0]);
+        // build and group by SQL in one pass, groups are executed in order of their first builder
+        Map<String, List<Integer>> sqlIndexes = new LinkedHashMap<>();
+        for (int i = 0; i < batch.length; i++) {
+            checkAndBuild(batch[i]);
+            sqlIndexes.computeIfAbsent(batch[i].getSql(), sql -> new ArrayList<>()).add(i);
         }
+        int[] updateCounts = new int[batch.length];
+        for (Map.Entry<String, List<Integer>> entry : sqlIndexes.entrySet()) {
+            execBatch(entry.getKey(), batch, entry.getValue(), batchSizer, updateCounts);
+        }
+        return updateCounts;
     }
 
-    private void execBatch(String sql, List<Builder> builderList) throws JSQLException {
-        LOGGER.info("executing batch sql: " + sql);
+    private void execBatch(String sql, Builder[] batch, List<Integer> indexes, BatchSizer batchSizer,
+                           int[] updateCounts) throws JSQLException {
+        LOGGER.info("executing batch sql: " + sql + ", batch rows: " + indexes.size());
+        int flushed = 0;
+        int added = 0;
         try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            for (Builder builder : builderList) {
-                checkAndBuild(builder);
+            for (int len = indexes.size(); added < len;) {
+                Builder builder = batch[indexes.get(added)];
 
                 LOGGER.debug("executing batch values: " + builder.getPreparedValues());
 
                 setPreparedStatementValues(ps, builder);
                 ps.addBatch();
+                added++;
+                if (added - flushed >= batchSizer.size() || added == len) {
+                    long start = System.nanoTime();
+                    int[] counts = ps.executeBatch();
+                    batchSizer.onFlush(added - flushed, System.nanoTime() - start);
+                    for (int i = 0, cnt = Math.min(counts.length, added - flushed); i < cnt; i++) {
+                        updateCounts[indexes.get(flushed + i)] = counts[i];
+                    }
+                    flushed = added;
+                }
             }
-            ps.executeBatch();
         } catch (SQLException e) {
-            List<Object> values = builderList.stream().map(Builder::getPreparedValues)
-                    .collect(LinkedList::new, LinkedList::add, LinkedList::addAll);
-            LOGGER.error("executing batch update error, batch sql: " + sql
-                    + ", batch values list: \n" + values, e);
-            throw new ExecutionException("executing batch update error, batch sql: " + sql
-                    + ", batch values list: \n" + values, e);
-        }
-    }
-
-    private Map<Field, Integer> mapColumnFieldAndIndex(Class<?> clazz, ResultSetMetaData meta) throws SQLException {
-        int colLen = meta.getColumnCount();
-        List<String> returnColumnList = new ArrayList<>(colLen);
-        for (int i = 0; i < colLen; i++) {
-            returnColumnList.add(meta.getColumnLabel(i + 1));
-        }
-        Map<Field, Integer> colFieldMap = new LinkedHashMap<>(returnColumnList.size());
-        ORMapper.mapColumn(clazz, (col, field) -> {
-            for (int i = 0; i < returnColumnList.size(); i++) {
-                String retColName = returnColumnList.get(i);
-                int colIdx = -1;
-                if (retColName.equalsIgnoreCase(col)) {
-                    colIdx = i;
-                }
-                if (colIdx >= 0) {
-                    colFieldMap.put(field, colIdx + 1);
-                    break;
-                }
+            List<Object> values = new LinkedList<>();
+            for (int i = flushed; i < added; i++) {
+                values.add(batch[indexes.get(i)].getPreparedValues());
             }
-        });
-        return colFieldMap;
+            String message = "executing batch update error, batch sql: " + sql + ", flushed rows: " + flushed
+                    + ", failed batch values list: \n" + values;
+            LOGGER.error(message, e);
+            throw new ExecutionException(message, e);
+        }
     }
 
     private void checkAndBuild(Builder builder) {
@@ -314,4 +260,60 @@ public class DefaultJdbcExecutor implements JdbcExecutor {
         T doExec(ResultSet rs, ResultSetMetaData meta) throws Exception;
     }
 
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws Exception;
+    }
+
+    /**
+     * Reads and maps rows on demand, statement and ResultSet are closed once all rows are read or stream is closed
+     */
+    private static final class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Builder builder;
+        private final ResultSet rs;
+        private final PreparedStatement ps;
+        private final RowMapper<T> rowMapper;
+        private final int limit;
+        private int count;
+        private boolean closed;
+
+        ResultSetSpliterator(Builder builder, ResultSet rs, PreparedStatement ps, RowMapper<T> rowMapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.builder = builder;
+            this.rs = rs;
+            this.ps = ps;
+            this.rowMapper = rowMapper;
+            this.limit = rowLimit(builder.getBuilderContext());
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            T row;
+            try {
+                if ((limit > 0 && count >= limit) || !rs.next()) {
+                    close();
+                    return false;
+                }
+                row = rowMapper.map(rs);
+            } catch (Exception e) {
+                close();
+                LOGGER.error("reading query rows error, builder detail: " + builder, e);
+                throw new JSQLRuntimeException("reading query rows error, builder detail: " + builder, e);
+            }
+            count++;
+            action.accept(row);
+            return true;
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+                closeQuery(builder, rs, ps);
+            }
+        }
+    }
+
 }
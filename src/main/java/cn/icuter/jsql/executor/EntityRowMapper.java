@@ -0,0 +1,242 @@
+package cn.icuter.jsql.executor;
+
+import cn.icuter.jsql.data.JSQLBlob;
+import cn.icuter.jsql.data.JSQLClob;
+import cn.icuter.jsql.data.JSQLNClob;
+import cn.icuter.jsql.exception.ORMException;
+import cn.icuter.jsql.orm.ORMapper;
+import cn.icuter.jsql.util.ObjectUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.NClob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps row of ResultSet to entity, which resolves the typed column reader and the field writer of each column once
+ * for the query, rather than reflecting on every row. Fields are written through method handles, and entity is
+ * created by the no-arg constructor handle cached per class.
+ * <br>
+ * Resolved mappers are cached per entity class and SQL, at most {@link #MAX_CACHED_SQL_PER_CLASS} SQL for each
+ * class, and are released with the class. Cached mapper is resolved again if the column count of query result
+ * changes, e.g. <code>select *</code> after altering table.
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+final class EntityRowMapper<T> implements DefaultJdbcExecutor.RowMapper<T> {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    static final int MAX_CACHED_SQL_PER_CLASS = 64;
+
+    private static final ClassValue<MethodHandle> CONSTRUCTORS = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            try {
+                Constructor<?> constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return MethodHandles.lookup().unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+            } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+                throw new ORMException("no accessible no-arg constructor of " + type.getName(), e);
+            }
+        }
+    };
+
+    // SQL -> mapper of entity class
+    private static final ClassValue<ConcurrentMap<String, EntityRowMapper<?>>> MAPPERS =
+            new ClassValue<ConcurrentMap<String, EntityRowMapper<?>>>() {
+        @Override
+        protected ConcurrentMap<String, EntityRowMapper<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final int columnCount;
+    private final MethodHandle constructor;
+    private final int[] columnIndexes;
+    private final ColumnReader[] readers;
+    private final MethodHandle[] writers;
+
+    private EntityRowMapper(int columnCount, MethodHandle constructor, int[] columnIndexes, ColumnReader[] readers,
+                            MethodHandle[] writers) {
+        this.columnCount = columnCount;
+        this.constructor = constructor;
+        this.columnIndexes = columnIndexes;
+        this.readers = readers;
+        this.writers = writers;
+    }
+
+    /**
+     * Get the cached mapper of entity class for the SQL, or resolve and cache it if absent or the column count of
+     * query result does not match
+     *
+     * @param clazz entity class
+     * @param sql SQL of query
+     * @param meta meta data of query result
+     * @param <T> type of entity
+     * @return row mapper
+     * @throws SQLException reading meta data error
+     */
+    @SuppressWarnings("unchecked")
+    static <T> EntityRowMapper<T> of(Class<T> clazz, String sql, ResultSetMetaData meta) throws SQLException {
+        ConcurrentMap<String, EntityRowMapper<?>> mappers = MAPPERS.get(clazz);
+        EntityRowMapper<T> mapper = (EntityRowMapper<T>) mappers.get(sql);
+        if (mapper != null && mapper.columnCount == meta.getColumnCount()) {
+            return mapper;
+        }
+        mapper = of(clazz, meta);
+        if (mappers.size() >= MAX_CACHED_SQL_PER_CLASS && !mappers.containsKey(sql)) {
+            // bounded roughly, evict any one as SQL of the same class are usually used evenly
+            Iterator<String> iterator = mappers.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        mappers.put(sql, mapper);
+        return mapper;
+    }
+
+    static int cachedSize(Class<?> clazz) {
+        return MAPPERS.get(clazz).size();
+    }
+
+    /**
+     * Resolve mapper of entity class for the columns of query
+     *
+     * @param clazz entity class
+     * @param meta meta data of query result
+     * @param <T> type of entity
+     * @return row mapper
+     * @throws SQLException reading meta data error
+     */
+    static <T> EntityRowMapper<T> of(Class<T> clazz, ResultSetMetaData meta) throws SQLException {
+        int colLen = meta.getColumnCount();
+        List<String> returnColumnList = new ArrayList<>(colLen);
+        for (int i = 0; i < colLen; i++) {
+            returnColumnList.add(meta.getColumnLabel(i + 1));
+        }
+        List<Integer> indexList = new ArrayList<>();
+        List<Field> fieldList = new ArrayList<>();
+        ORMapper.mapColumn(clazz, (col, field) -> {
+            for (int i = 0; i < returnColumnList.size(); i++) {
+                if (returnColumnList.get(i).equalsIgnoreCase(col)) {
+                    indexList.add(i + 1);
+                    fieldList.add(field);
+                    break;
+                }
+            }
+        });
+        int size = fieldList.size();
+        int[] columnIndexes = new int[size];
+        ColumnReader[] readers = new ColumnReader[size];
+        MethodHandle[] writers = new MethodHandle[size];
+        for (int i = 0; i < size; i++) {
+            Field field = fieldList.get(i);
+            columnIndexes[i] = indexList.get(i);
+            readers[i] = readerOf(field.getType());
+            writers[i] = writerOf(field);
+        }
+        return new EntityRowMapper<>(colLen, CONSTRUCTORS.get(clazz), columnIndexes, readers, writers);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T map(ResultSet rs) throws Exception {
+        try {
+            Object record = (Object) constructor.invokeExact();
+            for (int i = 0; i < columnIndexes.length; i++) {
+                writers[i].invokeExact(record, readers[i].read(rs, columnIndexes[i]));
+            }
+            return (T) record;
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ORMException("mapping row error", e);
+        }
+    }
+
+    private static MethodHandle writerOf(Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            // final field is not writable by method handle, but still by reflection
+            try {
+                return MethodHandles.lookup().findVirtual(Field.class, "set", SETTER_TYPE).bindTo(field);
+            } catch (NoSuchMethodException | IllegalAccessException ex) {
+                throw new ORMException("resolving writer of field " + field.getName() + " error", ex);
+            }
+        }
+    }
+
+    static ColumnReader readerOf(Class<?> type) {
+        if (type.isPrimitive()) {
+            if (type == Boolean.TYPE) {
+                return ResultSet::getBoolean;
+            } else if (type == Byte.TYPE) {
+                return ResultSet::getByte;
+            } else if (type == Short.TYPE) {
+                return ResultSet::getShort;
+            } else if (type == Integer.TYPE) {
+                return ResultSet::getInt;
+            } else if (type == Long.TYPE) {
+                return ResultSet::getLong;
+            } else if (type == Float.TYPE) {
+                return ResultSet::getFloat;
+            } else if (type == Double.TYPE) {
+                return ResultSet::getDouble;
+            } else {
+                return ResultSet::getObject;
+            }
+        } else if (Blob.class.isAssignableFrom(type)) {
+            return (rs, index) -> new JSQLBlob(rs.getBytes(index));
+        } else if (NClob.class.isAssignableFrom(type)) {
+            return (rs, index) -> new JSQLNClob(rs.getNString(index));
+        } else if (Clob.class.isAssignableFrom(type)) {
+            return (rs, index) -> new JSQLClob(rs.getString(index));
+        } else if (ObjectUtil.isByteArray(type)) {
+            return ResultSet::getBytes;
+        } else if (Boolean.class.isAssignableFrom(type)) {
+            return ResultSet::getBoolean;
+        } else if (Byte.class.isAssignableFrom(type)) {
+            return ResultSet::getByte;
+        } else if (Short.class.isAssignableFrom(type)) {
+            return ResultSet::getShort;
+        } else if (Integer.class.isAssignableFrom(type)) {
+            return ResultSet::getInt;
+        } else if (Long.class.isAssignableFrom(type)) {
+            return ResultSet::getLong;
+        } else if (Float.class.isAssignableFrom(type)) {
+            return ResultSet::getFloat;
+        } else if (Double.class.isAssignableFrom(type)) {
+            return ResultSet::getDouble;
+        } else if (String.class.isAssignableFrom(type)) {
+            return ResultSet::getString;
+        } else if (BigDecimal.class.isAssignableFrom(type)) {
+            return ResultSet::getBigDecimal;
+        } else {
+            return ResultSet::getObject;
+        }
+    }
+
+    @FunctionalInterface
+    interface ColumnReader {
+        Object read(ResultSet rs, int index) throws SQLException;
+    }
+}
@@ -1,12 +1,16 @@
 package cn.icuter.jsql.executor;
 
 import cn.icuter.jsql.builder.Builder;
+import cn.icuter.jsql.exception.ExecutionException;
 import cn.icuter.jsql.exception.JSQLException;
+import cn.icuter.jsql.exception.JSQLRuntimeException;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * For {@link Builder} execution
@@ -21,7 +25,66 @@ public interface JdbcExecutor extends Closeable {
 
     List<Map<String, Object>> execQuery(Builder builder) throws JSQLException;
 
-    void execBatch(List<Builder> builders) throws JSQLException;
+    /**
+     * Query rows lazily, each row is read from ResultSet and mapped as the stream is consumed. Statement and
+     * ResultSet are released when the stream is closed or all rows are consumed, so it should be used in
+     * try-with-resources. Errors of reading rows are thrown as {@link JSQLRuntimeException}.
+     * <br>
+     * Set {@link Builder#fetchSize(int)} to keep driver from loading all rows at once, e.g. PostgreSQL fetches
+     * rows in batch only in manual-commit mode, and MySQL streams rows with <code>Integer.MIN_VALUE</code>.
+     *
+     * @param builder query builder
+     * @param clazz type of row
+     * @param <T> type of row
+     * @return lazily mapped rows, must be closed
+     * @throws JSQLException executing query error
+     */
+    <T> Stream<T> execQueryStream(Builder builder, Class<T> clazz) throws JSQLException;
+
+    /**
+     * Query rows and pass them to handler one by one, see {@link #execQueryStream(Builder, Class)}
+     *
+     * @param builder query builder
+     * @param clazz type of row
+     * @param handler row handler
+     * @param <T> type of row
+     * @throws JSQLException executing query or handling row error
+     */
+    default <T> void execQuery(Builder builder, Class<T> clazz, RowHandler<? super T> handler) throws JSQLException {
+        try (Stream<T> rows = execQueryStream(builder, clazz)) {
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                handler.handle(iterator.next());
+            }
+        } catch (JSQLException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ExecutionException("handling query rows error, builder detail: " + builder, e);
+        }
+    }
+
+    /**
+     * Execute builders in batch with batch size tuned adaptively, see {@link #execBatch(List, int)}
+     *
+     * @param builders builders of batch
+     * @return update counts in order of builders
+     * @throws JSQLException executing batch error
+     */
+    default int[] execBatch(List<Builder> builders) throws JSQLException {
+        return execBatch(builders, 0);
+    }
+
+    /**
+     * Execute builders in batch, builders of the same SQL are executed by one statement in order of their first
+     * builder, and are flushed every <code>batchSize</code> rows, so that the driver never buffers the whole batch.
+     *
+     * @param builders builders of batch
+     * @param batchSize rows per flush, or 0 to tune it by the latency of flushes
+     * @return update counts in order of builders, or {@link java.sql.Statement#SUCCESS_NO_INFO} if driver does not
+     *         report the count
+     * @throws JSQLException executing batch error
+     */
+    int[] execBatch(List<Builder> builders, int batchSize) throws JSQLException;
 
     default void close() throws IOException {
         // noop
@@ -0,0 +1,10 @@
+package cn.icuter.jsql.executor;
+
+/**
+ * @author edward
+ * @since 2026-10-18
+ */
+@FunctionalInterface
+public interface JdbcOperation<R> {
+    R doExecute(JdbcExecutor executor) throws Exception;
+}
@@ -0,0 +1,26 @@
+package cn.icuter.jsql.executor;
+
+import cn.icuter.jsql.dialect.Dialect;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Binds prepared value of a type to PreparedStatement with the typed setter, register custom binder by
+ * {@link ParameterBinders#register(Class, ParameterBinder)}
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+@FunctionalInterface
+public interface ParameterBinder<T> {
+
+    /**
+     * @param ps statement to bind
+     * @param index parameter index, starts from 1
+     * @param value non-null prepared value
+     * @param dialect dialect of builder, for the features supported by database such as LOB
+     * @throws SQLException binding error
+     */
+    void bind(PreparedStatement ps, int index, T value, Dialect dialect) throws SQLException;
+}
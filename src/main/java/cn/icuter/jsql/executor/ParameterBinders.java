@@ -0,0 +1,191 @@
+package cn.icuter.jsql.executor;
+
+import cn.icuter.jsql.data.JSQLBlob;
+import cn.icuter.jsql.data.JSQLClob;
+import cn.icuter.jsql.data.JSQLNClob;
+import cn.icuter.jsql.dialect.Dialect;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of {@link ParameterBinder} by value class, binder of a class is resolved once and cached.
+ * <br>
+ * Binder is resolved by the class of value, or its nearest super class or interface registered, enum is bound as its
+ * name, and any other value is bound by <code>setObject</code>.
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+public abstract class ParameterBinders {
+
+    private static final ParameterBinder<Object> OBJECT_BINDER = (ps, index, value, dialect) -> ps.setObject(index, value);
+    private static final ParameterBinder<Enum<?>> ENUM_BINDER = (ps, index, value, dialect) -> ps.setString(index, value.name());
+
+    private static final Map<Class<?>, ParameterBinder<?>> BINDERS = new ConcurrentHashMap<>();
+    // increased on registering, so that binders resolved before are resolved again
+    private static final AtomicInteger VERSION = new AtomicInteger();
+    private static final ClassValue<Resolved> RESOLVED = new ClassValue<Resolved>() {
+        @Override
+        protected Resolved computeValue(Class<?> type) {
+            int version = VERSION.get();
+            return new Resolved(resolve(type), version);
+        }
+    };
+
+    static {
+        BINDERS.put(String.class, (ParameterBinder<String>) (ps, index, value, dialect) -> ps.setString(index, value));
+        BINDERS.put(Integer.class, (ParameterBinder<Integer>) (ps, index, value, dialect) -> ps.setInt(index, value));
+        BINDERS.put(Long.class, (ParameterBinder<Long>) (ps, index, value, dialect) -> ps.setLong(index, value));
+        BINDERS.put(Short.class, (ParameterBinder<Short>) (ps, index, value, dialect) -> ps.setShort(index, value));
+        BINDERS.put(Byte.class, (ParameterBinder<Byte>) (ps, index, value, dialect) -> ps.setByte(index, value));
+        BINDERS.put(Boolean.class, (ParameterBinder<Boolean>) (ps, index, value, dialect) -> ps.setBoolean(index, value));
+        BINDERS.put(Double.class, (ParameterBinder<Double>) (ps, index, value, dialect) -> ps.setDouble(index, value));
+        BINDERS.put(Float.class, (ParameterBinder<Float>) (ps, index, value, dialect) -> ps.setFloat(index, value));
+        BINDERS.put(BigDecimal.class, (ParameterBinder<BigDecimal>) (ps, index, value, dialect) -> ps.setBigDecimal(index, value));
+        BINDERS.put(byte[].class, (ParameterBinder<byte[]>) (ps, index, value, dialect) -> ps.setBytes(index, value));
+        BINDERS.put(Date.class, (ParameterBinder<Date>) (ps, index, value, dialect) -> ps.setDate(index, value));
+        BINDERS.put(Time.class, (ParameterBinder<Time>) (ps, index, value, dialect) -> ps.setTime(index, value));
+        BINDERS.put(Timestamp.class, (ParameterBinder<Timestamp>) (ps, index, value, dialect) -> ps.setTimestamp(index, value));
+        BINDERS.put(java.util.Date.class, (ParameterBinder<java.util.Date>) (ps, index, value, dialect) ->
+                ps.setTimestamp(index, new Timestamp(value.getTime())));
+        BINDERS.put(LocalDate.class, (ParameterBinder<LocalDate>) (ps, index, value, dialect) ->
+                ps.setDate(index, Date.valueOf(value)));
+        BINDERS.put(LocalTime.class, (ParameterBinder<LocalTime>) (ps, index, value, dialect) ->
+                ps.setTime(index, Time.valueOf(value)));
+        BINDERS.put(LocalDateTime.class, (ParameterBinder<LocalDateTime>) (ps, index, value, dialect) ->
+                ps.setTimestamp(index, Timestamp.valueOf(value)));
+        BINDERS.put(JSQLNClob.class, (ParameterBinder<JSQLNClob>) ParameterBinders::bindNClob);
+        BINDERS.put(JSQLClob.class, (ParameterBinder<JSQLClob>) ParameterBinders::bindClob);
+        BINDERS.put(JSQLBlob.class, (ParameterBinder<JSQLBlob>) ParameterBinders::bindBlob);
+    }
+
+    /**
+     * Register binder of the class, which replaces the built-in one, and is used by the sub classes as well unless
+     * they have their own binders
+     *
+     * @param type class of value
+     * @param binder binder of value
+     * @param <T> type of value
+     */
+    public static <T> void register(Class<T> type, ParameterBinder<? super T> binder) {
+        Objects.requireNonNull(type, "type must not be null");
+        Objects.requireNonNull(binder, "binder must not be null");
+        BINDERS.put(type, binder);
+        VERSION.incrementAndGet();
+    }
+
+    /**
+     * Binder of the class, resolved once and cached
+     *
+     * @param type class of value
+     * @param <T> type of value
+     * @return binder of the class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ParameterBinder<? super T> binderOf(Class<T> type) {
+        Resolved resolved = RESOLVED.get(type);
+        if (resolved.version != VERSION.get()) {
+            RESOLVED.remove(type);
+            resolved = RESOLVED.get(type);
+        }
+        return (ParameterBinder<? super T>) resolved.binder;
+    }
+
+    /**
+     * Bind value with the binder of its class, or <code>setObject</code> if null
+     *
+     * @param ps statement to bind
+     * @param index parameter index, starts from 1
+     * @param value prepared value
+     * @param dialect dialect of builder
+     * @throws SQLException binding error
+     */
+    @SuppressWarnings("unchecked")
+    public static void bind(PreparedStatement ps, int index, Object value, Dialect dialect) throws SQLException {
+        if (value == null) {
+            ps.setObject(index, null);
+            return;
+        }
+        ((ParameterBinder<Object>) binderOf(value.getClass())).bind(ps, index, value, dialect);
+    }
+
+    private static ParameterBinder<?> resolve(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            ParameterBinder<?> binder = BINDERS.get(c);
+            if (binder != null) {
+                return binder;
+            }
+        }
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            ParameterBinder<?> binder = resolveInterface(c);
+            if (binder != null) {
+                return binder;
+            }
+        }
+        if (Enum.class.isAssignableFrom(type)) {
+            return ENUM_BINDER;
+        }
+        return OBJECT_BINDER;
+    }
+
+    private static ParameterBinder<?> resolveInterface(Class<?> type) {
+        for (Class<?> i : type.getInterfaces()) {
+            ParameterBinder<?> binder = BINDERS.get(i);
+            if (binder == null) {
+                binder = resolveInterface(i);
+            }
+            if (binder != null) {
+                return binder;
+            }
+        }
+        return null;
+    }
+
+    private static void bindNClob(PreparedStatement ps, int index, JSQLNClob value, Dialect dialect) throws SQLException {
+        if (dialect.supportNClob()) {
+            ps.setNClob(index, value.copyTo(ps.getConnection().createNClob()));
+        } else {
+            // usually, if driver do not support NClob, would do not support NString operation as well
+            // NString operation like getNString or setNString
+            ps.setString(index, value.getNClobString());
+        }
+    }
+
+    private static void bindClob(PreparedStatement ps, int index, JSQLClob value, Dialect dialect) throws SQLException {
+        if (dialect.supportClob()) {
+            ps.setClob(index, value.copyTo(ps.getConnection().createClob()));
+        } else {
+            ps.setString(index, value.getClobString());
+        }
+    }
+
+    private static void bindBlob(PreparedStatement ps, int index, JSQLBlob value, Dialect dialect) throws SQLException {
+        if (dialect.supportBlob()) {
+            ps.setBlob(index, value.copyTo(ps.getConnection().createBlob()));
+        } else {
+            ps.setBytes(index, value.getBlobBytes());
+        }
+    }
+
+    private static final class Resolved {
+        private final ParameterBinder<?> binder;
+        private final int version;
+
+        private Resolved(ParameterBinder<?> binder, int version) {
+            this.binder = binder;
+            this.version = version;
+        }
+    }
+}
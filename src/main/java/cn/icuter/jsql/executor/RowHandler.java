@@ -0,0 +1,12 @@
+package cn.icuter.jsql.executor;
+
+/**
+ * Callback of query handling the mapped rows one by one, so that rows are not loaded into memory all at once
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+@FunctionalInterface
+public interface RowHandler<T> {
+    void handle(T row) throws Exception;
+}
@@ -0,0 +1,229 @@
+package cn.icuter.jsql.executor;
+
+import java.io.Serializable;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Row of query result, whose values are kept in an array and the column names are shared by all rows of the result.
+ * Column names are in lower case and in the order of query columns.
+ * <br>
+ * Values of existing columns can be replaced in place, and the row is copied into a {@link LinkedHashMap} once
+ * columns are added or removed, including removing by the iterators of its views.
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+final class RowMap extends AbstractMap<String, Object> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Columns columns;
+    private final Object[] values;
+    // copy of row after columns are added or removed
+    private transient Map<String, Object> inflated;
+
+    private RowMap(Columns columns, Object[] values) {
+        this.columns = columns;
+        this.values = values;
+    }
+
+    @Override
+    public int size() {
+        return inflated != null ? inflated.size() : values.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return inflated != null ? inflated.containsKey(key) : columns.positions.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (inflated != null) {
+            return inflated.get(key);
+        }
+        Integer position = columns.positions.get(key);
+        return position != null ? values[position] : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (inflated == null) {
+            Integer position = columns.positions.get(key);
+            if (position != null) {
+                Object old = values[position];
+                values[position] = value;
+                return old;
+            }
+            inflate();
+        }
+        return inflated.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (inflated == null) {
+            if (!columns.positions.containsKey(key)) {
+                return null;
+            }
+            inflate();
+        }
+        return inflated.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        inflate();
+        inflated.clear();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (inflated != null) {
+            return inflated.entrySet();
+        }
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return inflated != null ? inflated.entrySet().iterator() : new EntryIterator();
+            }
+            @Override
+            public int size() {
+                return RowMap.this.size();
+            }
+        };
+    }
+
+    private void inflate() {
+        if (inflated == null) {
+            Map<String, Object> copy = new LinkedHashMap<>(values.length * 2);
+            for (int i = 0; i < values.length; i++) {
+                copy.put(columns.names[i], values[i]);
+            }
+            inflated = copy;
+        }
+    }
+
+    // serialized as LinkedHashMap, so that columns need not be serializable
+    private Object writeReplace() {
+        return new LinkedHashMap<>(this);
+    }
+
+    /**
+     * Iterate columns in order, the row is inflated once a column is removed by iterator, and the removed columns are
+     * skipped from then on
+     */
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        private int next;
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            while (inflated != null && next < values.length && !inflated.containsKey(columns.names[next])) {
+                next++;
+            }
+            return next < values.length;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            String name = columns.names[last];
+            return new SimpleEntry<String, Object>(name, get(name)) {
+                @Override
+                public Object setValue(Object value) {
+                    super.setValue(value);
+                    return put(name, value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            inflate();
+            inflated.remove(columns.names[last]);
+            last = -1;
+        }
+    }
+
+    /**
+     * Column names of query result and their indexes in ResultSet, resolved once for all rows
+     */
+    static final class Columns {
+        private final String[] names;
+        private final int[] columnIndexes;
+        private final Map<String, Integer> positions;
+
+        private Columns(String[] names, int[] columnIndexes, Map<String, Integer> positions) {
+            this.names = names;
+            this.columnIndexes = columnIndexes;
+            this.positions = positions;
+        }
+
+        /**
+         * Resolve columns of query result, the paging column <code>rownumber_</code> is skipped, and so is the
+         * duplicate name as ResultSet reads the first column of the name
+         *
+         * @param meta meta data of query result
+         * @return columns of query result
+         * @throws SQLException reading meta data error
+         */
+        static Columns of(ResultSetMetaData meta) throws SQLException {
+            int colLen = meta.getColumnCount();
+            Map<String, Integer> positions = new HashMap<>(colLen * 2);
+            String[] names = new String[colLen];
+            int[] columnIndexes = new int[colLen];
+            int size = 0;
+            for (int i = 1; i <= colLen; i++) {
+                String colName = meta.getColumnLabel(i).toLowerCase();
+                if (colName.startsWith("rownumber_") || positions.containsKey(colName)) {
+                    continue;
+                }
+                positions.put(colName, size);
+                names[size] = colName;
+                columnIndexes[size] = i;
+                size++;
+            }
+            if (size < colLen) {
+                String[] resizedNames = new String[size];
+                int[] resizedIndexes = new int[size];
+                System.arraycopy(names, 0, resizedNames, 0, size);
+                System.arraycopy(columnIndexes, 0, resizedIndexes, 0, size);
+                names = resizedNames;
+                columnIndexes = resizedIndexes;
+            }
+            return new Columns(names, columnIndexes, positions);
+        }
+
+        /**
+         * Read values of current row by column index
+         *
+         * @param rs query result
+         * @return row sharing the columns
+         * @throws SQLException reading value error
+         */
+        RowMap read(ResultSet rs) throws SQLException {
+            Object[] values = new Object[names.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = rs.getObject(columnIndexes[i]);
+            }
+            return new RowMap(this, values);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package cn.icuter.jsql.executor;
 
 import cn.icuter.jsql.builder.Builder;
 import cn.icuter.jsql.exception.JSQLException;
+import cn.icuter.jsql.exception.JSQLRuntimeException;
 import cn.icuter.jsql.exception.TransactionCommitException;
 import cn.icuter.jsql.exception.TransactionRollbackExcetpion;
 import cn.icuter.jsql.transaction.DefaultTransaction;
@@ -11,6 +12,11 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author edward
@@ -56,9 +62,32 @@ public class TransactionExecutor extends DefaultTransaction implements JdbcExecu
     }
 
     @Override
-    public void execBatch(List<Builder> builders) throws JSQLException {
+    public <T> Stream<T> execQueryStream(Builder builder, Class<T> clazz) throws JSQLException {
+        Stream<T> rows;
         try {
-            jdbcExecutor.execBatch(builders);
+            rows = jdbcExecutor.execQueryStream(builder, clazz);
+        } catch (JSQLException e) {
+            setState(State.ERROR);
+            throw e;
+        }
+        // rows are read after returned, so that reading error has to be caught while iterating
+        return StreamSupport.stream(new ErrorStateSpliterator<>(rows.spliterator()), false).onClose(rows::close);
+    }
+
+    @Override
+    public <T> void execQuery(Builder builder, Class<T> clazz, RowHandler<? super T> handler) throws JSQLException {
+        try {
+            JdbcExecutor.super.execQuery(builder, clazz, handler);
+        } catch (JSQLException e) {
+            setState(State.ERROR);
+            throw e;
+        }
+    }
+
+    @Override
+    public int[] execBatch(List<Builder> builders, int batchSize) throws JSQLException {
+        try {
+            return jdbcExecutor.execBatch(builders, batchSize);
         } catch (JSQLException e) {
             setState(State.ERROR);
             throw e;
@@ -107,4 +136,30 @@ public class TransactionExecutor extends DefaultTransaction implements JdbcExecu
             throw new TransactionRollbackExcetpion(e);
         }
     }
+
+    /**
+     * Set transaction state to {@link State#ERROR} once reading rows failed, as executing query failed
+     */
+    private final class ErrorStateSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Spliterator<T> rows;
+
+        ErrorStateSpliterator(Spliterator<T> rows) {
+            super(rows.estimateSize(), rows.characteristics());
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                return rows.tryAdvance(action);
+            } catch (JSQLRuntimeException e) {
+                try {
+                    setState(State.ERROR);
+                } catch (JSQLException ex) {
+                    e.addSuppressed(ex);
+                }
+                throw e;
+            }
+        }
+    }
 }
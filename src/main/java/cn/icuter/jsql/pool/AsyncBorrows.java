@@ -0,0 +1,183 @@
+package cn.icuter.jsql.pool;
+
+import cn.icuter.jsql.log.JSQLLogger;
+import cn.icuter.jsql.log.Logs;
+import cn.icuter.jsql.util.VirtualThreads;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads of asynchronous borrowing shared by pools, started on first use.
+ * <br>
+ * Blocking borrowing and creating run in borrower threads, which are virtual threads on JDK 21+, so that they never
+ * occupy the executor of operations, whose workers would otherwise wait for the connections held by the operations
+ * queued behind them.
+ * <br>
+ * Borrower threads running for each pool are limited, asynchronous borrowing beyond the limit fails rather than starting
+ * more threads.
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+final class AsyncBorrows {
+
+    private static final JSQLLogger LOGGER = Logs.getLogger(AsyncBorrows.class);
+    private static final long BORROWER_KEEP_ALIVE_SECONDS = 60L;
+    private static final int DEFAULT_BORROWER_THREADS = 64;
+
+    private AsyncBorrows() {
+    }
+
+    /**
+     * Borrower running the blocking tasks of borrowing or creating for a pool, no more than the limit at the same time
+     *
+     * @param maxThreads max borrower threads of the pool, 0 or negative means the default 64
+     * @return executor rejects the task with {@link RejectedExecutionException} once the borrower threads are all busy
+     */
+    static Executor newBorrower(int maxThreads) {
+        return new LimitedBorrower(maxThreads > 0 ? maxThreads : DEFAULT_BORROWER_THREADS);
+    }
+
+    /**
+     * Borrower shared by the pools without their own one
+     */
+    static Executor defaultBorrower() {
+        return BorrowerHolder.DEFAULT_BORROWER;
+    }
+
+    /**
+     * Run the blocking {@link ObjectPool#borrowObject} in borrower, and complete the future in executor
+     *
+     * @return future completed exceptionally with {@link RejectedExecutionException} if borrower threads are all busy
+     */
+    static <T> CompletableFuture<T> borrowBlocking(ObjectPool<T> pool, Executor executor, Executor borrower) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            T object;
+            try {
+                object = pool.borrowObject();
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+                return;
+            }
+            complete(future, object, executor, pool);
+        };
+        try {
+            borrower.execute(task);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Schedule the timeout of asynchronous borrowing
+     */
+    static ScheduledFuture<?> scheduleTimeout(Runnable task, long timeoutMillis) {
+        return TimerHolder.TIMER.schedule(task, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Complete the future with the borrowed object in executor, the object is returned to pool if the future has been
+     * completed by cancelling or timeout, or executor rejected
+     */
+    static <T> void complete(CompletableFuture<T> future, T object, Executor executor, ObjectPool<T> pool) {
+        try {
+            executor.execute(() -> {
+                if (!future.complete(object)) {
+                    returnQuietly(object, pool);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            returnQuietly(object, pool);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static <T> void returnQuietly(T object, ObjectPool<T> pool) {
+        if (object == null) {
+            return;
+        }
+        try {
+            pool.returnObject(object);
+        } catch (Exception e) {
+            LOGGER.error("returning object of asynchronous borrowing error", e);
+        }
+    }
+
+    /**
+     * Limit the tasks of a pool running in shared borrower threads by permits, rather than queueing or growing
+     */
+    private static final class LimitedBorrower implements Executor {
+        private final int maxThreads;
+        private final Semaphore permits;
+
+        LimitedBorrower(int maxThreads) {
+            this.maxThreads = maxThreads;
+            this.permits = new Semaphore(maxThreads);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (!permits.tryAcquire()) {
+                throw new RejectedExecutionException("all " + maxThreads + " borrower threads of pool are busy");
+            }
+            try {
+                BorrowerHolder.BORROWER.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+    }
+
+    private static final class BorrowerHolder {
+        static final ExecutorService BORROWER = newBorrowerThreads();
+        static final Executor DEFAULT_BORROWER = newBorrower(DEFAULT_BORROWER_THREADS);
+
+        private static ExecutorService newBorrowerThreads() {
+            if (VirtualThreads.isSupported()) {
+                return VirtualThreads.newVirtualThreadPerTaskExecutor("jsql-pool-borrower-");
+            }
+            AtomicInteger threadNo = new AtomicInteger();
+            ThreadFactory threadFactory = r -> {
+                Thread t = new Thread(r, "jsql-pool-borrower-" + threadNo.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            };
+            return new ThreadPoolExecutor(0, Integer.MAX_VALUE, BORROWER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), threadFactory);
+        }
+    }
+
+    private static final class TimerHolder {
+        static final ScheduledThreadPoolExecutor TIMER = newTimer();
+
+        private static ScheduledThreadPoolExecutor newTimer() {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread t = new Thread(r, "jsql-pool-async-timer");
+                t.setDaemon(true);
+                return t;
+            });
+            timer.setRemoveOnCancelPolicy(true);
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,807 @@
+package cn.icuter.jsql.pool;
+
+import cn.icuter.jsql.datasource.PoolConfiguration;
+import cn.icuter.jsql.exception.JSQLException;
+import cn.icuter.jsql.exception.PoolException;
+import cn.icuter.jsql.exception.PooledObjectPollTimeoutException;
+import cn.icuter.jsql.exception.PooledObjectReturnException;
+import cn.icuter.jsql.log.JSQLLogger;
+import cn.icuter.jsql.log.Logs;
+import cn.icuter.jsql.util.VirtualThreads;
+
+import javax.management.ObjectName;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free object pool for a large number of borrowing threads.
+ * <pre>
+ * 1. every thread keeps a short list of objects it returned lately, and tries them first while borrowing
+ * 2. all pooled objects are kept in a copy-on-write list, and borrowed by CAS on {@link PooledObject} state
+ * 3. returning object is handed to waiting borrower directly if someone is waiting
+ * 4. returning object by {@link #returnPooledObject(PooledObject)} saves looking up the pooled object
+ * 5. asynchronous borrowers wait in a queue without thread, and are handed off before the waiting threads
+ * 6. pool slot freed by invalidation is filled by creating in background while anyone is waiting
+ * </pre>
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+public class ConcurrentObjectPool<T> implements ObjectPool<T> {
+
+    private static final JSQLLogger LOGGER = Logs.getLogger(ConcurrentObjectPool.class);
+
+    private static final int IDLE_NEVER_TIMEOUT = -1;
+    private static final int IDLE_ALWAYS_TIMEOUT = 0;
+    private static final int THREAD_LOCAL_MAX_SIZE = 16;
+    private static final long IDLE_SWEEP_MIN_INTERVAL = 10L; // ms
+    private static final long IDLE_SWEEP_MAX_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    // borrower polls hand-off queue in slices, and tries to create again in case of the freed pool slot
+    private static final long HANDOFF_POLL_SLICE = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long DRAIN_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private volatile PoolConfiguration poolCfg;
+    private final PooledObjectManager<T> manager;
+    private final CopyOnWriteArrayList<PooledObject<T>> sharedList = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<List<PooledObject<T>>> threadList =
+            ThreadLocal.withInitial(() -> new ArrayList<>(THREAD_LOCAL_MAX_SIZE));
+    private final SynchronousQueue<PooledObject<T>> handoffQueue = new SynchronousQueue<>(true);
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final ConcurrentLinkedQueue<AsyncBorrowing> asyncWaiters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger poolSize = new AtomicInteger();
+
+    private volatile boolean closed;
+    private final ReentrantLock configLock = new ReentrantLock();
+    private final PoolStats poolStats;
+    private final CreationCircuitBreaker circuitBreaker;
+    private final Executor borrower;
+    private ScheduledThreadPoolExecutor idleObjectExecutor;
+    private ObjectName configObjectName;
+
+    public ConcurrentObjectPool(PooledObjectManager<T> manager) {
+        this(manager, PoolConfiguration.defaultPoolCfg());
+    }
+
+    public ConcurrentObjectPool(PooledObjectManager<T> manager, PoolConfiguration poolConfiguration) {
+        if (poolConfiguration.getMaxPoolSize() <= 0) {
+            throw new IllegalArgumentException("max pool size must not be zero!");
+        }
+        this.manager = manager;
+        this.poolCfg = poolConfiguration;
+        String poolName = poolCfg.getPoolName() != null ? poolCfg.getPoolName()
+                : "jsql-pool-" + Integer.toHexString(System.identityHashCode(this));
+        this.poolStats = new PoolStats(poolName, poolSize::get, () -> poolCfg.getMaxPoolSize(),
+                () -> countObjects(PooledObject.STATE_BORROWED), () -> countObjects(PooledObject.STATE_IDLE),
+                () -> waiters.get() + asyncWaiters.size());
+        this.circuitBreaker = new CreationCircuitBreaker(poolStats);
+        this.borrower = AsyncBorrows.newBorrower(poolCfg.getAsyncBorrowerThreads());
+        poolStats.bindCircuitBreaker(circuitBreaker);
+        if (poolCfg.isJmxEnabled()) {
+            poolStats.registerMBean();
+            configObjectName = PoolMBeans.register(new PoolConfigControl(this), "PoolConfig", poolName);
+        }
+        long idleTimeout = poolCfg.getIdleTimeout();
+        long maxLifetime = poolCfg.getMaxLifetime();
+        if (idleTimeout > 0 || maxLifetime > 0) {
+            long sweepBase = idleTimeout > 0 && maxLifetime > 0 ? Math.min(idleTimeout, maxLifetime) : Math.max(idleTimeout, maxLifetime);
+            long interval = Math.min(Math.max(sweepBase / 2, IDLE_SWEEP_MIN_INTERVAL), IDLE_SWEEP_MAX_INTERVAL);
+            idleObjectExecutor = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread t = new Thread(r, "jsql-pool-idle-sweeper");
+                t.setDaemon(true);
+                return t;
+            });
+            idleObjectExecutor.scheduleWithFixedDelay(new IdleObjectSweepTask(), interval, interval, TimeUnit.MILLISECONDS);
+        }
+        LOGGER.debug("set up concurrent object pool with pool configuration: " + this.poolCfg);
+    }
+
+    @Override
+    public T borrowObject() throws JSQLException {
+        long start = System.nanoTime();
+        PooledObject<T> pooledObject = getPooledObject();
+        if (pooledObject == null) {
+            return null;
+        }
+        recordBorrowed(pooledObject, start);
+        return pooledObject.getObject();
+    }
+
+    private void recordBorrowed(PooledObject<T> pooledObject, long start) {
+        long borrowedNanos = System.nanoTime();
+        pooledObject.updateLastBorrowedTime();
+        pooledObject.setLastBorrowedNanos(borrowedNanos);
+        poolStats.recordBorrow(borrowedNanos - start);
+    }
+
+    /**
+     * Borrow the object without parking any thread, the idle object is taken by CAS first, then a new one is created
+     * in borrower thread if pool is not full, otherwise the borrower waits in queue for the returning object. The taken
+     * object is validated in executor, which completes the future as well.
+     * <br>
+     * Pooled object handed off to a borrower whose future was cancelled or timed out will be returned to pool.
+     */
+    @Override
+    public CompletableFuture<T> borrowObjectAsync(Executor executor) {
+        Objects.requireNonNull(executor, "executor must not be null");
+        if (isPollNoWait()) {
+            // never wait, but creating in current thread is blocking
+            return AsyncBorrows.borrowBlocking(this, executor, borrower);
+        }
+        AsyncBorrowing borrowing = new AsyncBorrowing(executor);
+        borrowing.attempt();
+        return borrowing.future;
+    }
+
+    private PooledObject<T> getPooledObject() throws JSQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(poolCfg.getPollTimeout());
+        do {
+            checkPoolClosed();
+            PooledObject<T> pooledObject = acquire(deadline);
+            if (pooledObject == null) {
+                return null;
+            }
+            if (validateFailOnBorrow(pooledObject)) {
+                invalidPooledObject(pooledObject);
+                continue;
+            }
+            return pooledObject;
+        } while (true);
+    }
+
+    private PooledObject<T> acquire(long deadline) throws JSQLException {
+        // virtual threads are short-lived and never come back, thread affinity only wastes memory
+        if (!VirtualThreads.isVirtual(Thread.currentThread())) {
+            List<PooledObject<T>> localList = threadList.get();
+            for (int i = localList.size() - 1; i >= 0; i--) {
+                PooledObject<T> pooledObject = localList.remove(i);
+                if (pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_BORROWED)) {
+                    return pooledObject;
+                }
+            }
+        }
+        try {
+            do {
+                PooledObject<T> pooledObject = pollIdleObject();
+                if (pooledObject != null) {
+                    return pooledObject;
+                }
+                pooledObject = tryToCreate();
+                if (pooledObject != null) {
+                    return pooledObject;
+                }
+                if (isPollNoWait()) {
+                    return null;
+                }
+                long waitNanos = HANDOFF_POLL_SLICE;
+                if (poolCfg.getPollTimeout() > 0) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        poolStats.timeoutCnt.increment();
+                        throw new PooledObjectPollTimeoutException("get pool object timeout, waited for "
+                                + poolCfg.getPollTimeout() + "ms");
+                    }
+                    waitNanos = Math.min(remaining, HANDOFF_POLL_SLICE);
+                }
+                pooledObject = pollHandoff(waitNanos);
+                if (pooledObject != null) {
+                    return pooledObject;
+                }
+                checkPoolClosed();
+            } while (true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PoolException("get pool object fail!", e);
+        }
+    }
+
+    private PooledObject<T> pollIdleObject() {
+        for (PooledObject<T> pooledObject : sharedList) {
+            if (pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_BORROWED)) {
+                return pooledObject;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Wait for the object handed off by returning thread, only the borrower polling hand-off queue is counted as waiter,
+     * so that returning thread never spins for the one which is creating object
+     */
+    private PooledObject<T> pollHandoff(long waitNanos) throws InterruptedException {
+        waiters.incrementAndGet();
+        try {
+            // recheck after counted, in case of missing the object returned before this waiter was visible
+            PooledObject<T> pooledObject = pollIdleObject();
+            if (pooledObject != null) {
+                return pooledObject;
+            }
+            pooledObject = handoffQueue.poll(waitNanos, TimeUnit.NANOSECONDS);
+            if (pooledObject != null
+                    && pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_BORROWED)) {
+                return pooledObject;
+            }
+            return null;
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    private PooledObject<T> tryToCreate() throws JSQLException {
+        return reservePoolSlot() ? createPooledObject() : null;
+    }
+
+    private boolean reservePoolSlot() {
+        int size;
+        do {
+            size = poolSize.get();
+            if (size >= poolCfg.getMaxPoolSize()) {
+                return false;
+            }
+        } while (!poolSize.compareAndSet(size, size + 1));
+        return true;
+    }
+
+    /**
+     * Create a borrowed pooled object with the reserved pool slot, which would be released if creation fail
+     */
+    private PooledObject<T> createPooledObject() throws JSQLException {
+        boolean created = false;
+        try {
+            PooledObject<T> pooledObject = circuitBreaker.create(manager, poolCfg);
+            pooledObject.setObjectPool(this);
+            pooledObject.initRetireTime(poolCfg.getMaxLifetime(), poolCfg.getMaxLifetimeJitter());
+            pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_BORROWED);
+            sharedList.add(pooledObject);
+            poolStats.createdCnt.increment();
+            created = true;
+
+            LOGGER.trace("pooled object has been created, object detail: " + pooledObject);
+            return pooledObject;
+        } finally {
+            if (!created) {
+                poolSize.decrementAndGet();
+            }
+        }
+    }
+
+    private boolean isPollNoWait() {
+        return poolCfg.getPollTimeout() == 0;
+    }
+
+    private boolean validateFailOnBorrow(PooledObject<T> pooledObject) throws JSQLException {
+        return poolCfg.isValidateOnBorrow() && !pooledObject.isReturnedWithin(poolCfg.getValidationSkipWindow())
+                && !manager.validate(pooledObject);
+    }
+
+    private boolean validateFailOnReturn(PooledObject<T> pooledObject) throws JSQLException {
+        return poolCfg.isValidateOnReturn() && !manager.validate(pooledObject);
+    }
+
+    private boolean passivateFail(PooledObject<T> pooledObject) {
+        try {
+            manager.passivate(pooledObject);
+            return false;
+        } catch (JSQLException e) {
+            LOGGER.warn("passivating returned object error, it will be invalidated: " + pooledObject, e);
+            return true;
+        }
+    }
+
+    private void checkPoolClosed() throws PoolException {
+        if (closed) {
+            throw new PoolException("get pooled object fail, due to pool was already closed!");
+        }
+    }
+
+    private boolean isAlwaysIdleTimeout() {
+        return poolCfg.getIdleTimeout() == IDLE_ALWAYS_TIMEOUT;
+    }
+
+    private boolean isPoolObjectIdleTimeout(PooledObject<T> pooledObject, long now) {
+        return poolCfg.getIdleTimeout() > IDLE_NEVER_TIMEOUT && pooledObject.getLastReturnedTime() > 0
+                && now - pooledObject.getLastReturnedTime() >= poolCfg.getIdleTimeout();
+    }
+
+    private void invalidPooledObject(PooledObject<T> pooledObject) throws JSQLException {
+        if (sharedList.remove(pooledObject)) {
+            pooledObject.setInvalid();
+            poolSize.decrementAndGet();
+            poolStats.invalidCnt.increment();
+            try {
+                manager.invalid(pooledObject);
+            } finally {
+                if (waiters.get() > 0 || !asyncWaiters.isEmpty()) {
+                    createInBackground();
+                }
+            }
+        }
+    }
+
+    /**
+     * Invalidate the object exceeded its lifetime, and replace it in background if pool drops below min idle, as
+     * rotation by lifetime should never drain the pool
+     */
+    private void retirePooledObject(PooledObject<T> pooledObject) throws JSQLException {
+        poolStats.retiredCnt.increment();
+        invalidPooledObject(pooledObject);
+        if (poolSize.get() < poolCfg.getMinIdle()) {
+            createInBackground();
+        }
+    }
+
+    /**
+     * Fill the freed pool slot by creating in background, and hand the created object off to the waiting borrower,
+     * so that neither the asynchronous borrower nor the borrower polling hand-off queue waits for its timeout
+     */
+    private void createInBackground() {
+        if (closed || !reservePoolSlot()) {
+            return;
+        }
+        try {
+            borrower.execute(this::createAndHandOff);
+        } catch (RejectedExecutionException e) {
+            poolSize.decrementAndGet();
+            LOGGER.warn("creating pooled object in background was rejected", e);
+        }
+    }
+
+    private void createAndHandOff() {
+        PooledObject<T> pooledObject;
+        try {
+            pooledObject = createPooledObject();
+        } catch (Throwable e) {
+            // the borrower polling hand-off queue would try to create by itself, but asynchronous one never retries
+            AsyncBorrowing borrowing;
+            while ((borrowing = asyncWaiters.poll()) != null) {
+                if (borrowing.fail(e)) {
+                    break;
+                }
+            }
+            return;
+        }
+        releaseIdleObject(pooledObject);
+    }
+
+    /**
+     * Make the borrowed object idle, and hand it off to the asynchronous borrower or the waiting thread if anyone is
+     * waiting
+     */
+    private void releaseIdleObject(PooledObject<T> pooledObject) {
+        if (pooledObject.compareAndSetState(PooledObject.STATE_BORROWED, PooledObject.STATE_IDLE)
+                && !handOffAsync(pooledObject)) {
+            handOff(pooledObject);
+        }
+    }
+
+    /**
+     * Hand off the idle object to the thread polling hand-off queue, spin while anyone is counted as waiter, since the
+     * waiter might not be polling yet
+     *
+     * @return true if handed off, or taken by others
+     */
+    private boolean handOff(PooledObject<T> pooledObject) {
+        for (int i = 0; waiters.get() > 0; i++) {
+            if (pooledObject.getState() != PooledObject.STATE_IDLE || handoffQueue.offer(pooledObject)) {
+                return true;
+            } else if ((i & 0xff) == 0xff) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+            } else {
+                Thread.yield();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hand off the idle object to the longest waiting asynchronous borrower, the waiters are checked again after the
+     * object was made idle again, so that the borrower enqueued concurrently never misses it
+     *
+     * @return true if handed off successfully
+     */
+    private boolean handOffAsync(PooledObject<T> pooledObject) {
+        while (!asyncWaiters.isEmpty()
+                && pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_BORROWED)) {
+            AsyncBorrowing borrowing;
+            while ((borrowing = asyncWaiters.poll()) != null) {
+                if (borrowing.offer(pooledObject)) {
+                    return true;
+                }
+            }
+            pooledObject.compareAndSetState(PooledObject.STATE_BORROWED, PooledObject.STATE_IDLE);
+        }
+        return false;
+    }
+
+    @Override
+    public void returnObject(T object) throws JSQLException {
+        if (object == null) {
+            // ignore
+            LOGGER.warn("returning object is null, no object will be returned");
+            return;
+        }
+        PooledObject<T> pooledObject = null;
+        for (PooledObject<T> po : sharedList) {
+            if (po.getObject() == object) {
+                pooledObject = po;
+                break;
+            }
+        }
+        if (pooledObject == null && closed) {
+            LOGGER.warn("returning object has been invalidated while closing pool");
+            return;
+        }
+        Objects.requireNonNull(pooledObject, "no such object in pool!");
+
+        doReturnObject(pooledObject);
+    }
+
+    @Override
+    public void returnPooledObject(PooledObject<T> pooledObject) throws JSQLException {
+        Objects.requireNonNull(pooledObject, "returning pooled object must not be null");
+        if (pooledObject.getObjectPool() != this) {
+            throw new PooledObjectReturnException("pooled object does not belong to this pool!");
+        }
+        doReturnObject(pooledObject);
+    }
+
+    private void doReturnObject(PooledObject<T> pooledObject) throws JSQLException {
+        if (!pooledObject.isValid()) {
+            LOGGER.warn("returning object has been invalidated, maybe closed forcibly: " + pooledObject);
+            return;
+        }
+        if (!pooledObject.isBorrowed()) {
+            throw new PooledObjectReturnException("Object has been returned!");
+        }
+        poolStats.updateLastAccessTime();
+        if (closed || isAlwaysIdleTimeout() || validateFailOnReturn(pooledObject) || passivateFail(pooledObject)) {
+            invalidPooledObject(pooledObject);
+            return;
+        }
+        if (pooledObject.isRetired(System.currentTimeMillis())) {
+            poolStats.recordReturn(pooledObject.getHoldNanos());
+            retirePooledObject(pooledObject);
+            return;
+        }
+        // shrink gracefully after max pool size was lowered
+        if (poolSize.get() > poolCfg.getMaxPoolSize() && waiters.get() == 0 && asyncWaiters.isEmpty()) {
+            poolStats.recordReturn(pooledObject.getHoldNanos());
+            invalidPooledObject(pooledObject);
+            return;
+        }
+        pooledObject.updateLastReturnedTime();
+        if (!pooledObject.compareAndSetState(PooledObject.STATE_BORROWED, PooledObject.STATE_IDLE)) {
+            return;
+        }
+        poolStats.recordReturn(pooledObject.getHoldNanos());
+        if (handOffAsync(pooledObject) || handOff(pooledObject)) {
+            return;
+        }
+        if (VirtualThreads.isVirtual(Thread.currentThread())) {
+            return;
+        }
+        List<PooledObject<T>> localList = threadList.get();
+        if (localList.size() < THREAD_LOCAL_MAX_SIZE) {
+            localList.add(pooledObject);
+        }
+    }
+
+    @Override
+    public void close() throws JSQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (idleObjectExecutor != null) {
+            idleObjectExecutor.shutdownNow();
+        }
+        poolStats.unregisterMBean();
+        PoolMBeans.unregister(configObjectName);
+        for (PooledObject<T> pooledObject : sharedList) {
+            if (pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_RESERVED)) {
+                invalidPooledObject(pooledObject);
+            }
+        }
+        AsyncBorrowing borrowing;
+        while ((borrowing = asyncWaiters.poll()) != null) {
+            borrowing.fail(new PoolException("get pooled object fail, due to pool was already closed!"));
+        }
+        LOGGER.debug("succeed in closing concurrent object pool, for more info: " + debugInfo());
+    }
+
+    @Override
+    public void close(Duration drainTimeout) throws JSQLException {
+        Objects.requireNonNull(drainTimeout, "drain timeout must not be null");
+        close();
+        long drainNanos;
+        try {
+            drainNanos = drainTimeout.toNanos();
+        } catch (ArithmeticException e) {
+            drainNanos = Long.MAX_VALUE;
+        }
+        long start = System.nanoTime();
+        long remaining;
+        while (poolSize.get() > 0 && (remaining = drainNanos - (System.nanoTime() - start)) > 0) {
+            LockSupport.parkNanos(Math.min(remaining, DRAIN_CHECK_INTERVAL_NANOS));
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+        if (poolSize.get() > 0) {
+            LOGGER.warn(poolSize.get() + " pooled objects were not returned within drain timeout "
+                    + drainTimeout.toMillis() + "ms, invalidate them forcibly");
+            for (PooledObject<T> pooledObject : sharedList) {
+                try {
+                    invalidPooledObject(pooledObject);
+                } catch (Exception e) {
+                    LOGGER.error("invalidating pooled object error, pooled detail: " + pooledObject, e);
+                }
+            }
+        }
+    }
+
+    boolean isPoolClosed() {
+        return closed;
+    }
+
+    @Override
+    public PoolStats getPoolStats() {
+        return poolStats;
+    }
+
+    @Override
+    public PoolConfiguration getPoolConfiguration() {
+        return poolCfg.copy();
+    }
+
+    @Override
+    public void reconfigure(Consumer<PoolConfiguration> updater) {
+        PoolConfiguration next;
+        configLock.lock();
+        try {
+            next = PoolReconfigurer.reconfigure(poolCfg, updater);
+            poolCfg = next;
+        } finally {
+            configLock.unlock();
+        }
+        LOGGER.info("concurrent object pool has been reconfigured: " + next);
+        for (PooledObject<T> pooledObject : sharedList) {
+            if (poolSize.get() <= next.getMaxPoolSize()) {
+                break;
+            }
+            if (pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_RESERVED)) {
+                try {
+                    invalidPooledObject(pooledObject);
+                } catch (Exception e) {
+                    LOGGER.error("invalidating pooled object error", e);
+                }
+            }
+        }
+    }
+
+    private int countObjects(int state) {
+        int count = 0;
+        for (PooledObject<T> pooledObject : sharedList) {
+            if (pooledObject.getState() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String debugInfo() {
+        return "pool state: " + (closed ? "CLOSED" : "RUNNING") + ", " + poolStats + ", " + poolCfg
+                + ", idle sweeper: " + (idleObjectExecutor != null ? idleObjectExecutor.toString() : "NOT RUNNING")
+                + ", waiters: " + waiters.get() + ", async waiters: " + asyncWaiters.size();
+    }
+
+    /**
+     * Asynchronous borrowing, which waits in queue until a pooled object is handed off to it, and times out once poll
+     * timeout elapsed
+     */
+    class AsyncBorrowing {
+        private final Executor executor;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long start = System.nanoTime();
+        // claimed by either the one handing off to the waiting borrower, or the borrower giving up waiting
+        private final AtomicBoolean waiting = new AtomicBoolean();
+
+        AsyncBorrowing(Executor executor) {
+            this.executor = executor;
+            ScheduledFuture<?> timeoutTask = poolCfg.getPollTimeout() > 0
+                    ? AsyncBorrows.scheduleTimeout(this::timeout, poolCfg.getPollTimeout()) : null;
+            future.whenComplete((object, error) -> {
+                if (timeoutTask != null) {
+                    timeoutTask.cancel(false);
+                }
+                cancelWaiting();
+            });
+        }
+
+        /**
+         * Take an idle pooled object, or create one in borrower thread if pool is not full, otherwise wait in queue,
+         * never blocks
+         */
+        void attempt() {
+            if (future.isDone()) {
+                return;
+            }
+            if (closed) {
+                future.completeExceptionally(new PoolException("get pooled object fail, due to pool was already closed!"));
+                return;
+            }
+            PooledObject<T> pooledObject = pollIdleObject();
+            if (pooledObject != null) {
+                deliver(pooledObject);
+                return;
+            }
+            if (reservePoolSlot()) {
+                createAndDeliver();
+                return;
+            }
+            waiting.set(true);
+            asyncWaiters.offer(this);
+            // recheck after enqueued, in case of missing the object returned or the slot released before this
+            // borrower was visible
+            pooledObject = pollIdleObject();
+            if (pooledObject != null) {
+                if (cancelWaiting()) {
+                    deliver(pooledObject);
+                } else {
+                    releaseIdleObject(pooledObject);
+                }
+            } else if (reservePoolSlot()) {
+                if (cancelWaiting()) {
+                    createAndDeliver();
+                } else {
+                    poolSize.decrementAndGet();
+                }
+            } else if ((closed || future.isDone()) && cancelWaiting()) {
+                attempt();
+            }
+        }
+
+        boolean offer(PooledObject<T> pooledObject) {
+            if (waiting.compareAndSet(true, false)) {
+                deliver(pooledObject);
+                return true;
+            }
+            return false;
+        }
+
+        boolean fail(Throwable error) {
+            if (waiting.compareAndSet(true, false)) {
+                future.completeExceptionally(error);
+                return true;
+            }
+            return false;
+        }
+
+        private boolean cancelWaiting() {
+            if (waiting.compareAndSet(true, false)) {
+                asyncWaiters.remove(this);
+                return true;
+            }
+            return false;
+        }
+
+        private void createAndDeliver() {
+            Runnable creation = () -> {
+                PooledObject<T> pooledObject;
+                try {
+                    pooledObject = createPooledObject();
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+                deliver(pooledObject);
+            };
+            try {
+                borrower.execute(creation);
+            } catch (RejectedExecutionException e) {
+                poolSize.decrementAndGet();
+                future.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Validate the borrowed pooled object and complete the future in executor, pass the object on to others if
+         * executor rejected
+         */
+        private void deliver(PooledObject<T> pooledObject) {
+            try {
+                executor.execute(() -> complete(pooledObject));
+            } catch (RejectedExecutionException e) {
+                releaseIdleObject(pooledObject);
+                future.completeExceptionally(e);
+            }
+        }
+
+        private void complete(PooledObject<T> pooledObject) {
+            try {
+                if (future.isDone()) {
+                    releaseIdleObject(pooledObject);
+                    return;
+                }
+                if (validateFailOnBorrow(pooledObject)) {
+                    invalidPooledObject(pooledObject);
+                    attempt();
+                    return;
+                }
+                recordBorrowed(pooledObject, start);
+                if (!future.complete(pooledObject.getObject())) {
+                    doReturnObject(pooledObject);
+                }
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        private void timeout() {
+            // never run the dependents of future in timer thread
+            try {
+                executor.execute(this::expire);
+            } catch (RejectedExecutionException e) {
+                expire();
+            }
+        }
+
+        private void expire() {
+            if (!future.isDone()) {
+                // dequeued and counted before completing, so that both are visible to the borrower, as the callback of
+                // future might run after the borrower is woken up
+                cancelWaiting();
+                poolStats.timeoutCnt.increment();
+                future.completeExceptionally(new PooledObjectPollTimeoutException("get pool object timeout, waited for "
+                        + poolCfg.getPollTimeout() + "ms"));
+            }
+        }
+    }
+
+    class IdleObjectSweepTask implements Runnable {
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            long now = System.currentTimeMillis();
+            int maxEvictions = poolCfg.getMaxEvictionsPerRun() > 0 ? poolCfg.getMaxEvictionsPerRun() : Integer.MAX_VALUE;
+            int evictions = maxEvictions;
+            for (PooledObject<T> pooledObject : sharedList) {
+                if (closed || evictions <= 0) {
+                    break;
+                }
+                boolean retired = pooledObject.isRetired(now);
+                if ((retired || poolCfg.getIdleTimeout() > 0 && isPoolObjectIdleTimeout(pooledObject, now))
+                        && pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_RESERVED)) {
+                    evictions--;
+                    try {
+                        if (retired) {
+                            retirePooledObject(pooledObject);
+                        } else {
+                            invalidPooledObject(pooledObject);
+                        }
+                        LOGGER.debug("invalidate " + (retired ? "retired" : "idle timeout") + " pooled object: " + pooledObject);
+                    } catch (Exception e) {
+                        LOGGER.error("invalidating pooled object error", e);
+                    }
+                }
+            }
+            poolStats.recordSweep(maxEvictions - evictions, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package cn.icuter.jsql.pool;
+
+import cn.icuter.jsql.datasource.PoolConfiguration;
+import cn.icuter.jsql.exception.CircuitBreakerOpenException;
+import cn.icuter.jsql.exception.JSQLException;
+import cn.icuter.jsql.exception.PoolException;
+import cn.icuter.jsql.exception.PooledObjectCreationException;
+import cn.icuter.jsql.log.JSQLLogger;
+import cn.icuter.jsql.log.Logs;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Guard of pool object creation, retries in exponential backoff with jitter, and opens the circuit after consecutive
+ * failures, so that borrowers fail fast instead of hammering the unavailable resource during an outage.
+ * <pre>
+ * CLOSED    -- failures reach threshold --&gt; OPEN
+ * OPEN      -- cool-down elapsed        --&gt; HALF_OPEN, a single creation is allowed to probe
+ * HALF_OPEN -- probe succeed            --&gt; CLOSED
+ * HALF_OPEN -- probe fail               --&gt; OPEN
+ * </pre>
+ * Configuration is passed in on each call, since it might be replaced by reconfiguring pool.
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+final class CreationCircuitBreaker {
+
+    private static final JSQLLogger LOGGER = Logs.getLogger(CreationCircuitBreaker.class);
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final PoolStats poolStats;
+    private volatile long openedNanos;
+
+    CreationCircuitBreaker(PoolStats poolStats) {
+        this.poolStats = poolStats;
+    }
+
+    State getState() {
+        return state.get();
+    }
+
+    /**
+     * Whether creation would be rejected right now, borrowers should fail fast rather than wait for creating
+     */
+    boolean isRejecting(PoolConfiguration poolCfg) {
+        State s = state.get();
+        return s == State.HALF_OPEN || s == State.OPEN && !isCoolDownElapsed(poolCfg);
+    }
+
+    CircuitBreakerOpenException rejected(PoolConfiguration poolCfg) {
+        poolStats.circuitRejectedCnt.increment();
+        return new CircuitBreakerOpenException("create pool object rejected, circuit breaker has been opened after "
+                + poolCfg.getCircuitBreakerThreshold() + " consecutive failures, cool down for "
+                + poolCfg.getCircuitBreakerCoolDown() + "ms");
+    }
+
+    /**
+     * Create pool object with at most <code>createRetryCount</code> retries, each retry waits for a random backoff
+     * in <code>[backoff / 2, backoff]</code>, while backoff is doubled from <code>createRetryBackoff</code> up to
+     * <code>createRetryMaxBackoff</code>
+     *
+     * @throws CircuitBreakerOpenException if circuit breaker is open
+     */
+    <T> PooledObject<T> create(PooledObjectManager<T> manager, PoolConfiguration poolCfg) throws JSQLException {
+        int retryCount = 0;
+        do {
+            acquire(poolCfg);
+            JSQLException error;
+            try {
+                PooledObject<T> pooledObject = manager.create();
+                if (pooledObject == null) {
+                    throw new PooledObjectCreationException("create pool object error!");
+                }
+                onSuccess();
+                return pooledObject;
+            } catch (JSQLException e) {
+                error = e;
+            } catch (RuntimeException e) {
+                error = new PooledObjectCreationException("create pool object error!", e);
+            } catch (Error e) {
+                // back to OPEN from HALF_OPEN, otherwise no more probe is allowed
+                onFailure(poolCfg);
+                throw e;
+            }
+            // no more retry once circuit breaker opened
+            if (onFailure(poolCfg) || retryCount >= poolCfg.getCreateRetryCount()) {
+                if (retryCount > 0) {
+                    LOGGER.error("try to create pool object fail when exceeded retrying count: " + poolCfg.getCreateRetryCount());
+                }
+                throw error;
+            }
+            long backoffNanos = backoffNanos(poolCfg, retryCount++);
+            LOGGER.warn("creating pool object error: " + error.toString() + ", retry to create pool object with try count: "
+                    + retryCount + " in " + TimeUnit.NANOSECONDS.toMillis(backoffNanos) + "ms");
+            sleep(backoffNanos, error);
+        } while (true);
+    }
+
+    private void acquire(PoolConfiguration poolCfg) throws CircuitBreakerOpenException {
+        State s = state.get();
+        if (s == State.CLOSED) {
+            return;
+        }
+        // only one of borrowers is allowed to probe
+        if (s == State.OPEN && isCoolDownElapsed(poolCfg) && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            LOGGER.info("circuit breaker of pool " + poolStats.getPoolName() + " is half open, probing with a single creation");
+            return;
+        }
+        throw rejected(poolCfg);
+    }
+
+    private boolean isCoolDownElapsed(PoolConfiguration poolCfg) {
+        return System.nanoTime() - openedNanos >= TimeUnit.MILLISECONDS.toNanos(poolCfg.getCircuitBreakerCoolDown());
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.get() != State.CLOSED && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            poolStats.circuitClosedCnt.increment();
+            LOGGER.info("circuit breaker of pool " + poolStats.getPoolName() + " is closed");
+        }
+    }
+
+    /**
+     * @return true if circuit breaker is open
+     */
+    private boolean onFailure(PoolConfiguration poolCfg) {
+        int failures = consecutiveFailures.incrementAndGet();
+        State s = state.get();
+        if (s == State.HALF_OPEN || s == State.CLOSED && poolCfg.getCircuitBreakerThreshold() > 0
+                && failures >= poolCfg.getCircuitBreakerThreshold()) {
+            openedNanos = System.nanoTime();
+            if (state.compareAndSet(s, State.OPEN)) {
+                poolStats.circuitOpenedCnt.increment();
+                LOGGER.warn("circuit breaker of pool " + poolStats.getPoolName() + " is open after " + failures
+                        + " consecutive creation failures, cool down for " + poolCfg.getCircuitBreakerCoolDown() + "ms");
+            }
+        }
+        return state.get() != State.CLOSED;
+    }
+
+    static long backoffNanos(PoolConfiguration poolCfg, int retried) {
+        long backoff = Math.max(poolCfg.getCreateRetryBackoff(), 0L);
+        long maxBackoff = Math.max(poolCfg.getCreateRetryMaxBackoff(), backoff);
+        long delay = backoff;
+        for (int i = 0; i < retried && delay < maxBackoff; i++) {
+            delay <<= 1;
+        }
+        long nanos = TimeUnit.MILLISECONDS.toNanos(Math.min(delay, maxBackoff));
+        long half = nanos / 2;
+        return half + (half > 0 ? ThreadLocalRandom.current().nextLong(nanos - half + 1) : 0L);
+    }
+
+    private static void sleep(long nanos, JSQLException error) throws PoolException {
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new PoolException("retrying to create pool object was interrupted", error);
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+}
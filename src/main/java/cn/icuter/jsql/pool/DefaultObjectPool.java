@@ -9,21 +9,37 @@ import cn.icuter.jsql.exception.PooledObjectReturnException;
 import cn.icuter.jsql.log.JSQLLogger;
 import cn.icuter.jsql.log.Logs;
 
-import java.sql.Timestamp;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import javax.management.ObjectName;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 /**
  * @author edward
@@ -35,21 +51,43 @@ public class DefaultObjectPool<T> implements ObjectPool<T> {
 
     private static final int IDLE_NEVER_TIMEOUT = -1;
     private static final int IDLE_ALWAYS_TIMEOUT = 0;
-    private static final int IDLE_SCHEDULE_OFFSET_MILLISECONDS = 100; // check idle timeout delay 100ms
+    private static final long IDLE_SWEEP_MIN_INTERVAL = 10L; // ms
+    private static final long IDLE_SWEEP_MAX_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    private static final long FILL_RETRY_DELAY_MILLISECONDS = 1000L;
+    private static final long CREATOR_KEEP_ALIVE_MILLISECONDS = TimeUnit.MINUTES.toMillis(1);
+    private static final double ADAPTIVE_LOW_UTILIZATION = 0.5D;
+    private static final int ADAPTIVE_SHRINK_RUNS = 3;
+    private static final long DRAIN_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final Object WAITER_RETRY = new Object();
+    private static final Object WAITER_CANCELLED = new Object();
 
-    private PoolConfiguration poolCfg;
+    private volatile PoolConfiguration poolCfg;
     private final PooledObjectManager<T> manager;
     private BlockingDeque<PooledObject<T>> idlePooledObjects = new LinkedBlockingDeque<>();
     private Map<Integer, PooledObject<T>> allPooledObjects;
+    private final Deque<Waiter> waiters = new ConcurrentLinkedDeque<>();
+    // pooled objects have been created or being created, reserving slot before creating pooled object
+    private final AtomicInteger reservedPoolSize = new AtomicInteger();
+    // limit of reserved pool size, equals to max pool size unless adaptive sizing shrinks it
+    private volatile int targetPoolSize;
+    private final AtomicBoolean fillRetryScheduled = new AtomicBoolean();
 
-    private ReentrantLock createLock = new ReentrantLock();
     private ReadWriteLock poolLock = new ReentrantReadWriteLock();
     private Lock writeLock = poolLock.writeLock();
     private Lock readLock = poolLock.readLock();
+    // guard reconfiguration and resizing, never hold a monitor which pins virtual threads while invalidating objects
+    private final ReentrantLock configLock = new ReentrantLock();
 
     private volatile boolean closed;
-    private PoolStats poolStats = new PoolStats();
-    private IdleObjectScheduledExecutor idleObjectExecutor;
+    private PoolStats poolStats;
+    private CreationCircuitBreaker circuitBreaker;
+    private ThreadPoolExecutor creatorExecutor;
+    private Executor borrower;
+    private ScheduledThreadPoolExecutor maintainExecutor;
+    // scheduled by maintainer weakly, so that the pool unreachable without closing can be cleaned up
+    private final List<Runnable> maintainTasks = new ArrayList<>();
+    private final CleanState cleanState = new CleanState();
+    private ObjectName configObjectName;
 
     public DefaultObjectPool(PooledObjectManager<T> manager) {
         this(manager, PoolConfiguration.defaultPoolCfg());
@@ -68,128 +106,423 @@ public class DefaultObjectPool<T> implements ObjectPool<T> {
         if (poolCfg.getMaxPoolSize() <= 0) {
             throw new IllegalArgumentException("max pool size must not be zero!");
         }
+        if (poolCfg.getMinIdle() > poolCfg.getMaxPoolSize()) {
+            throw new IllegalArgumentException("min idle must not be greater than max pool size!");
+        }
         this.allPooledObjects = new ConcurrentHashMap<>(this.poolCfg.getMaxPoolSize());
+        String poolName = poolCfg.getPoolName() != null ? poolCfg.getPoolName()
+                : "jsql-pool-" + Integer.toHexString(System.identityHashCode(this));
+        this.targetPoolSize = poolCfg.getMaxPoolSize();
+        this.poolStats = new PoolStats(poolName, allPooledObjects::size, () -> targetPoolSize, this::countActiveObjects,
+                idlePooledObjects::size, waiters::size);
+        this.circuitBreaker = new CreationCircuitBreaker(poolStats);
+        this.borrower = AsyncBorrows.newBorrower(poolCfg.getAsyncBorrowerThreads());
+        poolStats.bindCircuitBreaker(circuitBreaker);
+        if (poolCfg.isJmxEnabled()) {
+            poolStats.registerMBean();
+            configObjectName = PoolMBeans.register(new PoolConfigControl(this), "PoolConfig", poolName);
+        }
 
+        // creating pooled objects in parallel, but never more than max pool size
+        int createParallelism = Math.max(1, Math.min(poolCfg.getCreateParallelism(), poolCfg.getMaxPoolSize()));
+        AtomicInteger creatorCount = new AtomicInteger();
+        ThreadFactory creatorFactory = r -> {
+            Thread t = new Thread(r, "jsql-pool-creator-" + creatorCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        creatorExecutor = new ThreadPoolExecutor(createParallelism, createParallelism,
+                CREATOR_KEEP_ALIVE_MILLISECONDS, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), creatorFactory);
+        creatorExecutor.allowCoreThreadTimeOut(true);
+        cleanState.creatorExecutor = creatorExecutor;
         long idleObjectTimeout = poolCfg.getIdleTimeout();
-        if (idleObjectTimeout > 0) {
-            idleObjectExecutor = new IdleObjectScheduledExecutor(1);
+        long idleValidationInterval = poolCfg.getIdleValidationInterval();
+        long maxLifetime = poolCfg.getMaxLifetime();
+        long leakDetectionThreshold = poolCfg.getLeakDetectionThreshold();
+        long adaptiveSizingInterval = poolCfg.getAdaptiveSizingInterval();
+        if (idleObjectTimeout > 0 || maxLifetime > 0 || poolCfg.getMinIdle() > 0 || idleValidationInterval > 0
+                || leakDetectionThreshold > 0 || adaptiveSizingInterval > 0) {
+            maintainExecutor = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread t = new Thread(r, "jsql-pool-maintainer");
+                t.setDaemon(true);
+                return t;
+            });
             if (poolCfg.getScheduledThreadLifeTime() > 0) {
-                idleObjectExecutor.setKeepAliveTime(poolCfg.getScheduledThreadLifeTime(), TimeUnit.MILLISECONDS);
-                idleObjectExecutor.allowCoreThreadTimeOut(true);
+                maintainExecutor.setKeepAliveTime(poolCfg.getScheduledThreadLifeTime(), TimeUnit.MILLISECONDS);
+                maintainExecutor.allowCoreThreadTimeOut(true);
+            }
+            cleanState.maintainExecutor = maintainExecutor;
+            if (idleObjectTimeout > 0 || maxLifetime > 0) {
+                long sweepBase = idleObjectTimeout > 0 && maxLifetime > 0
+                        ? Math.min(idleObjectTimeout, maxLifetime) : Math.max(idleObjectTimeout, maxLifetime);
+                long interval = Math.min(Math.max(sweepBase / 2, IDLE_SWEEP_MIN_INTERVAL), IDLE_SWEEP_MAX_INTERVAL);
+                scheduleMaintainTask(new IdleObjectSweepTask(), interval);
+            }
+            if (idleValidationInterval > 0) {
+                scheduleMaintainTask(new IdleObjectValidateTask(), idleValidationInterval);
+            }
+            if (leakDetectionThreshold > 0) {
+                long interval = Math.min(Math.max(leakDetectionThreshold / 2, IDLE_SWEEP_MIN_INTERVAL), IDLE_SWEEP_MAX_INTERVAL);
+                scheduleMaintainTask(new LeakDetectionTask(), interval);
+            }
+            if (adaptiveSizingInterval > 0) {
+                scheduleMaintainTask(new AdaptiveSizingTask(), adaptiveSizingInterval);
             }
+            requestFill();
         }
+        PoolCleaner.register(this, cleanState);
+    }
+
+    private void scheduleMaintainTask(Runnable task, long interval) {
+        maintainTasks.add(task);
+        maintainExecutor.scheduleWithFixedDelay(PoolCleaner.weakly(task), interval, interval, TimeUnit.MILLISECONDS);
     }
 
     @Override
     public T borrowObject() throws JSQLException {
-        readLock.lock();
-        try {
-            PooledObject<T> pc = getPooledObject();
-            if (pc == null) {
-                return null;
-            }
-            pc.setBorrowed();
-            pc.updateLastBorrowedTime();
-            poolStats.updateBorrowStats();
-            poolStats.updateLastAccessTime();
-            return pc.getObject();
-        } finally {
-            readLock.unlock();
+        long start = System.nanoTime();
+        PooledObject<T> pc = getPooledObject();
+        if (pc == null) {
+            return null;
+        }
+        recordBorrowed(pc, start);
+        return pc.getObject();
+    }
+
+    /**
+     * Borrow the object without parking any thread, the idle pooled object will be taken first, otherwise the borrower
+     * waits in the same FIFO queue as the blocking ones, for a pooled object handed off by the returning thread or the
+     * creator thread. The taken object is validated in executor, which completes the future as well.
+     * <br>
+     * Pooled object handed off to a borrower whose future was cancelled or timed out will be returned to pool.
+     */
+    @Override
+    public CompletableFuture<T> borrowObjectAsync(Executor executor) {
+        Objects.requireNonNull(executor, "executor must not be null");
+        if (isPollNoWait()) {
+            // never wait, but creating in current thread is blocking
+            return AsyncBorrows.borrowBlocking(this, executor, borrower);
         }
+        AsyncBorrowing borrowing = new AsyncBorrowing(executor);
+        borrowing.attempt();
+        return borrowing.future;
+    }
+
+    private void recordBorrowed(PooledObject<T> pooledObject, long start) {
+        long borrowedNanos = System.nanoTime();
+        pooledObject.updateLastBorrowedTime();
+        pooledObject.setLastBorrowedNanos(borrowedNanos);
+        if (poolCfg.getLeakDetectionThreshold() > 0) {
+            traceBorrowing(pooledObject);
+        }
+        poolStats.recordBorrow(borrowedNanos - start);
+    }
+
+    /**
+     * Capture the borrowing stack trace in sampling, which is costly and disabled by default
+     */
+    private void traceBorrowing(PooledObject<T> pooledObject) {
+        int sampling = poolCfg.getLeakTraceSampling();
+        boolean sampled = sampling == 1 || sampling > 1 && ThreadLocalRandom.current().nextInt(sampling) == 0;
+        pooledObject.setBorrowTrace(sampled
+                ? new Exception("pooled object borrowed by thread " + Thread.currentThread().getName()) : null);
+        pooledObject.setLeakReported(false);
     }
 
+    /**
+     * Get a pooled object in borrowed state, the idle pooled object will be taken first, and then create a new one if pool is not full,
+     * otherwise waiting in FIFO order for a pooled object handed off by the returning thread.
+     */
     private PooledObject<T> getPooledObject() throws JSQLException {
+        long deadline = poolCfg.getPollTimeout() > 0
+                ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(poolCfg.getPollTimeout()) : 0L;
         PooledObject<T> pooledObject;
         do {
             if (isPoolClosed()) {
                 throw new PoolException("get pooled object fail, due to pool was already closed!");
             }
-            pooledObject = idlePooledObjects.pollFirst();
-            // queue is empty and pool not full, try to create one
-            if (pooledObject == null && poolStats.poolSize < poolCfg.getMaxPoolSize()) {
-                createLock.lock();
-                try {
-                    if (poolStats.poolSize < poolCfg.getMaxPoolSize()) {
-                        pooledObject = tryToCreate(poolCfg.getCreateRetryCount());
-                        if (pooledObject == null) {
-                            throw new PooledObjectCreationException("create pool object error!");
-                        }
-                        pooledObject.setObjectPool(this);
-                        allPooledObjects.put(System.identityHashCode(pooledObject.getObject()), pooledObject);
-                        poolStats.updateCreateStats();
+            // keep FIFO order, new comer should not take the idle object in front of the waiters
+            pooledObject = waiters.isEmpty() ? pollIdleObject() : null;
+            if (pooledObject == null) {
+                if (isPollNoWait()) {
+                    // never wait for creating in background, create in current thread if pool is not full
+                    if (!reservePoolSlot()) {
+                        return null;
+                    }
+                    pooledObject = createPooledObject();
+                    pooledObject.setBorrowed();
+                    break;
+                }
+                pooledObject = awaitPooledObject(deadline);
+            }
+            if (pooledObject != null) {
+                // newly created object handed off by creator need not to be validated
+                if (!isNewlyCreated(pooledObject) && validateFailOnBorrow(pooledObject)) {
+                    invalidPooledObject(pooledObject);
+                    continue;
+                }
+                break;
+            }
+            LOGGER.trace("get pooled object failed, continue to get the next");
+        } while (true);
+        return pooledObject;
+    }
 
-                        LOGGER.trace("pooled object has been created, object detail: " + pooledObject);
-                        break;
+    /**
+     * Poll the first idle pooled object and mark it as borrowed, skipping the ones reserved or invalidated by idle object task
+     */
+    private PooledObject<T> pollIdleObject() {
+        PooledObject<T> pooledObject;
+        while ((pooledObject = idlePooledObjects.pollFirst()) != null) {
+            if (pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_BORROWED)) {
+                return pooledObject;
+            }
+        }
+        return null;
+    }
+
+    private boolean isNewlyCreated(PooledObject<T> pooledObject) {
+        return pooledObject.getLastBorrowedTime() == 0L && pooledObject.getLastReturnedTime() == 0L;
+    }
+
+    /**
+     * Park current thread at the tail of waiter queue until a pooled object is handed off by either the returning thread
+     * or the creator thread, whichever comes first.
+     *
+     * @param deadline wait deadline in nanoseconds, 0 means waiting forever
+     * @return borrowed pooled object, or null if pool object can be polled again
+     */
+    private PooledObject<T> awaitPooledObject(long deadline) throws JSQLException {
+        Waiter waiter = new Waiter(Thread.currentThread());
+        waiters.addLast(waiter);
+        try {
+            // recheck after enqueued, in case of missing the object returned before this waiter was visible
+            PooledObject<T> pooledObject = pollIdleObject();
+            if (pooledObject != null) {
+                if (waiter.cancel()) {
+                    return pooledObject;
+                }
+                // handed off concurrently, pass the polled one on to the next waiter
+                releaseIdleObject(pooledObject);
+                return waiter.take();
+            }
+            // create one in background if pool is not full, then wait for it or the returned one
+            if (reservePoolSlot()) {
+                if (circuitBreaker.isRejecting(poolCfg)) {
+                    // fail fast rather than wait for a creation which would be rejected
+                    reservedPoolSize.decrementAndGet();
+                    if (waiter.cancel()) {
+                        throw circuitBreaker.rejected(poolCfg);
                     }
-                } finally {
-                    createLock.unlock();
+                    return waiter.take();
                 }
+                submitCreation();
             }
-            // pool reach the max size
-            if (pooledObject == null) {
-                if (poolCfg.getPollTimeout() > 0) {
-                    try {
-                        pooledObject = idlePooledObjects.pollFirst(poolCfg.getPollTimeout(), TimeUnit.MILLISECONDS);
-                        if (pooledObject == null) {
+            boolean interrupted = false;
+            while (waiter.get() == null) {
+                if (deadline == 0L) {
+                    LockSupport.park(this);
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0L) {
+                        if (waiter.cancel()) {
+                            poolStats.timeoutCnt.increment();
                             throw new PooledObjectPollTimeoutException("get pool object timeout, waited for "
                                     + poolCfg.getPollTimeout() + "ms");
                         }
-                    } catch (InterruptedException e) {
-                        throw new PoolException("get pool object fail!", e);
+                        break;
                     }
-                } else {
-                    try {
-                        // setting poll timeout args for releasing CPU resource instead of Thread.yield()
-                        pooledObject = idlePooledObjects.pollFirst(1000L, TimeUnit.NANOSECONDS);
-                    } catch (InterruptedException e) {
-                        throw new PoolException("get pool object fail!", e);
+                    LockSupport.parkNanos(this, remaining);
+                }
+                if (Thread.interrupted()) {
+                    interrupted = true;
+                    if (waiter.cancel()) {
+                        Thread.currentThread().interrupt();
+                        throw new PoolException("get pool object fail!", new InterruptedException());
                     }
                 }
             }
-            if (pooledObject != null) {
-                // check whether removed by idle object schedule task
-                if (!pooledObject.isValid() || validateFailOnBorrow(pooledObject)) {
-                    invalidPooledObject(pooledObject);
-                    continue;
-                }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return waiter.take();
+        } finally {
+            // handed off waiter has been polled from the queue already
+            if (waiter.get() == WAITER_CANCELLED) {
+                waiters.remove(waiter);
+            }
+        }
+    }
+
+    /**
+     * Hand off the borrowed pooled object to the longest waiting borrower
+     *
+     * @return true if handed off successfully, otherwise no waiter exists
+     */
+    private boolean handOff(PooledObject<T> pooledObject) {
+        Waiter waiter;
+        while ((waiter = waiters.pollFirst()) != null) {
+            if (waiter.offer(pooledObject)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Make a borrowed pooled object idle again, unless a waiter is ready to take it
+     */
+    private void releaseIdleObject(PooledObject<T> pooledObject) {
+        if (handOff(pooledObject)) {
+            return;
+        }
+        pooledObject.setReturned();
+        idlePooledObjects.addLast(pooledObject);
+        // recheck waiters enqueued after handing off, which might miss this idle object
+        while (!waiters.isEmpty()) {
+            PooledObject<T> idleObject = pollIdleObject();
+            if (idleObject == null) {
                 break;
             }
-            if (isPollNoWait()) {
-                return null;
+            if (!handOff(idleObject)) {
+                idleObject.setReturned();
+                idlePooledObjects.addFirst(idleObject);
+                break;
             }
-            LOGGER.trace("get pooled object failed, continue to get the next");
-        } while (true);
-        return pooledObject;
+        }
     }
 
-    private boolean isPollNoWait() {
-        return poolCfg.getPollTimeout() == 0;
+    /**
+     * Pass the creation error to the longest waiting borrower
+     */
+    private void failWaiter(JSQLException error) {
+        Waiter waiter;
+        while ((waiter = waiters.pollFirst()) != null) {
+            if (waiter.offer(error)) {
+                return;
+            }
+        }
     }
 
-    private boolean validateFailOnBorrow(PooledObject<T> pooledObject) throws JSQLException {
-        return poolCfg.isValidateOnBorrow() && !manager.validate(pooledObject);
+    private boolean reservePoolSlot() {
+        int size;
+        do {
+            size = reservedPoolSize.get();
+            if (size >= targetPoolSize) {
+                return false;
+            }
+        } while (!reservedPoolSize.compareAndSet(size, size + 1));
+        return true;
     }
 
-    private PooledObject<T> tryToCreate(int tryCount) throws JSQLException {
+    /**
+     * Create and register a pooled object with the reserved pool slot, which would be released if creation fail
+     */
+    private PooledObject<T> createPooledObject() throws JSQLException {
+        PooledObject<T> pooledObject = null;
         try {
-            return manager.create();
+            pooledObject = circuitBreaker.create(manager, poolCfg);
+        } finally {
+            if (pooledObject == null) {
+                reservedPoolSize.decrementAndGet();
+            }
+        }
+        pooledObject.setObjectPool(this);
+        pooledObject.initRetireTime(poolCfg.getMaxLifetime(), poolCfg.getMaxLifetimeJitter());
+        allPooledObjects.put(System.identityHashCode(pooledObject.getObject()), pooledObject);
+        Runnable cleanAction = manager.cleanAction(pooledObject);
+        if (cleanAction != null) {
+            cleanState.cleanActions.put(System.identityHashCode(pooledObject.getObject()), cleanAction);
+        }
+        poolStats.createdCnt.increment();
+
+        LOGGER.trace("pooled object has been created, object detail: " + pooledObject);
+        return pooledObject;
+    }
+
+    /**
+     * Create pooled object by creator executor with the reserved pool slot
+     */
+    private void submitCreation() {
+        try {
+            creatorExecutor.execute(this::createInBackground);
+        } catch (RejectedExecutionException e) {
+            // pool has been closed
+            reservedPoolSize.decrementAndGet();
+        }
+    }
+
+    private void createInBackground() {
+        PooledObject<T> pooledObject;
+        try {
+            pooledObject = createPooledObject();
+        } catch (Throwable e) {
+            if (e instanceof Error) {
+                // never rethrown, an error of one driver call should not take down the creator thread
+                LOGGER.error("creating pool object in background error", e);
+            }
+            // borrower waiting for this creation would never be woken up if it were not failed
+            failWaiter(e instanceof JSQLException
+                    ? (JSQLException) e : new PooledObjectCreationException("create pool object error!", e));
+            scheduleFillRetry();
+            return;
+        }
+        readLock.lock();
+        try {
+            if (isPoolClosed()) {
+                invalidPooledObject(pooledObject);
+                return;
+            }
+            pooledObject.setBorrowed();
+            if (!handOff(pooledObject)) {
+                // make it idle from now on
+                pooledObject.updateLastReturnedTime();
+                releaseIdleObject(pooledObject);
+            }
         } catch (JSQLException e) {
-            if (tryCount > 0) {
-                LOGGER.warn("creating pool object error: " + e.toString()
-                        + ", retry to create pool object with try count: " + (poolCfg.getCreateRetryCount() - tryCount + 1));
-                return tryToCreate(tryCount - 1);
-            } else {
-                LOGGER.error("try to create pool object fail when exceeded retrying count: "
-                        + poolCfg.getCreateRetryCount());
+            LOGGER.error("invalidating pooled object error", e);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Create pooled objects in background if pool size is less than min idle, borrowers would never wait for it
+     */
+    private void requestFill() {
+        while (!isPoolClosed() && reservedPoolSize.get() < poolCfg.getMinIdle() && reservePoolSlot()) {
+            submitCreation();
+        }
+    }
+
+    private void scheduleFillRetry() {
+        if (maintainExecutor != null && !isPoolClosed() && reservedPoolSize.get() < poolCfg.getMinIdle()
+                && fillRetryScheduled.compareAndSet(false, true)) {
+            LOGGER.warn("filling pool up to min idle error, retry in " + FILL_RETRY_DELAY_MILLISECONDS + "ms");
+            try {
+                maintainExecutor.schedule(() -> {
+                    fillRetryScheduled.set(false);
+                    requestFill();
+                }, FILL_RETRY_DELAY_MILLISECONDS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                fillRetryScheduled.set(false);
             }
-            throw e;
         }
     }
 
-    private boolean isPoolObjectIdleTimeout(PooledObject<T> pooledObject) {
+    private boolean isPollNoWait() {
+        return poolCfg.getPollTimeout() == 0;
+    }
+
+    private boolean validateFailOnBorrow(PooledObject<T> pooledObject) throws JSQLException {
+        return poolCfg.isValidateOnBorrow() && !pooledObject.isReturnedWithin(poolCfg.getValidationSkipWindow())
+                && !manager.validate(pooledObject);
+    }
+
+    private boolean isPoolObjectIdleTimeout(PooledObject<T> pooledObject, long now) {
         return isAlwaysIdleTimeout()
                 || !isNeverIdleTimeout() && pooledObject.getLastReturnedTime() > 0
-                && System.currentTimeMillis() - pooledObject.getLastReturnedTime() >= poolCfg.getIdleTimeout();
+                && now - pooledObject.getLastReturnedTime() >= poolCfg.getIdleTimeout();
     }
 
     private boolean isAlwaysIdleTimeout() {
@@ -200,15 +533,40 @@ public class DefaultObjectPool<T> implements ObjectPool<T> {
         return poolCfg.getIdleTimeout() <= IDLE_NEVER_TIMEOUT;
     }
 
-    synchronized boolean isPoolEmpty() {
-        return poolStats.poolSize == 0;
+    boolean isPoolEmpty() {
+        return allPooledObjects.isEmpty();
     }
 
     private void invalidPooledObject(PooledObject<T> pooledObject) throws JSQLException {
+        invalidPooledObject(pooledObject, false);
+    }
+
+    /**
+     * Retire the pooled object past its lifetime, and create a new one proactively to keep pool size
+     */
+    private void retirePooledObject(PooledObject<T> pooledObject) throws JSQLException {
+        poolStats.retiredCnt.increment();
+        LOGGER.debug("retire pooled object past its lifetime: " + pooledObject);
+        invalidPooledObject(pooledObject, true);
+    }
+
+    private void invalidPooledObject(PooledObject<T> pooledObject, boolean replace) throws JSQLException {
         if (allPooledObjects.remove(System.identityHashCode(pooledObject.getObject())) != null) {
-            manager.invalid(pooledObject);
-            pooledObject.setInvalid();
-            poolStats.updateRemoveStats();
+            cleanState.cleanActions.remove(System.identityHashCode(pooledObject.getObject()));
+            try {
+                manager.invalid(pooledObject);
+            } finally {
+                pooledObject.setInvalid();
+                poolStats.invalidCnt.increment();
+                reservedPoolSize.decrementAndGet();
+                if (!isPoolClosed()) {
+                    // create one for replacement or the waiters those might wait for a free slot
+                    if ((replace || !waiters.isEmpty()) && reservePoolSlot()) {
+                        submitCreation();
+                    }
+                    requestFill();
+                }
+            }
         }
     }
 
@@ -220,45 +578,69 @@ public class DefaultObjectPool<T> implements ObjectPool<T> {
             return;
         }
         PooledObject<T> pooledObject = getPooledObject(object);
-
+        if (pooledObject == null && isPoolClosed()) {
+            LOGGER.warn("returning object has been invalidated while closing pool");
+            return;
+        }
         Objects.requireNonNull(pooledObject, "no such object in pool!");
 
+        doReturnObject(pooledObject);
+    }
+
+    @Override
+    public void returnPooledObject(PooledObject<T> pooledObject) throws JSQLException {
+        Objects.requireNonNull(pooledObject, "returning pooled object must not be null");
+        if (pooledObject.getObjectPool() != this) {
+            throw new PooledObjectReturnException("pooled object does not belong to this pool!");
+        }
+        doReturnObject(pooledObject);
+    }
+
+    private void doReturnObject(PooledObject<T> pooledObject) throws JSQLException {
+        if (!pooledObject.isValid()) {
+            LOGGER.warn("returning object has been invalidated, maybe reclaimed as a leaked object: " + pooledObject);
+            return;
+        }
         if (!pooledObject.isBorrowed()) {
             throw new PooledObjectReturnException("Object has been returned!");
         }
         poolStats.updateLastAccessTime();
         readLock.lock();
         try {
-            if (isPoolClosed() || isAlwaysIdleTimeout() || !pooledObject.isValid() || validateFailOnReturn(pooledObject)) {
+            if (isPoolClosed() || isAlwaysIdleTimeout() || !pooledObject.isValid() || validateFailOnReturn(pooledObject)
+                    || passivateFail(pooledObject)) {
                 invalidPooledObject(pooledObject);
-                removeIdleScheduledTask(pooledObject);
                 return;
             }
-            pooledObject.setReturned();
             pooledObject.updateLastReturnedTime();
-            removeIdleScheduledTask(pooledObject);
-            scheduleIdleTimeoutTask(pooledObject);
-            idlePooledObjects.addLast(pooledObject);
-            poolStats.updateReturnStats();
+            pooledObject.setBorrowTrace(null);
+            poolStats.recordReturn(pooledObject.getHoldNanos());
+            if (pooledObject.isRetired(pooledObject.getLastReturnedTime())) {
+                retirePooledObject(pooledObject);
+                return;
+            }
+            // shrink gracefully after pool size limit was lowered, unless someone is waiting for it
+            if (reservedPoolSize.get() > targetPoolSize && waiters.isEmpty()) {
+                invalidPooledObject(pooledObject);
+                return;
+            }
+            releaseIdleObject(pooledObject);
         } finally {
             readLock.unlock();
         }
     }
 
-    private void removeIdleScheduledTask(PooledObject<T> pooledObject) {
-        if (idleObjectExecutor != null) {
-            idleObjectExecutor.getQueue().remove(pooledObject.scheduledFuture);
-        }
-    }
-
     private boolean validateFailOnReturn(PooledObject<T> pooledObject) throws JSQLException {
         return poolCfg.isValidateOnReturn() && !manager.validate(pooledObject);
     }
 
-    private void scheduleIdleTimeoutTask(PooledObject<T> pooledObject) {
-        if (idleObjectExecutor != null) {
-            idleObjectExecutor.scheduleIdleTask(new IdleObjectTimeoutTask(pooledObject),
-                    poolCfg.getIdleTimeout() + IDLE_SCHEDULE_OFFSET_MILLISECONDS);
+    private boolean passivateFail(PooledObject<T> pooledObject) {
+        try {
+            manager.passivate(pooledObject);
+            return false;
+        } catch (JSQLException e) {
+            LOGGER.warn("passivating returned object error, it will be invalidated: " + pooledObject, e);
+            return true;
         }
     }
 
@@ -277,33 +659,69 @@ public class DefaultObjectPool<T> implements ObjectPool<T> {
                 return;
             }
             closed = true;
-            if (idleObjectExecutor != null) {
-                idleObjectExecutor.shutdownNow();
+            if (maintainExecutor != null) {
+                maintainExecutor.shutdownNow();
             }
+            creatorExecutor.shutdownNow();
+            poolStats.unregisterMBean();
+            PoolMBeans.unregister(configObjectName);
             PooledObject<T> pooledObject;
             while ((pooledObject = idlePooledObjects.poll()) != null) {
-                invalidPooledObject(pooledObject);
+                if (pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_RESERVED)) {
+                    invalidPooledObject(pooledObject);
+                }
             }
         } finally {
             writeLock.unlock();
         }
+        // wake up all waiters to fail fast
+        Waiter waiter;
+        while ((waiter = waiters.pollFirst()) != null) {
+            waiter.offer(WAITER_RETRY);
+        }
         LOGGER.debug("succeed in closing object pool, for more info: " + debugInfo());
     }
 
+    /**
+     * Close pool gracefully, borrowing is rejected and idle objects are invalidated at once, then wait for the borrowed
+     * objects to be returned (and invalidated) within drain timeout, the ones still borrowed after that are invalidated
+     * forcibly and returning them later is ignored
+     *
+     * @param drainTimeout max time waiting for borrowed objects
+     * @throws JSQLException while closing object pool occurs error
+     */
     @Override
-    protected final void finalize() throws Throwable {
+    public void close(Duration drainTimeout) throws JSQLException {
+        Objects.requireNonNull(drainTimeout, "drain timeout must not be null");
+        close();
+        long drainNanos;
         try {
-            close();
-            // force to invalid all pooled objects
+            drainNanos = drainTimeout.toNanos();
+        } catch (ArithmeticException e) {
+            drainNanos = Long.MAX_VALUE;
+        }
+        long start = System.nanoTime();
+        long remaining;
+        while (!allPooledObjects.isEmpty() && (remaining = drainNanos - (System.nanoTime() - start)) > 0) {
+            LockSupport.parkNanos(Math.min(remaining, DRAIN_CHECK_INTERVAL_NANOS));
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+        if (!allPooledObjects.isEmpty()) {
+            LOGGER.warn(allPooledObjects.size() + " pooled objects were not returned within drain timeout "
+                    + drainTimeout.toMillis() + "ms, invalidate them forcibly");
             forceInvalidPooledObjects();
-        } finally {
-            super.finalize();
         }
     }
 
-    private void forceInvalidPooledObjects() throws Exception {
-        for (Map.Entry<Integer, PooledObject<T>> entry : allPooledObjects.entrySet()) {
-            invalidPooledObject(entry.getValue());
+    private void forceInvalidPooledObjects() {
+        for (PooledObject<T> pooledObject : allPooledObjects.values()) {
+            try {
+                invalidPooledObject(pooledObject);
+            } catch (Exception e) {
+                LOGGER.error("invalidating pooled object error, pooled detail: " + pooledObject, e);
+            }
         }
     }
 
@@ -314,110 +732,521 @@ public class DefaultObjectPool<T> implements ObjectPool<T> {
     @Override
     public String debugInfo() {
         return "pool state: " + (closed ? "CLOSED" : "RUNNING") + ", " + poolStats + ", " + poolCfg
-                + ", idle schedule service info: "
-                + (idleObjectExecutor != null ? idleObjectExecutor.toString() : "NOT RUNNING")
+                + ", maintainer: " + (maintainExecutor != null ? maintainExecutor.toString() : "NOT RUNNING")
                 + ", idle object size: " + idlePooledObjects.size();
     }
 
-    PoolStats getPoolStats() {
+    int getWaitingCount() {
+        return waiters.size();
+    }
+
+    @Override
+    public PoolStats getPoolStats() {
         return poolStats;
     }
 
-    class PoolStats {
-        volatile long poolSize;
-        long createdCnt;
-        long invalidCnt;
-        long borrowedCnt;
-        long returnedCnt;
-        volatile long lastAccessTime;
-        volatile String formattedLastAccessTime;
+    @Override
+    public PoolConfiguration getPoolConfiguration() {
+        return poolCfg.copy();
+    }
 
-        PoolStats() {
-            lastAccessTime = System.currentTimeMillis();
+    @Override
+    public void reconfigure(Consumer<PoolConfiguration> updater) {
+        configLock.lock();
+        try {
+            PoolConfiguration next = PoolReconfigurer.reconfigure(poolCfg, updater);
+            // adaptive sizing keeps its own limit within the new bounds
+            int target = next.getAdaptiveSizingInterval() > 0
+                    ? Math.max(Math.min(targetPoolSize, next.getMaxPoolSize()), Math.max(1, next.getMinIdle()))
+                    : next.getMaxPoolSize();
+            poolCfg = next;
+            LOGGER.info("object pool has been reconfigured: " + next);
+            resizePool(target);
+        } finally {
+            configLock.unlock();
         }
+        requestFill();
+    }
 
-        void updateCreateStats() {
-            createLock.lock();
-            try {
-                // noinspection NonAtomicOperationOnVolatileField
-                poolSize++;
-                createdCnt++;
-            } finally {
-                createLock.unlock();
+    /**
+     * Change the pool size limit, growing takes effect on the waiters at once, while shrinking evicts the idle objects
+     * over limit and leaves the borrowed ones to be invalidated on returning
+     */
+    private void resizePool(int newTarget) {
+        configLock.lock();
+        try {
+            // the configuration might be changed after the new target was decided
+            int target = Math.min(newTarget, poolCfg.getMaxPoolSize());
+            int previous = targetPoolSize;
+            if (previous == target) {
+                return;
             }
+            targetPoolSize = target;
+            LOGGER.debug("resize object pool from " + previous + " to " + target);
+        } finally {
+            configLock.unlock();
         }
-        void updateRemoveStats() {
-            createLock.lock();
-            try {
-                // noinspection NonAtomicOperationOnVolatileField
-                poolSize--;
-                invalidCnt++;
-            } finally {
-                createLock.unlock();
+        if (targetPoolSize > reservedPoolSize.get()) {
+            for (int i = waiters.size(); i > 0 && !isPoolClosed() && reservePoolSlot(); i--) {
+                submitCreation();
             }
+            return;
         }
-        synchronized void updateBorrowStats() {
-            borrowedCnt++;
+        PooledObject<T> pooledObject;
+        while (reservedPoolSize.get() > targetPoolSize && (pooledObject = idlePooledObjects.pollFirst()) != null) {
+            if (pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_RESERVED)) {
+                try {
+                    invalidPooledObject(pooledObject);
+                } catch (Exception e) {
+                    LOGGER.error("invalidating pooled object error", e);
+                }
+            }
+        }
+    }
+
+    private int countActiveObjects() {
+        int activeCount = 0;
+        for (PooledObject<T> pooledObject : allPooledObjects.values()) {
+            if (pooledObject.isBorrowed()) {
+                activeCount++;
+            }
         }
-        synchronized void updateReturnStats() {
-            returnedCnt++;
+        return activeCount;
+    }
+
+    /**
+     * Resources released by {@link PoolCleaner} if pool became unreachable without closing, which must not refer to pool.
+     * Pool registered as JMX MBean is always reachable and has to be closed explicitly.
+     */
+    private static final class CleanState implements Runnable {
+        private final Map<Integer, Runnable> cleanActions = new ConcurrentHashMap<>();
+        private volatile ExecutorService creatorExecutor;
+        private volatile ExecutorService maintainExecutor;
+
+        @Override
+        public void run() {
+            if (maintainExecutor != null) {
+                maintainExecutor.shutdownNow();
+            }
+            if (creatorExecutor != null) {
+                creatorExecutor.shutdownNow();
+            }
+            if (cleanActions.isEmpty()) {
+                return;
+            }
+            LOGGER.warn("object pool became unreachable without closing, release its " + cleanActions.size() + " objects");
+            for (Runnable action : cleanActions.values()) {
+                try {
+                    action.run();
+                } catch (Exception e) {
+                    LOGGER.error("releasing object of unreachable pool error", e);
+                }
+            }
+            cleanActions.clear();
         }
-        void updateLastAccessTime() {
-            lastAccessTime = System.currentTimeMillis();
-            LocalDateTime localDateTime = new Timestamp(lastAccessTime).toLocalDateTime();
-            formattedLastAccessTime = localDateTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    /**
+     * Validate the objects idle longer than idle validation interval, the broken ones will be evicted before borrowing
+     */
+    class IdleObjectValidateTask implements Runnable {
+        @Override
+        public void run() {
+            List<PooledObject<T>> validatingObjects = new ArrayList<>();
+            for (PooledObject<T> pooledObject : idlePooledObjects) {
+                if (isPoolClosed()) {
+                    return;
+                }
+                // reserve the idle object, so that borrowers would skip it
+                if (!pooledObject.isReturnedWithin(poolCfg.getIdleValidationInterval())
+                        && pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_RESERVED)) {
+                    validatingObjects.add(pooledObject);
+                }
+            }
+            if (validatingObjects.isEmpty()) {
+                return;
+            }
+            idlePooledObjects.removeAll(validatingObjects);
+            for (PooledObject<T> pooledObject : validatingObjects) {
+                try {
+                    if (manager.validate(pooledObject)) {
+                        readLock.lock();
+                        try {
+                            if (!isPoolClosed()) {
+                                pooledObject.compareAndSetState(PooledObject.STATE_RESERVED, PooledObject.STATE_BORROWED);
+                                releaseIdleObject(pooledObject);
+                                continue;
+                            }
+                        } finally {
+                            readLock.unlock();
+                        }
+                    }
+                    invalidPooledObject(pooledObject);
+                    LOGGER.debug("invalidate broken idle pooled object: " + pooledObject);
+                } catch (Exception e) {
+                    LOGGER.error("validating idle pooled object error", e);
+                    try {
+                        invalidPooledObject(pooledObject);
+                    } catch (Exception ex) {
+                        LOGGER.error("invalidating pooled object error", ex);
+                    }
+                }
+            }
         }
+    }
 
+    /**
+     * Report the objects borrowed longer than leak detection threshold, and reclaim them if necessary
+     */
+    class LeakDetectionTask implements Runnable {
         @Override
-        public String toString() {
-            return "PoolStats {poolSize=" + poolSize
-                    + ", createdCnt=" + createdCnt
-                    + ", invalidCnt=" + invalidCnt
-                    + ", borrowedCnt=" + borrowedCnt
-                    + ", returnedCnt=" + returnedCnt
-                    + ", lastAccessTime=" + formattedLastAccessTime + "}";
+        public void run() {
+            long threshold = poolCfg.getLeakDetectionThreshold();
+            for (PooledObject<T> pooledObject : allPooledObjects.values()) {
+                if (isPoolClosed()) {
+                    return;
+                }
+                long borrowedTime = System.currentTimeMillis() - pooledObject.getLastBorrowedTime();
+                if (!pooledObject.isBorrowed() || pooledObject.isLeakReported() || borrowedTime < threshold) {
+                    continue;
+                }
+                pooledObject.setLeakReported(true);
+                poolStats.leakedCnt.increment();
+                String leakInfo = "pooled object leak detected, borrowed for " + borrowedTime + "ms, object detail: " + pooledObject;
+                Throwable borrowTrace = pooledObject.getBorrowTrace();
+                if (borrowTrace == null) {
+                    LOGGER.warn(leakInfo + ", set pool.leakTraceSampling for borrowing stack trace");
+                } else {
+                    LOGGER.warn(leakInfo, borrowTrace);
+                }
+                if (poolCfg.isLeakReclaim()) {
+                    reclaim(pooledObject, threshold);
+                }
+            }
+        }
+
+        private void reclaim(PooledObject<T> pooledObject, long threshold) {
+            if (!pooledObject.compareAndSetState(PooledObject.STATE_BORROWED, PooledObject.STATE_RESERVED)) {
+                return;
+            }
+            // returned and borrowed again before reserving
+            if (System.currentTimeMillis() - pooledObject.getLastBorrowedTime() < threshold) {
+                pooledObject.compareAndSetState(PooledObject.STATE_RESERVED, PooledObject.STATE_BORROWED);
+                return;
+            }
+            // count before invalidating, the replacement might be handed off to a waiter immediately
+            poolStats.reclaimedCnt.increment();
+            try {
+                invalidPooledObject(pooledObject);
+                LOGGER.warn("leaked pooled object has been reclaimed: " + pooledObject);
+            } catch (Exception e) {
+                LOGGER.error("reclaiming leaked pooled object error", e);
+            }
+        }
+    }
+
+    /**
+     * Borrower parked in waiter queue, the handed off pooled object, creation error or retry signal is set by CAS only once
+     */
+    class Waiter extends AtomicReference<Object> {
+        private final Thread thread;
+
+        Waiter(Thread thread) {
+            this.thread = thread;
+        }
+
+        boolean offer(Object result) {
+            if (compareAndSet(null, result)) {
+                LockSupport.unpark(thread);
+                return true;
+            }
+            return false;
+        }
+
+        boolean cancel() {
+            return compareAndSet(null, WAITER_CANCELLED);
+        }
+
+        @SuppressWarnings("unchecked")
+        PooledObject<T> take() throws JSQLException {
+            Object result = get();
+            if (result instanceof JSQLException) {
+                throw (JSQLException) result;
+            }
+            return result instanceof PooledObject ? (PooledObject<T>) result : null;
         }
     }
 
-    class IdleObjectScheduledExecutor extends ScheduledThreadPoolExecutor {
-        IdleObjectScheduledExecutor(int corePoolSize) {
-            super(corePoolSize);
+    /**
+     * Asynchronous borrowing, which enqueues a new {@link AsyncWaiter} on each attempt until a valid pooled object was
+     * taken, and times out once poll timeout elapsed
+     */
+    class AsyncBorrowing {
+        private final Executor executor;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long start = System.nanoTime();
+        private volatile AsyncWaiter waiter;
+
+        AsyncBorrowing(Executor executor) {
+            this.executor = executor;
+            ScheduledFuture<?> timeoutTask = poolCfg.getPollTimeout() > 0
+                    ? AsyncBorrows.scheduleTimeout(this::timeout, poolCfg.getPollTimeout()) : null;
+            future.whenComplete((object, error) -> {
+                if (timeoutTask != null) {
+                    timeoutTask.cancel(false);
+                }
+                cancelWaiter();
+            });
+        }
+
+        /**
+         * Take an idle pooled object, or enqueue a waiter and create one in background if pool is not full, never blocks
+         */
+        void attempt() {
+            if (future.isDone()) {
+                return;
+            }
+            if (isPoolClosed()) {
+                future.completeExceptionally(new PoolException("get pooled object fail, due to pool was already closed!"));
+                return;
+            }
+            // keep FIFO order, new comer should not take the idle object in front of the waiters
+            PooledObject<T> pooledObject = waiters.isEmpty() ? pollIdleObject() : null;
+            if (pooledObject != null) {
+                deliver(pooledObject);
+                return;
+            }
+            AsyncWaiter newWaiter = new AsyncWaiter(this);
+            waiter = newWaiter;
+            waiters.addLast(newWaiter);
+            // recheck after enqueued, in case of missing the object returned before this waiter was visible
+            pooledObject = pollIdleObject();
+            if (pooledObject != null) {
+                if (newWaiter.cancel()) {
+                    waiters.remove(newWaiter);
+                    deliver(pooledObject);
+                } else {
+                    releaseIdleObject(pooledObject);
+                }
+                return;
+            }
+            if (reservePoolSlot()) {
+                if (circuitBreaker.isRejecting(poolCfg)) {
+                    reservedPoolSize.decrementAndGet();
+                    if (newWaiter.cancel()) {
+                        waiters.remove(newWaiter);
+                        future.completeExceptionally(circuitBreaker.rejected(poolCfg));
+                    }
+                    return;
+                }
+                submitCreation();
+            }
+            if (future.isDone()) {
+                // timed out or cancelled before the waiter was visible
+                cancelWaiter();
+            }
+        }
+
+        /**
+         * Complete the future with the result offered to waiter in executor, pass the pooled object on to others if
+         * executor rejected
+         */
+        @SuppressWarnings("unchecked")
+        void deliver(Object result) {
+            try {
+                executor.execute(() -> complete(result));
+            } catch (RejectedExecutionException e) {
+                if (result instanceof PooledObject) {
+                    releaseIdleObject((PooledObject<T>) result);
+                }
+                future.completeExceptionally(e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(Object result) {
+            try {
+                if (result instanceof JSQLException) {
+                    future.completeExceptionally((JSQLException) result);
+                    return;
+                }
+                if (!(result instanceof PooledObject)) {
+                    attempt();
+                    return;
+                }
+                PooledObject<T> pooledObject = (PooledObject<T>) result;
+                if (future.isDone()) {
+                    releaseIdleObject(pooledObject);
+                    return;
+                }
+                // newly created object handed off by creator need not to be validated
+                if (!isNewlyCreated(pooledObject) && validateFailOnBorrow(pooledObject)) {
+                    invalidPooledObject(pooledObject);
+                    attempt();
+                    return;
+                }
+                if (future.isDone()) {
+                    releaseIdleObject(pooledObject);
+                    return;
+                }
+                recordBorrowed(pooledObject, start);
+                if (!future.complete(pooledObject.getObject())) {
+                    doReturnObject(pooledObject);
+                }
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        private void timeout() {
+            // never run the dependents of future in timer thread
+            try {
+                executor.execute(this::expire);
+            } catch (RejectedExecutionException e) {
+                expire();
+            }
         }
-        void scheduleIdleTask(IdleObjectTimeoutTask task, long delay) {
-            task.pooledObject.scheduledFuture = (RunnableScheduledFuture) schedule(task, delay, TimeUnit.MILLISECONDS);
+
+        private void expire() {
+            if (!future.isDone()) {
+                // counted before completing, so that the timeout is visible to the borrower
+                poolStats.timeoutCnt.increment();
+                future.completeExceptionally(new PooledObjectPollTimeoutException("get pool object timeout, waited for "
+                        + poolCfg.getPollTimeout() + "ms"));
+            }
+        }
+
+        private void cancelWaiter() {
+            AsyncWaiter currentWaiter = waiter;
+            if (currentWaiter != null && currentWaiter.cancel()) {
+                waiters.remove(currentWaiter);
+            }
         }
     }
 
-    private static final JSQLLogger TASK_LOGGER = Logs.getLogger(DefaultObjectPool.IdleObjectTimeoutTask.class);
+    /**
+     * Waiter of asynchronous borrowing, the offered result is delivered by executor instead of unparking a thread
+     */
+    class AsyncWaiter extends Waiter {
+        private final AsyncBorrowing borrowing;
 
-    class IdleObjectTimeoutTask implements Runnable {
-        private PooledObject<T> pooledObject;
+        AsyncWaiter(AsyncBorrowing borrowing) {
+            super(null);
+            this.borrowing = borrowing;
+        }
 
-        IdleObjectTimeoutTask(PooledObject<T> pooledObject) {
-            this.pooledObject = pooledObject;
+        @Override
+        boolean offer(Object result) {
+            if (compareAndSet(null, result)) {
+                borrowing.deliver(result);
+                return true;
+            }
+            return false;
         }
+    }
+
+    /**
+     * Grow pool size limit while borrowing wait time (p95) of the last interval exceeds the target or borrowers timed out
+     * on a saturated pool, and shrink it while average in-use objects, estimated by throughput multiplied by mean hold time,
+     * stay under half of the limit for several intervals
+     */
+    class AdaptiveSizingTask implements Runnable {
+        private LatencyHistogram.Snapshot lastWaitTime = poolStats.getBorrowWaitTime();
+        private LatencyHistogram.Snapshot lastHoldTime = poolStats.getHoldTime();
+        private long lastTimeoutCnt = poolStats.getTimeoutCount();
+        private long lastRunNanos = System.nanoTime();
+        private int lowUtilizationRuns;
 
         @Override
         public void run() {
-            // If ObjectPool has been closed, that would never run its' scheduled task
-            if (isIdleTimeout()) {
-                writeLock.lock();
-                try {
-                    if (isIdleTimeout()) {
-                        invalidPooledObject(pooledObject);
-                        TASK_LOGGER.debug("invalidate pooled object: " + pooledObject);
-                    }
-                } catch (JSQLException e) {
-                    TASK_LOGGER.error("invalidating pooled object error", e);
-                } finally {
-                    writeLock.unlock();
+            long now = System.nanoTime();
+            LatencyHistogram.Snapshot waitTime = poolStats.getBorrowWaitTime();
+            LatencyHistogram.Snapshot holdTime = poolStats.getHoldTime();
+            long timeoutCnt = poolStats.getTimeoutCount();
+            LatencyHistogram.Snapshot intervalWaitTime = waitTime.since(lastWaitTime);
+            LatencyHistogram.Snapshot intervalHoldTime = holdTime.since(lastHoldTime);
+            boolean timedOut = timeoutCnt > lastTimeoutCnt;
+            long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(now - lastRunNanos);
+            lastWaitTime = waitTime;
+            lastHoldTime = holdTime;
+            lastTimeoutCnt = timeoutCnt;
+            lastRunNanos = now;
+            if (isPoolClosed()) {
+                return;
+            }
+            PoolConfiguration cfg = poolCfg;
+            int target = targetPoolSize;
+            int step = Math.max(1, target / 4);
+            boolean saturated = reservedPoolSize.get() >= target;
+            if (saturated && (timedOut
+                    || intervalWaitTime.getP95Micros() > TimeUnit.MILLISECONDS.toMicros(cfg.getAdaptiveWaitTarget()))) {
+                lowUtilizationRuns = 0;
+                if (target < cfg.getMaxPoolSize()) {
+                    resizePool(Math.min(cfg.getMaxPoolSize(), target + step));
                 }
+                return;
+            }
+            double utilization = elapsedMicros > 0 ? (double) intervalHoldTime.getTotalMicros() / elapsedMicros / target : 0D;
+            if (utilization >= ADAPTIVE_LOW_UTILIZATION) {
+                lowUtilizationRuns = 0;
+                return;
+            }
+            if (++lowUtilizationRuns < ADAPTIVE_SHRINK_RUNS) {
+                return;
+            }
+            lowUtilizationRuns = 0;
+            int floor = Math.max(1, cfg.getMinIdle());
+            if (target > floor) {
+                resizePool(Math.max(floor, target - step));
             }
         }
+    }
 
-        private boolean isIdleTimeout() {
-            return pooledObject != null && pooledObject.isValid()
-                    && !pooledObject.isBorrowed() && !isPoolClosed() && isPoolObjectIdleTimeout(pooledObject);
+    /**
+     * Scan idle objects by last returned time and retire time in a single pass, reserve the timeout or retired ones by CAS
+     * and then evict them in bulk
+     */
+    class IdleObjectSweepTask implements Runnable {
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            long now = System.currentTimeMillis();
+            int maxEvictions = poolCfg.getMaxEvictionsPerRun() > 0 ? poolCfg.getMaxEvictionsPerRun() : Integer.MAX_VALUE;
+            List<PooledObject<T>> evictedObjects = new ArrayList<>();
+            // idle timeout never evicts below min idle, otherwise the evicted would be created again by filling,
+            // only the retired are rotated below it
+            int idleEvictions = reservedPoolSize.get() - poolCfg.getMinIdle();
+            for (PooledObject<T> pooledObject : idlePooledObjects) {
+                if (isPoolClosed() || evictedObjects.size() >= maxEvictions) {
+                    break;
+                }
+                boolean retired = pooledObject.isRetired(now);
+                boolean idleTimeout = !retired && idleEvictions > 0 && poolCfg.getIdleTimeout() > 0
+                        && isPoolObjectIdleTimeout(pooledObject, now);
+                // reserve the idle object, so that borrowers would skip it
+                if ((retired || idleTimeout) && pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_RESERVED)) {
+                    evictedObjects.add(pooledObject);
+                    if (idleTimeout) {
+                        idleEvictions--;
+                    }
+                }
+            }
+            if (!evictedObjects.isEmpty()) {
+                idlePooledObjects.removeAll(evictedObjects);
+                for (PooledObject<T> pooledObject : evictedObjects) {
+                    try {
+                        if (pooledObject.isRetired(now)) {
+                            retirePooledObject(pooledObject);
+                        } else {
+                            invalidPooledObject(pooledObject);
+                            LOGGER.debug("invalidate idle timeout pooled object: " + pooledObject);
+                        }
+                    } catch (Exception e) {
+                        LOGGER.error("invalidating pooled object error", e);
+                    }
+                }
+            }
+            poolStats.recordSweep(evictedObjects.size(), System.nanoTime() - start);
         }
     }
 }
@@ -0,0 +1,1116 @@
+package cn.icuter.jsql.pool;
+
+import cn.icuter.jsql.datasource.PoolConfiguration;
+import cn.icuter.jsql.exception.JSQLException;
+import cn.icuter.jsql.exception.PoolException;
+import cn.icuter.jsql.exception.PooledObjectPollTimeoutException;
+import cn.icuter.jsql.exception.PooledObjectReturnException;
+import cn.icuter.jsql.log.JSQLLogger;
+import cn.icuter.jsql.log.Logs;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Object pool partitioned by key, such as tenant or credentials, all keys share one maintainer thread, the creator threads
+ * filling min idle and the global limit <code>maxTotalPoolSize</code>, while <code>maxPoolSize</code> and <code>minIdle</code>
+ * are the limits of each key.
+ * <br>
+ * Idle objects of a key are reused in LIFO order, so that the rarely used ones stay at the tail and time out. When the
+ * global limit is reached, the least recently used idle object of any other key is evicted to make room for the borrower.
+ * <br>
+ * Sub pool of a key is removed by maintainer once it becomes empty, and it is created again on demand.
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+public class KeyedObjectPool<K, T> implements AutoCloseable {
+
+    private static final JSQLLogger LOGGER = Logs.getLogger(KeyedObjectPool.class);
+
+    private static final int IDLE_NEVER_TIMEOUT = -1;
+    private static final int IDLE_ALWAYS_TIMEOUT = 0;
+    private static final long MAINTAIN_MIN_INTERVAL = 10L; // ms
+    private static final long MAINTAIN_MAX_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    private static final long CREATOR_KEEP_ALIVE_MILLISECONDS = TimeUnit.MINUTES.toMillis(1);
+    private static final int SIZE_REMOVED = -1;
+    private static final Object WAITER_CANCELLED = new Object();
+    // signal that room was released, and the waiter should poll again
+    private static final Object WAITER_RETRY = new Object();
+
+    private final Function<K, PooledObjectManager<T>> managerFactory;
+    private final PoolConfiguration poolCfg;
+    private final Map<K, KeyedPool> keyedPools = new ConcurrentHashMap<>();
+    private final Map<Integer, PooledObject<T>> allPooledObjects = new ConcurrentHashMap<>();
+    // objects created and being created of all keys
+    private final AtomicInteger totalSize = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final PoolStats poolStats;
+    private final ScheduledThreadPoolExecutor maintainExecutor;
+    private final ThreadPoolExecutor creatorExecutor;
+    private final Executor borrower;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * @param managerFactory creates the manager of pooled objects for each key, it is called once per sub pool
+     * @param poolConfiguration limits of each key and the global limit <code>maxTotalPoolSize</code>
+     */
+    public KeyedObjectPool(Function<K, PooledObjectManager<T>> managerFactory, PoolConfiguration poolConfiguration) {
+        if (poolConfiguration.getMaxPoolSize() <= 0) {
+            throw new IllegalArgumentException("max pool size must not be zero!");
+        }
+        if (poolConfiguration.getMinIdle() > poolConfiguration.getMaxPoolSize()) {
+            throw new IllegalArgumentException("min idle must not be greater than max pool size!");
+        }
+        if (poolConfiguration.getMaxTotalPoolSize() > 0 && poolConfiguration.getMaxTotalPoolSize() < poolConfiguration.getMaxPoolSize()) {
+            throw new IllegalArgumentException("max total pool size must not be less than max pool size!");
+        }
+        this.managerFactory = managerFactory;
+        this.poolCfg = poolConfiguration.copy();
+        String poolName = poolCfg.getPoolName() != null ? poolCfg.getPoolName()
+                : "jsql-keyed-pool-" + Integer.toHexString(System.identityHashCode(this));
+        this.poolStats = new PoolStats(poolName, totalSize::get, this::getTargetPoolSize,
+                () -> allPooledObjects.size() - countIdleObjects(), this::countIdleObjects, waiters::get);
+        if (poolCfg.isJmxEnabled()) {
+            poolStats.registerMBean();
+        }
+        maintainExecutor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "jsql-keyed-pool-maintainer");
+            t.setDaemon(true);
+            return t;
+        });
+        maintainExecutor.setRemoveOnCancelPolicy(true);
+        // filling min idle of keys in parallel, but never more than max pool size
+        int createParallelism = Math.max(1, Math.min(poolCfg.getCreateParallelism(), poolCfg.getMaxPoolSize()));
+        AtomicInteger creatorCount = new AtomicInteger();
+        ThreadFactory creatorFactory = r -> {
+            Thread t = new Thread(r, "jsql-keyed-pool-creator-" + creatorCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        creatorExecutor = new ThreadPoolExecutor(createParallelism, createParallelism,
+                CREATOR_KEEP_ALIVE_MILLISECONDS, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), creatorFactory);
+        creatorExecutor.allowCoreThreadTimeOut(true);
+        borrower = AsyncBorrows.newBorrower(poolCfg.getAsyncBorrowerThreads());
+        // always maintain, since empty sub pools need to be removed
+        long idleTimeout = poolCfg.getIdleTimeout();
+        long maxLifetime = poolCfg.getMaxLifetime();
+        long sweepBase = idleTimeout > 0 && maxLifetime > 0 ? Math.min(idleTimeout, maxLifetime) : Math.max(idleTimeout, maxLifetime);
+        long interval = sweepBase > 0 ? Math.min(Math.max(sweepBase / 2, MAINTAIN_MIN_INTERVAL), MAINTAIN_MAX_INTERVAL)
+                : MAINTAIN_MAX_INTERVAL;
+        maintainExecutor.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+        LOGGER.debug("set up keyed object pool with pool configuration: " + poolCfg);
+    }
+
+    /**
+     * Borrow an object of the key, the idle one will be taken first, and then create a new one if neither the key nor
+     * the pool is full, otherwise wait for an object of the key being returned or the room released by other keys
+     *
+     * @param key key of sub pool
+     * @return borrowed object, or null if no object is available and poll timeout is 0
+     * @throws JSQLException if pool was closed, borrowing timeout or creating object error
+     */
+    public T borrowObject(K key) throws JSQLException {
+        Objects.requireNonNull(key, "key must not be null");
+        long start = System.nanoTime();
+        long deadline = poolCfg.getPollTimeout() > 0 ? start + TimeUnit.MILLISECONDS.toNanos(poolCfg.getPollTimeout()) : 0L;
+        PooledObject<T> pooledObject;
+        KeyedPool keyedPool;
+        do {
+            checkPoolClosed();
+            keyedPool = keyedPools.computeIfAbsent(key, KeyedPool::new);
+            pooledObject = keyedPool.getPooledObject(deadline);
+            // sub pool was removed by maintainer concurrently, borrow from the new one
+        } while (pooledObject == null && keyedPool.isRemoved());
+        if (pooledObject == null) {
+            return null;
+        }
+        recordBorrowed(pooledObject, start);
+        return pooledObject.getObject();
+    }
+
+    /**
+     * Borrow an object of the key without parking any thread, the idle one will be taken first, and then create a new one
+     * in borrower thread if neither the key nor the pool is full, otherwise wait in the same FIFO queue of the key as the
+     * blocking borrowers. The taken object is validated in executor, which completes the future as well.
+     * <br>
+     * Pooled object handed off to a borrower whose future was cancelled or timed out will be returned to pool.
+     *
+     * @param key key of sub pool
+     * @param executor executor completing the future
+     * @return future of borrowed object, completed exceptionally if pool was closed, borrowing timeout, creating object
+     * error, borrower threads were all busy or executor rejected the completion
+     */
+    public CompletableFuture<T> borrowObjectAsync(K key, Executor executor) {
+        Objects.requireNonNull(key, "key must not be null");
+        Objects.requireNonNull(executor, "executor must not be null");
+        if (poolCfg.getPollTimeout() == 0) {
+            // never wait, but creating in current thread is blocking
+            return AsyncBorrows.borrowBlocking(getObjectPool(key), executor, borrower);
+        }
+        AsyncBorrowing borrowing = new AsyncBorrowing(key, executor);
+        borrowing.attempt(false);
+        return borrowing.future;
+    }
+
+    private void recordBorrowed(PooledObject<T> pooledObject, long start) {
+        long borrowedNanos = System.nanoTime();
+        pooledObject.updateLastBorrowedTime();
+        pooledObject.setLastBorrowedNanos(borrowedNanos);
+        poolStats.recordBorrow(borrowedNanos - start);
+    }
+
+    /**
+     * Return the borrowed object to the sub pool it belongs to
+     *
+     * @param object borrowed object
+     * @throws JSQLException while returning object occurs error
+     */
+    public void returnObject(T object) throws JSQLException {
+        if (object == null) {
+            LOGGER.warn("returning object is null, no object will be returned");
+            return;
+        }
+        PooledObject<T> pooledObject = allPooledObjects.get(System.identityHashCode(object));
+        if (pooledObject == null && closed.get()) {
+            LOGGER.warn("returning object has been invalidated while closing pool");
+            return;
+        }
+        Objects.requireNonNull(pooledObject, "no such object in pool!");
+        // dispatched to the sub pool which owns it
+        pooledObject.getObjectPool().returnPooledObject(pooledObject);
+    }
+
+    /**
+     * View of the sub pool, borrowing is always delegated to the current sub pool of the key, and closing the view takes
+     * no effect on this pool
+     *
+     * @param key key of sub pool
+     * @return object pool of the key
+     */
+    public ObjectPool<T> getObjectPool(K key) {
+        Objects.requireNonNull(key, "key must not be null");
+        return new KeyedObjectPoolView(key);
+    }
+
+    public int getPoolSize(K key) {
+        KeyedPool keyedPool = keyedPools.get(key);
+        return keyedPool == null ? 0 : Math.max(keyedPool.size.get(), 0);
+    }
+
+    public int getIdleCount(K key) {
+        KeyedPool keyedPool = keyedPools.get(key);
+        return keyedPool == null ? 0 : keyedPool.idleObjects.size();
+    }
+
+    public int getKeyCount() {
+        return keyedPools.size();
+    }
+
+    public PoolStats getPoolStats() {
+        return poolStats;
+    }
+
+    public PoolConfiguration getPoolConfiguration() {
+        return poolCfg.copy();
+    }
+
+    public boolean isPoolClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public void close() throws JSQLException {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        maintainExecutor.shutdownNow();
+        creatorExecutor.shutdownNow();
+        poolStats.unregisterMBean();
+        PoolException closedError = new PoolException("get pooled object fail, due to pool was already closed!");
+        for (KeyedPool keyedPool : keyedPools.values()) {
+            keyedPool.wakeUpWaiters(closedError);
+            keyedPool.invalidIdleObjects();
+        }
+        LOGGER.debug("succeed in closing keyed object pool, for more info: " + debugInfo());
+    }
+
+    public String debugInfo() {
+        return "pool state: " + (closed.get() ? "CLOSED" : "RUNNING") + ", keys: " + keyedPools.size() + ", " + poolStats + ", " + poolCfg;
+    }
+
+    private int getTargetPoolSize() {
+        return poolCfg.getMaxTotalPoolSize() > 0 ? poolCfg.getMaxTotalPoolSize() : keyedPools.size() * poolCfg.getMaxPoolSize();
+    }
+
+    private int countIdleObjects() {
+        int count = 0;
+        for (KeyedPool keyedPool : keyedPools.values()) {
+            count += keyedPool.idleObjects.size();
+        }
+        return count;
+    }
+
+    private boolean isNewlyCreated(PooledObject<T> pooledObject) {
+        return pooledObject.getLastBorrowedTime() == 0L && pooledObject.getLastReturnedTime() == 0L;
+    }
+
+    private void checkPoolClosed() throws PoolException {
+        if (closed.get()) {
+            throw new PoolException("get pooled object fail, due to pool was already closed!");
+        }
+    }
+
+    private static boolean incrementIfBelow(AtomicInteger counter, int limit) {
+        int value;
+        do {
+            value = counter.get();
+            if (value < 0 || limit > 0 && value >= limit) {
+                return false;
+            }
+        } while (!counter.compareAndSet(value, value + 1));
+        return true;
+    }
+
+    private boolean isTotalPoolFull() {
+        return poolCfg.getMaxTotalPoolSize() > 0 && totalSize.get() >= poolCfg.getMaxTotalPoolSize();
+    }
+
+    /**
+     * Signal a waiter of the other keys which is not full, since room of the pool was released or idle object could be
+     * evicted for room
+     */
+    private void signalOtherKeys(KeyedPool except) {
+        if (waiters.get() <= except.waiting.get()) {
+            return;
+        }
+        for (KeyedPool keyedPool : keyedPools.values()) {
+            if (keyedPool != except && keyedPool.size.get() < poolCfg.getMaxPoolSize() && keyedPool.signal()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Evict the least recently used idle object of the other keys, which releases room of the global limit
+     *
+     * @return true if an idle object was evicted
+     */
+    private boolean evictLeastRecentlyUsed(KeyedPool except) {
+        do {
+            KeyedPool lruPool = null;
+            PooledObject<T> lruObject = null;
+            for (KeyedPool keyedPool : keyedPools.values()) {
+                PooledObject<T> oldest = keyedPool == except ? null : keyedPool.idleObjects.peekLast();
+                if (oldest != null && (lruObject == null || oldest.getLastReturnedTime() < lruObject.getLastReturnedTime())) {
+                    lruPool = keyedPool;
+                    lruObject = oldest;
+                }
+            }
+            if (lruObject == null) {
+                return false;
+            }
+            // the oldest one might be borrowed concurrently, then look for the next
+            if (lruPool.evict(lruObject)) {
+                LOGGER.debug("evicted the least recently used idle object of key " + lruPool.key + " for key " + except.key);
+                return true;
+            }
+        } while (true);
+    }
+
+    /**
+     * Evict idle objects timed out or retired, fill each key up to min idle, and remove the empty sub pools
+     */
+    private void maintain() {
+        long start = System.nanoTime();
+        int evictedCnt = 0;
+        long now = System.currentTimeMillis();
+        for (KeyedPool keyedPool : keyedPools.values()) {
+            // from the least recently used at tail
+            Iterator<PooledObject<T>> iterator = keyedPool.idleObjects.descendingIterator();
+            while (iterator.hasNext() && !closed.get()) {
+                PooledObject<T> pooledObject = iterator.next();
+                if ((isIdleTimeout(pooledObject, now) || pooledObject.isRetired(now)) && keyedPool.evict(pooledObject)) {
+                    evictedCnt++;
+                }
+            }
+            keyedPool.fillMinIdle();
+            keyedPool.removeIfEmpty();
+        }
+        poolStats.recordSweep(evictedCnt, System.nanoTime() - start);
+    }
+
+    private boolean isIdleTimeout(PooledObject<T> pooledObject, long now) {
+        long idleTimeout = poolCfg.getIdleTimeout();
+        return idleTimeout == IDLE_ALWAYS_TIMEOUT
+                || idleTimeout > IDLE_NEVER_TIMEOUT && pooledObject.getLastReturnedTime() > 0
+                && now - pooledObject.getLastReturnedTime() >= idleTimeout;
+    }
+
+    /**
+     * Sub pool of a key, which is also set to its pooled objects as the owner pool
+     */
+    private final class KeyedPool implements ObjectPool<T> {
+        private final K key;
+        private final PooledObjectManager<T> manager;
+        private final CreationCircuitBreaker circuitBreaker;
+        // most recently returned at head
+        private final LinkedBlockingDeque<PooledObject<T>> idleObjects = new LinkedBlockingDeque<>();
+        // objects created and being created, SIZE_REMOVED means removed from pool
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final Deque<Waiter> waiterQueue = new ConcurrentLinkedDeque<>();
+
+        KeyedPool(K key) {
+            this.key = key;
+            this.manager = managerFactory.apply(key);
+            this.circuitBreaker = new CreationCircuitBreaker(poolStats);
+        }
+
+        boolean isRemoved() {
+            return size.get() == SIZE_REMOVED;
+        }
+
+        /**
+         * @return borrowed pooled object, or null if pool poll no wait or this sub pool was removed
+         */
+        PooledObject<T> getPooledObject(long deadline) throws JSQLException {
+            // signalled waiter is at the head of queue, which takes the idle object or room first
+            boolean signalled = false;
+            while (true) {
+                checkPoolClosed();
+                // keep FIFO order, new comer should not take the idle object or room in front of the waiters
+                boolean first = signalled || waiterQueue.isEmpty();
+                PooledObject<T> pooledObject = first ? pollIdleObject() : null;
+                if (pooledObject == null) {
+                    if (isRemoved()) {
+                        return null;
+                    }
+                    if (first && reserve()) {
+                        return createPooledObject();
+                    }
+                    if (poolCfg.getPollTimeout() == 0) {
+                        return null;
+                    }
+                    pooledObject = awaitPooledObject(deadline, signalled);
+                    if (pooledObject == null) {
+                        signalled = true;
+                        continue;
+                    }
+                }
+                if (validateFailOnBorrow(pooledObject)) {
+                    invalidPooledObject(pooledObject);
+                    signalled = true;
+                    continue;
+                }
+                return pooledObject;
+            }
+        }
+
+        private PooledObject<T> pollIdleObject() {
+            PooledObject<T> pooledObject;
+            while ((pooledObject = idleObjects.pollFirst()) != null) {
+                if (pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_BORROWED)) {
+                    return pooledObject;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Park current thread in waiter queue until a pooled object is handed off by the returning thread, or signalled
+         * that room of the key or the pool was released
+         *
+         * @param deadline wait deadline in nanoseconds, 0 means waiting forever
+         * @param signalled waiter signalled before is queued at the head again
+         * @return borrowed pooled object, or null if pooled object should be polled again
+         */
+        private PooledObject<T> awaitPooledObject(long deadline, boolean signalled) throws JSQLException {
+            Waiter waiter = new Waiter(Thread.currentThread());
+            waiters.incrementAndGet();
+            waiting.incrementAndGet();
+            if (signalled) {
+                waiterQueue.addFirst(waiter);
+            } else {
+                waiterQueue.addLast(waiter);
+            }
+            try {
+                // recheck after enqueued, in case of missing the object returned or room released before this waiter was visible
+                PooledObject<T> pooledObject = pollIdleObject();
+                if (pooledObject != null) {
+                    if (waiter.cancel()) {
+                        return pooledObject;
+                    }
+                    // handed off concurrently, pass the polled one on to the next waiter
+                    releaseIdleObject(pooledObject);
+                    return waiter.take();
+                }
+                if (isRemoved()) {
+                    // borrow from the new sub pool unless handed off concurrently
+                    waiter.cancel();
+                    return waiter.take();
+                }
+                if (reserve()) {
+                    if (waiter.cancel()) {
+                        return createPooledObject();
+                    }
+                    // signalled concurrently, release the room for the others
+                    unreserve();
+                    return waiter.take();
+                }
+                boolean interrupted = false;
+                while (waiter.get() == null) {
+                    if (deadline == 0L) {
+                        LockSupport.park(this);
+                    } else {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0L) {
+                            if (waiter.cancel()) {
+                                poolStats.timeoutCnt.increment();
+                                throw new PooledObjectPollTimeoutException("get pool object of key " + key + " timeout, waited for "
+                                        + poolCfg.getPollTimeout() + "ms");
+                            }
+                            break;
+                        }
+                        LockSupport.parkNanos(this, remaining);
+                    }
+                    if (Thread.interrupted()) {
+                        interrupted = true;
+                        if (waiter.cancel()) {
+                            Thread.currentThread().interrupt();
+                            throw new PoolException("get pool object fail!", new InterruptedException());
+                        }
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                return waiter.take();
+            } finally {
+                // handed off or signalled waiter has been polled from the queue already
+                if (waiter.get() == WAITER_CANCELLED) {
+                    waiterQueue.remove(waiter);
+                }
+                waiting.decrementAndGet();
+                waiters.decrementAndGet();
+            }
+        }
+
+        /**
+         * Hand off the borrowed pooled object to the longest waiting borrower of the key
+         *
+         * @return true if handed off successfully, otherwise no waiter exists
+         */
+        private boolean handOff(PooledObject<T> pooledObject) {
+            Waiter waiter;
+            while ((waiter = waiterQueue.pollFirst()) != null) {
+                if (waiter.offer(pooledObject)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Make a borrowed pooled object idle again, unless a waiter is ready to take it
+         */
+        private void releaseIdleObject(PooledObject<T> pooledObject) {
+            if (handOff(pooledObject)) {
+                return;
+            }
+            pooledObject.setReturned();
+            idleObjects.offerFirst(pooledObject);
+            // recheck waiters enqueued after handing off, which might miss this idle object
+            while (!waiterQueue.isEmpty()) {
+                PooledObject<T> idleObject = pollIdleObject();
+                if (idleObject == null) {
+                    break;
+                }
+                if (!handOff(idleObject)) {
+                    idleObject.setReturned();
+                    idleObjects.offerFirst(idleObject);
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Signal the longest waiting borrower of the key to poll again
+         *
+         * @return true if a waiter was signalled
+         */
+        boolean signal() {
+            Waiter waiter;
+            while ((waiter = waiterQueue.pollFirst()) != null) {
+                if (waiter.offer(WAITER_RETRY)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Signal a waiter of the key that room was released, or a waiter of the other keys if the key has none
+         */
+        private void releaseRoom() {
+            if (!signal()) {
+                signalOtherKeys(this);
+            }
+        }
+
+        void wakeUpWaiters(Object result) {
+            Waiter waiter;
+            while ((waiter = waiterQueue.pollFirst()) != null) {
+                waiter.offer(result);
+            }
+        }
+
+        /**
+         * Reserve room for creating under both limits of the key and the pool, evicting idle object of other keys if needed
+         */
+        private boolean reserve() {
+            if (!incrementIfBelow(size, poolCfg.getMaxPoolSize())) {
+                return false;
+            }
+            while (!incrementIfBelow(totalSize, poolCfg.getMaxTotalPoolSize())) {
+                if (!evictLeastRecentlyUsed(this)) {
+                    size.decrementAndGet();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void unreserve() {
+            size.decrementAndGet();
+            totalSize.decrementAndGet();
+            releaseRoom();
+        }
+
+        private PooledObject<T> createPooledObject() throws JSQLException {
+            PooledObject<T> pooledObject = null;
+            try {
+                pooledObject = circuitBreaker.create(manager, poolCfg);
+            } finally {
+                if (pooledObject == null) {
+                    unreserve();
+                }
+            }
+            pooledObject.setObjectPool(this);
+            pooledObject.initRetireTime(poolCfg.getMaxLifetime(), poolCfg.getMaxLifetimeJitter());
+            pooledObject.setBorrowed();
+            allPooledObjects.put(System.identityHashCode(pooledObject.getObject()), pooledObject);
+            poolStats.createdCnt.increment();
+            if (closed.get()) {
+                invalidPooledObject(pooledObject);
+                checkPoolClosed();
+            }
+            LOGGER.trace("pooled object of key " + key + " has been created, object detail: " + pooledObject);
+            return pooledObject;
+        }
+
+        void doReturnObject(PooledObject<T> pooledObject) throws JSQLException {
+            if (!pooledObject.isValid()) {
+                LOGGER.warn("returning object has been invalidated: " + pooledObject);
+                return;
+            }
+            if (!pooledObject.isBorrowed()) {
+                throw new PooledObjectReturnException("Object has been returned!");
+            }
+            poolStats.updateLastAccessTime();
+            poolStats.recordReturn(pooledObject.getHoldNanos());
+            pooledObject.updateLastReturnedTime();
+            if (closed.get() || poolCfg.getIdleTimeout() == IDLE_ALWAYS_TIMEOUT || pooledObject.isRetired(pooledObject.getLastReturnedTime())
+                    || validateFailOnReturn(pooledObject) || passivateFail(pooledObject)) {
+                invalidPooledObject(pooledObject);
+                return;
+            }
+            releaseIdleObject(pooledObject);
+            // recheck in case of missing the object returned while closing
+            if (closed.get()) {
+                evict(pooledObject);
+            } else if (!idleObjects.isEmpty() && isTotalPoolFull()) {
+                // waiters of the other keys could evict the idle object for room
+                signalOtherKeys(this);
+            }
+        }
+
+        private boolean validateFailOnBorrow(PooledObject<T> pooledObject) throws JSQLException {
+            return poolCfg.isValidateOnBorrow() && !pooledObject.isReturnedWithin(poolCfg.getValidationSkipWindow())
+                    && !manager.validate(pooledObject);
+        }
+
+        private boolean validateFailOnReturn(PooledObject<T> pooledObject) throws JSQLException {
+            return poolCfg.isValidateOnReturn() && !manager.validate(pooledObject);
+        }
+
+        private boolean passivateFail(PooledObject<T> pooledObject) {
+            try {
+                manager.passivate(pooledObject);
+                return false;
+            } catch (JSQLException e) {
+                LOGGER.warn("passivating returned object error, it will be invalidated: " + pooledObject, e);
+                return true;
+            }
+        }
+
+        /**
+         * Invalidate the idle object unless it has been borrowed
+         */
+        boolean evict(PooledObject<T> pooledObject) {
+            if (!pooledObject.compareAndSetState(PooledObject.STATE_IDLE, PooledObject.STATE_RESERVED)) {
+                return false;
+            }
+            idleObjects.removeFirstOccurrence(pooledObject);
+            try {
+                invalidPooledObject(pooledObject);
+            } catch (JSQLException e) {
+                LOGGER.error("invalidating idle object of key " + key + " error", e);
+            }
+            return true;
+        }
+
+        void invalidIdleObjects() {
+            PooledObject<T> pooledObject;
+            while ((pooledObject = idleObjects.peekFirst()) != null) {
+                if (!evict(pooledObject)) {
+                    idleObjects.removeFirstOccurrence(pooledObject);
+                }
+            }
+        }
+
+        private void invalidPooledObject(PooledObject<T> pooledObject) throws JSQLException {
+            if (allPooledObjects.remove(System.identityHashCode(pooledObject.getObject())) != null) {
+                try {
+                    manager.invalid(pooledObject);
+                } finally {
+                    pooledObject.setInvalid();
+                    poolStats.invalidCnt.increment();
+                    size.decrementAndGet();
+                    totalSize.decrementAndGet();
+                    releaseRoom();
+                }
+            }
+        }
+
+        /**
+         * Submit creations to creator executor until pool size of the key reaches min idle, so that maintainer would never
+         * be blocked by creating
+         */
+        void fillMinIdle() {
+            while (!closed.get() && size.get() < poolCfg.getMinIdle() && !circuitBreaker.isRejecting(poolCfg) && reserve()) {
+                try {
+                    creatorExecutor.execute(this::createInBackground);
+                } catch (RejectedExecutionException e) {
+                    // pool has been closed
+                    unreserve();
+                    return;
+                }
+            }
+        }
+
+        private void createInBackground() {
+            PooledObject<T> pooledObject;
+            try {
+                pooledObject = createPooledObject();
+            } catch (Throwable e) {
+                // never rethrown, an error of one driver call should not take down the creator thread
+                if (e instanceof Error) {
+                    LOGGER.error("filling pool of key " + key + " up to min idle error", e);
+                } else {
+                    LOGGER.warn("filling pool of key " + key + " up to min idle error", e);
+                }
+                return;
+            }
+            pooledObject.updateLastReturnedTime();
+            releaseIdleObject(pooledObject);
+            // recheck in case of missing the object created while closing
+            if (closed.get()) {
+                evict(pooledObject);
+            }
+        }
+
+        void removeIfEmpty() {
+            if (poolCfg.getMinIdle() <= 0 && waiting.get() == 0 && size.compareAndSet(0, SIZE_REMOVED)) {
+                keyedPools.remove(key, this);
+                // waiters enqueued concurrently borrow from the new sub pool
+                wakeUpWaiters(WAITER_RETRY);
+            }
+        }
+
+        @Override
+        public T borrowObject() throws JSQLException {
+            return KeyedObjectPool.this.borrowObject(key);
+        }
+
+        @Override
+        public CompletableFuture<T> borrowObjectAsync(Executor executor) {
+            return KeyedObjectPool.this.borrowObjectAsync(key, executor);
+        }
+
+        @Override
+        public void returnObject(T object) throws JSQLException {
+            KeyedObjectPool.this.returnObject(object);
+        }
+
+        @Override
+        public void returnPooledObject(PooledObject<T> pooledObject) throws JSQLException {
+            Objects.requireNonNull(pooledObject, "returning pooled object must not be null");
+            if (pooledObject.getObjectPool() != this) {
+                throw new PooledObjectReturnException("pooled object does not belong to this pool!");
+            }
+            doReturnObject(pooledObject);
+        }
+
+        @Override
+        public void close() {
+            // sub pool is closed with its keyed pool
+        }
+
+        @Override
+        public PoolStats getPoolStats() {
+            return poolStats;
+        }
+
+        @Override
+        public PoolConfiguration getPoolConfiguration() {
+            return poolCfg.copy();
+        }
+
+        @Override
+        public String debugInfo() {
+            return "key: " + key + ", pool size: " + Math.max(size.get(), 0) + ", idle object size: " + idleObjects.size()
+                    + ", " + KeyedObjectPool.this.debugInfo();
+        }
+    }
+
+    /**
+     * Borrower waiting for the result offered by other threads, which is a pooled object handed off, an error or a signal
+     * to poll again
+     */
+    private class Waiter extends AtomicReference<Object> {
+        private final Thread thread;
+
+        Waiter(Thread thread) {
+            this.thread = thread;
+        }
+
+        boolean offer(Object result) {
+            if (compareAndSet(null, result)) {
+                LockSupport.unpark(thread);
+                return true;
+            }
+            return false;
+        }
+
+        boolean cancel() {
+            return compareAndSet(null, WAITER_CANCELLED);
+        }
+
+        @SuppressWarnings("unchecked")
+        PooledObject<T> take() throws JSQLException {
+            Object result = get();
+            if (result instanceof JSQLException) {
+                throw (JSQLException) result;
+            }
+            return result instanceof PooledObject ? (PooledObject<T>) result : null;
+        }
+    }
+
+    /**
+     * Waiter of asynchronous borrowing, the offered result is delivered by executor instead of unparking a thread
+     */
+    private final class AsyncWaiter extends Waiter {
+        private final KeyedPool keyedPool;
+        private final AsyncBorrowing borrowing;
+
+        AsyncWaiter(KeyedPool keyedPool, AsyncBorrowing borrowing) {
+            super(null);
+            this.keyedPool = keyedPool;
+            this.borrowing = borrowing;
+        }
+
+        @Override
+        boolean offer(Object result) {
+            if (compareAndSet(null, result)) {
+                dequeued();
+                borrowing.deliver(keyedPool, result);
+                return true;
+            }
+            return false;
+        }
+
+        void dequeued() {
+            keyedPool.waiting.decrementAndGet();
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Asynchronous borrowing of a key, which enqueues a new {@link AsyncWaiter} on each attempt until a valid pooled object
+     * was taken, and times out once poll timeout elapsed
+     */
+    private final class AsyncBorrowing {
+        private final K key;
+        private final Executor executor;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long start = System.nanoTime();
+        private volatile AsyncWaiter waiter;
+
+        AsyncBorrowing(K key, Executor executor) {
+            this.key = key;
+            this.executor = executor;
+            ScheduledFuture<?> timeoutTask = poolCfg.getPollTimeout() > 0
+                    ? AsyncBorrows.scheduleTimeout(this::timeout, poolCfg.getPollTimeout()) : null;
+            future.whenComplete((object, error) -> {
+                if (timeoutTask != null) {
+                    timeoutTask.cancel(false);
+                }
+                cancelWaiter();
+            });
+        }
+
+        /**
+         * Take an idle pooled object of the key, or create one in borrower thread if neither the key nor the pool is full,
+         * otherwise enqueue a waiter, never blocks
+         *
+         * @param signalled waiter signalled before takes the idle object or room in front of the others
+         */
+        void attempt(boolean signalled) {
+            if (future.isDone()) {
+                return;
+            }
+            if (closed.get()) {
+                future.completeExceptionally(new PoolException("get pooled object fail, due to pool was already closed!"));
+                return;
+            }
+            KeyedPool keyedPool = keyedPools.computeIfAbsent(key, KeyedPool::new);
+            if (keyedPool.isRemoved()) {
+                // replace the sub pool removed by maintainer concurrently
+                keyedPool = keyedPools.compute(key, (k, current) -> current == null || current.isRemoved() ? new KeyedPool(k) : current);
+            }
+            // keep FIFO order, new comer should not take the idle object or room in front of the waiters
+            boolean first = signalled || keyedPool.waiterQueue.isEmpty();
+            PooledObject<T> pooledObject = first ? keyedPool.pollIdleObject() : null;
+            if (pooledObject != null) {
+                deliver(keyedPool, pooledObject);
+                return;
+            }
+            if (first && keyedPool.reserve()) {
+                createAndDeliver(keyedPool);
+                return;
+            }
+            AsyncWaiter newWaiter = new AsyncWaiter(keyedPool, this);
+            waiter = newWaiter;
+            waiters.incrementAndGet();
+            keyedPool.waiting.incrementAndGet();
+            if (signalled) {
+                keyedPool.waiterQueue.addFirst(newWaiter);
+            } else {
+                keyedPool.waiterQueue.addLast(newWaiter);
+            }
+            // recheck after enqueued, in case of missing the object returned or room released before this waiter was visible
+            pooledObject = keyedPool.pollIdleObject();
+            if (pooledObject != null) {
+                if (cancelWaiter()) {
+                    deliver(keyedPool, pooledObject);
+                } else {
+                    keyedPool.releaseIdleObject(pooledObject);
+                }
+                return;
+            }
+            if (keyedPool.isRemoved()) {
+                if (cancelWaiter()) {
+                    attempt(true);
+                }
+                return;
+            }
+            if (keyedPool.reserve()) {
+                if (cancelWaiter()) {
+                    createAndDeliver(keyedPool);
+                } else {
+                    // signalled concurrently, release the room for the others
+                    keyedPool.unreserve();
+                }
+                return;
+            }
+            if (future.isDone()) {
+                // timed out or cancelled before the waiter was visible
+                cancelWaiter();
+            }
+        }
+
+        private void createAndDeliver(KeyedPool keyedPool) {
+            Runnable creation = () -> {
+                PooledObject<T> pooledObject;
+                try {
+                    pooledObject = keyedPool.createPooledObject();
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+                deliver(keyedPool, pooledObject);
+            };
+            try {
+                borrower.execute(creation);
+            } catch (RejectedExecutionException e) {
+                keyedPool.unreserve();
+                future.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Complete the future with the result offered to waiter in executor, pass the pooled object or signal on to others
+         * if executor rejected
+         */
+        @SuppressWarnings("unchecked")
+        void deliver(KeyedPool keyedPool, Object result) {
+            try {
+                executor.execute(() -> complete(keyedPool, result));
+            } catch (RejectedExecutionException e) {
+                if (result instanceof PooledObject) {
+                    keyedPool.releaseIdleObject((PooledObject<T>) result);
+                } else if (result == WAITER_RETRY) {
+                    keyedPool.releaseRoom();
+                }
+                future.completeExceptionally(e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(KeyedPool keyedPool, Object result) {
+            try {
+                if (result instanceof JSQLException) {
+                    future.completeExceptionally((JSQLException) result);
+                    return;
+                }
+                if (!(result instanceof PooledObject)) {
+                    attempt(true);
+                    return;
+                }
+                PooledObject<T> pooledObject = (PooledObject<T>) result;
+                if (future.isDone()) {
+                    keyedPool.releaseIdleObject(pooledObject);
+                    return;
+                }
+                // newly created object need not to be validated
+                if (!isNewlyCreated(pooledObject) && keyedPool.validateFailOnBorrow(pooledObject)) {
+                    keyedPool.invalidPooledObject(pooledObject);
+                    attempt(true);
+                    return;
+                }
+                if (future.isDone()) {
+                    keyedPool.releaseIdleObject(pooledObject);
+                    return;
+                }
+                recordBorrowed(pooledObject, start);
+                if (!future.complete(pooledObject.getObject())) {
+                    keyedPool.doReturnObject(pooledObject);
+                }
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        private void timeout() {
+            // never run the dependents of future in timer thread
+            try {
+                executor.execute(this::expire);
+            } catch (RejectedExecutionException e) {
+                expire();
+            }
+        }
+
+        private void expire() {
+            if (!future.isDone()) {
+                // dequeued and counted before completing, so that the timeout is visible to the borrower
+                cancelWaiter();
+                poolStats.timeoutCnt.increment();
+                future.completeExceptionally(new PooledObjectPollTimeoutException("get pool object of key " + key
+                        + " timeout, waited for " + poolCfg.getPollTimeout() + "ms"));
+            }
+        }
+
+        private boolean cancelWaiter() {
+            AsyncWaiter currentWaiter = waiter;
+            if (currentWaiter != null && currentWaiter.cancel()) {
+                currentWaiter.keyedPool.waiterQueue.remove(currentWaiter);
+                currentWaiter.dequeued();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Object pool of a key, looking up the current sub pool on each borrowing
+     */
+    private final class KeyedObjectPoolView implements ObjectPool<T> {
+        private final K key;
+
+        KeyedObjectPoolView(K key) {
+            this.key = key;
+        }
+
+        @Override
+        public T borrowObject() throws JSQLException {
+            return KeyedObjectPool.this.borrowObject(key);
+        }
+
+        @Override
+        public CompletableFuture<T> borrowObjectAsync(Executor executor) {
+            return KeyedObjectPool.this.borrowObjectAsync(key, executor);
+        }
+
+        @Override
+        public void returnObject(T object) throws JSQLException {
+            KeyedObjectPool.this.returnObject(object);
+        }
+
+        @Override
+        public void returnPooledObject(PooledObject<T> pooledObject) throws JSQLException {
+            Objects.requireNonNull(pooledObject, "returning pooled object must not be null");
+            pooledObject.getObjectPool().returnPooledObject(pooledObject);
+        }
+
+        @Override
+        public void close() {
+            // view takes no effect on keyed pool
+        }
+
+        @Override
+        public PoolStats getPoolStats() {
+            return poolStats;
+        }
+
+        @Override
+        public PoolConfiguration getPoolConfiguration() {
+            return poolCfg.copy();
+        }
+
+        @Override
+        public String debugInfo() {
+            return "key: " + key + ", pool size: " + getPoolSize(key) + ", idle object size: " + getIdleCount(key)
+                    + ", " + KeyedObjectPool.this.debugInfo();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package cn.icuter.jsql.pool;
+
+import java.beans.ConstructorProperties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two buckets in microseconds, recording a latency only costs a few striped
+ * counter increments, and percentiles are estimated by the upper bound of bucket while taking snapshot.
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+public class LatencyHistogram {
+
+    // bucket 0 holds 0us, bucket i holds [2^(i-1), 2^i - 1]us, the last bucket holds the rest (more than 6 days)
+    static final int BUCKET_SIZE = 40;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_SIZE];
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0L);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long micros = nanos > 0 ? TimeUnit.NANOSECONDS.toMicros(nanos) : 0L;
+        buckets[bucketIndex(micros)].increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    static int bucketIndex(long micros) {
+        return Math.min(Long.SIZE - Long.numberOfLeadingZeros(micros), BUCKET_SIZE - 1);
+    }
+
+    static long bucketUpperBound(int index) {
+        return index == 0 ? 0L : (1L << index) - 1;
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_SIZE];
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return Snapshot.of(counts, totalMicros.sum(), maxMicros.get());
+    }
+
+    /**
+     * Immutable latency statistics in microseconds
+     */
+    public static class Snapshot {
+        private final long count;
+        private final long meanMicros;
+        private final long p50Micros;
+        private final long p95Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+        private final long totalMicros;
+        private final long[] bucketCounts;
+
+        @ConstructorProperties({"count", "meanMicros", "p50Micros", "p95Micros", "p99Micros", "maxMicros"})
+        public Snapshot(long count, long meanMicros, long p50Micros, long p95Micros, long p99Micros, long maxMicros) {
+            this.count = count;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p95Micros = p95Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+            this.totalMicros = count * meanMicros;
+            this.bucketCounts = new long[BUCKET_SIZE];
+        }
+
+        private Snapshot(long[] bucketCounts, long totalMicros, long maxMicros) {
+            long total = 0;
+            for (long c : bucketCounts) {
+                total += c;
+            }
+            this.count = total;
+            this.meanMicros = total > 0 ? totalMicros / total : 0L;
+            this.p50Micros = percentile(bucketCounts, total, 0.50D, maxMicros);
+            this.p95Micros = percentile(bucketCounts, total, 0.95D, maxMicros);
+            this.p99Micros = percentile(bucketCounts, total, 0.99D, maxMicros);
+            this.maxMicros = maxMicros;
+            this.totalMicros = totalMicros;
+            this.bucketCounts = bucketCounts;
+        }
+
+        static Snapshot of(long[] bucketCounts, long totalMicros, long maxMicros) {
+            return new Snapshot(bucketCounts, totalMicros, maxMicros);
+        }
+
+        /**
+         * Latencies recorded after the previous snapshot, max latency is kept as the overall one since it is not
+         * derivable from buckets
+         */
+        Snapshot since(Snapshot previous) {
+            long[] counts = new long[BUCKET_SIZE];
+            for (int i = 0; i < BUCKET_SIZE; i++) {
+                counts[i] = bucketCounts[i] - previous.bucketCounts[i];
+            }
+            return of(counts, totalMicros - previous.totalMicros, maxMicros);
+        }
+
+        private static long percentile(long[] counts, long count, double percent, long maxMicros) {
+            if (count <= 0) {
+                return 0L;
+            }
+            long rank = (long) Math.ceil(count * percent);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMeanMicros() {
+            return meanMicros;
+        }
+
+        public long getP50Micros() {
+            return p50Micros;
+        }
+
+        public long getP95Micros() {
+            return p95Micros;
+        }
+
+        public long getP99Micros() {
+            return p99Micros;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        long getTotalMicros() {
+            return totalMicros;
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + count
+                    + ", mean=" + meanMicros + "us"
+                    + ", p50=" + p50Micros + "us"
+                    + ", p95=" + p95Micros + "us"
+                    + ", p99=" + p99Micros + "us"
+                    + ", max=" + maxMicros + "us}";
+        }
+    }
+}
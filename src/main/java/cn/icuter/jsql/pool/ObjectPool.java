@@ -1,7 +1,13 @@
 package cn.icuter.jsql.pool;
 
+import cn.icuter.jsql.datasource.PoolConfiguration;
 import cn.icuter.jsql.exception.JSQLException;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
 /**
  * @author edward
  * @since 2018-08-19
@@ -16,6 +22,20 @@ public interface ObjectPool<T> extends AutoCloseable {
      */
     T borrowObject() throws JSQLException;
 
+    /**
+     * borrow the object from pool asynchronously, so that the calling thread never waits for the pool. by default,
+     * {@link #borrowObject} runs in a borrower thread shared by pools rather than in executor, whose threads are left
+     * for the operations holding objects, and the object borrowed after the future was cancelled is returned to pool.
+     * borrower threads are limited, the borrowing fails rather than waits for a borrower thread once they are all busy
+     *
+     * @param executor executor completing the future
+     * @return future of {@link cn.icuter.jsql.pool.PooledObject#getObject}, completed exceptionally if pool was closed,
+     * borrow object time out, borrower threads were all busy or executor rejected the completion
+     */
+    default CompletableFuture<T> borrowObjectAsync(Executor executor) {
+        return AsyncBorrows.borrowBlocking(this, executor, AsyncBorrows.defaultBorrower());
+    }
+
     /**
      * return the pooled object to pool, if pool was closed, the returning object will be invalided by {@link cn.icuter.jsql.pool.PooledObjectManager}
      *
@@ -24,6 +44,16 @@ public interface ObjectPool<T> extends AutoCloseable {
      */
     void returnObject(T object) throws JSQLException;
 
+    /**
+     * return the pooled object to pool by its handle, which saves looking up the pooled object by returning object
+     *
+     * @param pooledObject the handle of borrowed object, and must be created by this pool
+     * @throws JSQLException while returning object occurs error
+     */
+    default void returnPooledObject(PooledObject<T> pooledObject) throws JSQLException {
+        returnObject(pooledObject.getObject());
+    }
+
     /**
      * close the object pool, especially, while closing object pool, {@link #borrowObject}
      * and {@link #returnObject} will be lock till pool was closed.
@@ -34,6 +64,48 @@ public interface ObjectPool<T> extends AutoCloseable {
      */
     void close() throws JSQLException;
 
+    /**
+     * close the object pool gracefully, borrowing is rejected at once, then wait for the borrowed objects to be returned
+     * within drain timeout, and the ones still borrowed after that are invalidated forcibly
+     *
+     * @param drainTimeout max time waiting for borrowed objects to be returned
+     * @throws JSQLException while closing object pool occurs error
+     */
+    default void close(Duration drainTimeout) throws JSQLException {
+        throw new UnsupportedOperationException("graceful closing is not supported by " + getClass().getName());
+    }
+
+    /**
+     * statistics of the object pool, including counters, gauges and borrowing wait/hold time histograms
+     *
+     * @return live pool statistics, take {@link PoolStats#snapshot()} for a consistent view
+     */
+    default PoolStats getPoolStats() {
+        throw new UnsupportedOperationException("pool statistics is not supported by " + getClass().getName());
+    }
+
+    /**
+     * current configuration of the object pool
+     *
+     * @return copy of pool configuration, changing it takes no effect on pool
+     */
+    default PoolConfiguration getPoolConfiguration() {
+        throw new UnsupportedOperationException("pool configuration is not supported by " + getClass().getName());
+    }
+
+    /**
+     * adjust the object pool at runtime, settings deciding background tasks and pool identity, such as idle validation
+     * interval, leak detection threshold, create parallelism, adaptive sizing interval, pool name and JMX, can not be changed.
+     * <br>
+     * shrinking pool size is graceful, idle objects over the size are evicted and borrowed ones are invalidated on returning
+     *
+     * @param updater updates a copy of current pool configuration, which takes effect after validation
+     * @throws IllegalArgumentException if the updated configuration is invalid or changes fixed settings
+     */
+    default void reconfigure(Consumer<PoolConfiguration> updater) {
+        throw new UnsupportedOperationException("pool reconfiguration is not supported by " + getClass().getName());
+    }
+
     /**
      * show debug info
      *
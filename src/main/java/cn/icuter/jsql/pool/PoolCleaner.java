@@ -0,0 +1,94 @@
+package cn.icuter.jsql.pool;
+
+import cn.icuter.jsql.log.JSQLLogger;
+import cn.icuter.jsql.log.Logs;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Safety net releasing resources of the pool which became unreachable without closing, works like
+ * <code>java.lang.ref.Cleaner</code> of Java 9+ but runs on Java 8. Unlike <code>finalize()</code>, the pool is not
+ * resurrected and GC is not slowed down by finalizer queue.
+ * <br>
+ * Clean action must not refer to the registered pool, otherwise the pool would never become phantom reachable.
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+final class PoolCleaner {
+
+    private static final JSQLLogger LOGGER = Logs.getLogger(PoolCleaner.class);
+
+    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+    // keep cleanables reachable until they are cleaned
+    private static final Set<Cleanable> CLEANABLES = ConcurrentHashMap.newKeySet();
+
+    static {
+        Thread cleanerThread = new Thread(PoolCleaner::processQueue, "jsql-pool-cleaner");
+        cleanerThread.setDaemon(true);
+        cleanerThread.start();
+    }
+
+    private PoolCleaner() {
+    }
+
+    static Cleanable register(Object pool, Runnable action) {
+        Cleanable cleanable = new Cleanable(pool, action);
+        CLEANABLES.add(cleanable);
+        return cleanable;
+    }
+
+    /**
+     * Wrap the scheduled task of pool, which refers to the task weakly and cancels itself once the task was collected
+     * with its pool. Pool must keep the task strongly.
+     */
+    static Runnable weakly(Runnable task) {
+        WeakReference<Runnable> taskRef = new WeakReference<>(task);
+        return () -> {
+            Runnable t = taskRef.get();
+            if (t == null) {
+                throw new CancellationException("pool of the scheduled task has been garbage collected");
+            }
+            t.run();
+        };
+    }
+
+    private static void processQueue() {
+        while (true) {
+            try {
+                ((Cleanable) QUEUE.remove()).clean();
+            } catch (InterruptedException e) {
+                // daemon thread keeps running until JVM exits
+            } catch (Throwable e) {
+                LOGGER.error("cleaning unreachable pool error", e);
+            }
+        }
+    }
+
+    static final class Cleanable extends PhantomReference<Object> {
+        private final Runnable action;
+        private final AtomicBoolean cleaned = new AtomicBoolean();
+
+        private Cleanable(Object referent, Runnable action) {
+            super(referent, QUEUE);
+            this.action = action;
+        }
+
+        /**
+         * Run clean action at most once
+         */
+        void clean() {
+            if (cleaned.compareAndSet(false, true)) {
+                CLEANABLES.remove(this);
+                clear();
+                action.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package cn.icuter.jsql.pool;
+
+/**
+ * Adjust pool settings through JMX by {@link ObjectPool#reconfigure}
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+class PoolConfigControl implements PoolConfigMXBean {
+
+    private final ObjectPool<?> pool;
+
+    PoolConfigControl(ObjectPool<?> pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public int getMaxPoolSize() {
+        return pool.getPoolConfiguration().getMaxPoolSize();
+    }
+
+    @Override
+    public void setMaxPoolSize(int maxPoolSize) {
+        pool.reconfigure(cfg -> cfg.setMaxPoolSize(maxPoolSize));
+    }
+
+    @Override
+    public int getMinIdle() {
+        return pool.getPoolConfiguration().getMinIdle();
+    }
+
+    @Override
+    public void setMinIdle(int minIdle) {
+        pool.reconfigure(cfg -> cfg.setMinIdle(minIdle));
+    }
+
+    @Override
+    public long getPollTimeout() {
+        return pool.getPoolConfiguration().getPollTimeout();
+    }
+
+    @Override
+    public void setPollTimeout(long pollTimeout) {
+        pool.reconfigure(cfg -> cfg.setPollTimeout(pollTimeout));
+    }
+
+    @Override
+    public long getIdleTimeout() {
+        return pool.getPoolConfiguration().getIdleTimeout();
+    }
+
+    @Override
+    public void setIdleTimeout(long idleTimeout) {
+        pool.reconfigure(cfg -> cfg.setIdleTimeout(idleTimeout));
+    }
+
+    @Override
+    public boolean isValidateOnBorrow() {
+        return pool.getPoolConfiguration().isValidateOnBorrow();
+    }
+
+    @Override
+    public void setValidateOnBorrow(boolean validateOnBorrow) {
+        pool.reconfigure(cfg -> cfg.setValidateOnBorrow(validateOnBorrow));
+    }
+
+    @Override
+    public boolean isValidateOnReturn() {
+        return pool.getPoolConfiguration().isValidateOnReturn();
+    }
+
+    @Override
+    public void setValidateOnReturn(boolean validateOnReturn) {
+        pool.reconfigure(cfg -> cfg.setValidateOnReturn(validateOnReturn));
+    }
+
+    @Override
+    public long getValidationSkipWindow() {
+        return pool.getPoolConfiguration().getValidationSkipWindow();
+    }
+
+    @Override
+    public void setValidationSkipWindow(long validationSkipWindow) {
+        pool.reconfigure(cfg -> cfg.setValidationSkipWindow(validationSkipWindow));
+    }
+
+    @Override
+    public long getAdaptiveWaitTarget() {
+        return pool.getPoolConfiguration().getAdaptiveWaitTarget();
+    }
+
+    @Override
+    public void setAdaptiveWaitTarget(long adaptiveWaitTarget) {
+        pool.reconfigure(cfg -> cfg.setAdaptiveWaitTarget(adaptiveWaitTarget));
+    }
+}
@@ -0,0 +1,43 @@
+package cn.icuter.jsql.pool;
+
+/**
+ * Management interface of runtime adjustable pool settings, registered as
+ * <code>cn.icuter.jsql:type=PoolConfig,name=&lt;poolName&gt;</code> when JMX of pool is enabled
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+public interface PoolConfigMXBean {
+
+    int getMaxPoolSize();
+
+    void setMaxPoolSize(int maxPoolSize);
+
+    int getMinIdle();
+
+    void setMinIdle(int minIdle);
+
+    long getPollTimeout();
+
+    void setPollTimeout(long pollTimeout);
+
+    long getIdleTimeout();
+
+    void setIdleTimeout(long idleTimeout);
+
+    boolean isValidateOnBorrow();
+
+    void setValidateOnBorrow(boolean validateOnBorrow);
+
+    boolean isValidateOnReturn();
+
+    void setValidateOnReturn(boolean validateOnReturn);
+
+    long getValidationSkipWindow();
+
+    void setValidationSkipWindow(long validationSkipWindow);
+
+    long getAdaptiveWaitTarget();
+
+    void setAdaptiveWaitTarget(long adaptiveWaitTarget);
+}
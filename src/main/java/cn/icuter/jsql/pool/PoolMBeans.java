@@ -0,0 +1,50 @@
+package cn.icuter.jsql.pool;
+
+import cn.icuter.jsql.log.JSQLLogger;
+import cn.icuter.jsql.log.Logs;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Register pool MBeans as <code>cn.icuter.jsql:type=&lt;type&gt;,name=&lt;poolName&gt;</code> to platform MBean server,
+ * failures are logged only, which should never break the pool
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+final class PoolMBeans {
+
+    private static final JSQLLogger LOGGER = Logs.getLogger(PoolMBeans.class);
+    private static final String MBEAN_DOMAIN = "cn.icuter.jsql";
+
+    private PoolMBeans() {
+    }
+
+    static ObjectName register(Object mBean, String type, String poolName) {
+        try {
+            ObjectName name = new ObjectName(MBEAN_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(poolName));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mBean, name);
+            return name;
+        } catch (JMException e) {
+            LOGGER.warn("registering MBean " + type + " error, pool name: " + poolName, e);
+            return null;
+        }
+    }
+
+    static void unregister(ObjectName name) {
+        if (name == null) {
+            return;
+        }
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            if (mBeanServer.isRegistered(name)) {
+                mBeanServer.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            LOGGER.warn("unregistering MBean error, name: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package cn.icuter.jsql.pool;
+
+import cn.icuter.jsql.datasource.PoolConfiguration;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Apply runtime changes to a copy of pool configuration, and reject changes of settings fixed on initialization
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+final class PoolReconfigurer {
+
+    private PoolReconfigurer() {
+    }
+
+    static PoolConfiguration reconfigure(PoolConfiguration current, Consumer<PoolConfiguration> updater) {
+        PoolConfiguration next = current.copy();
+        updater.accept(next);
+        if (next.getMaxPoolSize() <= 0) {
+            throw new IllegalArgumentException("max pool size must not be zero!");
+        }
+        if (next.getMinIdle() > next.getMaxPoolSize()) {
+            throw new IllegalArgumentException("min idle must not be greater than max pool size!");
+        }
+        if (current.getIdleTimeout() > 0 != next.getIdleTimeout() > 0) {
+            throw new IllegalArgumentException("idle sweeping can not be turned on or off at runtime");
+        }
+        if (current.getMaxLifetime() > 0 != next.getMaxLifetime() > 0) {
+            throw new IllegalArgumentException("max lifetime can not be turned on or off at runtime");
+        }
+        checkUnchanged("idleValidationInterval", current.getIdleValidationInterval(), next.getIdleValidationInterval());
+        checkUnchanged("leakDetectionThreshold", current.getLeakDetectionThreshold(), next.getLeakDetectionThreshold());
+        checkUnchanged("createParallelism", current.getCreateParallelism(), next.getCreateParallelism());
+        checkUnchanged("asyncBorrowerThreads", current.getAsyncBorrowerThreads(), next.getAsyncBorrowerThreads());
+        checkUnchanged("scheduledThreadLifeTime", current.getScheduledThreadLifeTime(), next.getScheduledThreadLifeTime());
+        checkUnchanged("adaptiveSizingInterval", current.getAdaptiveSizingInterval(), next.getAdaptiveSizingInterval());
+        checkUnchanged("poolName", current.getPoolName(), next.getPoolName());
+        checkUnchanged("jmxEnabled", current.isJmxEnabled(), next.isJmxEnabled());
+        checkUnchanged("poolType", current.getPoolType(), next.getPoolType());
+        return next;
+    }
+
+    private static void checkUnchanged(String name, Object current, Object next) {
+        if (!Objects.equals(current, next)) {
+            throw new IllegalArgumentException(name + " can not be changed at runtime, from " + current + " to " + next);
+        }
+    }
+}
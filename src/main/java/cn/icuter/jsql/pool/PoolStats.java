@@ -0,0 +1,404 @@
+package cn.icuter.jsql.pool;
+
+import javax.management.ObjectName;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Statistics of object pool, counters are striped by <code>LongAdder</code> and latencies are recorded by
+ * <code>LatencyHistogram</code>, so that updating on borrowing and returning path is contention-free.
+ * Gauges like pool size are read from the pool on demand.
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+public class PoolStats implements PoolStatsMXBean {
+
+    final LongAdder createdCnt = new LongAdder();
+    final LongAdder invalidCnt = new LongAdder();
+    final LongAdder borrowedCnt = new LongAdder();
+    final LongAdder returnedCnt = new LongAdder();
+    final LongAdder timeoutCnt = new LongAdder();
+    final LongAdder retiredCnt = new LongAdder();
+    final LongAdder leakedCnt = new LongAdder();
+    final LongAdder reclaimedCnt = new LongAdder();
+    // transitions of creation circuit breaker
+    final LongAdder circuitOpenedCnt = new LongAdder();
+    final LongAdder circuitClosedCnt = new LongAdder();
+    final LongAdder circuitRejectedCnt = new LongAdder();
+    // updated by the single idle object sweeper
+    final LongAdder sweepCnt = new LongAdder();
+    final LongAdder sweepEvictedCnt = new LongAdder();
+    final LongAdder sweepTotalNanos = new LongAdder();
+    volatile long lastSweepNanos;
+    final LatencyHistogram borrowWaitTime = new LatencyHistogram();
+    final LatencyHistogram holdTime = new LatencyHistogram();
+    private volatile long lastAccessTime = System.currentTimeMillis();
+
+    private final String poolName;
+    private final IntSupplier poolSize;
+    private final IntSupplier targetPoolSize;
+    private final IntSupplier activeCount;
+    private final IntSupplier idleCount;
+    private final IntSupplier pendingCount;
+    private volatile ObjectName objectName;
+    private volatile CreationCircuitBreaker circuitBreaker;
+
+    PoolStats(String poolName, IntSupplier poolSize, IntSupplier targetPoolSize, IntSupplier activeCount,
+              IntSupplier idleCount, IntSupplier pendingCount) {
+        this.poolName = poolName;
+        this.poolSize = poolSize;
+        this.targetPoolSize = targetPoolSize;
+        this.activeCount = activeCount;
+        this.idleCount = idleCount;
+        this.pendingCount = pendingCount;
+    }
+
+    void recordBorrow(long waitNanos) {
+        borrowedCnt.increment();
+        borrowWaitTime.record(waitNanos);
+        updateLastAccessTime();
+    }
+
+    void recordReturn(long holdNanos) {
+        returnedCnt.increment();
+        holdTime.record(holdNanos);
+    }
+
+    void recordSweep(int evictedCnt, long sweepNanos) {
+        sweepCnt.increment();
+        sweepEvictedCnt.add(evictedCnt);
+        sweepTotalNanos.add(sweepNanos);
+        lastSweepNanos = sweepNanos;
+    }
+
+    void updateLastAccessTime() {
+        long now = System.currentTimeMillis();
+        // write at most once per millisecond, avoid bouncing the cache line between borrowers
+        if (now != lastAccessTime) {
+            lastAccessTime = now;
+        }
+    }
+
+    void bindCircuitBreaker(CreationCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    void registerMBean() {
+        objectName = PoolMBeans.register(this, "PoolStats", poolName);
+    }
+
+    void unregisterMBean() {
+        PoolMBeans.unregister(objectName);
+        objectName = null;
+    }
+
+    @Override
+    public String getPoolName() {
+        return poolName;
+    }
+
+    @Override
+    public int getPoolSize() {
+        return poolSize.getAsInt();
+    }
+
+    @Override
+    public int getTargetPoolSize() {
+        return targetPoolSize.getAsInt();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return activeCount.getAsInt();
+    }
+
+    @Override
+    public int getIdleCount() {
+        return idleCount.getAsInt();
+    }
+
+    @Override
+    public int getPendingCount() {
+        return pendingCount.getAsInt();
+    }
+
+    @Override
+    public long getCreatedCount() {
+        return createdCnt.sum();
+    }
+
+    @Override
+    public long getInvalidCount() {
+        return invalidCnt.sum();
+    }
+
+    @Override
+    public long getBorrowedCount() {
+        return borrowedCnt.sum();
+    }
+
+    @Override
+    public long getReturnedCount() {
+        return returnedCnt.sum();
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return timeoutCnt.sum();
+    }
+
+    @Override
+    public long getRetiredCount() {
+        return retiredCnt.sum();
+    }
+
+    @Override
+    public long getLeakedCount() {
+        return leakedCnt.sum();
+    }
+
+    @Override
+    public long getReclaimedCount() {
+        return reclaimedCnt.sum();
+    }
+
+    @Override
+    public long getSweepCount() {
+        return sweepCnt.sum();
+    }
+
+    @Override
+    public long getSweepEvictedCount() {
+        return sweepEvictedCnt.sum();
+    }
+
+    @Override
+    public String getCircuitBreakerState() {
+        CreationCircuitBreaker breaker = circuitBreaker;
+        return breaker == null ? CreationCircuitBreaker.State.CLOSED.name() : breaker.getState().name();
+    }
+
+    @Override
+    public long getCircuitBreakerOpenedCount() {
+        return circuitOpenedCnt.sum();
+    }
+
+    @Override
+    public long getCircuitBreakerClosedCount() {
+        return circuitClosedCnt.sum();
+    }
+
+    @Override
+    public long getCircuitBreakerRejectedCount() {
+        return circuitRejectedCnt.sum();
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getBorrowWaitTime() {
+        return borrowWaitTime.snapshot();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getHoldTime() {
+        return holdTime.snapshot();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    /**
+     * Point-in-time copy of pool statistics
+     */
+    public static class Snapshot {
+        private final String poolName;
+        private final int poolSize;
+        private final int targetPoolSize;
+        private final int activeCount;
+        private final int idleCount;
+        private final int pendingCount;
+        private final long createdCount;
+        private final long invalidCount;
+        private final long borrowedCount;
+        private final long returnedCount;
+        private final long timeoutCount;
+        private final long retiredCount;
+        private final long leakedCount;
+        private final long reclaimedCount;
+        private final long sweepCount;
+        private final long sweepEvictedCount;
+        private final long avgSweepNanos;
+        private final long lastSweepNanos;
+        private final String circuitBreakerState;
+        private final long circuitBreakerOpenedCount;
+        private final long circuitBreakerClosedCount;
+        private final long circuitBreakerRejectedCount;
+        private final long lastAccessTime;
+        private final LatencyHistogram.Snapshot borrowWaitTime;
+        private final LatencyHistogram.Snapshot holdTime;
+
+        Snapshot(PoolStats stats) {
+            poolName = stats.getPoolName();
+            poolSize = stats.getPoolSize();
+            targetPoolSize = stats.getTargetPoolSize();
+            activeCount = stats.getActiveCount();
+            idleCount = stats.getIdleCount();
+            pendingCount = stats.getPendingCount();
+            createdCount = stats.getCreatedCount();
+            invalidCount = stats.getInvalidCount();
+            borrowedCount = stats.getBorrowedCount();
+            returnedCount = stats.getReturnedCount();
+            timeoutCount = stats.getTimeoutCount();
+            retiredCount = stats.getRetiredCount();
+            leakedCount = stats.getLeakedCount();
+            reclaimedCount = stats.getReclaimedCount();
+            sweepCount = stats.getSweepCount();
+            sweepEvictedCount = stats.getSweepEvictedCount();
+            avgSweepNanos = sweepCount > 0 ? stats.sweepTotalNanos.sum() / sweepCount : 0L;
+            lastSweepNanos = stats.lastSweepNanos;
+            circuitBreakerState = stats.getCircuitBreakerState();
+            circuitBreakerOpenedCount = stats.getCircuitBreakerOpenedCount();
+            circuitBreakerClosedCount = stats.getCircuitBreakerClosedCount();
+            circuitBreakerRejectedCount = stats.getCircuitBreakerRejectedCount();
+            lastAccessTime = stats.getLastAccessTime();
+            borrowWaitTime = stats.getBorrowWaitTime();
+            holdTime = stats.getHoldTime();
+        }
+
+        public String getPoolName() {
+            return poolName;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public int getTargetPoolSize() {
+            return targetPoolSize;
+        }
+
+        public int getActiveCount() {
+            return activeCount;
+        }
+
+        public int getIdleCount() {
+            return idleCount;
+        }
+
+        public int getPendingCount() {
+            return pendingCount;
+        }
+
+        public long getCreatedCount() {
+            return createdCount;
+        }
+
+        public long getInvalidCount() {
+            return invalidCount;
+        }
+
+        public long getBorrowedCount() {
+            return borrowedCount;
+        }
+
+        public long getReturnedCount() {
+            return returnedCount;
+        }
+
+        public long getTimeoutCount() {
+            return timeoutCount;
+        }
+
+        public long getRetiredCount() {
+            return retiredCount;
+        }
+
+        public long getLeakedCount() {
+            return leakedCount;
+        }
+
+        public long getReclaimedCount() {
+            return reclaimedCount;
+        }
+
+        public long getSweepCount() {
+            return sweepCount;
+        }
+
+        public long getSweepEvictedCount() {
+            return sweepEvictedCount;
+        }
+
+        public String getCircuitBreakerState() {
+            return circuitBreakerState;
+        }
+
+        public long getCircuitBreakerOpenedCount() {
+            return circuitBreakerOpenedCount;
+        }
+
+        public long getCircuitBreakerClosedCount() {
+            return circuitBreakerClosedCount;
+        }
+
+        public long getCircuitBreakerRejectedCount() {
+            return circuitBreakerRejectedCount;
+        }
+
+        public long getLastAccessTime() {
+            return lastAccessTime;
+        }
+
+        public LatencyHistogram.Snapshot getBorrowWaitTime() {
+            return borrowWaitTime;
+        }
+
+        public LatencyHistogram.Snapshot getHoldTime() {
+            return holdTime;
+        }
+
+        @Override
+        public String toString() {
+            return "PoolStats {poolName=" + poolName
+                    + ", poolSize=" + poolSize
+                    + ", targetPoolSize=" + targetPoolSize
+                    + ", activeCnt=" + activeCount
+                    + ", idleCnt=" + idleCount
+                    + ", pendingCnt=" + pendingCount
+                    + ", createdCnt=" + createdCount
+                    + ", invalidCnt=" + invalidCount
+                    + ", borrowedCnt=" + borrowedCount
+                    + ", returnedCnt=" + returnedCount
+                    + ", timeoutCnt=" + timeoutCount
+                    + ", retiredCnt=" + retiredCount
+                    + ", leakedCnt=" + leakedCount
+                    + ", reclaimedCnt=" + reclaimedCount
+                    + ", sweepCnt=" + sweepCount
+                    + ", sweepEvictedCnt=" + sweepEvictedCount
+                    + ", lastSweepCost=" + TimeUnit.NANOSECONDS.toMicros(lastSweepNanos) + "us"
+                    + ", avgSweepCost=" + TimeUnit.NANOSECONDS.toMicros(avgSweepNanos) + "us"
+                    + ", circuitBreakerState=" + circuitBreakerState
+                    + ", circuitBreakerOpenedCnt=" + circuitBreakerOpenedCount
+                    + ", circuitBreakerClosedCnt=" + circuitBreakerClosedCount
+                    + ", circuitBreakerRejectedCnt=" + circuitBreakerRejectedCount
+                    + ", borrowWaitTime=" + borrowWaitTime
+                    + ", holdTime=" + holdTime
+                    + ", lastAccessTime=" + new Timestamp(lastAccessTime).toLocalDateTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+                    + "}";
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package cn.icuter.jsql.pool;
+
+/**
+ * Management interface of pool statistics, registered as <code>cn.icuter.jsql:type=PoolStats,name=&lt;poolName&gt;</code>
+ * when JMX of pool is enabled
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+public interface PoolStatsMXBean {
+
+    String getPoolName();
+
+    int getPoolSize();
+
+    /**
+     * @return pool size limit, which is max pool size or the one decided by adaptive sizing
+     */
+    int getTargetPoolSize();
+
+    int getActiveCount();
+
+    int getIdleCount();
+
+    int getPendingCount();
+
+    long getCreatedCount();
+
+    long getInvalidCount();
+
+    long getBorrowedCount();
+
+    long getReturnedCount();
+
+    long getTimeoutCount();
+
+    long getRetiredCount();
+
+    long getLeakedCount();
+
+    long getReclaimedCount();
+
+    long getSweepCount();
+
+    long getSweepEvictedCount();
+
+    /**
+     * @return state of creation circuit breaker, CLOSED, OPEN or HALF_OPEN
+     */
+    String getCircuitBreakerState();
+
+    long getCircuitBreakerOpenedCount();
+
+    long getCircuitBreakerClosedCount();
+
+    /**
+     * @return number of creations rejected without connecting while circuit breaker is open
+     */
+    long getCircuitBreakerRejectedCount();
+
+    long getLastAccessTime();
+
+    LatencyHistogram.Snapshot getBorrowWaitTime();
+
+    LatencyHistogram.Snapshot getHoldTime();
+}
@@ -1,6 +1,7 @@
 package cn.icuter.jsql.pool;
 
-import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * @author edward
@@ -8,14 +9,26 @@ import java.util.concurrent.RunnableScheduledFuture;
  */
 public class PooledObject<T> {
 
+    static final int STATE_INVALID = -1;
+    static final int STATE_IDLE = 0;
+    static final int STATE_BORROWED = 1;
+    /** reserved by pool maintainer, such as idle object eviction, and can not be borrowed */
+    static final int STATE_RESERVED = 2;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<PooledObject> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(PooledObject.class, "state");
+
     private final long createTime;
     private volatile long lastBorrowedTime;
     private volatile long lastReturnedTime;
-    private volatile boolean borrowed;
-    private volatile boolean valid = true;
+    private volatile long lastBorrowedNanos; // monotonic borrowing time for measuring hold time
+    private volatile long retireTime; // 0 means never retire
+    private volatile Throwable borrowTrace; // sampled borrowing stack trace for leak detection
+    private volatile boolean leakReported;
+    private volatile int state = STATE_IDLE;
     private final T object;
     private ObjectPool<T> objectPool;
-    RunnableScheduledFuture<?> scheduledFuture; // maintains idle task object
 
     public PooledObject(T object) {
         this.object = object;
@@ -35,11 +48,11 @@ public class PooledObject<T> {
     }
 
     public boolean isBorrowed() {
-        return borrowed;
+        return state == STATE_BORROWED;
     }
 
     public boolean isValid() {
-        return valid;
+        return state != STATE_INVALID;
     }
 
     public T getObject() {
@@ -58,20 +71,96 @@ public class PooledObject<T> {
         this.lastBorrowedTime = System.currentTimeMillis();
     }
 
+    void setLastBorrowedNanos(long lastBorrowedNanos) {
+        this.lastBorrowedNanos = lastBorrowedNanos;
+    }
+
+    long getHoldNanos() {
+        return System.nanoTime() - lastBorrowedNanos;
+    }
+
     void updateLastReturnedTime() {
         this.lastReturnedTime = System.currentTimeMillis();
     }
 
+    /**
+     * Whether the object was returned to pool within the given time window
+     *
+     * @param window time window in milliseconds
+     */
+    boolean isReturnedWithin(long window) {
+        return window > 0 && lastReturnedTime > 0 && System.currentTimeMillis() - lastReturnedTime < window;
+    }
+
+    /**
+     * Initialize retire time by max lifetime minus a random jitter, so that pooled objects would not retire at the same time
+     *
+     * @param maxLifetime max lifetime in milliseconds, negative or 0 means never retire
+     * @param maxLifetimeJitter max jitter in milliseconds, negative or 0 means 2.5% of max lifetime, and at most half of it
+     */
+    void initRetireTime(long maxLifetime, long maxLifetimeJitter) {
+        if (maxLifetime <= 0) {
+            return;
+        }
+        long jitter = Math.min(maxLifetimeJitter > 0 ? maxLifetimeJitter : maxLifetime / 40, maxLifetime / 2);
+        retireTime = createTime + maxLifetime - (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+    }
+
+    long getRetireTime() {
+        return retireTime;
+    }
+
+    boolean isRetired(long now) {
+        return retireTime > 0 && now >= retireTime;
+    }
+
+    Throwable getBorrowTrace() {
+        return borrowTrace;
+    }
+
+    void setBorrowTrace(Throwable borrowTrace) {
+        this.borrowTrace = borrowTrace;
+    }
+
+    boolean isLeakReported() {
+        return leakReported;
+    }
+
+    void setLeakReported(boolean leakReported) {
+        this.leakReported = leakReported;
+    }
+
+    int getState() {
+        return state;
+    }
+
+    boolean compareAndSetState(int expect, int update) {
+        return STATE_UPDATER.compareAndSet(this, expect, update);
+    }
+
     void setBorrowed() {
-        borrowed = true;
+        compareAndSetState(STATE_IDLE, STATE_BORROWED);
     }
 
     void setReturned() {
-        borrowed = false;
+        compareAndSetState(STATE_BORROWED, STATE_IDLE);
     }
 
     void setInvalid() {
-        valid = false;
+        state = STATE_INVALID;
+    }
+
+    private String stateName() {
+        if (state == STATE_INVALID) {
+            return "INVALID";
+        } else if (state == STATE_IDLE) {
+            return "IDLE";
+        } else if (state == STATE_BORROWED) {
+            return "BORROWED";
+        } else if (state == STATE_RESERVED) {
+            return "RESERVED";
+        }
+        return String.valueOf(state);
     }
 
     @Override
@@ -80,8 +169,8 @@ public class PooledObject<T> {
                 + "createTime=" + createTime
                 + ", lastBorrowedTime=" + lastBorrowedTime
                 + ", lastReturnedTime=" + lastReturnedTime
-                + ", borrowed=" + borrowed
-                + ", valid=" + valid
+                + ", retireTime=" + retireTime
+                + ", state=" + stateName()
                 + ", objectType=" + (object == null ? null : object.getClass().getName())
                 + '}';
     }
@@ -10,4 +10,25 @@ public interface PooledObjectManager<T> {
     PooledObject<T> create() throws JSQLException;
     void invalid(PooledObject<T> pooledObject) throws JSQLException;
     boolean validate(PooledObject<T> pooledObject) throws JSQLException;
+
+    /**
+     * Called before the returned object becomes idle, object would be invalidated if any exception thrown
+     *
+     * @param pooledObject returned object
+     * @throws JSQLException passivating error
+     */
+    default void passivate(PooledObject<T> pooledObject) throws JSQLException {
+        // noop
+    }
+
+    /**
+     * Action releasing the underlying resource of pooled object, run by the safety net if pool became unreachable
+     * without closing. The action must not refer to pool, pooled object or this manager if it refers to pool.
+     *
+     * @param pooledObject created object
+     * @return release action, or null if nothing to release
+     */
+    default Runnable cleanAction(PooledObject<T> pooledObject) {
+        return null;
+    }
 }
@@ -0,0 +1,82 @@
+package cn.icuter.jsql.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads support of JDK 21+ through reflection, so that the library is still compatible with Java 8
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+public abstract class VirtualThreads {
+
+    private static final MethodHandle IS_VIRTUAL = findIsVirtual();
+
+    private static MethodHandle findIsVirtual() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    public static boolean isSupported() {
+        return IS_VIRTUAL != null;
+    }
+
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * Virtual thread factory naming threads as <code>namePrefix + counter</code>
+     *
+     * @param namePrefix prefix of thread name
+     * @return virtual thread factory
+     * @throws UnsupportedOperationException if virtual threads are not supported by current JVM
+     */
+    public static ThreadFactory virtualThreadFactory(String namePrefix) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("virtual threads require JDK 21+, current: "
+                    + System.getProperty("java.version"));
+        }
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("creating virtual thread factory error", e);
+        }
+    }
+
+    /**
+     * Executor starting a new virtual thread for each task
+     *
+     * @param namePrefix prefix of thread name
+     * @return thread-per-task executor of virtual threads
+     * @throws UnsupportedOperationException if virtual threads are not supported by current JVM
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory threadFactory = virtualThreadFactory(namePrefix);
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("creating virtual thread executor error", e);
+        }
+    }
+}
@@ -20,13 +20,17 @@ public abstract class TestUtils {
     public static final String DEFAULT_DB_TYPE = "derby";
 
     public static JSQLDataSource getDataSource() {
+        return getDataSourceBuilder().build();
+    }
+
+    public static JSQLDataSource.DataSourceBuilder getDataSourceBuilder() {
         Properties properties = new Properties();
         String dbType = System.getProperty(TestUtils.DB_TYPE_KEY, DEFAULT_DB_TYPE);
         String icuterHome = System.getenv("ICUTER_HOME"); // only for test
         File jdbcPropFile = new File(icuterHome, String.format("conf/%s.properties", dbType.toLowerCase()));
         try (InputStream in = new FileInputStream(jdbcPropFile)) {
             properties.load(in);
-            return JSQLDataSource.newDataSourceBuilder().addProperties(properties).build();
+            return JSQLDataSource.newDataSourceBuilder().addProperties(properties);
         } catch (IOException e) {
             throw new IllegalArgumentException(e);
         }
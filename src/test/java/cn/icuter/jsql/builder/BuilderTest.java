@@ -9,8 +9,11 @@ import cn.icuter.jsql.dialect.Dialects;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -547,6 +550,139 @@ public class BuilderTest {
 
     }
 
+    @Test
+    public void testUpsertBuilder() {
+        TestTable testTable = new TestTable();
+        testTable.setTestId("test01");
+        testTable.setCol1("test00");
+        Builder upsert = new UpsertBuilder(Dialects.POSTGRESQL).upsert("t_jsql_test", "test_id").values(testTable).build();
+        assertEquals("insert into t_jsql_test (test_id,t_col_1,order_num) values(?,?,?) on conflict (test_id) do update set "
+                + "t_col_1=excluded.t_col_1,order_num=excluded.order_num", upsert.getSql());
+        assertArrayEquals(new Object[]{"test01", "test00", 0}, upsert.getPreparedValues().toArray());
+
+        upsert = new UpsertBuilder(Dialects.SQLITE).upsert("t_jsql_test", "test_id")
+                .values(Cond.eq("test_id", "test01")).build();
+        assertEquals("insert into t_jsql_test (test_id) values(?) on conflict (test_id) do nothing", upsert.getSql());
+
+        upsert = new UpsertBuilder(Dialects.MARIADB).upsert("t_jsql_test", "test_id")
+                .values(Cond.eq("test_id", "test01"), Cond.eq("t_col_1", "test00")).build();
+        assertEquals("insert into t_jsql_test (test_id,t_col_1) values(?,?) on duplicate key update t_col_1=values(t_col_1)",
+                upsert.getSql());
+        assertArrayEquals(new Object[]{"test01", "test00"}, upsert.getPreparedValues().toArray());
+
+        upsert = new UpsertBuilder(Dialects.H2).upsert("t_jsql_test", "test_id")
+                .values(Cond.eq("test_id", "test01"), Cond.eq("t_col_1", "test00")).build();
+        assertEquals("merge into t_jsql_test (test_id,t_col_1) key (test_id) values(?,?)", upsert.getSql());
+
+        upsert = new UpsertBuilder(Dialects.SQLSERVER2012_PLUS).upsert("t_jsql_test", "test_id")
+                .values(Cond.eq("test_id", "test01"), Cond.eq("t_col_1", "test00")).build();
+        assertEquals("merge into t_jsql_test target_ using (values(?,?)) source_ (test_id,t_col_1) "
+                + "on (target_.test_id=source_.test_id) when matched then update set t_col_1=source_.t_col_1 "
+                + "when not matched then insert (test_id,t_col_1) values(source_.test_id,source_.t_col_1);", upsert.getSql());
+
+        upsert = new UpsertBuilder(Dialects.ORACLE).upsert("t_jsql_test", "test_id")
+                .values(Cond.eq("test_id", "test01"), Cond.eq("t_col_1", "test00")).build();
+        assertEquals("merge into t_jsql_test target_ using (select ? test_id,? t_col_1 from dual) source_ "
+                + "on (target_.test_id=source_.test_id) when matched then update set t_col_1=source_.t_col_1 "
+                + "when not matched then insert (test_id,t_col_1) values(source_.test_id,source_.t_col_1)", upsert.getSql());
+
+        List<Map<String, Object>> rows = new LinkedList<>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("test_id", "test0" + i);
+            row.put("t_col_1", "col1_" + i);
+            rows.add(row);
+        }
+        List<Builder> upserts = new UpsertBuilder(Dialects.DB2).upsert("t_jsql_test", "test_id").multiValues(rows);
+        assertEquals(1, upserts.size());
+        assertEquals("merge into t_jsql_test target_ using (values(?,?),(?,?),(?,?)) source_ (test_id,t_col_1) "
+                + "on (target_.test_id=source_.test_id) when matched then update set t_col_1=source_.t_col_1 "
+                + "when not matched then insert (test_id,t_col_1) values(source_.test_id,source_.t_col_1)", upserts.get(0).getSql());
+        assertArrayEquals(new Object[]{"test00", "col1_0", "test01", "col1_1", "test02", "col1_2"},
+                upserts.get(0).getPreparedValues().toArray());
+        upserts = new UpsertBuilder(Dialects.ORACLE).upsert("t_jsql_test", "test_id").multiValues(rows);
+        assertEquals("merge into t_jsql_test target_ using (select ? test_id,? t_col_1 from dual union all "
+                + "select ? test_id,? t_col_1 from dual union all select ? test_id,? t_col_1 from dual) source_ "
+                + "on (target_.test_id=source_.test_id) when matched then update set t_col_1=source_.t_col_1 "
+                + "when not matched then insert (test_id,t_col_1) values(source_.test_id,source_.t_col_1)", upserts.get(0).getSql());
+
+        // rows of the same key are merged, and values of the last row win
+        Map<String, Object> duplicate = new LinkedHashMap<>();
+        duplicate.put("test_id", "test00");
+        duplicate.put("t_col_1", "col1_3");
+        rows.add(duplicate);
+        upserts = new UpsertBuilder(Dialects.POSTGRESQL).upsert("t_jsql_test", "test_id").multiValues(rows);
+        assertEquals(1, upserts.size());
+        assertArrayEquals(new Object[]{"test00", "col1_3", "test01", "col1_1", "test02", "col1_2"},
+                upserts.get(0).getPreparedValues().toArray());
+
+        // rows of map must have exactly the same columns
+        Map<String, Object> missing = new LinkedHashMap<>();
+        missing.put("test_id", "test04");
+        TestUtils.assertThrows(IllegalArgumentException.class, () -> new UpsertBuilder(Dialects.H2)
+                .upsert("t_jsql_test", "test_id").multiValues(Arrays.asList(rows.get(0), missing)));
+        Map<String, Object> extra = new LinkedHashMap<>(rows.get(1));
+        extra.put("t_col_2", "col2_1");
+        TestUtils.assertThrows(IllegalArgumentException.class, () -> new UpsertBuilder(Dialects.H2)
+                .upsert("t_jsql_test", "test_id").multiValues(Arrays.asList(rows.get(0), extra)));
+        TestUtils.assertThrows(IllegalArgumentException.class, () -> new InsertBuilder(Dialects.H2)
+                .insert("t_jsql_test", "test_id", "t_col_1").multiValues(Collections.singletonList(missing)));
+        TestUtils.assertThrows(IllegalArgumentException.class, () -> new UpsertBuilder(Dialects.H2)
+                .upsert("t_jsql_test", "test_id").values(Cond.eq("t_col_1", "test00")));
+        TestUtils.assertThrows(IllegalArgumentException.class, () -> new UpsertBuilder(Dialects.H2)
+                .upsert("t_jsql_test", "test_id").multiValues(Collections.singletonList(Arrays.asList(1, 2))));
+        TestUtils.assertThrows(UnsupportedOperationException.class, () -> new UpsertBuilder(Dialects.UNKNOWN)
+                .upsert("t_jsql_test", "test_id").values(Cond.eq("test_id", "test01")));
+    }
+
+    @Test
+    public void testInsertMultiValues() {
+        List<TestTable> rows = new LinkedList<>();
+        for (int i = 0; i < 3; i++) {
+            TestTable testTable = new TestTable();
+            testTable.setTestId("test0" + i);
+            testTable.setCol1("col1_" + i);
+            rows.add(testTable);
+        }
+        List<Builder> inserts = new InsertBuilder(Dialects.H2).insert("t_jsql_test").multiValues(rows);
+        assertEquals(1, inserts.size());
+        assertEquals("insert into t_jsql_test (test_id,t_col_1,t_col_2,order_num) values(?,?,?,?),(?,?,?,?),(?,?,?,?)",
+                inserts.get(0).getSql());
+        assertArrayEquals(new Object[]{"test00", "col1_0", null, 0, "test01", "col1_1", null, 0, "test02", "col1_2", null, 0},
+                inserts.get(0).getPreparedValues().toArray());
+
+        // one row per builder if dialect does not support multi-row insert
+        inserts = new InsertBuilder(Dialects.ORACLE).insert("t_jsql_test", "test_id", "t_col_1").multiValues(rows);
+        assertEquals(3, inserts.size());
+        assertEquals("insert into t_jsql_test (test_id,t_col_1) values(?,?)", inserts.get(2).getSql());
+        assertArrayEquals(new Object[]{"test02", "col1_2"}, inserts.get(2).getPreparedValues().toArray());
+
+        // chunks are limited by bind parameters of SQLite
+        List<Object[]> valueRows = new LinkedList<>();
+        for (int i = 0; i < 1000; i++) {
+            valueRows.add(new Object[]{i, "v" + i});
+        }
+        inserts = new InsertBuilder(Dialects.SQLITE).insert("t_jsql_test", "col1", "col2").multiValues(valueRows);
+        assertEquals(3, inserts.size());
+        assertEquals(998, inserts.get(0).getPreparedValues().size());
+        assertEquals(inserts.get(0).getSql(), inserts.get(1).getSql());
+        assertEquals("insert into t_jsql_test (col1,col2) values(?,?),(?,?)", inserts.get(2).getSql());
+        assertArrayEquals(new Object[]{998, "v998", 999, "v999"},
+                inserts.get(2).getPreparedValues().toArray());
+
+        // chunks are limited by rows of SQLServer
+        inserts = new InsertBuilder(Dialects.SQLSERVER2012_PLUS).insert("t_jsql_test", "col1").multiValues(
+                Collections.nCopies(1500, Collections.singletonList("v")));
+        assertEquals(2, inserts.size());
+        assertEquals(1000, inserts.get(0).getPreparedValues().size());
+        assertEquals(500, inserts.get(1).getPreparedValues().size());
+
+        TestUtils.assertThrows(IllegalArgumentException.class, () -> new InsertBuilder().insert("t_jsql_test")
+                .multiValues(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(1))));
+        TestUtils.assertThrows(IllegalArgumentException.class, () -> new InsertBuilder().insert("t_jsql_test")
+                .multiValues(Collections.emptyList()));
+    }
+
     @Test
     public void testBuilderSql() {
         Builder builder = new SelectBuilder().sql("select 1 from table where id = ?").value(123456789).build();
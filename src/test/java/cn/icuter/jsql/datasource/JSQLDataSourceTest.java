@@ -63,12 +63,33 @@ public class JSQLDataSourceTest {
             Assert.assertEquals("javax.net.DefaultSocketFactory", builderProps.getProperty("driver.socketFactory"));
             Assert.assertEquals("javax.net.DefaultSocketFactory", source.getDriverProperties().getProperty("socketFactory"));
             Assert.assertEquals(defaultConf.getMaxPoolSize(), datasourceConf.getMaxPoolSize());
+            Assert.assertEquals(defaultConf.getMinIdle(), datasourceConf.getMinIdle());
+            Assert.assertEquals(defaultConf.getMaxTotalPoolSize(), datasourceConf.getMaxTotalPoolSize());
             Assert.assertEquals(defaultConf.getCreateRetryCount(), datasourceConf.getCreateRetryCount());
+            Assert.assertEquals(defaultConf.getCreateParallelism(), datasourceConf.getCreateParallelism());
+            Assert.assertEquals(defaultConf.getAsyncBorrowerThreads(), datasourceConf.getAsyncBorrowerThreads());
+            Assert.assertEquals(defaultConf.getCreateRetryBackoff(), datasourceConf.getCreateRetryBackoff());
+            Assert.assertEquals(defaultConf.getCreateRetryMaxBackoff(), datasourceConf.getCreateRetryMaxBackoff());
+            Assert.assertEquals(defaultConf.getCircuitBreakerThreshold(), datasourceConf.getCircuitBreakerThreshold());
+            Assert.assertEquals(defaultConf.getCircuitBreakerCoolDown(), datasourceConf.getCircuitBreakerCoolDown());
+            Assert.assertEquals(defaultConf.getLeakDetectionThreshold(), datasourceConf.getLeakDetectionThreshold());
+            Assert.assertEquals(defaultConf.getLeakTraceSampling(), datasourceConf.getLeakTraceSampling());
+            Assert.assertEquals(defaultConf.isLeakReclaim(), datasourceConf.isLeakReclaim());
+            Assert.assertEquals(defaultConf.getStatementCacheSize(), datasourceConf.getStatementCacheSize());
             Assert.assertEquals(defaultConf.getIdleTimeout(), datasourceConf.getIdleTimeout());
+            Assert.assertEquals(defaultConf.getMaxEvictionsPerRun(), datasourceConf.getMaxEvictionsPerRun());
+            Assert.assertEquals(defaultConf.getMaxLifetime(), datasourceConf.getMaxLifetime());
+            Assert.assertEquals(defaultConf.getMaxLifetimeJitter(), datasourceConf.getMaxLifetimeJitter());
             Assert.assertEquals(defaultConf.getScheduledThreadLifeTime(), datasourceConf.getScheduledThreadLifeTime());
             Assert.assertEquals(defaultConf.getPollTimeout(), datasourceConf.getPollTimeout());
             Assert.assertEquals(defaultConf.isValidateOnBorrow(), datasourceConf.isValidateOnBorrow());
             Assert.assertEquals(defaultConf.isValidateOnReturn(), datasourceConf.isValidateOnReturn());
+            Assert.assertEquals(defaultConf.getValidationSkipWindow(), datasourceConf.getValidationSkipWindow());
+            Assert.assertEquals(defaultConf.getIdleValidationInterval(), datasourceConf.getIdleValidationInterval());
+            Assert.assertEquals(defaultConf.getAdaptiveSizingInterval(), datasourceConf.getAdaptiveSizingInterval());
+            Assert.assertEquals(defaultConf.getAdaptiveWaitTarget(), datasourceConf.getAdaptiveWaitTarget());
+            Assert.assertEquals(defaultConf.isJmxEnabled(), datasourceConf.isJmxEnabled());
+            Assert.assertEquals(defaultConf.getPoolType(), datasourceConf.getPoolType());
         }
     }
 
@@ -76,8 +97,18 @@ public class JSQLDataSourceTest {
     public void testDataSourceBuilder() throws IOException {
         JSQLDataSource.DataSourceBuilder dataSourceBuilder = JSQLDataSource.newDataSourceBuilder()
                 .url(jdbcUrl).user("jsql").password("pass").loginTimeout(10)
-                .poolMaxSize(8).poolIdleTimeout(500000).poolObjectCreateRetryCount(2).poolPollTimeout(5000)
+                .poolMaxSize(8).poolMaxTotalSize(80).poolIdleTimeout(500000).poolMaxEvictionsPerRun(5)
+                .poolMaxLifetime(1800000).poolMaxLifetimeJitter(30000)
+                .poolObjectCreateRetryCount(2).poolCreateParallelism(2).poolAsyncBorrowerThreads(16).poolPollTimeout(5000)
+                .poolCreateRetryBackoff(200).poolCreateRetryMaxBackoff(3000)
+                .poolCircuitBreakerThreshold(3).poolCircuitBreakerCoolDown(15000)
                 .poolScheduleThreadLifeTime(9000).poolValidationOnBorrow(false).poolValidationOnReturn(true)
+                .poolValidationSkipWindow(500).poolIdleValidationInterval(60000)
+                .poolLeakDetectionThreshold(120000).poolLeakTraceSampling(10).poolLeakReclaim(true).poolStatementCacheSize(64)
+                .poolAdaptiveSizingInterval(5000).poolAdaptiveWaitTarget(20)
+                .poolName("jsql-builder-pool").poolJmxEnabled(true)
+                .poolType(PoolConfiguration.PoolType.CONCURRENT)
+                .executorVirtualThreads(true).executorMaxThreads(4).executorQueueSize(100)
                 .addMapProperties(() -> {
                     Map<String, String> props = new HashMap<>();
                     props.put("driver.socketFactory", "javax.net.DefaultSocketFactory");
@@ -88,12 +119,47 @@ public class JSQLDataSourceTest {
             PoolConfiguration configuration = dataSource.getPoolConfiguration(builderProps);
 
             Assert.assertEquals(String.valueOf(configuration.getMaxPoolSize()), builderProps.getProperty(JSQLDataSource.PROP_POOL_MAX_POOL_SIZE));
+            Assert.assertEquals(String.valueOf(configuration.getMaxTotalPoolSize()), builderProps.getProperty(JSQLDataSource.PROP_POOL_MAX_TOTAL_POOL_SIZE));
             Assert.assertEquals(String.valueOf(configuration.getIdleTimeout()), builderProps.getProperty(JSQLDataSource.PROP_POOL_IDLE_TIMEOUT));
+            Assert.assertEquals(String.valueOf(configuration.getMaxLifetime()), builderProps.getProperty(JSQLDataSource.PROP_POOL_MAX_LIFETIME));
+            Assert.assertEquals(String.valueOf(configuration.getMaxLifetimeJitter()), builderProps.getProperty(JSQLDataSource.PROP_POOL_MAX_LIFETIME_JITTER));
+            Assert.assertEquals(String.valueOf(configuration.getMaxEvictionsPerRun()), builderProps.getProperty(JSQLDataSource.PROP_POOL_MAX_EVICTIONS_PER_RUN));
             Assert.assertEquals(String.valueOf(configuration.getPollTimeout()), builderProps.getProperty(JSQLDataSource.PROP_POOL_POLL_TIMEOUT));
             Assert.assertEquals(String.valueOf(configuration.getCreateRetryCount()), builderProps.getProperty(JSQLDataSource.PROP_POOL_CREATE_RETRY_COUNT));
+            Assert.assertEquals(String.valueOf(configuration.getCreateRetryBackoff()), builderProps.getProperty(JSQLDataSource.PROP_POOL_CREATE_RETRY_BACKOFF));
+            Assert.assertEquals(String.valueOf(configuration.getCreateRetryMaxBackoff()),
+                    builderProps.getProperty(JSQLDataSource.PROP_POOL_CREATE_RETRY_MAX_BACKOFF));
+            Assert.assertEquals(String.valueOf(configuration.getCircuitBreakerThreshold()),
+                    builderProps.getProperty(JSQLDataSource.PROP_POOL_CIRCUIT_BREAKER_THRESHOLD));
+            Assert.assertEquals(String.valueOf(configuration.getCircuitBreakerCoolDown()),
+                    builderProps.getProperty(JSQLDataSource.PROP_POOL_CIRCUIT_BREAKER_COOL_DOWN));
+            Assert.assertEquals(String.valueOf(configuration.getLeakDetectionThreshold()), builderProps.getProperty(JSQLDataSource.PROP_POOL_LEAK_DETECTION_THRESHOLD));
+            Assert.assertEquals(String.valueOf(configuration.getLeakTraceSampling()), builderProps.getProperty(JSQLDataSource.PROP_POOL_LEAK_TRACE_SAMPLING));
+            Assert.assertEquals(String.valueOf(configuration.isLeakReclaim()), builderProps.getProperty(JSQLDataSource.PROP_POOL_LEAK_RECLAIM));
+            Assert.assertEquals(String.valueOf(configuration.getStatementCacheSize()), builderProps.getProperty(JSQLDataSource.PROP_POOL_STATEMENT_CACHE_SIZE));
+            Assert.assertEquals(String.valueOf(configuration.getCreateParallelism()), builderProps.getProperty(JSQLDataSource.PROP_POOL_CREATE_PARALLELISM));
+            Assert.assertEquals(String.valueOf(configuration.getAsyncBorrowerThreads()),
+                    builderProps.getProperty(JSQLDataSource.PROP_POOL_ASYNC_BORROWER_THREADS));
             Assert.assertEquals(String.valueOf(configuration.getScheduledThreadLifeTime()), builderProps.getProperty(JSQLDataSource.PROP_POOL_SCHEDULED_THREAD_LIFETIME));
             Assert.assertEquals(String.valueOf(configuration.isValidateOnBorrow()), builderProps.getProperty(JSQLDataSource.PROP_POOL_VALIDATE_ON_BORROW));
             Assert.assertEquals(String.valueOf(configuration.isValidateOnReturn()), builderProps.getProperty(JSQLDataSource.PROP_POOL_VALIDATE_ON_RETURN));
+            Assert.assertEquals(String.valueOf(configuration.getValidationSkipWindow()), builderProps.getProperty(JSQLDataSource.PROP_POOL_VALIDATION_SKIP_WINDOW));
+            Assert.assertEquals(String.valueOf(configuration.getIdleValidationInterval()), builderProps.getProperty(JSQLDataSource.PROP_POOL_IDLE_VALIDATION_INTERVAL));
+            Assert.assertEquals(configuration.getPoolName(), builderProps.getProperty(JSQLDataSource.PROP_POOL_NAME));
+            Assert.assertEquals(String.valueOf(configuration.isJmxEnabled()), builderProps.getProperty(JSQLDataSource.PROP_POOL_JMX_ENABLED));
+            Assert.assertEquals(configuration.getPoolType().name(), builderProps.getProperty(JSQLDataSource.PROP_POOL_TYPE));
+            Assert.assertEquals(String.valueOf(configuration.getAdaptiveSizingInterval()),
+                    builderProps.getProperty(JSQLDataSource.PROP_POOL_ADAPTIVE_SIZING_INTERVAL));
+            Assert.assertEquals(String.valueOf(configuration.getAdaptiveWaitTarget()),
+                    builderProps.getProperty(JSQLDataSource.PROP_POOL_ADAPTIVE_WAIT_TARGET));
+            Assert.assertEquals("true", builderProps.getProperty(JSQLDataSource.PROP_EXECUTOR_VIRTUAL_THREADS));
+            Assert.assertEquals("4", builderProps.getProperty(JSQLDataSource.PROP_EXECUTOR_MAX_THREADS));
+            Assert.assertEquals("100", builderProps.getProperty(JSQLDataSource.PROP_EXECUTOR_QUEUE_SIZE));
+            Assert.assertEquals("jsql-builder-pool", dataSource.getPoolStats().getPoolName());
+            dataSource.reconfigurePool(cfg -> cfg.setMaxPoolSize(10));
+            Assert.assertEquals(10, dataSource.getPoolConfiguration().getMaxPoolSize());
+            Properties minIdleProps = JSQLDataSource.newDataSourceBuilder().poolMinIdle(3).jdbcProperties;
+            Assert.assertEquals(3, dataSource.getPoolConfiguration(minIdleProps).getMinIdle());
             Assert.assertEquals("javax.net.DefaultSocketFactory", builderProps.getProperty("driver.socketFactory"));
             Assert.assertEquals("javax.net.DefaultSocketFactory", dataSource.getDriverProperties().get("socketFactory"));
             Assert.assertEquals(dataSource.getDriverProperties().get(JSQLDataSource.PROP_USER),
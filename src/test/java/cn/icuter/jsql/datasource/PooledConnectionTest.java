@@ -0,0 +1,326 @@
+package cn.icuter.jsql.datasource;
+
+import cn.icuter.jsql.exception.JSQLException;
+import cn.icuter.jsql.executor.JdbcExecutor;
+import cn.icuter.jsql.executor.TransactionExecutor;
+import cn.icuter.jsql.pool.DefaultObjectPool;
+import cn.icuter.jsql.pool.ObjectPool;
+import cn.icuter.jsql.pool.PooledObject;
+import cn.icuter.jsql.pool.PooledObjectManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author edward
+ * @since 2026-10-18
+ */
+public class PooledConnectionTest {
+
+    private final List<String> calls = new ArrayList<>();
+    private final Map<String, Object> state = new HashMap<>();
+    private final StatementCacheStats statementCacheStats = new StatementCacheStats();
+    private PooledObjectManager<Connection> manager;
+    private ObjectPool<Connection> pool;
+
+    @Before
+    public void setup() {
+        state.put("AutoCommit", true);
+        state.put("ReadOnly", false);
+        state.put("TransactionIsolation", Connection.TRANSACTION_READ_COMMITTED);
+        state.put("Schema", "APP");
+        manager = new PooledObjectManager<Connection>() {
+            @Override
+            public PooledObject<Connection> create() throws JSQLException {
+                return new PooledConnection(newRawConnection(), 2, statementCacheStats).pooledObject;
+            }
+            @Override
+            public void invalid(PooledObject<Connection> pooledObject) throws JSQLException {
+            }
+            @Override
+            public boolean validate(PooledObject<Connection> pooledObject) throws JSQLException {
+                return true;
+            }
+            @Override
+            public void passivate(PooledObject<Connection> pooledObject) throws JSQLException {
+                try {
+                    ((PooledConnection) pooledObject.getObject()).passivate();
+                } catch (SQLException e) {
+                    throw new JSQLException(e);
+                }
+            }
+        };
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(1);
+        pool = new DefaultObjectPool<>(manager, cfg);
+    }
+
+    @After
+    public void tearDown() throws JSQLException {
+        pool.close();
+    }
+
+    private Connection newRawConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (method.getDeclaringClass() == Object.class) {
+                        return name.equals("hashCode") ? System.identityHashCode(proxy)
+                                : name.equals("equals") ? proxy == args[0] : "Connection";
+                    }
+                    calls.add(name);
+                    if (name.equals("prepareStatement")) {
+                        return newRawStatement((String) args[0]);
+                    } else if (name.startsWith("set")) {
+                        state.put(name.substring(3), args[0]);
+                        return null;
+                    } else if (name.startsWith("get")) {
+                        return state.get(name.substring(3));
+                    } else if (name.startsWith("is")) {
+                        return name.equals("isReadOnly") ? state.get("ReadOnly") : Boolean.FALSE;
+                    }
+                    return null;
+                });
+    }
+
+    private PreparedStatement newRawStatement(String sql) {
+        boolean[] closed = new boolean[1];
+        Map<String, Object> settings = new HashMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {PreparedStatement.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (method.getDeclaringClass() == Object.class) {
+                        return name.equals("hashCode") ? System.identityHashCode(proxy)
+                                : name.equals("equals") ? proxy == args[0] : sql;
+                    }
+                    if (name.equals("close")) {
+                        calls.add("closeStatement");
+                        closed[0] = true;
+                    } else if (name.equals("isClosed")) {
+                        return closed[0];
+                    } else if (name.startsWith("set") && args.length == 1) {
+                        settings.put(name.substring(3), args[0]);
+                    } else if (name.startsWith("get") && method.getReturnType() == int.class) {
+                        return settings.getOrDefault(name.substring(3), 0);
+                    } else if (method.getReturnType() == int.class) {
+                        return 0;
+                    }
+                    return null;
+                });
+    }
+
+    @Test
+    public void testStatementCache() throws Exception {
+        StatementCacheStats stats = statementCacheStats;
+        PooledConnection connection = (PooledConnection) new ConnectionPool(pool).getConnection();
+
+        PreparedStatement ps1 = connection.prepareStatement("select 1");
+        assertSame(connection, ps1.getConnection());
+        ps1.close();
+        ps1.close();
+        assertTrue(ps1.isClosed());
+        try {
+            ps1.executeQuery();
+            fail("using closed statement should fail");
+        } catch (SQLException e) {
+            // expected
+        }
+        PreparedStatement ps2 = connection.prepareStatement("select 1");
+        // nested usage of the same sql prepares another statement
+        PreparedStatement nested = connection.prepareStatement("select 1");
+        assertNotSame(ps1, ps2);
+        assertFalse(ps2.isClosed());
+        nested.close();
+        ps2.close();
+        assertEquals(2, Collections.frequency(calls, "prepareStatement"));
+        assertEquals(1, Collections.frequency(calls, "closeStatement"));
+        assertEquals(1, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+
+        // result set type is part of the key
+        connection.prepareStatement("select 1", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY).close();
+        connection.prepareStatement("select 2").close();
+        assertEquals(2, Collections.frequency(calls, "closeStatement"));
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(2, connection.getStatementCacheSize());
+
+        connection.clearStatementCache();
+        assertEquals(4, Collections.frequency(calls, "closeStatement"));
+        assertEquals(0, connection.getStatementCacheSize());
+        connection.close();
+    }
+
+    @Test
+    public void testCloseAfterInvalid() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(1);
+        cfg.setLeakDetectionThreshold(50L);
+        cfg.setLeakReclaim(true);
+        try (DefaultObjectPool<Connection> leakPool = new DefaultObjectPool<>(manager, cfg)) {
+            ConnectionPool connectionPool = new ConnectionPool(leakPool);
+            Connection leaked = connectionPool.getConnection();
+            // leaked connection reclaimed, closing it is ignored
+            Connection another = connectionPool.getConnection();
+            assertEquals(1, leakPool.getPoolStats().getReclaimedCount());
+            leaked.close();
+            another.close();
+            assertEquals(1, leakPool.getPoolStats().getReturnedCount());
+        }
+
+        // connection closed forcibly by draining pool
+        Connection connection = new ConnectionPool(pool).getConnection();
+        pool.close(Duration.ZERO);
+        connection.close();
+        try {
+            connection.createStatement();
+            fail();
+        } catch (SQLException e) {
+            assertEquals("PooledConnection has been returned to pool", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testStatementCacheRestoreSettings() throws Exception {
+        PooledConnection connection = (PooledConnection) new ConnectionPool(pool).getConnection();
+        PreparedStatement ps = connection.prepareStatement("select 1");
+        ps.setFetchSize(Integer.MIN_VALUE);
+        ps.setMaxRows(10);
+        ps.setQueryTimeout(5);
+        ps.close();
+
+        PreparedStatement cached = connection.prepareStatement("select 1");
+        assertEquals(1, statementCacheStats.getHitCount());
+        assertEquals(0, cached.getFetchSize());
+        assertEquals(0, cached.getMaxRows());
+        assertEquals(0, cached.getQueryTimeout());
+        cached.close();
+        connection.close();
+    }
+
+    @Test
+    public void testStatementCacheUnwrap() throws Exception {
+        PooledConnection connection = (PooledConnection) new ConnectionPool(pool).getConnection();
+        PreparedStatement ps = connection.prepareStatement("select 1");
+        assertSame(ps, ps.unwrap(PreparedStatement.class));
+        assertSame(ps, ps.unwrap(Statement.class));
+        assertTrue(ps.isWrapperFor(PreparedStatement.class));
+        assertTrue(ps.isWrapperFor(Statement.class));
+        ps.unwrap(PreparedStatement.class).close();
+        assertFalse(calls.contains("closeStatement"));
+
+        PreparedStatement cached = connection.prepareStatement("select 1");
+        assertEquals(1, statementCacheStats.getHitCount());
+        assertFalse(cached.isClosed());
+        cached.close();
+        connection.close();
+    }
+
+    @Test
+    public void testSkipRedundantSetters() throws Exception {
+        ConnectionPool connectionPool = new ConnectionPool(pool);
+        Connection connection = connectionPool.getConnection();
+        connection.setAutoCommit(true);
+        assertTrue(connection.getAutoCommit());
+        assertFalse(connection.isReadOnly());
+        connection.setReadOnly(false);
+        connection.setReadOnly(true);
+        assertTrue(connection.isReadOnly());
+        assertEquals(Connection.TRANSACTION_READ_COMMITTED, connection.getTransactionIsolation());
+        connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        assertEquals(3, calls.size());
+        assertEquals("isReadOnly", calls.get(0));
+        assertEquals("setReadOnly", calls.get(1));
+        assertEquals(true, state.get("ReadOnly"));
+        assertEquals("getTransactionIsolation", calls.get(2));
+        connection.close();
+    }
+
+    @Test
+    public void testResetChangedStateOnly() throws Exception {
+        ConnectionPool connectionPool = new ConnectionPool(pool);
+        Connection connection = connectionPool.getConnection();
+        connection.setReadOnly(true);
+        connection.setSchema("TEST");
+        connection.close();
+        calls.clear();
+
+        Connection reborrowed = connectionPool.getConnection();
+        assertSame(connection, reborrowed);
+        assertEquals(2, calls.size());
+        assertTrue(calls.contains("setReadOnly") && calls.contains("setSchema"));
+        assertEquals(false, state.get("ReadOnly"));
+        assertEquals("APP", state.get("Schema"));
+        assertEquals("APP", reborrowed.getSchema());
+        reborrowed.close();
+
+        calls.clear();
+        connectionPool.getConnection().close();
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    public void testKeepManualCommitForNextTransaction() throws Exception {
+        JdbcExecutorPool executorPool = new JdbcExecutorPool(pool);
+        TransactionExecutor txExecutor = executorPool.getTransactionExecutor();
+        txExecutor.commit();
+        txExecutor.close();
+        assertEquals(Arrays.asList("setAutoCommit", "commit", "commit"), calls);
+        assertEquals(false, state.get("AutoCommit"));
+
+        calls.clear();
+        txExecutor = executorPool.getTransactionExecutor();
+        txExecutor.commit();
+        txExecutor.close();
+        assertEquals(Arrays.asList("commit", "commit"), calls);
+
+        calls.clear();
+        JdbcExecutor executor = executorPool.getExecutor();
+        executor.close();
+        assertEquals(1, calls.size());
+        assertEquals("setAutoCommit", calls.get(0));
+        assertEquals(true, state.get("AutoCommit"));
+    }
+
+    @Test
+    public void testEndOpenTransactionOnReturning() throws Exception {
+        ConnectionPool connectionPool = new ConnectionPool(pool);
+        Connection connection = connectionPool.getConnection();
+        connection.setAutoCommit(false);
+        connection.createStatement();
+        connection.close();
+        // ends the transaction as setAutoCommit(true) commits
+        assertEquals(false, state.get("AutoCommit"));
+        assertEquals("commit", calls.get(calls.size() - 1));
+
+        // statement prepared before the last commit is out of track
+        connection = connectionPool.getConnection();
+        connection.setAutoCommit(false);
+        PreparedStatement ps = connection.prepareStatement("update t set a = 1");
+        connection.commit();
+        ps.executeUpdate();
+        calls.clear();
+        connection.close();
+        assertEquals(Collections.singletonList("commit"), calls);
+    }
+}
@@ -0,0 +1,48 @@
+package cn.icuter.jsql.executor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author edward
+ * @since 2026-10-18
+ */
+public class BatchSizerTest {
+
+    @Test
+    public void testFixedSize() {
+        BatchSizer batchSizer = BatchSizer.of(50);
+        batchSizer.onFlush(50, 1L);
+        batchSizer.onFlush(50, BatchSizer.TARGET_FLUSH_NANOS * 10);
+        assertEquals(50, batchSizer.size());
+    }
+
+    @Test
+    public void testAdaptiveSize() {
+        BatchSizer batchSizer = BatchSizer.of(0);
+        assertEquals(BatchSizer.INITIAL_SIZE, batchSizer.size());
+        batchSizer.onFlush(BatchSizer.INITIAL_SIZE, 1L);
+        assertEquals(BatchSizer.INITIAL_SIZE * 2, batchSizer.size());
+        // flush of the rest rows is ignored
+        batchSizer.onFlush(10, 1L);
+        assertEquals(BatchSizer.INITIAL_SIZE * 2, batchSizer.size());
+        // within target
+        batchSizer.onFlush(BatchSizer.INITIAL_SIZE * 2, BatchSizer.TARGET_FLUSH_NANOS);
+        assertEquals(BatchSizer.INITIAL_SIZE * 2, batchSizer.size());
+        // slower than target, shrinks in proportion
+        batchSizer.onFlush(BatchSizer.INITIAL_SIZE * 2, BatchSizer.TARGET_FLUSH_NANOS * 4);
+        assertEquals(BatchSizer.INITIAL_SIZE / 2, batchSizer.size());
+        batchSizer.onFlush(BatchSizer.INITIAL_SIZE / 2, BatchSizer.TARGET_FLUSH_NANOS * 100);
+        assertEquals(BatchSizer.MIN_SIZE, batchSizer.size());
+        for (int i = 0; i < 20; i++) {
+            batchSizer.onFlush(batchSizer.size(), 1L);
+        }
+        assertEquals(BatchSizer.MAX_SIZE, batchSizer.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSize() {
+        BatchSizer.of(-1);
+    }
+}
@@ -0,0 +1,120 @@
+package cn.icuter.jsql.executor;
+
+import cn.icuter.jsql.ColumnName;
+import cn.icuter.jsql.data.JSQLBlob;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author edward
+ * @since 2026-10-18
+ */
+public class EntityRowMapperTest {
+
+    static ResultSetMetaData newMeta(String... labels) {
+        return (ResultSetMetaData) Proxy.newProxyInstance(EntityRowMapperTest.class.getClassLoader(),
+                new Class<?>[] {ResultSetMetaData.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getColumnCount")) {
+                        return labels.length;
+                    } else if (method.getName().equals("getColumnLabel")) {
+                        return labels[(int) args[0] - 1];
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * ResultSet of one row, whose getters return the column value by index as it is
+     */
+    static ResultSet newRow(Object... values) {
+        return (ResultSet) Proxy.newProxyInstance(EntityRowMapperTest.class.getClassLoader(),
+                new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("get") && args != null && args[0] instanceof Integer) {
+                        return values[(int) args[0] - 1];
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Test
+    public void testMapRow() throws Exception {
+        ResultSetMetaData meta = newMeta("ID", "NAME", "AMOUNT", "F_BLOB", "CODE", "UNKNOWN", "IGNORED");
+        EntityRowMapper<Entity> mapper = EntityRowMapper.of(Entity.class, meta);
+        byte[] bytes = {1, 2, 3};
+        Entity entity = mapper.map(newRow(7, "jsql", new BigDecimal("1.5"), bytes, "c-1", "unknown", "ignored"));
+        assertEquals(7, entity.id);
+        assertEquals("jsql", entity.name);
+        assertEquals(new BigDecimal("1.5"), entity.amount);
+        assertTrue(entity.blob instanceof JSQLBlob);
+        assertArrayEquals(bytes, entity.blob.getBytes(1L, (int) entity.blob.length()));
+        assertEquals("c-1", entity.code);
+        assertNull(entity.ignored);
+
+        // mapper is reused for each row
+        Entity other = mapper.map(newRow(8, "other", null, bytes, "c-2", null, null));
+        assertEquals(8, other.id);
+        assertNull(other.amount);
+        assertEquals("c-2", other.code);
+    }
+
+    @Test
+    public void testMapSubsetOfColumns() throws Exception {
+        EntityRowMapper<Entity> mapper = EntityRowMapper.of(Entity.class, newMeta("name"));
+        Entity entity = mapper.map(newRow("jsql"));
+        assertEquals("jsql", entity.name);
+        assertEquals(0, entity.id);
+        assertNull(entity.code);
+    }
+
+    @Test
+    public void testCachePerClassAndSql() throws Exception {
+        ResultSetMetaData meta = newMeta("ID", "NAME");
+        EntityRowMapper<CachedEntity> mapper = EntityRowMapper.of(CachedEntity.class, "select id, name from t", meta);
+        assertSame(mapper, EntityRowMapper.of(CachedEntity.class, "select id, name from t", meta));
+        assertNotSame(mapper, EntityRowMapper.of(CachedEntity.class, "select * from t", meta));
+
+        // resolved again once columns changed
+        EntityRowMapper<CachedEntity> changed = EntityRowMapper.of(CachedEntity.class, "select * from t", newMeta("ID"));
+        CachedEntity entity = changed.map(newRow(1));
+        assertEquals(1, entity.id);
+        assertNull(entity.name);
+        assertEquals(2, EntityRowMapper.cachedSize(CachedEntity.class));
+
+        for (int i = 0; i < EntityRowMapper.MAX_CACHED_SQL_PER_CLASS * 2; i++) {
+            EntityRowMapper.of(CachedEntity.class, "select id, name from t where id = " + i, meta);
+        }
+        assertEquals(EntityRowMapper.MAX_CACHED_SQL_PER_CLASS, EntityRowMapper.cachedSize(CachedEntity.class));
+    }
+
+    static class CachedEntity {
+        private int id;
+        private String name;
+    }
+
+    static class Entity {
+        private int id;
+        private String name;
+        private BigDecimal amount;
+        @ColumnName("f_blob")
+        private Blob blob;
+        // written by reflection as method handle can not write final field on Java 8
+        private final String code = null;
+        @ColumnName(value = "ignored", ignore = true)
+        private String ignored;
+
+        private Entity() {
+        }
+    }
+}
@@ -1,33 +1,52 @@
 package cn.icuter.jsql.executor;
 
+import cn.icuter.jsql.ColumnName;
 import cn.icuter.jsql.TestTable;
 import cn.icuter.jsql.TestUtils;
 import cn.icuter.jsql.builder.Builder;
 import cn.icuter.jsql.builder.SelectBuilder;
 import cn.icuter.jsql.condition.Cond;
+import cn.icuter.jsql.datasource.ConnectionPool;
 import cn.icuter.jsql.datasource.JSQLDataSource;
+import cn.icuter.jsql.datasource.JdbcExecutorPool;
+import cn.icuter.jsql.datasource.PoolConfiguration;
 import cn.icuter.jsql.datasource.TransactionDataSource;
 import cn.icuter.jsql.dialect.Dialect;
 import cn.icuter.jsql.dialect.Dialects;
 import cn.icuter.jsql.exception.ExecutionException;
 import cn.icuter.jsql.exception.JSQLException;
+import cn.icuter.jsql.exception.JSQLRuntimeException;
 import cn.icuter.jsql.transaction.Transaction;
 import org.junit.AfterClass;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author edward
@@ -377,7 +396,8 @@ public class JdbcExecutorTest {
         batchList.add(newInsertBuilder());
         batchList.add(newInsertBuilder());
         try (TransactionExecutor txExecutor = dataSource.createTransaction()) {
-            txExecutor.execBatch(batchList);
+            int[] updateCounts = txExecutor.execBatch(batchList);
+            Assert.assertEquals(batchList.size(), updateCounts.length);
             txExecutor.commit();
         }
         try (JdbcExecutor jdbcExecutor = dataSource.createJdbcExecutor()) {
@@ -386,6 +406,96 @@ public class JdbcExecutorTest {
         }
     }
 
+    @Test
+    public void testChunkedBatchUpdate() throws Exception {
+        List<Builder> batchList = new LinkedList<>();
+        int size = 7;
+        for (int i = 0; i < size; i++) {
+            TestTable testTable = createTestTableRecord();
+            // builders are built by execBatch
+            batchList.add(dataSource.insert(TABLE_NAME).values(testTable));
+            batchList.add(dataSource.delete().from(TABLE_NAME).where().eq("test_id", testTable.getTestId()));
+        }
+        batchList.add(dataSource.delete().from(TABLE_NAME).where().eq("test_id", "not-exists"));
+        int[] updateCounts;
+        try (TransactionExecutor txExecutor = dataSource.createTransaction()) {
+            updateCounts = txExecutor.execBatch(batchList, 3);
+            txExecutor.commit();
+        }
+        Assert.assertEquals(batchList.size(), updateCounts.length);
+        for (int i = 0; i < size * 2; i++) {
+            Assert.assertTrue(updateCounts[i] == 1 || updateCounts[i] == Statement.SUCCESS_NO_INFO);
+        }
+        Assert.assertTrue(updateCounts[size * 2] == 0 || updateCounts[size * 2] == Statement.SUCCESS_NO_INFO);
+    }
+
+    @Test
+    public void testInsertMultiValues() throws Exception {
+        List<TestTable> rows = new LinkedList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(createTestTableRecord());
+        }
+        List<Builder> inserts = dataSource.insert(TABLE_NAME).multiValues(rows);
+        try (TransactionExecutor txExecutor = dataSource.createTransaction()) {
+            int[] updateCounts = txExecutor.execBatch(inserts);
+            Assert.assertEquals(inserts.size(), updateCounts.length);
+            txExecutor.commit();
+        }
+        List<Object> ids = rows.stream().map(TestTable::getTestId).collect(Collectors.toList());
+        List<TestTable> inserted = dataSource.select().from(TABLE_NAME).where().in("test_id", ids).execQuery(TestTable.class);
+        Assert.assertEquals(rows.size(), inserted.size());
+        dataSource.delete().from(TABLE_NAME).where().in("test_id", ids).execUpdate();
+    }
+
+    @Test
+    public void testUpsertMultiValues() throws Exception {
+        Dialect dialect = dataSource.getDialect();
+        try {
+            dialect.upsertSql(TABLE_NAME, new String[]{"test_id"}, new String[]{"test_id"}, 1);
+        } catch (UnsupportedOperationException e) {
+            Assume.assumeNoException("upsert is not supported by " + dialect.getDialectName(), e);
+        }
+        List<TestTable> rows = new LinkedList<>();
+        for (int i = 0; i < 3; i++) {
+            rows.add(createTestTableRecord());
+        }
+        List<Builder> upserts = dataSource.upsert(TABLE_NAME, "test_id").multiValues(rows.subList(0, 2));
+        try (TransactionExecutor txExecutor = dataSource.createTransaction()) {
+            txExecutor.execBatch(upserts);
+            txExecutor.commit();
+        }
+        // update the existing ones and insert the new one, the duplicate row of the same key wins
+        List<TestTable> updates = new LinkedList<>();
+        for (TestTable row : rows) {
+            TestTable update = new TestTable();
+            update.setTestId(row.getTestId());
+            update.setCol1(row.getCol1() + "_updated");
+            update.setCol2(row.getCol2());
+            update.setOrderNum(row.getOrderNum());
+            updates.add(update);
+        }
+        TestTable duplicate = new TestTable();
+        duplicate.setTestId(rows.get(0).getTestId());
+        duplicate.setCol1("duplicate");
+        duplicate.setCol2(rows.get(0).getCol2());
+        duplicate.setOrderNum(rows.get(0).getOrderNum());
+        updates.add(duplicate);
+        upserts = dataSource.upsert(TABLE_NAME, "test_id").multiValues(updates);
+        try (TransactionExecutor txExecutor = dataSource.createTransaction()) {
+            txExecutor.execBatch(upserts);
+            txExecutor.commit();
+        }
+        List<Object> ids = rows.stream().map(TestTable::getTestId).collect(Collectors.toList());
+        Map<String, TestTable> upserted = dataSource.select().from(TABLE_NAME).where().in("test_id", ids)
+                .execQuery(TestTable.class).stream().collect(Collectors.toMap(TestTable::getTestId, t -> t));
+        assertEquals(rows.size(), upserted.size());
+        assertEquals("duplicate", upserted.get(rows.get(0).getTestId()).getCol1());
+        for (int i = 1; i < rows.size(); i++) {
+            assertEquals(rows.get(i).getCol1() + "_updated", upserted.get(rows.get(i).getTestId()).getCol1());
+        }
+        dataSource.delete().from(TABLE_NAME).where().in("test_id", ids).execUpdate();
+    }
+
     @Test
     public void testMultipleBatchUpdate() throws Exception {
         List<Builder> batchList = new LinkedList<>();
@@ -538,6 +648,234 @@ public class JdbcExecutorTest {
         dataSource.select().from(TABLE_NAME).execQuery(txExecutor);
     }
 
+    @Test
+    public void testSubmit() throws Exception {
+        List<CompletableFuture<List<Map<String, Object>>>> futures = new LinkedList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(dataSource.submit(executor -> dataSource.select().from(TABLE_NAME).execQuery(executor)));
+        }
+        for (CompletableFuture<List<Map<String, Object>>> future : futures) {
+            Assert.assertNotNull(future.get(10, TimeUnit.SECONDS));
+        }
+        CompletableFuture<Object> failure = dataSource.submit(executor -> {
+            throw new JSQLException("submitted operation error");
+        });
+        try {
+            failure.get(10, TimeUnit.SECONDS);
+            Assert.fail("submitted operation should fail");
+        } catch (java.util.concurrent.ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof JSQLException);
+        }
+        assertEquals(0, dataSource.getPoolStats().getActiveCount());
+    }
+
+    @Test
+    public void testSubmitWhileClosing() throws Exception {
+        JSQLDataSource closingDataSource = TestUtils.getDataSourceBuilder().poolMaxSize(2).build();
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<List<Map<String, Object>>> draining = closingDataSource.submit(executor -> {
+            running.countDown();
+            Thread.sleep(300L);
+            return closingDataSource.select().from(TABLE_NAME).execQuery(executor);
+        });
+        Assert.assertTrue(running.await(10, TimeUnit.SECONDS));
+        Thread closer = new Thread(() -> closingDataSource.close(Duration.ofSeconds(10)));
+        closer.start();
+        Thread.sleep(100L);
+        // rejected while draining, and no connection is left borrowed
+        CompletableFuture<Object> rejected = closingDataSource.submit(executor -> "never run");
+        try {
+            rejected.get(10, TimeUnit.SECONDS);
+            Assert.fail("operation submitted while closing should be rejected");
+        } catch (java.util.concurrent.ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        Assert.assertNotNull(draining.get(10, TimeUnit.SECONDS));
+        closer.join(10000L);
+        assertEquals(0, closingDataSource.getPoolStats().getActiveCount());
+    }
+
+    @Test
+    public void testSubmitOnConcurrentPool() throws Exception {
+        try (JSQLDataSource concurrentDataSource = TestUtils.getDataSourceBuilder()
+                .poolType(PoolConfiguration.PoolType.CONCURRENT).poolMaxSize(2).poolPollTimeout(2000).build()) {
+            List<CompletableFuture<List<Map<String, Object>>>> futures = new LinkedList<>();
+            // far more operations than threads, borrowing never occupies the threads running operations
+            for (int i = 0; i < 12; i++) {
+                futures.add(concurrentDataSource.submit(executor -> {
+                    List<Map<String, Object>> rows = concurrentDataSource.select().from(TABLE_NAME).execQuery(executor);
+                    Thread.sleep(100L);
+                    return rows;
+                }));
+            }
+            for (CompletableFuture<List<Map<String, Object>>> future : futures) {
+                Assert.assertNotNull(future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(0, concurrentDataSource.getPoolStats().getActiveCount());
+        }
+    }
+
+    @Test
+    public void testExecAsync() throws Exception {
+        int poolSize = dataSource.getPoolConfiguration().getMaxPoolSize();
+        List<CompletableFuture<List<Map<String, Object>>>> futures = new LinkedList<>();
+        // more operations than connections, the overflow waits in pool rather than in threads
+        for (int i = 0; i < poolSize * 3; i++) {
+            futures.add(i % 2 == 0 ? dataSource.select().from(TABLE_NAME).execQueryAsync()
+                    : dataSource.execQueryAsync(dataSource.select().from(TABLE_NAME).build()));
+        }
+        for (CompletableFuture<List<Map<String, Object>>> future : futures) {
+            Assert.assertNotNull(future.get(10, TimeUnit.SECONDS));
+        }
+        Builder updateBuilder = dataSource.update(TABLE_NAME).set(Cond.eq("t_col_1", "async")).where().eq("test_id", "not_exists");
+        assertEquals(0, (int) updateBuilder.execUpdateAsync().get(10, TimeUnit.SECONDS));
+        assertEquals(0, (int) dataSource.execUpdateAsync(updateBuilder).get(10, TimeUnit.SECONDS));
+        try {
+            dataSource.select().from("not_exists_table").execQueryAsync(Object.class).get(10, TimeUnit.SECONDS);
+            Assert.fail("query on table not existed should fail");
+        } catch (java.util.concurrent.ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof JSQLException);
+        }
+        assertEquals(0, dataSource.getPoolStats().getActiveCount());
+    }
+
+    @Test
+    public void testCredentialsConnection() throws Exception {
+        // default schema of derby is the user
+        Assume.assumeTrue(dataSource.getUrl().startsWith("jdbc:derby:"));
+        try (JdbcExecutor executor = dataSource.getJdbcExecutor("jsql", "pass")) {
+            Assert.assertNotNull(dataSource.select().from(TABLE_NAME).execQuery(executor));
+        }
+        Connection jsqlConnection = dataSource.getConnection("jsql", "pass");
+        Connection otherConnection = dataSource.getConnection("other", "pass");
+        try {
+            assertEquals("JSQL", jsqlConnection.getSchema());
+            assertEquals("OTHER", otherConnection.getSchema());
+        } finally {
+            jsqlConnection.close();
+            otherConnection.close();
+        }
+        // reused by the same credentials
+        Connection reborrowed = dataSource.getConnection("jsql", "pass");
+        assertSame(jsqlConnection, reborrowed);
+        reborrowed.close();
+    }
+
+    @Test
+    public void testTransactionErrorOnReadingStream() throws Exception {
+        TransactionExecutor executor = dataSource.getTransactionExecutor();
+        String testId;
+        try {
+            testId = insertTestRecord(executor).getTestId();
+            // t_col_1 is not a number, reading it fails after stream returned
+            try (Stream<MismatchedRow> rows = dataSource.select().from(TABLE_NAME).where().eq("test_id", testId)
+                    .execQueryStream(executor, MismatchedRow.class)) {
+                rows.collect(Collectors.toList());
+                Assert.fail("reading mismatched row should fail");
+            } catch (JSQLRuntimeException e) {
+                // expected
+            }
+            assertSame(Transaction.State.ERROR, executor.getState());
+        } finally {
+            executor.close();
+        }
+        // failed transaction is rolled back rather than committed on returning
+        assertTrue(executor.wasRolledBack());
+        assertEquals(0, dataSource.select().from(TABLE_NAME).where().eq("test_id", testId).execQuery().size());
+    }
+
+    static class MismatchedRow {
+        @ColumnName("t_col_1")
+        private int col1;
+    }
+
+    @Test
+    public void testExecQueryStream() throws Exception {
+        List<Object> testIds = new LinkedList<>();
+        try (JdbcExecutor executor = dataSource.getJdbcExecutor()) {
+            for (int i = 0; i < 5; i++) {
+                testIds.add(insertTestRecord(executor).getTestId());
+            }
+            try (Stream<TestTable> rows = dataSource.select().from(TABLE_NAME).where().in("test_id", testIds).fetchSize(2)
+                    .execQueryStream(executor, TestTable.class)) {
+                assertEquals(new HashSet<>(testIds), rows.map(TestTable::getTestId).collect(Collectors.toSet()));
+            }
+            // closing partially consumed stream releases its statement, and executor is still usable
+            try (Stream<TestTable> rows = dataSource.select().from(TABLE_NAME).where().in("test_id", testIds)
+                    .execQueryStream(executor, TestTable.class)) {
+                assertEquals(2, rows.limit(2).count());
+            }
+            List<String> handled = new LinkedList<>();
+            dataSource.select().from(TABLE_NAME).where().in("test_id", testIds)
+                    .execQuery(executor, TestTable.class, row -> handled.add(row.getTestId()));
+            assertEquals(5, handled.size());
+        }
+        // connection of data source is returned on closing stream
+        int activeCount = dataSource.getPoolStats().getActiveCount();
+        try (Stream<TestTable> rows = dataSource.select().from(TABLE_NAME).where().in("test_id", testIds)
+                .execQueryStream(TestTable.class)) {
+            assertEquals(activeCount + 1, dataSource.getPoolStats().getActiveCount());
+            assertEquals(5, rows.count());
+        }
+        assertEquals(activeCount, dataSource.getPoolStats().getActiveCount());
+        try {
+            dataSource.select().from(TABLE_NAME).where().in("test_id", testIds).execQuery(TestTable.class, row -> {
+                throw new IllegalStateException("stop handling");
+            });
+            Assert.fail("error of row handler should be thrown");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(activeCount, dataSource.getPoolStats().getActiveCount());
+        assertEquals(5, dataSource.delete().from(TABLE_NAME).where().in("test_id", testIds).execUpdate());
+    }
+
+    @Test
+    public void testStatementCache() throws Exception {
+        PoolConfiguration poolConfiguration = PoolConfiguration.defaultPoolCfg();
+        poolConfiguration.setMaxPoolSize(1);
+        poolConfiguration.setStatementCacheSize(4);
+        JdbcExecutorPool executorPool = dataSource.createExecutorPool(poolConfiguration);
+        try (JdbcExecutor executor = executorPool.getExecutor()) {
+            String testId1 = insertTestRecord(executor).getTestId();
+            String testId2 = insertTestRecord(executor).getTestId();
+            // the same statement is reused with parameters of each query
+            for (String testId : new String[] {testId1, testId2, testId1}) {
+                List<TestTable> testTableList = dataSource.select().from(TABLE_NAME).where().eq("test_id", testId)
+                        .execQuery(executor, TestTable.class);
+                assertEquals(1, testTableList.size());
+                assertEquals(testId, testTableList.get(0).getTestId());
+            }
+            assertEquals(2, dataSource.delete().from(TABLE_NAME).where().in("test_id", testId1, testId2).execUpdate(executor));
+        } finally {
+            executorPool.close();
+        }
+    }
+
+    @Test
+    public void testStatementCacheFetchSize() throws Exception {
+        PoolConfiguration poolConfiguration = PoolConfiguration.defaultPoolCfg();
+        poolConfiguration.setMaxPoolSize(1);
+        poolConfiguration.setStatementCacheSize(4);
+        ConnectionPool connectionPool = dataSource.createConnectionPool(poolConfiguration);
+        try (Connection connection = connectionPool.getConnection()) {
+            Builder builder = dataSource.select().from(TABLE_NAME).build();
+            int defaultFetchSize;
+            try (PreparedStatement ps = connection.prepareStatement(builder.getSql())) {
+                defaultFetchSize = ps.getFetchSize();
+            }
+            JdbcExecutor executor = new DefaultJdbcExecutor(connection);
+            dataSource.select().from(TABLE_NAME).fetchSize(defaultFetchSize + 7).execQuery(executor);
+            // the cached statement of the same sql never inherits fetch size of the last query
+            try (PreparedStatement ps = connection.prepareStatement(builder.getSql())) {
+                assertEquals(defaultFetchSize, ps.getFetchSize());
+            }
+            assertNotNull(dataSource.select().from(TABLE_NAME).execQuery(executor));
+        } finally {
+            connectionPool.close();
+        }
+    }
+
     @Test(expected = ExecutionException.class)
     public void testExceptionAfterClosed() throws Exception {
         Connection connection = dataSource.getConnection();
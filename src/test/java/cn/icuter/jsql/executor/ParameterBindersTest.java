@@ -0,0 +1,87 @@
+package cn.icuter.jsql.executor;
+
+import cn.icuter.jsql.data.JSQLBlob;
+import cn.icuter.jsql.dialect.Dialects;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author edward
+ * @since 2026-10-18
+ */
+public class ParameterBindersTest {
+
+    enum Color {
+        RED
+    }
+
+    interface Tagged {
+    }
+
+    static class Tag implements Tagged {
+    }
+
+    static class SubTag extends Tag {
+    }
+
+    private static final class Money {
+        private final long cents;
+
+        private Money(long cents) {
+            this.cents = cents;
+        }
+    }
+
+    private final List<String> calls = new ArrayList<>();
+
+    private PreparedStatement newStatement() {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    calls.add(method.getName() + ":" + (args[1] == null ? null : args[1].toString()));
+                    return null;
+                });
+    }
+
+    private void bind(Object... values) throws Exception {
+        PreparedStatement ps = newStatement();
+        for (int i = 0; i < values.length; i++) {
+            ParameterBinders.bind(ps, i + 1, values[i], Dialects.SQLITE);
+        }
+    }
+
+    @Test
+    public void testBuiltInBinders() throws Exception {
+        bind("jsql", 1, 2L, true, new BigDecimal("1.5"), LocalDateTime.of(2026, 10, 18, 12, 0), Color.RED, null,
+                new JSQLBlob(new byte[0]), new StringBuilder("sb"));
+        assertEquals(Arrays.asList("setString:jsql", "setInt:1", "setLong:2", "setBoolean:true", "setBigDecimal:1.5",
+                "setTimestamp:2026-10-18 12:00:00.0", "setString:RED", "setObject:null"), calls.subList(0, 8));
+        // dialect without Blob support
+        assertTrue(calls.get(8).startsWith("setBytes:"));
+        assertEquals("setObject:sb", calls.get(9));
+    }
+
+    @Test
+    public void testRegisterBinder() throws Exception {
+        ParameterBinder<Object> tagBinder = (ps, index, value, dialect) -> ps.setString(index, "tag");
+        assertSame(ParameterBinders.binderOf(SubTag.class), ParameterBinders.binderOf(Object.class));
+
+        ParameterBinders.register(Tagged.class, tagBinder);
+        // resolved again after registering, sub classes use the binder of their interface
+        assertSame(tagBinder, ParameterBinders.binderOf(SubTag.class));
+
+        ParameterBinders.register(Money.class, (ps, index, value, dialect) -> ps.setLong(index, value.cents));
+        bind(new SubTag(), new Money(100L));
+        assertEquals(Arrays.asList("setString:tag", "setLong:100"), calls);
+    }
+}
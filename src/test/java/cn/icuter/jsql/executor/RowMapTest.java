@@ -0,0 +1,115 @@
+package cn.icuter.jsql.executor;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author edward
+ * @since 2026-10-18
+ */
+public class RowMapTest {
+
+    @Test
+    public void testReadRow() throws Exception {
+        RowMap.Columns columns = RowMap.Columns.of(EntityRowMapperTest.newMeta("ID", "Name", "ROWNUMBER_", "id"));
+        Map<String, Object> row = columns.read(EntityRowMapperTest.newRow(1, "jsql", 10, 2));
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("id", 1);
+        expected.put("name", "jsql");
+        assertEquals(expected, row);
+        assertEquals(expected.hashCode(), row.hashCode());
+        assertEquals(Arrays.asList("id", "name"), Arrays.asList(row.keySet().toArray()));
+        assertTrue(row.containsKey("name"));
+        assertFalse(row.containsKey("rownumber_"));
+        assertNull(row.get("rownumber_"));
+
+        Map<String, Object> other = columns.read(EntityRowMapperTest.newRow(2, null, 20, 2));
+        assertEquals(2, other.get("id"));
+        assertTrue(other.containsKey("name"));
+        assertNull(other.get("name"));
+        // rows of the same result do not affect each other
+        assertEquals(1, row.get("id"));
+    }
+
+    @Test
+    public void testModifyRow() throws Exception {
+        RowMap.Columns columns = RowMap.Columns.of(EntityRowMapperTest.newMeta("ID", "NAME"));
+        Map<String, Object> row = columns.read(EntityRowMapperTest.newRow(1, "jsql"));
+        assertEquals(1, row.put("id", 2));
+        row.entrySet().iterator().next().setValue(3);
+        assertEquals(3, row.get("id"));
+
+        row.put("extra", "value");
+        assertEquals(3, row.size());
+        assertEquals(Arrays.asList("id", "name", "extra"), Arrays.asList(row.keySet().toArray()));
+        assertEquals("jsql", row.remove("name"));
+        assertEquals(2, row.size());
+        row.clear();
+        assertTrue(row.isEmpty());
+
+        Map<String, Object> other = columns.read(EntityRowMapperTest.newRow(1, "jsql"));
+        assertEquals("jsql", other.get("name"));
+        assertNull(other.remove("absent"));
+        assertEquals(2, other.size());
+    }
+
+    @Test
+    public void testRemoveByViews() throws Exception {
+        RowMap.Columns columns = RowMap.Columns.of(EntityRowMapperTest.newMeta("ID", "NAME", "AGE"));
+        Map<String, Object> row = columns.read(EntityRowMapperTest.newRow(1, "jsql", null));
+        assertTrue(row.keySet().remove("name"));
+        assertEquals(Arrays.asList("id", "age"), Arrays.asList(row.keySet().toArray()));
+
+        row = columns.read(EntityRowMapperTest.newRow(1, "jsql", null));
+        assertTrue(row.values().removeIf(Objects::isNull));
+        assertEquals(Arrays.asList("id", "name"), Arrays.asList(row.keySet().toArray()));
+
+        row = columns.read(EntityRowMapperTest.newRow(1, "jsql", null));
+        assertTrue(row.entrySet().removeIf(e -> !"name".equals(e.getKey())));
+        assertEquals(1, row.size());
+        assertEquals("jsql", row.get("name"));
+
+        row = columns.read(EntityRowMapperTest.newRow(1, "jsql", null));
+        Iterator<Map.Entry<String, Object>> iterator = row.entrySet().iterator();
+        iterator.next();
+        iterator.remove();
+        // iterating goes on after removed
+        Map.Entry<String, Object> entry = iterator.next();
+        assertEquals("name", entry.getKey());
+        entry.setValue("updated");
+        assertEquals("updated", row.get("name"));
+        assertEquals("age", iterator.next().getKey());
+        assertFalse(iterator.hasNext());
+        assertEquals(2, row.size());
+    }
+
+    @Test
+    public void testSerializeAsLinkedHashMap() throws Exception {
+        RowMap.Columns columns = RowMap.Columns.of(EntityRowMapperTest.newMeta("ID", "NAME"));
+        Map<String, Object> row = columns.read(EntityRowMapperTest.newRow(1, "jsql"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(row);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            Object copy = ois.readObject();
+            assertSame(LinkedHashMap.class, copy.getClass());
+            assertEquals(row, copy);
+        }
+    }
+}
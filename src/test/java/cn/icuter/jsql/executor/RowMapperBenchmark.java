@@ -0,0 +1,142 @@
+package cn.icuter.jsql.executor;
+
+import org.h2.tools.SimpleResultSet;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row mapping benchmark of a 30-column entity, comparing per-row Field reflection with {@link EntityRowMapper},
+ * which is not a part of test suites and should be run manually.
+ * <pre>
+ * mvn test -Dcheckstyle.skip=true -Dtest=RowMapperBenchmark
+ * </pre>
+ * Rows are read from an in-memory ResultSet of H2, so the cost of reading columns is the same for both mappers.
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+public class RowMapperBenchmark {
+
+    private static final int COLUMNS = 30;
+    private static final long WARMUP_MILLIS = 2000L;
+    private static final long MEASURE_MILLIS = 3000L;
+    private static final int ROUNDS = 3;
+
+    private static volatile Object sink;
+
+    @Test
+    public void benchmarkMapRow() throws Exception {
+        SimpleResultSet rs = new SimpleResultSet();
+        Object[] values = {
+            "value-1", "value-2", "value-3", "value-4", "value-5", "value-6", "value-7", "value-8", "value-9", "value-10",
+            11, 12, 13, 14, 15, 16, 17, 18, 19, 20,
+            21L, 22L, 23L, 24L, 25L, 26L, new BigDecimal("27.5"), new BigDecimal("28.5"), new BigDecimal("29.5"), new BigDecimal("30.5")
+        };
+        for (int i = 0; i < COLUMNS; i++) {
+            rs.addColumn("C" + (i + 1), values[i] instanceof String ? Types.VARCHAR
+                    : values[i] instanceof Integer ? Types.INTEGER
+                    : values[i] instanceof Long ? Types.BIGINT : Types.DECIMAL, 20, 2);
+        }
+        rs.addRow(values);
+        rs.next();
+        Map<Field, Integer> fieldIndexMap = new LinkedHashMap<>();
+        for (int i = 0; i < COLUMNS; i++) {
+            fieldIndexMap.put(WideEntity.class.getDeclaredField("c" + (i + 1)), i + 1);
+        }
+        DefaultJdbcExecutor.RowMapper<WideEntity> reflection = resultSet -> {
+            WideEntity record = WideEntity.class.newInstance();
+            for (Map.Entry<Field, Integer> entry : fieldIndexMap.entrySet()) {
+                Field field = entry.getKey();
+                field.setAccessible(true);
+                field.set(record, getValueByType(field.getType(), resultSet, entry.getValue()));
+            }
+            return record;
+        };
+        EntityRowMapper<WideEntity> methodHandle = EntityRowMapper.of(WideEntity.class, rs.getMetaData());
+        for (int i = 0; i < ROUNDS; i++) {
+            run("reflection", reflection, rs);
+            run("method-handle", methodHandle, rs);
+        }
+    }
+
+    private void run(String name, DefaultJdbcExecutor.RowMapper<WideEntity> mapper, ResultSet rs) throws Exception {
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.MILLISECONDS.toNanos(WARMUP_MILLIS);
+        long end = measureStart + TimeUnit.MILLISECONDS.toNanos(MEASURE_MILLIS);
+        long rows = 0;
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            for (int i = 0; i < 1000; i++) {
+                sink = mapper.map(rs);
+            }
+            if (now >= measureStart) {
+                rows += 1000;
+            }
+        }
+        System.out.printf("%-14s columns=%-3d throughput=%,12d rows/s%n", name, COLUMNS, rows * 1000L / MEASURE_MILLIS);
+    }
+
+    // the former per-row lookup of DefaultJdbcExecutor, for the types of WideEntity
+    private static Object getValueByType(Class<?> type, ResultSet rs, int rsIndex) throws SQLException {
+        if (type.isPrimitive()) {
+            if (type == Integer.TYPE) {
+                return rs.getInt(rsIndex);
+            } else if (type == Long.TYPE) {
+                return rs.getLong(rsIndex);
+            } else {
+                return rs.getObject(rsIndex);
+            }
+        } else if (Integer.class.isAssignableFrom(type)) {
+            return rs.getInt(rsIndex);
+        } else if (Long.class.isAssignableFrom(type)) {
+            return rs.getLong(rsIndex);
+        } else if (String.class.isAssignableFrom(type)) {
+            return rs.getString(rsIndex);
+        } else if (BigDecimal.class.isAssignableFrom(type)) {
+            return rs.getBigDecimal(rsIndex);
+        } else {
+            return rs.getObject(rsIndex);
+        }
+    }
+
+    public static class WideEntity {
+        private String c1;
+        private String c2;
+        private String c3;
+        private String c4;
+        private String c5;
+        private String c6;
+        private String c7;
+        private String c8;
+        private String c9;
+        private String c10;
+        private Integer c11;
+        private Integer c12;
+        private Integer c13;
+        private Integer c14;
+        private Integer c15;
+        private Integer c16;
+        private int c17;
+        private int c18;
+        private int c19;
+        private int c20;
+        private Long c21;
+        private Long c22;
+        private Long c23;
+        private Long c24;
+        private long c25;
+        private long c26;
+        private BigDecimal c27;
+        private BigDecimal c28;
+        private BigDecimal c29;
+        private BigDecimal c30;
+    }
+}
@@ -0,0 +1,521 @@
+package cn.icuter.jsql.pool;
+
+import cn.icuter.jsql.datasource.PoolConfiguration;
+import cn.icuter.jsql.exception.JSQLException;
+import cn.icuter.jsql.exception.PoolException;
+import cn.icuter.jsql.exception.PooledObjectCreationException;
+import cn.icuter.jsql.exception.PooledObjectPollTimeoutException;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author edward
+ * @since 2026-10-18
+ */
+public class ConcurrentObjectPoolTest {
+
+    private static PooledObjectManager<Object> manager;
+
+    @BeforeClass
+    public static void setup() {
+        manager = new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                return new PooledObject<>(new Object());
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+                // noop
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return pooledObject.getObject() != null;
+            }
+        };
+    }
+
+    @Test
+    public void testPoolStat() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, cfg);
+        Object[] borrowedObjects = new Object[cfg.getMaxPoolSize()];
+        for (int i = 0; i < borrowedObjects.length; i++) {
+            borrowedObjects[i] = pool.borrowObject();
+            assertNotNull(borrowedObjects[i]);
+        }
+        assertEquals(cfg.getMaxPoolSize(), pool.getPoolStats().getPoolSize());
+        assertEquals(borrowedObjects.length, pool.getPoolStats().getBorrowedCount());
+        for (Object borrowedObject : borrowedObjects) {
+            pool.returnObject(borrowedObject);
+        }
+        assertEquals(borrowedObjects.length, pool.getPoolStats().getReturnedCount());
+
+        pool.close();
+
+        assertEquals(cfg.getMaxPoolSize(), pool.getPoolStats().getInvalidCount());
+        assertEquals(0, pool.getPoolStats().getPoolSize());
+        assertTrue(pool.isPoolClosed());
+    }
+
+    @Test
+    public void testThreadAffinity() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, cfg)) {
+            Object first = pool.borrowObject();
+            Object second = pool.borrowObject();
+            pool.returnObject(first);
+            pool.returnObject(second);
+            // the latest returned object would be borrowed again by the same thread
+            assertSame(second, pool.borrowObject());
+            assertSame(first, pool.borrowObject());
+            assertEquals(2, pool.getPoolStats().getPoolSize());
+        }
+    }
+
+    @Test
+    public void testReturnPooledObject() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        AtomicReference<PooledObject<Object>> created = new AtomicReference<>();
+        PooledObjectManager<Object> trackingManager = new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                created.set(new PooledObject<>(new Object()));
+                return created.get();
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return true;
+            }
+        };
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(trackingManager, cfg)) {
+            Object obj = pool.borrowObject();
+            assertSame(obj, created.get().getObject());
+            assertTrue(created.get().isBorrowed());
+            pool.returnPooledObject(created.get());
+            assertFalse(created.get().isBorrowed());
+            assertEquals(1, pool.getPoolStats().getReturnedCount());
+        }
+    }
+
+    @Test
+    public void testTimeoutPooledObject() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setIdleTimeout(50L);
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, cfg)) {
+            Object[] borrowedObjects = new Object[cfg.getMaxPoolSize()];
+            for (int i = 0; i < borrowedObjects.length; i++) {
+                borrowedObjects[i] = pool.borrowObject();
+            }
+            Thread.sleep(cfg.getIdleTimeout() * 4);
+            // no idle objects remove, because all pooled objects has been borrowed
+            assertEquals(cfg.getMaxPoolSize(), pool.getPoolStats().getPoolSize());
+            for (Object borrowedObject : borrowedObjects) {
+                pool.returnObject(borrowedObject);
+            }
+            Thread.sleep(cfg.getIdleTimeout() * 4);
+            assertEquals(0, pool.getPoolStats().getPoolSize());
+        }
+    }
+
+    @Test
+    public void testMultiThread() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setPollTimeout(-1);
+        AtomicInteger borrowedCnt = new AtomicInteger();
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, cfg)) {
+            Thread[] threads = new Thread[80];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    for (int j = 0; j < 200; j++) {
+                        Object obj = null;
+                        try {
+                            obj = pool.borrowObject();
+                            borrowedCnt.incrementAndGet();
+                        } catch (Exception e) {
+                            Assume.assumeNoException(e);
+                        } finally {
+                            if (obj != null) {
+                                try {
+                                    pool.returnObject(obj);
+                                } catch (Exception e) {
+                                    Assume.assumeNoException(e);
+                                }
+                            }
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+            assertTrue(pool.getPoolStats().getPoolSize() <= cfg.getMaxPoolSize());
+            assertEquals(threads.length * 200, borrowedCnt.get());
+            assertEquals(borrowedCnt.get(), pool.getPoolStats().getReturnedCount());
+        }
+    }
+
+    @Test
+    public void testNoWait() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setPollTimeout(0);
+        cfg.setMaxPoolSize(1);
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, cfg)) {
+            Object obj = pool.borrowObject();
+            assertNull(pool.borrowObject());
+            pool.returnObject(obj);
+        }
+    }
+
+    @Test
+    public void testNoIdleTimeout() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setIdleTimeout(0);
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, cfg)) {
+            List<Object> objects = new LinkedList<>();
+            for (int i = 0; i < cfg.getMaxPoolSize(); i++) {
+                objects.add(pool.borrowObject());
+            }
+            for (Object object : objects) {
+                pool.returnObject(object);
+            }
+            assertEquals(0, pool.getPoolStats().getPoolSize());
+        }
+    }
+
+    @Test(expected = PooledObjectPollTimeoutException.class)
+    public void testBorrowObjectTimeout() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setPollTimeout(100L);
+        cfg.setMaxPoolSize(1);
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, cfg)) {
+            pool.borrowObject();
+            pool.borrowObject();
+        }
+    }
+
+    @Test
+    public void testReconfigure() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(3);
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, cfg)) {
+            Object first = pool.borrowObject();
+            Object second = pool.borrowObject();
+            pool.returnObject(pool.borrowObject());
+            pool.reconfigure(c -> c.setMaxPoolSize(1));
+            // idle one evicted at once, borrowed ones on returning
+            assertEquals(2, pool.getPoolStats().getPoolSize());
+            pool.returnObject(first);
+            assertEquals(1, pool.getPoolStats().getPoolSize());
+            pool.returnObject(second);
+            assertEquals(1, pool.getPoolStats().getPoolSize());
+            assertEquals(1, pool.getPoolConfiguration().getMaxPoolSize());
+        }
+    }
+
+    @Test
+    public void testBorrowObjectAsync() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setPollTimeout(-1);
+        cfg.setMaxPoolSize(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, cfg)) {
+            Object firstBorrow = pool.borrowObjectAsync(executor).get(5, TimeUnit.SECONDS);
+            CompletableFuture<Object> secondBorrow = pool.borrowObjectAsync(executor);
+            CompletableFuture<Object> cancelledBorrow = pool.borrowObjectAsync(executor);
+            // waiting without parking any thread
+            Thread.sleep(100L);
+            assertFalse(secondBorrow.isDone());
+            assertEquals(2, pool.getPoolStats().getPendingCount());
+            cancelledBorrow.cancel(false);
+            assertEquals(1, pool.getPoolStats().getPendingCount());
+
+            pool.returnObject(firstBorrow);
+            assertSame(firstBorrow, secondBorrow.get(5, TimeUnit.SECONDS));
+            assertEquals(0, pool.getPoolStats().getPendingCount());
+
+            CompletableFuture<Object> closedBorrow = pool.borrowObjectAsync(executor);
+            Thread.sleep(100L);
+            pool.close();
+            try {
+                closedBorrow.get(5, TimeUnit.SECONDS);
+                fail("borrowing from closed pool should fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof PoolException);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBorrowObjectAsyncTimeout() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setPollTimeout(100L);
+        cfg.setMaxPoolSize(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, cfg)) {
+            Object firstBorrow = pool.borrowObject();
+            try {
+                pool.borrowObjectAsync(executor).get(5, TimeUnit.SECONDS);
+                fail("borrowing should time out");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof PooledObjectPollTimeoutException);
+            }
+            assertEquals(0, pool.getPoolStats().getPendingCount());
+            assertEquals(1, pool.getPoolStats().getTimeoutCount());
+            pool.returnObject(firstBorrow);
+            assertSame(firstBorrow, pool.borrowObjectAsync(executor).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testReturnWhileCreating() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(2);
+        AtomicInteger createCount = new AtomicInteger();
+        PooledObjectManager<Object> slowManager = new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                if (createCount.incrementAndGet() > 1) {
+                    try {
+                        Thread.sleep(1000L);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return new PooledObject<>(new Object());
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+                // noop
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return true;
+            }
+        };
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(slowManager, cfg)) {
+            Object first = pool.borrowObject();
+            Thread creating = new Thread(() -> {
+                try {
+                    pool.returnObject(pool.borrowObject());
+                } catch (JSQLException e) {
+                    Assume.assumeNoException(e);
+                }
+            });
+            creating.start();
+            Thread.sleep(100L);
+            // the borrower creating object is not waiting for hand-off
+            long start = System.nanoTime();
+            pool.returnObject(first);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500L);
+            creating.join();
+        }
+    }
+
+    @Test
+    public void testReplaceRetiredForWaiter() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(1);
+        cfg.setMaxLifetime(300L);
+        cfg.setPollTimeout(5000L);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, cfg)) {
+            Object retiring = pool.borrowObject();
+            CompletableFuture<Object> waiting = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return pool.borrowObject();
+                } catch (JSQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, executor);
+            Thread.sleep(400L);
+            assertEquals(1, pool.getPoolStats().getPendingCount());
+
+            // the freed pool slot is filled for the waiting borrower, rather than after its poll timeout
+            long start = System.nanoTime();
+            pool.returnObject(retiring);
+            Object replaced = waiting.get(5, TimeUnit.SECONDS);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000L);
+            assertNotSame(retiring, replaced);
+            assertEquals(1, pool.getPoolStats().getRetiredCount());
+            pool.returnObject(replaced);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testReplaceRetiredBelowMinIdle() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(4);
+        cfg.setMinIdle(2);
+        cfg.setMaxLifetime(200L);
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, cfg)) {
+            Object first = pool.borrowObject();
+            Object second = pool.borrowObject();
+            pool.returnObject(first);
+            Thread.sleep(250L);
+            // retired on returning, and replaced without any borrower waiting
+            pool.returnObject(second);
+            // retired by sweeper as well
+            Thread.sleep(500L);
+            PoolStats.Snapshot snapshot = pool.getPoolStats().snapshot();
+            assertTrue(snapshot.getRetiredCount() >= 2);
+            assertTrue(snapshot.getCreatedCount() >= 4);
+            assertEquals(2, snapshot.getPoolSize());
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testReturnException() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, cfg)) {
+            pool.returnObject(new Object());
+        }
+    }
+
+    @Test
+    public void testCloseWithDrainTimeout() throws Exception {
+        ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, PoolConfiguration.defaultPoolCfg());
+        Object returning = pool.borrowObject();
+        Object leaked = pool.borrowObject();
+        Thread returner = new Thread(() -> {
+            try {
+                Thread.sleep(50L);
+                pool.returnObject(returning);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        returner.start();
+        long start = System.currentTimeMillis();
+        pool.close(Duration.ofMillis(300L));
+        long elapsed = System.currentTimeMillis() - start;
+        returner.join();
+        assertTrue(elapsed >= 300L && elapsed < 2000L);
+        assertEquals(0, pool.getPoolStats().getPoolSize());
+        assertEquals(2, pool.getPoolStats().getInvalidCount());
+        pool.returnObject(leaked);
+        assertEquals(2, pool.getPoolStats().getInvalidCount());
+    }
+
+    @Test
+    public void testCircuitBreakerProbeError() throws Exception {
+        AtomicInteger createCount = new AtomicInteger();
+        PooledObjectManager<Object> outageManager = new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                int count = createCount.incrementAndGet();
+                if (count == 1) {
+                    throw new PooledObjectCreationException("create error");
+                } else if (count == 2) {
+                    throw new Error("probe error");
+                }
+                return new PooledObject<>(new Object());
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return true;
+            }
+        };
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setCircuitBreakerThreshold(1);
+        cfg.setCircuitBreakerCoolDown(100L);
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(outageManager, cfg)) {
+            try {
+                pool.borrowObject();
+                fail("creating pool object should fail");
+            } catch (PooledObjectCreationException e) {
+                // expected
+            }
+            assertEquals("OPEN", pool.getPoolStats().getCircuitBreakerState());
+
+            // probe error opens circuit breaker again, rather than leaves it half open
+            Thread.sleep(150L);
+            try {
+                pool.borrowObject();
+                fail("probing should fail");
+            } catch (Error e) {
+                assertEquals("probe error", e.getMessage());
+            }
+            assertEquals("OPEN", pool.getPoolStats().getCircuitBreakerState());
+
+            Thread.sleep(150L);
+            pool.returnObject(pool.borrowObject());
+            assertEquals("CLOSED", pool.getPoolStats().getCircuitBreakerState());
+            assertEquals(3, createCount.get());
+        }
+    }
+
+    @Test
+    public void testCreateRetryBackoff() throws Exception {
+        AtomicInteger createCount = new AtomicInteger();
+        PooledObjectManager<Object> errorManager = new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                createCount.incrementAndGet();
+                throw new PooledObjectCreationException("create error");
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return true;
+            }
+        };
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setCreateRetryCount(3);
+        cfg.setCreateRetryBackoff(40L);
+        cfg.setCreateRetryMaxBackoff(80L);
+        cfg.setCircuitBreakerThreshold(0);
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(errorManager, cfg)) {
+            long start = System.nanoTime();
+            try {
+                pool.borrowObject();
+                fail("creating pool object should fail");
+            } catch (PooledObjectCreationException e) {
+                // expected
+            }
+            // backoff 40ms, 80ms, 80ms (max) in jitter of half
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= (40L + 80L + 80L) / 2);
+            assertEquals(4, createCount.get());
+            assertEquals("CLOSED", pool.getPoolStats().getCircuitBreakerState());
+        }
+        for (int i = 0; i < 100; i++) {
+            long backoffNanos = CreationCircuitBreaker.backoffNanos(cfg, 1);
+            assertTrue(backoffNanos >= TimeUnit.MILLISECONDS.toNanos(40L) && backoffNanos <= TimeUnit.MILLISECONDS.toNanos(80L));
+        }
+    }
+}
@@ -1,20 +1,42 @@
 package cn.icuter.jsql.pool;
 
 import cn.icuter.jsql.datasource.PoolConfiguration;
+import cn.icuter.jsql.exception.CircuitBreakerOpenException;
 import cn.icuter.jsql.exception.JSQLException;
+import cn.icuter.jsql.exception.PoolException;
+import cn.icuter.jsql.exception.PooledObjectCreationException;
 import cn.icuter.jsql.exception.PooledObjectPollTimeoutException;
 import org.junit.AfterClass;
 import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author edward
@@ -46,27 +68,27 @@ public class DefaultObjectPoolTest {
     public void testPoolStat() throws Exception {
         PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
         DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg);
-        DefaultObjectPool.PoolStats poolStats = pool.getPoolStats();
+        PoolStats poolStats = pool.getPoolStats();
         Object[] borrowedObjects = new Object[cfg.getMaxPoolSize()];
         for (int i = 0; i < borrowedObjects.length; i++) {
             Object obj = pool.borrowObject();
             borrowedObjects[i] = obj;
             assertNotNull(obj);
         }
-        assertEquals(poolStats.poolSize, cfg.getMaxPoolSize());
-        assertEquals(poolStats.borrowedCnt, borrowedObjects.length);
-        assertEquals(poolStats.returnedCnt, 0);
-        assertEquals(poolStats.lastAccessTime, System.currentTimeMillis(), 1000L);
-        assertEquals(poolStats.invalidCnt, 0);
+        assertEquals(poolStats.getPoolSize(), cfg.getMaxPoolSize());
+        assertEquals(poolStats.getBorrowedCount(), borrowedObjects.length);
+        assertEquals(poolStats.getReturnedCount(), 0);
+        assertEquals(poolStats.getLastAccessTime(), System.currentTimeMillis(), 1000L);
+        assertEquals(poolStats.getInvalidCount(), 0);
 
         for (Object borrowedObject : borrowedObjects) {
             pool.returnObject(borrowedObject);
         }
-        assertEquals(poolStats.returnedCnt, borrowedObjects.length);
+        assertEquals(poolStats.getReturnedCount(), borrowedObjects.length);
 
         pool.close();
 
-        assertEquals(poolStats.invalidCnt, cfg.getMaxPoolSize());
+        assertEquals(poolStats.getInvalidCount(), cfg.getMaxPoolSize());
         assertTrue(pool.isPoolEmpty());
         assertTrue(pool.isPoolClosed());
     }
@@ -102,11 +124,11 @@ public class DefaultObjectPoolTest {
                 Object obj = pool.borrowObject();
                 borrowedObjects[i] = obj;
             }
-            assertEquals(pool.getPoolStats().poolSize, cfg.getMaxPoolSize());
+            assertEquals(pool.getPoolStats().getPoolSize(), cfg.getMaxPoolSize());
             // let pool maintainer try to purge idle object
             Thread.sleep(cfg.getIdleTimeout() * borrowedObjects.length);
             // no idle objects remove, because all pooled objects has been borrowed
-            assertEquals(pool.getPoolStats().poolSize, cfg.getMaxPoolSize());
+            assertEquals(pool.getPoolStats().getPoolSize(), cfg.getMaxPoolSize());
             for (Object borrowedObject : borrowedObjects) {
                 pool.returnObject(borrowedObject);
             }
@@ -122,17 +144,17 @@ public class DefaultObjectPoolTest {
                 Object obj = pool.borrowObject();
                 borrowedObjects[i] = obj;
             }
-            assertEquals(pool.getPoolStats().poolSize, cfg.getMaxPoolSize());
+            assertEquals(pool.getPoolStats().getPoolSize(), cfg.getMaxPoolSize());
             // let pool maintainer try to purge idle object
             Thread.sleep(50 * borrowedObjects.length);
             // no idle objects remove, because all pooled objects has been borrowed
-            assertEquals(pool.getPoolStats().poolSize, cfg.getMaxPoolSize());
+            assertEquals(pool.getPoolStats().getPoolSize(), cfg.getMaxPoolSize());
             for (Object borrowedObject : borrowedObjects) {
                 pool.returnObject(borrowedObject);
             }
             // let pool maintainer try to purge idle object again
             Thread.sleep(50 * borrowedObjects.length);
-            assertEquals(pool.getPoolStats().poolSize, cfg.getMaxPoolSize());
+            assertEquals(pool.getPoolStats().getPoolSize(), cfg.getMaxPoolSize());
         }
     }
 
@@ -165,7 +187,7 @@ public class DefaultObjectPoolTest {
             for (Thread t : threads) {
                 t.join();
             }
-            assertTrue(pool.getPoolStats().poolSize <= cfg.getMaxPoolSize());
+            assertTrue(pool.getPoolStats().getPoolSize() <= cfg.getMaxPoolSize());
 
             // sleep enough time for schedule service run out
             Thread.sleep(1150L);
@@ -182,13 +204,13 @@ public class DefaultObjectPoolTest {
             for (int i = 0; i < cfg.getMaxPoolSize(); i++) {
                 pooledObjectList.add(pool.borrowObject());
             }
-            assertEquals(cfg.getMaxPoolSize(), pool.getPoolStats().poolSize);
-            assertEquals(cfg.getMaxPoolSize(), pool.getPoolStats().createdCnt);
-            assertEquals(cfg.getMaxPoolSize(), pool.getPoolStats().borrowedCnt);
+            assertEquals(cfg.getMaxPoolSize(), pool.getPoolStats().getPoolSize());
+            assertEquals(cfg.getMaxPoolSize(), pool.getPoolStats().getCreatedCount());
+            assertEquals(cfg.getMaxPoolSize(), pool.getPoolStats().getBorrowedCount());
             for (Object obj : pooledObjectList) {
                 pool.returnObject(obj);
             }
-            assertEquals(cfg.getMaxPoolSize(), pool.getPoolStats().returnedCnt);
+            assertEquals(cfg.getMaxPoolSize(), pool.getPoolStats().getReturnedCount());
         }
     }
 
@@ -275,6 +297,116 @@ public class DefaultObjectPoolTest {
         }
     }
 
+    @Test
+    public void testBorrowObjectAsync() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setPollTimeout(-1);
+        cfg.setMaxPoolSize(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg)) {
+            Object firstBorrow = pool.borrowObjectAsync(executor).get(5, TimeUnit.SECONDS);
+            CompletableFuture<Object> secondBorrow = pool.borrowObjectAsync(executor);
+            CompletableFuture<Object> cancelledBorrow = pool.borrowObjectAsync(executor);
+            // waiting without parking any thread
+            Thread.sleep(100L);
+            assertFalse(secondBorrow.isDone());
+            assertEquals(2, pool.getWaitingCount());
+            cancelledBorrow.cancel(false);
+            assertEquals(1, pool.getWaitingCount());
+
+            pool.returnObject(firstBorrow);
+            assertTrue(firstBorrow == secondBorrow.get(5, TimeUnit.SECONDS));
+            assertEquals(0, pool.getWaitingCount());
+
+            CompletableFuture<Object> closedBorrow = pool.borrowObjectAsync(executor);
+            Thread.sleep(100L);
+            pool.close();
+            try {
+                closedBorrow.get(5, TimeUnit.SECONDS);
+                fail("borrowing from closed pool should fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof PoolException);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBorrowObjectAsyncTimeout() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setPollTimeout(100L);
+        cfg.setMaxPoolSize(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg)) {
+            Object firstBorrow = pool.borrowObject();
+            try {
+                pool.borrowObjectAsync(executor).get(5, TimeUnit.SECONDS);
+                fail("borrowing should time out");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof PooledObjectPollTimeoutException);
+            }
+            assertEquals(0, pool.getWaitingCount());
+            assertEquals(1, pool.getPoolStats().getTimeoutCount());
+            // object handed off is still available after timeout
+            pool.returnObject(firstBorrow);
+            assertTrue(firstBorrow == pool.borrowObjectAsync(executor).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBorrowObjectAsyncBorrowerLimit() throws Exception {
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch created = new CountDownLatch(1);
+        PooledObjectManager<Object> blockingManager = new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                creating.countDown();
+                try {
+                    created.await();
+                } catch (InterruptedException e) {
+                    throw new PoolException("creating interrupted", e);
+                }
+                return new PooledObject<>(new Object());
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+                // noop
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return true;
+            }
+        };
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        // never wait, so that borrowing and creating run in borrower thread
+        cfg.setPollTimeout(0);
+        cfg.setAsyncBorrowerThreads(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(blockingManager, cfg)) {
+            CompletableFuture<Object> firstBorrow = pool.borrowObjectAsync(executor);
+            assertTrue(creating.await(5, TimeUnit.SECONDS));
+            // fails at once rather than starting another borrower thread
+            CompletableFuture<Object> rejectedBorrow = pool.borrowObjectAsync(executor);
+            try {
+                rejectedBorrow.get(1, TimeUnit.SECONDS);
+                fail("borrowing should be rejected while borrower threads are all busy");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+            created.countDown();
+            Object borrowed = firstBorrow.get(5, TimeUnit.SECONDS);
+            assertNotNull(borrowed);
+            pool.returnObject(borrowed);
+            // borrower thread is released after borrowing
+            assertTrue(borrowed == pool.borrowObjectAsync(executor).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test(expected = NullPointerException.class)
     public void testReturnException() throws Exception {
         PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
@@ -283,8 +415,661 @@ public class DefaultObjectPoolTest {
         }
     }
 
+    @Test
+    public void testFifoHandoff() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setPollTimeout(-1);
+        cfg.setMaxPoolSize(1);
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg)) {
+            Object obj = pool.borrowObject();
+            List<Integer> borrowedOrder = Collections.synchronizedList(new LinkedList<>());
+            Thread[] threads = new Thread[3];
+            for (int i = 0; i < threads.length; i++) {
+                final int index = i;
+                threads[i] = new Thread(() -> {
+                    try {
+                        Object handedOff = pool.borrowObject();
+                        borrowedOrder.add(index);
+                        pool.returnObject(handedOff);
+                    } catch (JSQLException e) {
+                        Assume.assumeNoException(e);
+                    }
+                });
+                threads[i].start();
+                // make sure waiters were parked in order
+                while (pool.getWaitingCount() < i + 1) {
+                    Thread.sleep(5L);
+                }
+            }
+            pool.returnObject(obj);
+            for (Thread t : threads) {
+                t.join();
+            }
+            assertEquals(Arrays.asList(0, 1, 2), borrowedOrder);
+            assertEquals(0, pool.getWaitingCount());
+            assertEquals(1, pool.getPoolStats().getPoolSize());
+        }
+    }
+
+    @Test
+    public void testCloseWakeUpWaiter() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setPollTimeout(-1);
+        cfg.setMaxPoolSize(1);
+        DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg);
+        pool.borrowObject();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                pool.borrowObject();
+            } catch (JSQLException e) {
+                error.set(e);
+            }
+        });
+        waiter.start();
+        while (pool.getWaitingCount() < 1) {
+            Thread.sleep(5L);
+        }
+        pool.close();
+        waiter.join(1000L);
+        assertTrue(error.get() instanceof PoolException);
+    }
+
+    @Test
+    public void testMinIdle() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMinIdle(5);
+        cfg.setIdleTimeout(0);
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg)) {
+            // prefill in background
+            waitForPoolSize(pool, cfg.getMinIdle());
+            assertEquals(cfg.getMinIdle(), pool.getPoolStats().getCreatedCount());
+
+            List<Object> objects = new LinkedList<>();
+            for (int i = 0; i < cfg.getMinIdle(); i++) {
+                objects.add(pool.borrowObject());
+            }
+            assertEquals(cfg.getMinIdle(), pool.getPoolStats().getCreatedCount());
+
+            // always idle timeout, returned objects will be invalidated and replenished
+            for (Object object : objects) {
+                pool.returnObject(object);
+            }
+            assertEquals(cfg.getMinIdle(), pool.getPoolStats().getInvalidCount());
+            waitForPoolSize(pool, cfg.getMinIdle());
+            assertEquals(cfg.getMinIdle() * 2, pool.getPoolStats().getCreatedCount());
+        }
+    }
+
+    @Test
+    public void testIdleTimeoutAboveMinIdle() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMinIdle(2);
+        cfg.setIdleTimeout(50L);
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg)) {
+            waitForPoolSize(pool, cfg.getMinIdle());
+            List<Object> objects = new LinkedList<>();
+            for (int i = 0; i < 4; i++) {
+                objects.add(pool.borrowObject());
+            }
+            for (Object object : objects) {
+                pool.returnObject(object);
+            }
+            // idle objects above min idle are evicted
+            waitForPoolSize(pool, cfg.getMinIdle());
+            long createdCount = pool.getPoolStats().getCreatedCount();
+            long invalidCount = pool.getPoolStats().getInvalidCount();
+            assertEquals(2, invalidCount);
+
+            // neither evicted nor created again at min idle across sweeps
+            long sweepCount = pool.getPoolStats().getSweepCount();
+            Thread.sleep(300L);
+            assertTrue(pool.getPoolStats().getSweepCount() >= sweepCount + 3);
+            assertEquals(createdCount, pool.getPoolStats().getCreatedCount());
+            assertEquals(invalidCount, pool.getPoolStats().getInvalidCount());
+            assertEquals(cfg.getMinIdle(), pool.getPoolStats().getPoolSize());
+        }
+    }
+
+    @Test
+    public void testCreateInParallel() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(4);
+        cfg.setCreateParallelism(4);
+        PooledObjectManager<Object> slowManager = new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                try {
+                    Thread.sleep(300L);
+                } catch (InterruptedException e) {
+                    throw new PooledObjectCreationException(e);
+                }
+                return new PooledObject<>(new Object());
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return true;
+            }
+        };
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(slowManager, cfg)) {
+            Thread[] threads = new Thread[cfg.getMaxPoolSize()];
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    try {
+                        assertNotNull(pool.borrowObject());
+                    } catch (JSQLException e) {
+                        Assume.assumeNoException(e);
+                    }
+                });
+                threads[i].start();
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+            // ramp up in parallel rather than one by one
+            assertTrue(System.currentTimeMillis() - start < 300L * threads.length);
+            assertEquals(cfg.getMaxPoolSize(), pool.getPoolStats().getPoolSize());
+        }
+    }
+
+    @Test(expected = PooledObjectCreationException.class)
+    public void testCreateError() throws Exception {
+        PooledObjectManager<Object> errorManager = new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                throw new PooledObjectCreationException("create error");
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return true;
+            }
+        };
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(errorManager, PoolConfiguration.defaultPoolCfg())) {
+            pool.borrowObject();
+        }
+    }
+
+    @Test
+    public void testMaxEvictionsPerRun() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setIdleTimeout(100L);
+        cfg.setMaxEvictionsPerRun(2);
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg)) {
+            List<Object> objects = new LinkedList<>();
+            for (int i = 0; i < 6; i++) {
+                objects.add(pool.borrowObject());
+            }
+            for (Object object : objects) {
+                pool.returnObject(object);
+            }
+            waitForPoolSize(pool, 0);
+            PoolStats poolStats = pool.getPoolStats();
+            // sweeping is recorded after the evicted objects were invalidated
+            for (int i = 0; i < 200 && poolStats.getSweepEvictedCount() < 6; i++) {
+                Thread.sleep(5L);
+            }
+            assertEquals(6, poolStats.getSweepEvictedCount());
+            // at most 2 objects evicted in each sweeping
+            assertTrue(poolStats.getSweepCount() >= 3);
+        }
+    }
+
+    @Test
+    public void testValidationSkipWindow() throws Exception {
+        AtomicInteger validateCnt = new AtomicInteger();
+        PooledObjectManager<Object> countingManager = new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                return new PooledObject<>(new Object());
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                validateCnt.incrementAndGet();
+                return true;
+            }
+        };
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setValidationSkipWindow(60000L);
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(countingManager, cfg)) {
+            pool.returnObject(pool.borrowObject());
+            // returned just now, skip validation
+            pool.returnObject(pool.borrowObject());
+            assertEquals(0, validateCnt.get());
+        }
+        cfg.setValidationSkipWindow(0);
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(countingManager, cfg)) {
+            pool.returnObject(pool.borrowObject());
+            pool.returnObject(pool.borrowObject());
+            assertEquals(1, validateCnt.get());
+        }
+    }
+
+    @Test
+    public void testIdleValidation() throws Exception {
+        Set<Object> brokenObjects = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        PooledObjectManager<Object> brokenManager = new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                return new PooledObject<>(new Object());
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return !brokenObjects.contains(pooledObject.getObject());
+            }
+        };
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setIdleValidationInterval(20L);
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(brokenManager, cfg)) {
+            Object broken = pool.borrowObject();
+            Object healthy = pool.borrowObject();
+            pool.returnObject(broken);
+            pool.returnObject(healthy);
+            brokenObjects.add(broken);
+
+            waitForPoolSize(pool, 1);
+            assertEquals(1, pool.getPoolStats().getInvalidCount());
+            // healthy one is still idle in pool
+            assertEquals(healthy, pool.borrowObject());
+        }
+    }
+
+    @Test
+    public void testMaxLifetime() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxLifetime(100L);
+        cfg.setMaxLifetimeJitter(20L);
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg)) {
+            List<Object> objects = new LinkedList<>();
+            for (int i = 0; i < 3; i++) {
+                objects.add(pool.borrowObject());
+            }
+            // never retire while borrowed
+            Thread.sleep(cfg.getMaxLifetime() * 2);
+            assertEquals(3, pool.getPoolStats().getPoolSize());
+            assertEquals(0, pool.getPoolStats().getRetiredCount());
+
+            // retired on returning and replaced proactively
+            for (Object object : objects) {
+                pool.returnObject(object);
+            }
+            assertEquals(3, pool.getPoolStats().getRetiredCount());
+            waitForPoolSize(pool, 3);
+            assertEquals(6, pool.getPoolStats().getCreatedCount());
+            for (Object object : objects) {
+                assertNotSame(object, pool.borrowObject());
+            }
+        }
+    }
+
+    @Test
+    public void testMaxLifetimeSweep() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setIdleTimeout(-1);
+        cfg.setMaxLifetime(100L);
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg)) {
+            pool.returnObject(pool.borrowObject());
+            pool.returnObject(pool.borrowObject());
+            // idle object retired by sweeper
+            for (int i = 0; i < 100 && pool.getPoolStats().getRetiredCount() < 1; i++) {
+                Thread.sleep(10L);
+            }
+            assertEquals(1, pool.getPoolStats().getRetiredCount());
+            waitForPoolSize(pool, 1);
+        }
+    }
+
+    @Test
+    public void testRetireTimeJitter() {
+        PooledObject<Object> pooledObject = new PooledObject<>(new Object());
+        pooledObject.initRetireTime(1000L, 100L);
+        long lifetime = pooledObject.getRetireTime() - pooledObject.getCreateTime();
+        assertTrue(lifetime >= 900L && lifetime <= 1000L);
+        assertFalse(pooledObject.isRetired(pooledObject.getCreateTime()));
+        assertTrue(pooledObject.isRetired(pooledObject.getCreateTime() + 1000L));
+
+        pooledObject = new PooledObject<>(new Object());
+        pooledObject.initRetireTime(0L, 100L);
+        assertFalse(pooledObject.isRetired(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testLeakDetection() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setLeakDetectionThreshold(50L);
+        cfg.setLeakTraceSampling(1);
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg)) {
+            Object leaked = pool.borrowObject();
+            pool.returnObject(pool.borrowObject());
+            for (int i = 0; i < 100 && pool.getPoolStats().getLeakedCount() < 1; i++) {
+                Thread.sleep(10L);
+            }
+            assertEquals(1, pool.getPoolStats().getLeakedCount());
+            assertEquals(0, pool.getPoolStats().getReclaimedCount());
+            // report only once
+            Thread.sleep(cfg.getLeakDetectionThreshold() * 2);
+            assertEquals(1, pool.getPoolStats().getLeakedCount());
+            pool.returnObject(leaked);
+        }
+    }
+
+    @Test
+    public void testLeakReclaim() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(1);
+        cfg.setLeakDetectionThreshold(50L);
+        cfg.setLeakReclaim(true);
+        AtomicReference<PooledObject<Object>> created = new AtomicReference<>();
+        PooledObjectManager<Object> trackingManager = new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                created.set(new PooledObject<>(new Object()));
+                return created.get();
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return true;
+            }
+        };
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(trackingManager, cfg)) {
+            Object leaked = pool.borrowObject();
+            PooledObject<Object> leakedPooledObject = created.get();
+            // leaked object reclaimed, pool slot is available again
+            Object another = pool.borrowObject();
+            assertNotSame(leaked, another);
+            assertEquals(1, pool.getPoolStats().getReclaimedCount());
+            assertFalse(leakedPooledObject.isValid());
+            // returning reclaimed object is ignored
+            pool.returnPooledObject(leakedPooledObject);
+            pool.returnObject(another);
+        }
+    }
+
+    @Test
+    public void testReconfigure() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setPollTimeout(-1);
+        cfg.setMaxPoolSize(2);
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg)) {
+            Object first = pool.borrowObject();
+            Object second = pool.borrowObject();
+            AtomicReference<Object> waited = new AtomicReference<>();
+            Thread waiter = new Thread(() -> {
+                try {
+                    waited.set(pool.borrowObject());
+                } catch (JSQLException e) {
+                    Assume.assumeNoException(e);
+                }
+            });
+            waiter.start();
+            while (pool.getWaitingCount() < 1) {
+                Thread.sleep(5L);
+            }
+            // growing serves the waiter at once
+            pool.reconfigure(c -> c.setMaxPoolSize(4));
+            waiter.join(1000L);
+            assertNotNull(waited.get());
+            assertEquals(4, pool.getPoolConfiguration().getMaxPoolSize());
+            assertEquals(3, pool.getPoolStats().getPoolSize());
+
+            // shrinking invalidates borrowed objects on returning
+            pool.reconfigure(c -> c.setMaxPoolSize(1));
+            assertEquals(1, pool.getPoolStats().getTargetPoolSize());
+            pool.returnObject(first);
+            pool.returnObject(second);
+            assertEquals(1, pool.getPoolStats().getPoolSize());
+            pool.returnObject(waited.get());
+            assertEquals(1, pool.getPoolStats().getIdleCount());
+
+            try {
+                pool.reconfigure(c -> c.setPoolType(PoolConfiguration.PoolType.CONCURRENT));
+                fail("pool type should not be changed at runtime");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+            try {
+                pool.reconfigure(c -> c.setMinIdle(2));
+                fail("min idle should not be greater than max pool size");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+            assertEquals(1, pool.getPoolConfiguration().getMaxPoolSize());
+        }
+    }
+
+    @Test
+    public void testAdaptiveSizing() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(4);
+        cfg.setPollTimeout(20L);
+        cfg.setAdaptiveSizingInterval(20L);
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg)) {
+            pool.returnObject(pool.borrowObject());
+            // shrink to the floor while pool is idle
+            for (int i = 0; i < 200 && pool.getPoolStats().getTargetPoolSize() > 1; i++) {
+                Thread.sleep(5L);
+            }
+            assertEquals(1, pool.getPoolStats().getTargetPoolSize());
+            assertEquals(1, pool.getPoolStats().getPoolSize());
+
+            // grow after borrowers timed out on the saturated pool
+            Object obj = pool.borrowObject();
+            try {
+                pool.borrowObject();
+                fail("borrowing from saturated pool should time out");
+            } catch (PooledObjectPollTimeoutException e) {
+                // expected
+            }
+            for (int i = 0; i < 200 && pool.getPoolStats().getTargetPoolSize() < 2; i++) {
+                Thread.sleep(5L);
+            }
+            assertTrue(pool.getPoolStats().getTargetPoolSize() >= 2);
+            pool.returnObject(pool.borrowObject());
+            pool.returnObject(obj);
+        }
+    }
+
+    @Test
+    public void testCloseWithDrainTimeout() throws Exception {
+        DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, PoolConfiguration.defaultPoolCfg());
+        Object returning = pool.borrowObject();
+        Object leaked = pool.borrowObject();
+        pool.returnObject(pool.borrowObject());
+        Thread returner = new Thread(() -> {
+            try {
+                Thread.sleep(50L);
+                pool.returnObject(returning);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        returner.start();
+        long start = System.currentTimeMillis();
+        pool.close(Duration.ofMillis(300L));
+        long elapsed = System.currentTimeMillis() - start;
+        returner.join();
+        assertTrue(elapsed >= 300L && elapsed < 2000L);
+        assertEquals(0, pool.getPoolStats().getPoolSize());
+        assertEquals(3, pool.getPoolStats().getInvalidCount());
+        try {
+            pool.borrowObject();
+            fail("borrowing from closed pool should fail");
+        } catch (PoolException e) {
+            // expected
+        }
+        // returning the forcibly invalidated object is ignored
+        pool.returnObject(leaked);
+        assertEquals(3, pool.getPoolStats().getInvalidCount());
+    }
+
+    @Test
+    public void testCloseWithoutBorrowedObjects() throws Exception {
+        DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, PoolConfiguration.defaultPoolCfg());
+        pool.returnObject(pool.borrowObject());
+        long start = System.currentTimeMillis();
+        pool.close(Duration.ofSeconds(10L));
+        assertTrue(System.currentTimeMillis() - start < 1000L);
+        assertEquals(1, pool.getPoolStats().getInvalidCount());
+    }
+
+    @Test
+    public void testCleanUnreachablePool() throws Exception {
+        AtomicInteger released = new AtomicInteger();
+        PooledObjectManager<Object> cleanableManager = new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                return new PooledObject<>(new Object());
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return true;
+            }
+            @Override
+            public Runnable cleanAction(PooledObject<Object> pooledObject) {
+                return released::incrementAndGet;
+            }
+        };
+        createAbandonedPool(cleanableManager);
+        for (int i = 0; i < 100 && released.get() < 2; i++) {
+            System.gc();
+            Thread.sleep(20L);
+        }
+        Assume.assumeTrue("GC did not collect the abandoned pool", released.get() > 0);
+        assertEquals(2, released.get());
+    }
+
+    private void createAbandonedPool(PooledObjectManager<Object> manager) throws JSQLException {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setLeakDetectionThreshold(60000L);
+        DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg);
+        Object first = pool.borrowObject();
+        pool.borrowObject();
+        pool.returnObject(first);
+    }
+
+    private void waitForPoolSize(DefaultObjectPool<Object> pool, int poolSize) throws InterruptedException {
+        for (int i = 0; i < 200 && pool.getPoolStats().getPoolSize() != poolSize; i++) {
+            Thread.sleep(5L);
+        }
+        assertEquals(poolSize, pool.getPoolStats().getPoolSize());
+    }
+
     @AfterClass
     public static void teardown() throws Exception {
     }
 
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        AtomicBoolean available = new AtomicBoolean(false);
+        AtomicBoolean error = new AtomicBoolean(false);
+        AtomicInteger createCount = new AtomicInteger();
+        PooledObjectManager<Object> outageManager = new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                createCount.incrementAndGet();
+                if (error.get()) {
+                    throw new Error("probe error");
+                }
+                if (!available.get()) {
+                    throw new PooledObjectCreationException("create error");
+                }
+                return new PooledObject<>(new Object());
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return true;
+            }
+        };
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setCircuitBreakerThreshold(2);
+        cfg.setCircuitBreakerCoolDown(200L);
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(outageManager, cfg)) {
+            for (int i = 0; i < 2; i++) {
+                try {
+                    pool.borrowObject();
+                    fail("creating pool object should fail");
+                } catch (PooledObjectCreationException e) {
+                    assertFalse(e instanceof CircuitBreakerOpenException);
+                }
+            }
+            assertEquals("OPEN", pool.getPoolStats().getCircuitBreakerState());
+
+            // fail fast without creating, rather than wait for poll timeout
+            long start = System.currentTimeMillis();
+            try {
+                pool.borrowObject();
+                fail("borrowing should be rejected while circuit breaker is open");
+            } catch (CircuitBreakerOpenException e) {
+                // expected
+            }
+            assertTrue(System.currentTimeMillis() - start < cfg.getPollTimeout());
+            assertEquals(2, createCount.get());
+
+            // probe fail, then open again
+            Thread.sleep(250L);
+            try {
+                pool.borrowObject();
+                fail("probing should fail");
+            } catch (PooledObjectCreationException e) {
+                assertFalse(e instanceof CircuitBreakerOpenException);
+            }
+            assertEquals(3, createCount.get());
+            assertEquals("OPEN", pool.getPoolStats().getCircuitBreakerState());
+
+            // error thrown by creator fails the waiting borrower rather than leaves it waiting until timeout
+            error.set(true);
+            Thread.sleep(250L);
+            start = System.currentTimeMillis();
+            List<Throwable> uncaughtErrors = new CopyOnWriteArrayList<>();
+            Thread.UncaughtExceptionHandler uncaughtHandler = Thread.getDefaultUncaughtExceptionHandler();
+            Thread.setDefaultUncaughtExceptionHandler((t, e) -> uncaughtErrors.add(e));
+            try {
+                pool.borrowObject();
+                fail("probing should fail");
+            } catch (PooledObjectCreationException e) {
+                assertEquals("probe error", e.getCause().getMessage());
+            } finally {
+                Thread.sleep(50L);
+                Thread.setDefaultUncaughtExceptionHandler(uncaughtHandler);
+            }
+            assertTrue(System.currentTimeMillis() - start < cfg.getPollTimeout());
+            // error is never rethrown in creator thread
+            assertTrue(uncaughtErrors.isEmpty());
+            assertEquals(4, createCount.get());
+            assertEquals("OPEN", pool.getPoolStats().getCircuitBreakerState());
+
+            error.set(false);
+            available.set(true);
+            Thread.sleep(250L);
+            // creator is still usable
+            pool.returnObject(pool.borrowObject());
+            PoolStats.Snapshot snapshot = pool.getPoolStats().snapshot();
+            assertEquals("CLOSED", snapshot.getCircuitBreakerState());
+            assertEquals(3, snapshot.getCircuitBreakerOpenedCount());
+            assertEquals(1, snapshot.getCircuitBreakerClosedCount());
+            assertEquals(1, snapshot.getCircuitBreakerRejectedCount());
+        }
+    }
 }
@@ -0,0 +1,363 @@
+package cn.icuter.jsql.pool;
+
+import cn.icuter.jsql.datasource.PoolConfiguration;
+import cn.icuter.jsql.exception.JSQLException;
+import cn.icuter.jsql.exception.PoolException;
+import cn.icuter.jsql.exception.PooledObjectPollTimeoutException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author edward
+ * @since 2026-10-18
+ */
+public class KeyedObjectPoolTest {
+
+    private final Set<Object> invalidObjects = ConcurrentHashMap.newKeySet();
+    private final Set<Object> brokenObjects = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void setup() {
+        invalidObjects.clear();
+        brokenObjects.clear();
+    }
+
+    private PooledObjectManager<Object> newManager(String key) {
+        return new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                return new PooledObject<>(key + "-" + System.nanoTime());
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+                invalidObjects.add(pooledObject.getObject());
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return !brokenObjects.contains(pooledObject.getObject());
+            }
+        };
+    }
+
+    @Test
+    public void testBorrowByKey() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(2);
+        cfg.setPollTimeout(50L);
+        try (KeyedObjectPool<String, Object> pool = new KeyedObjectPool<>(this::newManager, cfg)) {
+            Object a1 = pool.borrowObject("a");
+            Object a2 = pool.borrowObject("a");
+            assertTrue(((String) a1).startsWith("a-"));
+            try {
+                pool.borrowObject("a");
+                fail("borrowing from exhausted key should time out");
+            } catch (PooledObjectPollTimeoutException e) {
+                // expected
+            }
+            // other keys are not affected
+            Object b1 = pool.borrowObject("b");
+            assertTrue(((String) b1).startsWith("b-"));
+            assertEquals(2, pool.getKeyCount());
+            assertEquals(3, pool.getPoolStats().getPoolSize());
+
+            pool.returnObject(a1);
+            pool.returnObject(a2);
+            // the most recently returned is reused first
+            assertSame(a2, pool.borrowObject("a"));
+            assertEquals(1, pool.getIdleCount("a"));
+
+            ObjectPool<Object> view = pool.getObjectPool("b");
+            view.returnObject(b1);
+            assertSame(b1, view.borrowObject());
+        }
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsedOfOtherKeys() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(2);
+        cfg.setMaxTotalPoolSize(3);
+        try (KeyedObjectPool<String, Object> pool = new KeyedObjectPool<>(this::newManager, cfg)) {
+            Object a1 = pool.borrowObject("a");
+            Object a2 = pool.borrowObject("a");
+            Object b1 = pool.borrowObject("b");
+            pool.returnObject(a1);
+            Thread.sleep(5L);
+            pool.returnObject(a2);
+            Thread.sleep(5L);
+            pool.returnObject(b1);
+
+            Object c1 = pool.borrowObject("c");
+            assertNotNull(c1);
+            assertEquals(1, invalidObjects.size());
+            assertTrue(invalidObjects.contains(a1));
+            assertEquals(1, pool.getPoolSize("a"));
+            assertEquals(3, pool.getPoolStats().getPoolSize());
+        }
+    }
+
+    @Test
+    public void testWaitForRoomOfOtherKeys() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(2);
+        cfg.setMaxTotalPoolSize(2);
+        cfg.setPollTimeout(2000L);
+        try (KeyedObjectPool<String, Object> pool = new KeyedObjectPool<>(this::newManager, cfg)) {
+            Object a1 = pool.borrowObject("a");
+            pool.borrowObject("a");
+            AtomicReference<Object> borrowed = new AtomicReference<>();
+            Thread borrower = new Thread(() -> {
+                try {
+                    borrowed.set(pool.borrowObject("b"));
+                } catch (JSQLException e) {
+                    borrowed.set(e);
+                }
+            });
+            borrower.start();
+            Thread.sleep(50L);
+            pool.returnObject(a1);
+            borrower.join();
+            assertTrue(((String) borrowed.get()).startsWith("b-"));
+            assertTrue(invalidObjects.contains(a1));
+        }
+    }
+
+    @Test
+    public void testHandOffToWaitersInOrder() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(1);
+        cfg.setPollTimeout(-1L);
+        cfg.setValidateOnReturn(true);
+        KeyedObjectPool<String, Object> pool = new KeyedObjectPool<>(this::newManager, cfg);
+        Object a1 = pool.borrowObject("a");
+        BlockingQueue<Object> firstBorrowed = new LinkedBlockingQueue<>();
+        BlockingQueue<Object> secondBorrowed = new LinkedBlockingQueue<>();
+        startBorrower(pool, firstBorrowed);
+        awaitPendingCount(pool, 1);
+        startBorrower(pool, secondBorrowed);
+        awaitPendingCount(pool, 2);
+
+        // returned object is handed off to the longest waiting borrower
+        pool.returnObject(a1);
+        assertSame(a1, firstBorrowed.poll(1, TimeUnit.SECONDS));
+        assertEquals(0, pool.getIdleCount("a"));
+        assertEquals(1, pool.getPoolStats().getPendingCount());
+
+        // room released by invalidating is signalled to the next waiter
+        brokenObjects.add(a1);
+        pool.returnObject(a1);
+        Object a2 = secondBorrowed.poll(1, TimeUnit.SECONDS);
+        assertTrue(invalidObjects.contains(a1));
+        assertTrue(((String) a2).startsWith("a-"));
+        assertEquals(0, pool.getPoolStats().getPendingCount());
+
+        // waiter is woken up on closing
+        BlockingQueue<Object> thirdBorrowed = new LinkedBlockingQueue<>();
+        startBorrower(pool, thirdBorrowed);
+        awaitPendingCount(pool, 1);
+        pool.close();
+        assertTrue(thirdBorrowed.poll(1, TimeUnit.SECONDS) instanceof PoolException);
+        assertEquals(0, pool.getPoolStats().getPendingCount());
+    }
+
+    @Test
+    public void testBorrowObjectAsync() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(1);
+        cfg.setPollTimeout(-1L);
+        cfg.setValidateOnReturn(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        KeyedObjectPool<String, Object> pool = new KeyedObjectPool<>(this::newManager, cfg);
+        try {
+            ObjectPool<Object> view = pool.getObjectPool("a");
+            Object a1 = pool.borrowObjectAsync("a", executor).get(5, TimeUnit.SECONDS);
+            CompletableFuture<Object> secondBorrow = view.borrowObjectAsync(executor);
+            CompletableFuture<Object> cancelledBorrow = view.borrowObjectAsync(executor);
+            // waiting in queue of the key without parking any thread
+            Thread.sleep(100L);
+            assertFalse(secondBorrow.isDone());
+            assertEquals(2, pool.getPoolStats().getPendingCount());
+            cancelledBorrow.cancel(false);
+            assertEquals(1, pool.getPoolStats().getPendingCount());
+
+            // other keys are not affected
+            Object b1 = pool.borrowObjectAsync("b", executor).get(5, TimeUnit.SECONDS);
+            assertTrue(((String) b1).startsWith("b-"));
+
+            pool.returnObject(a1);
+            assertSame(a1, secondBorrow.get(5, TimeUnit.SECONDS));
+            assertEquals(0, pool.getPoolStats().getPendingCount());
+
+            // room released by invalidating is signalled to the asynchronous waiter
+            CompletableFuture<Object> thirdBorrow = view.borrowObjectAsync(executor);
+            awaitPendingCount(pool, 1);
+            brokenObjects.add(a1);
+            view.returnObject(a1);
+            Object a2 = thirdBorrow.get(5, TimeUnit.SECONDS);
+            assertNotSame(a1, a2);
+
+            CompletableFuture<Object> closedBorrow = view.borrowObjectAsync(executor);
+            awaitPendingCount(pool, 1);
+            pool.close();
+            try {
+                closedBorrow.get(5, TimeUnit.SECONDS);
+                fail("borrowing from closed pool should fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof PoolException);
+            }
+        } finally {
+            pool.close();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBorrowObjectAsyncTimeout() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(1);
+        cfg.setPollTimeout(100L);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (KeyedObjectPool<String, Object> pool = new KeyedObjectPool<>(this::newManager, cfg)) {
+            Object a1 = pool.borrowObject("a");
+            try {
+                pool.borrowObjectAsync("a", executor).get(5, TimeUnit.SECONDS);
+                fail("borrowing should time out");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof PooledObjectPollTimeoutException);
+            }
+            assertEquals(0, pool.getPoolStats().getPendingCount());
+            assertEquals(1, pool.getPoolStats().getTimeoutCount());
+            pool.returnObject(a1);
+            assertSame(a1, pool.borrowObjectAsync("a", executor).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFillMinIdleInBackground() throws Exception {
+        AtomicBoolean blockCreating = new AtomicBoolean();
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch created = new CountDownLatch(1);
+        Function<String, PooledObjectManager<Object>> managerFactory = key -> new PooledObjectManager<Object>() {
+            private final PooledObjectManager<Object> delegate = newManager(key);
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                if (blockCreating.get()) {
+                    creating.countDown();
+                    try {
+                        created.await();
+                    } catch (InterruptedException e) {
+                        throw new PoolException("creating interrupted", e);
+                    }
+                }
+                return delegate.create();
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+                delegate.invalid(pooledObject);
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return delegate.validate(pooledObject);
+            }
+        };
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMinIdle(1);
+        cfg.setIdleTimeout(20L);
+        cfg.setValidateOnReturn(true);
+        try (KeyedObjectPool<String, Object> pool = new KeyedObjectPool<>(managerFactory, cfg)) {
+            Object a1 = pool.borrowObject("a");
+            blockCreating.set(true);
+            brokenObjects.add(a1);
+            pool.returnObject(a1);
+            assertTrue(creating.await(1, TimeUnit.SECONDS));
+
+            // maintainer keeps sweeping while filling is blocked
+            long sweepCount = pool.getPoolStats().getSweepCount();
+            Thread.sleep(100L);
+            assertTrue(pool.getPoolStats().getSweepCount() > sweepCount);
+            assertEquals(0, pool.getIdleCount("a"));
+
+            created.countDown();
+            for (int i = 0; i < 200 && pool.getIdleCount("a") == 0; i++) {
+                Thread.sleep(5L);
+            }
+            assertEquals(1, pool.getIdleCount("a"));
+            assertEquals(1, pool.getPoolSize("a"));
+        }
+    }
+
+    private void startBorrower(KeyedObjectPool<String, Object> pool, BlockingQueue<Object> borrowed) {
+        Thread borrower = new Thread(() -> {
+            try {
+                borrowed.add(pool.borrowObject("a"));
+            } catch (JSQLException e) {
+                borrowed.add(e);
+            }
+        });
+        borrower.setDaemon(true);
+        borrower.start();
+    }
+
+    private void awaitPendingCount(KeyedObjectPool<String, Object> pool, int pendingCount) throws InterruptedException {
+        for (int i = 0; i < 200 && pool.getPoolStats().getPendingCount() < pendingCount; i++) {
+            Thread.sleep(5L);
+        }
+        assertEquals(pendingCount, pool.getPoolStats().getPendingCount());
+    }
+
+    @Test
+    public void testRemoveEmptyKeyAndClose() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setIdleTimeout(50L);
+        KeyedObjectPool<String, Object> pool = new KeyedObjectPool<>(this::newManager, cfg);
+        Object a1 = pool.borrowObject("a");
+        pool.returnObject(a1);
+        for (int i = 0; i < 200 && pool.getKeyCount() > 0; i++) {
+            Thread.sleep(5L);
+        }
+        assertEquals(0, pool.getKeyCount());
+        assertTrue(invalidObjects.contains(a1));
+
+        // sub pool is created again on demand
+        Object a2 = pool.borrowObject("a");
+        assertNotSame(a1, a2);
+        Object b1 = pool.borrowObject("b");
+        pool.returnObject(b1);
+        pool.close();
+        assertTrue(invalidObjects.contains(b1));
+        // borrowed object is invalidated on returning after closed
+        pool.returnObject(a2);
+        assertTrue(invalidObjects.contains(a2));
+        assertEquals(0, pool.getPoolStats().getPoolSize());
+        try {
+            pool.borrowObject("a");
+            fail("borrowing from closed pool should fail");
+        } catch (PoolException e) {
+            // expected
+        }
+    }
+}
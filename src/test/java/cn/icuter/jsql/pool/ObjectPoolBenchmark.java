@@ -0,0 +1,94 @@
+package cn.icuter.jsql.pool;
+
+import cn.icuter.jsql.datasource.PoolConfiguration;
+import cn.icuter.jsql.exception.JSQLException;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Contention benchmark of object pool implementations, which is not a part of test suites and should be run manually.
+ * <pre>
+ * mvn test -Dcheckstyle.skip=true -Dtest=ObjectPoolBenchmark
+ * </pre>
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+public class ObjectPoolBenchmark {
+
+    private static final int[] THREADS = {8, 64, 128};
+    private static final int POOL_SIZE = 20;
+    private static final long WARMUP_MILLIS = 1000L;
+    private static final long MEASURE_MILLIS = 3000L;
+
+    private static volatile long sink;
+
+    private final PooledObjectManager<Object> manager = new PooledObjectManager<Object>() {
+        @Override
+        public PooledObject<Object> create() throws JSQLException {
+            return new PooledObject<>(new Object());
+        }
+        @Override
+        public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+        }
+        @Override
+        public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+            return true;
+        }
+    };
+
+    @Test
+    public void benchmarkBorrowReturn() throws Exception {
+        for (int threads : THREADS) {
+            run("DefaultObjectPool", threads, cfg -> new DefaultObjectPool<>(manager, cfg));
+            run("ConcurrentObjectPool", threads, cfg -> new ConcurrentObjectPool<>(manager, cfg));
+        }
+    }
+
+    private void run(String name, int threads, Function<PoolConfiguration, ObjectPool<Object>> poolFactory)
+            throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(POOL_SIZE);
+        cfg.setPollTimeout(-1);
+        cfg.setValidateOnBorrow(false);
+        try (ObjectPool<Object> pool = poolFactory.apply(cfg)) {
+            LongAdder ops = new LongAdder();
+            long start = System.nanoTime();
+            long measureStart = start + TimeUnit.MILLISECONDS.toNanos(WARMUP_MILLIS);
+            long end = measureStart + TimeUnit.MILLISECONDS.toNanos(MEASURE_MILLIS);
+            CountDownLatch latch = new CountDownLatch(threads);
+            for (int i = 0; i < threads; i++) {
+                Thread t = new Thread(() -> {
+                    try {
+                        long now;
+                        while ((now = System.nanoTime()) < end) {
+                            Object obj = pool.borrowObject();
+                            // simulate a tiny amount of work while holding the object
+                            long work = now;
+                            for (int j = 0; j < 64; j++) {
+                                work = work * 31 + j;
+                            }
+                            sink = work;
+                            pool.returnObject(obj);
+                            if (now >= measureStart) {
+                                ops.increment();
+                            }
+                        }
+                    } catch (JSQLException e) {
+                        throw new IllegalStateException(e);
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+                t.start();
+            }
+            latch.await();
+            System.out.printf("%-22s threads=%-4d pool=%-3d throughput=%,12d ops/s%n",
+                    name, threads, POOL_SIZE, ops.sum() * 1000L / MEASURE_MILLIS);
+        }
+    }
+}
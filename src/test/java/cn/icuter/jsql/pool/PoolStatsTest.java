@@ -0,0 +1,153 @@
+package cn.icuter.jsql.pool;
+
+import cn.icuter.jsql.datasource.PoolConfiguration;
+import cn.icuter.jsql.exception.JSQLException;
+import cn.icuter.jsql.exception.PooledObjectPollTimeoutException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author edward
+ * @since 2026-10-18
+ */
+public class PoolStatsTest {
+
+    private static PooledObjectManager<Object> manager;
+
+    @BeforeClass
+    public static void setup() {
+        manager = new PooledObjectManager<Object>() {
+            @Override
+            public PooledObject<Object> create() throws JSQLException {
+                return new PooledObject<>(new Object());
+            }
+            @Override
+            public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+                // noop
+            }
+            @Override
+            public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+                return true;
+            }
+        };
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LatencyHistogram.Snapshot empty = histogram.snapshot();
+        assertEquals(0, empty.getCount());
+        assertEquals(0, empty.getP99Micros());
+
+        for (int i = 0; i < 98; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(50));
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(50000, snapshot.getMaxMicros());
+        // bucket upper bound of 100us is 127us
+        assertEquals(127, snapshot.getP50Micros());
+        assertEquals(127, snapshot.getP95Micros());
+        assertEquals(16383, snapshot.getP99Micros());
+        assertEquals((98 * 100 + 10000 + 50000) / 100, snapshot.getMeanMicros());
+    }
+
+    @Test
+    public void testCountersAndGauges() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(2);
+        cfg.setPollTimeout(50L);
+        try (DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg)) {
+            Object first = pool.borrowObject();
+            Object second = pool.borrowObject();
+            try {
+                pool.borrowObject();
+                fail("borrowing from exhausted pool should time out");
+            } catch (PooledObjectPollTimeoutException e) {
+                // expected
+            }
+            PoolStats.Snapshot snapshot = pool.getPoolStats().snapshot();
+            assertEquals(2, snapshot.getPoolSize());
+            assertEquals(2, snapshot.getActiveCount());
+            assertEquals(0, snapshot.getIdleCount());
+            assertEquals(0, snapshot.getPendingCount());
+            assertEquals(2, snapshot.getBorrowedCount());
+            assertEquals(1, snapshot.getTimeoutCount());
+            assertEquals(2, snapshot.getBorrowWaitTime().getCount());
+
+            Thread.sleep(5L);
+            pool.returnObject(first);
+            pool.returnObject(second);
+            snapshot = pool.getPoolStats().snapshot();
+            assertEquals(0, snapshot.getActiveCount());
+            assertEquals(2, snapshot.getIdleCount());
+            assertEquals(2, snapshot.getReturnedCount());
+            assertEquals(2, snapshot.getHoldTime().getCount());
+            assertTrue(snapshot.getHoldTime().getMaxMicros() >= TimeUnit.MILLISECONDS.toMicros(5));
+        }
+    }
+
+    @Test
+    public void testConcurrentPoolStats() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(1);
+        cfg.setPollTimeout(50L);
+        try (ConcurrentObjectPool<Object> pool = new ConcurrentObjectPool<>(manager, cfg)) {
+            Object obj = pool.borrowObject();
+            try {
+                pool.borrowObject();
+                fail("borrowing from exhausted pool should time out");
+            } catch (PooledObjectPollTimeoutException e) {
+                // expected
+            }
+            assertEquals(1, pool.getPoolStats().getActiveCount());
+            pool.returnObject(obj);
+            PoolStats.Snapshot snapshot = pool.getPoolStats().snapshot();
+            assertEquals(1, snapshot.getIdleCount());
+            assertEquals(1, snapshot.getTimeoutCount());
+            assertEquals(1, snapshot.getHoldTime().getCount());
+        }
+    }
+
+    @Test
+    public void testJmxRegistration() throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setPoolName("jsql-stats-test");
+        cfg.setJmxEnabled(true);
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("cn.icuter.jsql:type=PoolStats,name=" + ObjectName.quote("jsql-stats-test"));
+        DefaultObjectPool<Object> pool = new DefaultObjectPool<>(manager, cfg);
+        try {
+            assertTrue(mBeanServer.isRegistered(objectName));
+            pool.returnObject(pool.borrowObject());
+            assertEquals(1L, mBeanServer.getAttribute(objectName, "BorrowedCount"));
+            assertEquals(1, mBeanServer.getAttribute(objectName, "IdleCount"));
+            CompositeData holdTime = (CompositeData) mBeanServer.getAttribute(objectName, "HoldTime");
+            assertEquals(1L, holdTime.get("count"));
+
+            ObjectName configName = new ObjectName("cn.icuter.jsql:type=PoolConfig,name=" + ObjectName.quote("jsql-stats-test"));
+            mBeanServer.setAttribute(configName, new Attribute("MaxPoolSize", 5));
+            assertEquals(5, pool.getPoolConfiguration().getMaxPoolSize());
+            assertEquals(5, mBeanServer.getAttribute(objectName, "TargetPoolSize"));
+        } finally {
+            pool.close();
+        }
+        assertFalse(mBeanServer.isRegistered(objectName));
+        assertFalse(mBeanServer.isRegistered(
+                new ObjectName("cn.icuter.jsql:type=PoolConfig,name=" + ObjectName.quote("jsql-stats-test"))));
+    }
+}
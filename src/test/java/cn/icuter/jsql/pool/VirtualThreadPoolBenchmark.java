@@ -0,0 +1,99 @@
+package cn.icuter.jsql.pool;
+
+import cn.icuter.jsql.datasource.PoolConfiguration;
+import cn.icuter.jsql.exception.JSQLException;
+import cn.icuter.jsql.util.VirtualThreads;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Throughput of 10k virtual threads sharing a 50-object pool, which is not a part of test suites, should be run
+ * manually on JDK 21+ and skipped on older JVMs. Pinned carrier threads can be reported by
+ * <code>-Djdk.tracePinnedThreads=full</code>.
+ * <pre>
+ * mvn test -Dcheckstyle.skip=true -Dtest=VirtualThreadPoolBenchmark
+ * </pre>
+ *
+ * @author edward
+ * @since 2026-10-18
+ */
+public class VirtualThreadPoolBenchmark {
+
+    private static final int THREADS = 10000;
+    private static final int POOL_SIZE = 50;
+    // simulate a round trip to database while holding the object
+    private static final long HOLD_MILLIS = 1L;
+    private static final long WARMUP_MILLIS = 2000L;
+    private static final long MEASURE_MILLIS = 5000L;
+
+    private final PooledObjectManager<Object> manager = new PooledObjectManager<Object>() {
+        @Override
+        public PooledObject<Object> create() throws JSQLException {
+            return new PooledObject<>(new Object());
+        }
+        @Override
+        public void invalid(PooledObject<Object> pooledObject) throws JSQLException {
+        }
+        @Override
+        public boolean validate(PooledObject<Object> pooledObject) throws JSQLException {
+            return true;
+        }
+    };
+
+    @Test
+    public void benchmarkVirtualThreads() throws Exception {
+        Assume.assumeTrue("virtual threads require JDK 21+", VirtualThreads.isSupported());
+        run("DefaultObjectPool", cfg -> new DefaultObjectPool<>(manager, cfg));
+        run("ConcurrentObjectPool", cfg -> new ConcurrentObjectPool<>(manager, cfg));
+    }
+
+    private void run(String name, Function<PoolConfiguration, ObjectPool<Object>> poolFactory) throws Exception {
+        PoolConfiguration cfg = PoolConfiguration.defaultPoolCfg();
+        cfg.setMaxPoolSize(POOL_SIZE);
+        cfg.setPollTimeout(-1);
+        cfg.setValidateOnBorrow(false);
+        ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor("jsql-benchmark-");
+        try (ObjectPool<Object> pool = poolFactory.apply(cfg)) {
+            LongAdder ops = new LongAdder();
+            long start = System.nanoTime();
+            long measureStart = start + TimeUnit.MILLISECONDS.toNanos(WARMUP_MILLIS);
+            long end = measureStart + TimeUnit.MILLISECONDS.toNanos(MEASURE_MILLIS);
+            CountDownLatch latch = new CountDownLatch(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                executor.execute(() -> {
+                    try {
+                        long now;
+                        while ((now = System.nanoTime()) < end) {
+                            Object obj = pool.borrowObject();
+                            try {
+                                Thread.sleep(HOLD_MILLIS);
+                            } finally {
+                                pool.returnObject(obj);
+                            }
+                            if (now >= measureStart) {
+                                ops.increment();
+                            }
+                        }
+                    } catch (JSQLException | InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+            latch.await();
+            // ideal throughput is POOL_SIZE * 1000 / HOLD_MILLIS ops/s
+            System.out.printf("%-22s virtualThreads=%-6d pool=%-3d throughput=%,10d ops/s, borrowWait=%s%n",
+                    name, THREADS, POOL_SIZE, ops.sum() * 1000L / MEASURE_MILLIS,
+                    pool.getPoolStats().getBorrowWaitTime());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -5,8 +5,16 @@ import cn.icuter.jsql.condition.ConditionTest;
 import cn.icuter.jsql.data.JSQLBlobTest;
 import cn.icuter.jsql.data.JSQLClobTest;
 import cn.icuter.jsql.datasource.JSQLDataSourceTest;
+import cn.icuter.jsql.datasource.PooledConnectionTest;
+import cn.icuter.jsql.executor.BatchSizerTest;
+import cn.icuter.jsql.executor.EntityRowMapperTest;
+import cn.icuter.jsql.executor.ParameterBindersTest;
+import cn.icuter.jsql.executor.RowMapTest;
 import cn.icuter.jsql.orm.ORMapperTest;
+import cn.icuter.jsql.pool.ConcurrentObjectPoolTest;
 import cn.icuter.jsql.pool.DefaultObjectPoolTest;
+import cn.icuter.jsql.pool.KeyedObjectPoolTest;
+import cn.icuter.jsql.pool.PoolStatsTest;
 import cn.icuter.jsql.security.InjectionTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -24,7 +32,15 @@ import org.junit.runners.Suite;
     ConditionTest.class,
     JSQLBlobTest.class,
     JSQLClobTest.class,
-    DefaultObjectPoolTest.class
+    DefaultObjectPoolTest.class,
+    ConcurrentObjectPoolTest.class,
+    PoolStatsTest.class,
+    KeyedObjectPoolTest.class,
+    PooledConnectionTest.class,
+    EntityRowMapperTest.class,
+    RowMapTest.class,
+    ParameterBindersTest.class,
+    BatchSizerTest.class
 })
 public class CommonTestSuite {
 }